@@ -0,0 +1,76 @@
+package com.ansill.utility.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Runs all benchmarks once per thread count and writes results in JSON so they can be compared between releases
+ * <p>
+ * Usage: java -jar benchmarks.jar [benchmark regex...]
+ * <p>
+ * System properties:
+ * <ul>
+ *   <li>benchmark.threads - comma-separated thread counts, defaults to 1 and number of available processors</li>
+ *   <li>benchmark.output - directory for result files, defaults to current directory</li>
+ * </ul>
+ */
+public final class BenchmarkRunner{
+
+  /**
+   * Private constructor
+   * <p>
+   * No instantiations allowed because this is an utility class
+   *
+   * @throws AssertionError thrown if any instantiations were attempted
+   */
+  private BenchmarkRunner(){
+    throw new AssertionError("No " + this.getClass().getName() + " instances for you!");
+  }
+
+  /**
+   * Entry point
+   *
+   * @param args regular expressions of benchmarks to include, all benchmarks are included if empty
+   * @throws RunnerException thrown if benchmarks fail to run
+   */
+  public static void main(@Nonnull String[] args) throws RunnerException{
+
+    // Get thread counts
+    int[] threadCounts = Arrays.stream(System.getProperty(
+      "benchmark.threads",
+      "1," + Runtime.getRuntime().availableProcessors()
+    ).split(",")).map(String::trim).filter(item -> !item.isEmpty()).mapToInt(Integer::parseInt).distinct().toArray();
+
+    // Get output directory
+    File outputDirectory = new File(System.getProperty("benchmark.output", "."));
+    if(!outputDirectory.isDirectory() && !outputDirectory.mkdirs()){
+      throw new IllegalArgumentException("Cannot create output directory '" + outputDirectory + "'");
+    }
+
+    // Run once per thread count
+    for(int threads : threadCounts){
+
+      // Set up options
+      ChainedOptionsBuilder options = new OptionsBuilder().threads(threads)
+                                                          .resultFormat(ResultFormatType.JSON)
+                                                          .result(new File(
+                                                            outputDirectory,
+                                                            "jmh-result-threads-" + threads + ".json"
+                                                          ).getPath());
+
+      // Include only requested benchmarks
+      if(args.length == 0) options.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+      for(String include : args) options.include(include);
+
+      // Run it
+      new Runner(options.build()).run();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.ansill.utility.benchmark;
+
+import com.ansill.utility.ExCollectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/** Benchmarks for ExCollectors.toMap and ExCollectors.toConcurrentMap */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExCollectorsBenchmark{
+
+  /** Number of entries */
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  /** Entries to collect */
+  private List<Map.Entry<Integer,String>> entries;
+
+  /** Creates entries */
+  @Setup(Level.Trial)
+  public void setUp(){
+    entries = IntStream.range(0, size)
+                       .mapToObj(i -> new AbstractMap.SimpleImmutableEntry<>(i, "value" + i))
+                       .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public Map<Integer,String> toMap(){
+    return entries.stream().collect(ExCollectors.toMap());
+  }
+
+  @Benchmark
+  public Map<Integer,String> toMapParallel(){
+    return entries.parallelStream().collect(ExCollectors.toMap());
+  }
+
+  @Benchmark
+  public Map<Integer,String> toConcurrentMap(){
+    return entries.stream().collect(ExCollectors.toConcurrentMap());
+  }
+
+  @Benchmark
+  public Map<Integer,String> toConcurrentMapParallel(){
+    return entries.parallelStream().collect(ExCollectors.toConcurrentMap());
+  }
+}
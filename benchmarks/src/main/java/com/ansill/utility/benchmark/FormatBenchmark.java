@@ -0,0 +1,77 @@
+package com.ansill.utility.benchmark;
+
+import com.ansill.utility.Utility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/** Benchmarks for Utility.f and Utility.format */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatBenchmark{
+
+  /** Number of '{}' slots and arguments */
+  @Param({"1", "4", "16"})
+  public int size;
+
+  /** Message with slots */
+  private String message;
+
+  /** First argument */
+  private Object first;
+
+  /** Rest of arguments */
+  private Object[] rest;
+
+  /** Creates message and arguments */
+  @Setup(Level.Trial)
+  public void setUp(){
+    message = IntStream.range(0, size).mapToObj(i -> "field" + i + "={}").collect(Collectors.joining(", ", "Item(", ")"));
+    Object[] arguments = IntStream.range(0, size).mapToObj(i -> i % 2 == 0 ? "value" + i : (Object) i).toArray();
+    first = arguments[0];
+    rest = Arrays.copyOfRange(arguments, 1, arguments.length);
+  }
+
+  @Benchmark
+  public String f(){
+    return Utility.f(message, first, rest);
+  }
+
+  @Benchmark
+  public String format(){
+    return Utility.format(message, first, rest);
+  }
+
+  @Benchmark
+  public StringBuilder formatTo(){
+    return Utility.formatTo(new StringBuilder(), message, first, rest);
+  }
+
+  @Benchmark
+  public String fixedArity(){
+    return Utility.f(message, first, "second");
+  }
+
+  @Benchmark
+  public String primitive(){
+    return Utility.f(message, 1234567890L);
+  }
+}
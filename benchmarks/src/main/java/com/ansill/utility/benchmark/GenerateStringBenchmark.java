@@ -0,0 +1,84 @@
+package com.ansill.utility.benchmark;
+
+import com.ansill.utility.Alphabet;
+import com.ansill.utility.RandomSource;
+import com.ansill.utility.RandomSources;
+import com.ansill.utility.Utility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks for Utility.generateString */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GenerateStringBenchmark{
+
+  /** Length of generated string */
+  @Param({"8", "32", "256"})
+  public int size;
+
+  /** Per-thread random generator */
+  private Random random;
+
+  /** Non-blocking SecureRandom pool */
+  private RandomSource nonBlocking;
+
+  /** Non-cryptographic source */
+  private RandomSource splittable;
+
+  /** Creates random generators */
+  @Setup(Level.Trial)
+  public void setUp(){
+    random = new Random(size);
+    nonBlocking = RandomSources.nonBlockingSecure();
+    splittable = RandomSources.splittable(size);
+  }
+
+  @Benchmark
+  public String sharedGenerator(){
+    return Utility.generateString(size);
+  }
+
+  @Benchmark
+  public String providedGenerator(){
+    return Utility.generateString(random, size);
+  }
+
+  @Benchmark
+  public String nonBlockingSource(){
+    return Utility.generateStringFrom(nonBlocking, size);
+  }
+
+  @Benchmark
+  public String splittableSource(){
+    return Utility.generateStringFrom(splittable, size);
+  }
+
+  @Benchmark
+  public String[] bulkArray(){
+    return Utility.generateStringArray(1000, size, Alphabet.BASE62);
+  }
+
+  @Benchmark
+  public String[] loopArray(){
+    String[] strings = new String[1000];
+    for(int i = 0; i < strings.length; i++) strings[i] = Utility.generateString(size);
+    return strings;
+  }
+}
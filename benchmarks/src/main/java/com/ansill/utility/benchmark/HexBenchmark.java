@@ -0,0 +1,94 @@
+package com.ansill.utility.benchmark;
+
+import com.ansill.utility.Hex;
+import com.ansill.utility.Utility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks for Hex codec, Utility.bytesToHex and Utility.hexToBytes */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HexBenchmark{
+
+  /** Number of bytes */
+  @Param({"16", "1024", "1048576"})
+  public int size;
+
+  /** Bytes to encode */
+  private byte[] bytes;
+
+  /** Hex string to decode */
+  private String hex;
+
+  /** Direct buffer with the same bytes */
+  private ByteBuffer direct;
+
+  /** Destination for decoding */
+  private byte[] decoded;
+
+  /** Creates input */
+  @Setup(Level.Trial)
+  public void setUp(){
+    bytes = new byte[size];
+    SplittableRandom random = new SplittableRandom(size);
+    for(int i = 0; i < size; i++) bytes[i] = (byte) random.nextInt(256);
+    hex = Utility.bytesToHex(bytes);
+    direct = ByteBuffer.allocateDirect(size);
+    direct.put(bytes).flip();
+    decoded = new byte[size];
+  }
+
+  @Benchmark
+  public String bytesToHex(){
+    return Utility.bytesToHex(bytes);
+  }
+
+  @Benchmark
+  public byte[] hexToBytes(){
+    return Utility.hexToBytes(hex);
+  }
+
+  @Benchmark
+  public String encodeLowerCase(){
+    return Hex.encode(bytes, false);
+  }
+
+  @Benchmark
+  public String encodeDirectBuffer(){
+    return Hex.encode(direct.duplicate(), false);
+  }
+
+  @Benchmark
+  public byte[] decodeInto(){
+    Hex.decodeTo(hex, 0, hex.length(), decoded, 0);
+    return decoded;
+  }
+
+  @Benchmark
+  public String encodeParallel(){
+    return Hex.encodeParallel(bytes, false);
+  }
+
+  @Benchmark
+  public byte[] decodeParallel(){
+    return Hex.decodeParallel(hex);
+  }
+}
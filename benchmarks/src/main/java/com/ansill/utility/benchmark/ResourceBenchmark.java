@@ -0,0 +1,170 @@
+package com.ansill.utility.benchmark;
+
+import com.ansill.utility.ResourceUtility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/** Benchmarks for ResourceUtility.getAllFilesInResource on exploded directory and on JAR file */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceBenchmark{
+
+  /** Resource directory that is scanned */
+  private static final String RESOURCE_PATH = "bench";
+
+  /** Number of subdirectories that files are spread across */
+  private static final int SUBDIRECTORIES = 8;
+
+  /** How resources are packaged */
+  @Param({"directory", "jar"})
+  public String layout;
+
+  /** Number of resource files */
+  @Param({"16", "1024"})
+  public int size;
+
+  /** Temporary directory that holds resources */
+  private Path temporaryDirectory;
+
+  /** Class loader that loads from the resources */
+  private URLClassLoader classLoader;
+
+  /** Class that is owned by the class loader */
+  private Class<?> clazz;
+
+  /**
+   * Generates the resources and loads marker class from it
+   *
+   * @throws IOException            thrown if resources cannot be written
+   * @throws ClassNotFoundException thrown if marker class cannot be loaded
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, ClassNotFoundException{
+
+    // Read marker class
+    String markerPath = ResourceMarker.class.getName().replace('.', '/') + ".class";
+    byte[] markerBytes;
+    try(InputStream is = ResourceMarker.class.getClassLoader().getResourceAsStream(markerPath)){
+      if(is == null) throw new IOException("Cannot find " + markerPath);
+      markerBytes = readAll(is);
+    }
+
+    // Create the resources
+    temporaryDirectory = Files.createTempDirectory("resource-benchmark");
+    URL url;
+    if(layout.equals("jar")){
+      File jar = temporaryDirectory.resolve("resources.jar").toFile();
+      try(JarOutputStream jos = new JarOutputStream(Files.newOutputStream(jar.toPath()))){
+        jos.putNextEntry(new JarEntry(markerPath));
+        jos.write(markerBytes);
+        for(int i = 0; i < size; i++){
+          jos.putNextEntry(new JarEntry(resourceName(i)));
+          jos.write(("content" + i).getBytes(StandardCharsets.UTF_8));
+        }
+      }
+      url = jar.toURI().toURL();
+    }else{
+      Path root = temporaryDirectory.resolve("classes");
+      write(root.resolve(markerPath), markerBytes);
+      for(int i = 0; i < size; i++){
+        write(root.resolve(resourceName(i)), ("content" + i).getBytes(StandardCharsets.UTF_8));
+      }
+      url = root.toUri().toURL();
+    }
+
+    // Load the marker class with its own class loader, parent is bootstrap so the marker isn't found elsewhere
+    classLoader = new URLClassLoader(new URL[]{url}, null);
+    clazz = classLoader.loadClass(ResourceMarker.class.getName());
+  }
+
+  /**
+   * Closes the class loader and deletes the resources
+   *
+   * @throws IOException thrown if resources cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException{
+    classLoader.close();
+    try(Stream<Path> paths = Files.walk(temporaryDirectory)){
+      for(Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) Files.delete(path);
+    }
+  }
+
+  @Benchmark
+  public Optional<Set<String>> getAllFilesInResource() throws IOException, URISyntaxException{
+    return ResourceUtility.getAllFilesInResource(clazz, RESOURCE_PATH, true);
+  }
+
+  /**
+   * Returns name of resource file
+   *
+   * @param index index of file
+   * @return resource name
+   */
+  private static String resourceName(int index){
+    return RESOURCE_PATH + "/dir" + (index % SUBDIRECTORIES) + "/file" + index + ".txt";
+  }
+
+  /**
+   * Writes the file, creating parent directories if needed
+   *
+   * @param path  path of file
+   * @param bytes content
+   * @throws IOException thrown if file cannot be written
+   */
+  private static void write(Path path, byte[] bytes) throws IOException{
+    Files.createDirectories(path.getParent());
+    try(OutputStream os = Files.newOutputStream(path)){
+      os.write(bytes);
+    }
+  }
+
+  /**
+   * Reads all bytes from the stream
+   *
+   * @param is input stream
+   * @return bytes
+   * @throws IOException thrown if stream cannot be read
+   */
+  private static byte[] readAll(InputStream is) throws IOException{
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    int read;
+    while((read = is.read(buffer)) != -1) baos.write(buffer, 0, read);
+    return baos.toByteArray();
+  }
+}
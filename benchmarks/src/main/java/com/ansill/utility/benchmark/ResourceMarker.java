@@ -0,0 +1,9 @@
+package com.ansill.utility.benchmark;
+
+/**
+ * Empty class that ResourceBenchmark copies next to generated resources and loads with its own class loader, so
+ * ResourceUtility scans the generated resources instead of the benchmark jar. Must not depend on anything outside
+ * java.lang
+ */
+public final class ResourceMarker{
+}
@@ -0,0 +1,82 @@
+package com.ansill.utility.benchmark;
+
+import com.ansill.utility.Utility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/** Benchmarks for Utility.union and Utility.asSet */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SetBenchmark{
+
+  /** Number of elements in each set */
+  @Param({"16", "1024", "100000"})
+  public int size;
+
+  /** First set */
+  private Set<Integer> first;
+
+  /** Second set, half overlaps with first */
+  private Set<Integer> second;
+
+  /** Third set, half overlaps with second */
+  private Set<Integer> third;
+
+  /** Elements for asSet */
+  private Integer[] elements;
+
+  /** Creates sets */
+  @Setup(Level.Trial)
+  public void setUp(){
+    first = range(0, size);
+    second = range(size / 2, size / 2 + size);
+    third = range(size, 2 * size);
+    elements = first.toArray(new Integer[0]);
+  }
+
+  /**
+   * Creates set of integers in range
+   *
+   * @param start start, inclusive
+   * @param end   end, exclusive
+   * @return set
+   */
+  private static Set<Integer> range(int start, int end){
+    return IntStream.range(start, end).boxed().collect(Collectors.toCollection(HashSet::new));
+  }
+
+  @Benchmark
+  public Set<Integer> unionTwo(){
+    return Utility.union(first, second);
+  }
+
+  @Benchmark
+  public Set<Integer> unionThree(){
+    return Utility.union(first, second, third);
+  }
+
+  @Benchmark
+  public Set<Integer> asSet(){
+    return Utility.asSet(elements);
+  }
+}
@@ -0,0 +1,95 @@
+package com.ansill.utility.benchmark;
+
+import com.ansill.utility.Sets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks for Sets.unionAll and Sets.intersectAll on the calling thread and on the common pool, sized around the
+ * parallel threshold of 65536 elements to check that the parallel path pays off above it and not below it
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SetsBenchmark{
+
+  /** Number of sets */
+  private static final int SETS = 8;
+
+  /** Number of elements in all sets of union together, and in each set of intersection */
+  @Param({"16384", "65536", "262144", "1048576"})
+  public int total;
+
+  /** Sets to unite, each overlaps half of the next one */
+  private List<Set<Integer>> sets;
+
+  /** Two sets to intersect, they overlap by half */
+  private List<Set<Integer>> pair;
+
+  /** Pool to run parallel functions on */
+  private ForkJoinPool pool;
+
+  /** Creates sets */
+  @Setup(Level.Trial)
+  public void setUp(){
+    int size = total / SETS;
+    sets = new ArrayList<>(SETS);
+    for(int i = 0; i < SETS; i++) sets.add(range(i * size / 2, i * size / 2 + size));
+    pair = Arrays.asList(range(0, total), range(total / 2, total / 2 + total));
+    pool = ForkJoinPool.commonPool();
+  }
+
+  /**
+   * Creates set of integers in range
+   *
+   * @param start start, inclusive
+   * @param end   end, exclusive
+   * @return set
+   */
+  private static Set<Integer> range(int start, int end){
+    return IntStream.range(start, end).boxed().collect(Collectors.toCollection(HashSet::new));
+  }
+
+  @Benchmark
+  public Set<Integer> unionAll(){
+    return Sets.unionAll(sets);
+  }
+
+  @Benchmark
+  public Set<Integer> unionAllParallel(){
+    return Sets.unionAll(sets, pool);
+  }
+
+  @Benchmark
+  public Set<Integer> intersectAll(){
+    return Sets.intersectAll(pair);
+  }
+
+  @Benchmark
+  public Set<Integer> intersectAllParallel(){
+    return Sets.intersectAll(pair, pool);
+  }
+}
@@ -0,0 +1,98 @@
+package com.ansill.utility.benchmark;
+
+import com.ansill.utility.Utility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/** Benchmarks for Utility.simpleToString and Utility.sensibleToString */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimpleToStringBenchmark{
+
+  /** Number of elements in the collection field of sample object */
+  @Param({"0", "16", "1024"})
+  public int size;
+
+  /** Sample object */
+  private Sample sample;
+
+  /** Creates sample object */
+  @Setup(Level.Trial)
+  public void setUp(){
+    sample = new Sample(
+      "fido",
+      "Brown",
+      1,
+      IntStream.range(0, size).mapToObj(i -> "tag" + i).collect(Collectors.toList())
+    );
+  }
+
+  @Benchmark
+  public String simpleToString(){
+    return Utility.simpleToString(sample);
+  }
+
+  @Benchmark
+  public String sensibleToString(){
+    return Utility.sensibleToString(sample.name);
+  }
+
+  @Benchmark
+  public String sensibleToStringCollection(){
+    return Utility.sensibleToString(sample.tags);
+  }
+
+  /** Sample object with mix of private fields */
+  @SuppressWarnings({"FieldCanBeLocal", "unused"})
+  static final class Sample{
+
+    /** Constant that shouldn't be printed */
+    private static final String KIND = "dog";
+
+    /** Name */
+    private final String name;
+
+    /** Color */
+    private final String color;
+
+    /** Age */
+    private final int age;
+
+    /** Tags */
+    private final List<String> tags;
+
+    /**
+     * Sample constructor
+     *
+     * @param name  name
+     * @param color color
+     * @param age   age
+     * @param tags  tags
+     */
+    Sample(String name, String color, int age, List<String> tags){
+      this.name = name;
+      this.color = color;
+      this.age = age;
+      this.tags = tags;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.ansill.utility.benchmark;
+
+import com.ansill.utility.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks for Version construction */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VersionBenchmark{
+
+  /** Version string to parse */
+  @Param({"1.2", "1.2.3", "1.2.3-SNAPSHOT"})
+  public String version;
+
+  @Benchmark
+  public Version fromString(){
+    return new Version(version);
+  }
+
+  @Benchmark
+  public Version fromClass(){
+    return new Version(Version.class);
+  }
+}
@@ -0,0 +1,246 @@
+package com.ansill.utility.processor;
+
+import com.ansill.utility.SimpleToString;
+
+import javax.annotation.Nonnull;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Annotation processor that generates simpleToString helpers for classes annotated with SimpleToString
+ * <p>
+ * For each annotated class, class SimpleToString_Name is generated in the same package with static
+ * toString(Name) and appendTo(StringBuilder, Name) methods. The generated code prints the same string as
+ * Utility.simpleToString(Object) does, with non-static fields in declaration order, primitives appended directly and
+ * other values with Utility.sensibleToStringTo(StringBuilder, Object). Non-private fields are read directly. Private
+ * fields can't be reached from another class, and getters may print something other than the field, so as a fallback
+ * they're read through a MethodHandle getter that the helper creates with reflection once when it's loaded, the same
+ * way Utility.simpleToString(Object) reads them.
+ */
+public final class SimpleToStringProcessor extends AbstractProcessor{
+
+  /** Prefix of names of generated helper classes, must match what Utility.simpleToString(Object) looks up */
+  @Nonnull
+  static final String GENERATED_PREFIX = "SimpleToString_";
+
+  /** Element utilities */
+  private Elements elements;
+
+  /** Filer to write generated sources to */
+  private Filer filer;
+
+  /** Messager to report errors to */
+  private Messager messager;
+
+  @Override
+  public synchronized void init(@Nonnull ProcessingEnvironment processingEnvironment){
+    super.init(processingEnvironment);
+    this.elements = processingEnvironment.getElementUtils();
+    this.filer = processingEnvironment.getFiler();
+    this.messager = processingEnvironment.getMessager();
+  }
+
+  @Nonnull
+  @Override
+  public Set<String> getSupportedAnnotationTypes(){
+    return Collections.singleton(SimpleToString.class.getCanonicalName());
+  }
+
+  @Nonnull
+  @Override
+  public SourceVersion getSupportedSourceVersion(){
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(@Nonnull Set<? extends TypeElement> annotations, @Nonnull RoundEnvironment roundEnvironment){
+    for(Element element : roundEnvironment.getElementsAnnotatedWith(SimpleToString.class)){
+
+      // Only classes
+      if(element.getKind() != ElementKind.CLASS){
+        messager.printMessage(Diagnostic.Kind.ERROR, "@SimpleToString can only be applied to classes", element);
+        continue;
+      }
+
+      // Generate it
+      try{
+        generate((TypeElement) element);
+      }catch(IOException e){
+        messager.printMessage(
+          Diagnostic.Kind.ERROR,
+          f("Failed to write simpleToString helper: {}", e.getMessage()),
+          element
+        );
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Generates helper class for the type
+   *
+   * @param type annotated type
+   * @throws IOException thrown if source file cannot be written
+   */
+  private void generate(@Nonnull TypeElement type) throws IOException{
+
+    // Ensure generated code can see the class
+    for(Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()){
+      if(current.getModifiers().contains(Modifier.PRIVATE)){
+        messager.printMessage(Diagnostic.Kind.ERROR, "@SimpleToString class must not be private", current);
+        return;
+      }
+    }
+
+    // Inner classes have synthetic reference to outer instance that reflection would print
+    if(type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC)){
+      messager.printMessage(Diagnostic.Kind.ERROR, "@SimpleToString nested class must be static", type);
+      return;
+    }
+
+    // Resolve how each field is read
+    List<String> names = new ArrayList<>();
+    List<String> reads = new ArrayList<>();
+    List<String> getters = new ArrayList<>();
+    List<TypeKind> kinds = new ArrayList<>();
+    for(VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())){
+      if(field.getModifiers().contains(Modifier.STATIC)) continue;
+      String name = field.getSimpleName().toString();
+      names.add(name);
+      if(field.getModifiers().contains(Modifier.PRIVATE)){
+        String getter = "GETTER_" + getters.size();
+        getters.add(name);
+        reads.add("read(" + getter + ", object)");
+        kinds.add(TypeKind.DECLARED);
+      }else{
+        reads.add("object." + name);
+        kinds.add(field.asType().getKind());
+      }
+    }
+
+    // Figure out names
+    PackageElement packageElement = elements.getPackageOf(type);
+    String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    String helperName = helperName(type);
+    String typeName = typeName(type);
+
+    // Write it
+    try(PrintWriter writer = new PrintWriter(filer.createSourceFile(
+      packageName.isEmpty() ? helperName : packageName + "." + helperName,
+      type
+    ).openWriter())){
+      if(!packageName.isEmpty()){
+        writer.println("package " + packageName + ";");
+        writer.println();
+      }
+      writer.println("/** simpleToString helper for " + type.getQualifiedName() + ", generated by " +
+                     SimpleToStringProcessor.class.getName() + " */");
+      writer.println("public final class " + helperName + "{");
+      writer.println();
+      for(int i = 0; i < getters.size(); i++){
+        writer.println("  private static final java.lang.invoke.MethodHandle GETTER_" + i + " = getter(\"" +
+                       getters.get(i) + "\");");
+        writer.println();
+      }
+      writer.println("  private " + helperName + "(){");
+      writer.println("  }");
+      writer.println();
+      if(!getters.isEmpty()){
+        writer.println("  private static java.lang.invoke.MethodHandle getter(String name){");
+        writer.println("    try{");
+        writer.println("      java.lang.reflect.Field field = " + type.getQualifiedName() +
+                       ".class.getDeclaredField(name);");
+        writer.println("      field.setAccessible(true);");
+        writer.println("      return java.lang.invoke.MethodHandles.lookup().unreflectGetter(field);");
+        writer.println("    }catch(ReflectiveOperationException e){");
+        writer.println("      throw new ExceptionInInitializerError(e);");
+        writer.println("    }");
+        writer.println("  }");
+        writer.println();
+        writer.println("  private static Object read(java.lang.invoke.MethodHandle getter, Object object){");
+        writer.println("    try{");
+        writer.println("      return getter.invoke(object);");
+        writer.println("    }catch(Throwable e){");
+        writer.println("      throw new IllegalStateException(e);");
+        writer.println("    }");
+        writer.println("  }");
+        writer.println();
+      }
+      writer.println("  public static String toString(" + typeName + " object){");
+      writer.println("    StringBuilder builder = new StringBuilder();");
+      writer.println("    appendTo(builder, object);");
+      writer.println("    return builder.toString();");
+      writer.println("  }");
+      writer.println();
+      writer.println("  public static void appendTo(StringBuilder builder, " + typeName + " object){");
+      writer.println("    builder.append(\"" + type.getSimpleName() + "(\");");
+      for(int i = 0; i < names.size(); i++){
+        String prefix = (i == 0 ? "" : ", ") + names.get(i) + "=";
+        if(kinds.get(i).isPrimitive()){
+          writer.println("    builder.append(\"" + prefix + "\").append(" + reads.get(i) + ");");
+        }else{
+          writer.println("    builder.append(\"" + prefix + "\");");
+          writer.println("    com.ansill.utility.Utility.sensibleToStringTo(builder, " + reads.get(i) + ");");
+        }
+      }
+      writer.println("    builder.append(')');");
+      writer.println("  }");
+      writer.println("}");
+    }
+  }
+
+  /**
+   * Returns name of helper class, like SimpleToString_Outer_Inner
+   *
+   * @param type type
+   * @return simple name of helper class
+   */
+  @Nonnull
+  static String helperName(@Nonnull TypeElement type){
+    StringBuilder name = new StringBuilder(type.getSimpleName());
+    for(Element outer = type.getEnclosingElement(); outer instanceof TypeElement; outer = outer.getEnclosingElement()){
+      name.insert(0, '_').insert(0, outer.getSimpleName());
+    }
+    return name.insert(0, GENERATED_PREFIX).toString();
+  }
+
+  /**
+   * Returns name of the type as used in source code, with wildcards for type parameters
+   *
+   * @param type type
+   * @return type name
+   */
+  @Nonnull
+  private static String typeName(@Nonnull TypeElement type){
+    StringBuilder name = new StringBuilder(type.getQualifiedName());
+    int parameters = type.getTypeParameters().size();
+    if(parameters != 0){
+      name.append('<');
+      for(int i = 0; i < parameters; i++) name.append(i == 0 ? "?" : ", ?");
+      name.append('>');
+    }
+    return name.toString();
+  }
+}
@@ -0,0 +1,224 @@
+package com.ansill.test.utility.processor;
+
+import com.ansill.utility.Utility;
+import com.ansill.utility.processor.SimpleToStringProcessor;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimpleToStringProcessorTest{
+
+  private static final String DOG = "package zoo;\n" +
+                                    "@com.ansill.utility.SimpleToString\n" +
+                                    "public class Dog{\n" +
+                                    "  private static final String KIND = \"dog\";\n" +
+                                    "  private final String name;\n" +
+                                    "  final String color;\n" +
+                                    "  private final int age;\n" +
+                                    "  final java.util.List<Integer> tags;\n" +
+                                    "  public Dog(String name, String color, int age, java.util.List<Integer> tags){\n" +
+                                    "    this.name = name;\n" +
+                                    "    this.color = color;\n" +
+                                    "    this.age = age;\n" +
+                                    "    this.tags = tags;\n" +
+                                    "  }\n" +
+                                    "  public String getName(){ return name; }\n" +
+                                    "  int age(){ return age; }\n" +
+                                    "  @Override public String toString(){ return com.ansill.utility.Utility.simpleToString(this); }\n" +
+                                    "  @com.ansill.utility.SimpleToString\n" +
+                                    "  public static class Puppy<T>{\n" +
+                                    "    T toy = null;\n" +
+                                    "  }\n" +
+                                    "  @com.ansill.utility.SimpleToString\n" +
+                                    "  public static class Loud{\n" +
+                                    "    private final String sound = \"woof\";\n" +
+                                    "    private int volume = 11;\n" +
+                                    "    public String getSound(){ return sound.toUpperCase(); }\n" +
+                                    "  }\n" +
+                                    "}\n";
+
+  private static final String PLAIN = "package zoo;\n" +
+                                      "@com.ansill.utility.SimpleToString\n" +
+                                      "public class Plain{\n" +
+                                      "  final String name = \"a\";\n" +
+                                      "  final int count = 1;\n" +
+                                      "}\n";
+
+  private static final String SECRET = "package zoo;\n" +
+                                       "@com.ansill.utility.SimpleToString\n" +
+                                       "public class Secret{\n" +
+                                       "  private final String secret = \"\";\n" +
+                                       "}\n";
+
+  @Test
+  void testGenerated() throws Exception{
+
+    // Compile it
+    Path directory = Files.createTempDirectory("processor");
+    try{
+      DiagnosticCollector<JavaFileObject> diagnostics = compile(directory, "Dog", DOG, true);
+      assertTrue(diagnostics.getDiagnostics().stream().noneMatch(item -> item.getKind() == Diagnostic.Kind.ERROR),
+        diagnostics.getDiagnostics().toString()
+      );
+
+      // Load it
+      try(URLClassLoader loader = new URLClassLoader(
+        new URL[]{directory.toUri().toURL()},
+        SimpleToStringProcessorTest.class.getClassLoader()
+      )){
+        Class<?> dogClass = loader.loadClass("zoo.Dog");
+        Object dog = dogClass.getConstructor(String.class, String.class, int.class, java.util.List.class)
+                             .newInstance("fido", null, 3, Arrays.asList(1, 2));
+
+        // Check it
+        String expected = "Dog(name=\"fido\", color=null, age=3, tags=[1, 2])";
+        Class<?> helper = loader.loadClass("zoo.SimpleToString_Dog");
+        assertEquals(expected, helper.getMethod("toString", dogClass).invoke(null, dog));
+        assertEquals(expected, Utility.simpleToString(dog));
+        assertEquals(expected, dog.toString());
+
+        // Nested and generic
+        Object puppy = loader.loadClass("zoo.Dog$Puppy").getDeclaredConstructor().newInstance();
+        assertNotNull(loader.loadClass("zoo.SimpleToString_Dog_Puppy"));
+        assertEquals("Puppy(toy=null)", Utility.simpleToString(puppy));
+
+        // Private fields print their values, not what their getters make of them
+        Object loud = loader.loadClass("zoo.Dog$Loud").getDeclaredConstructor().newInstance();
+        assertEquals("Loud(sound=\"woof\", volume=11)", Utility.simpleToString(loud));
+        Class<?> loudHelper = loader.loadClass("zoo.SimpleToString_Dog_Loud");
+        Object generated = loudHelper.getMethod("toString", loud.getClass()).invoke(null, loud);
+        assertEquals("Loud(sound=\"woof\", volume=11)", generated);
+      }
+    }finally{
+      delete(directory);
+    }
+  }
+
+  @Test
+  void testGeneratedHelperIsUsed() throws Exception{
+
+    // Compile it
+    Path directory = Files.createTempDirectory("processor");
+    try{
+      DiagnosticCollector<JavaFileObject> diagnostics = compile(directory, "Plain", PLAIN, true);
+      assertTrue(diagnostics.getDiagnostics().stream().noneMatch(item -> item.getKind() == Diagnostic.Kind.ERROR),
+        diagnostics.getDiagnostics().toString()
+      );
+
+      // Non-private fields are read directly without reflection
+      Path helperSource = directory.resolve("zoo").resolve("SimpleToString_Plain.java");
+      String source = new String(Files.readAllBytes(helperSource), StandardCharsets.UTF_8);
+      assertTrue(source.contains("object.name"), source);
+      assertTrue(source.contains("object.count"), source);
+      assertFalse(source.contains("MethodHandle"), source);
+      assertFalse(source.contains("java.lang.reflect"), source);
+
+      // Mark output of the helper and recompile it, so it shows whether simpleToString goes through it
+      String marked = source.replace("builder.append(')');", "builder.append(\"!)\");");
+      assertNotEquals(source, marked);
+      diagnostics = compile(directory, "zoo/SimpleToString_Plain", marked, false);
+      assertTrue(diagnostics.getDiagnostics().stream().noneMatch(item -> item.getKind() == Diagnostic.Kind.ERROR),
+        diagnostics.getDiagnostics().toString()
+      );
+
+      // Check it
+      try(URLClassLoader loader = new URLClassLoader(
+        new URL[]{directory.toUri().toURL()},
+        SimpleToStringProcessorTest.class.getClassLoader()
+      )){
+        Object plain = loader.loadClass("zoo.Plain").getDeclaredConstructor().newInstance();
+        assertEquals("Plain(name=\"a\", count=1!)", Utility.simpleToString(plain));
+      }
+    }finally{
+      delete(directory);
+    }
+  }
+
+  @Test
+  void testPrivateFieldWithoutGetter() throws Exception{
+
+    // Compile it
+    Path directory = Files.createTempDirectory("processor");
+    try{
+      DiagnosticCollector<JavaFileObject> diagnostics = compile(directory, "Secret", SECRET, true);
+      assertTrue(diagnostics.getDiagnostics().stream().noneMatch(item -> item.getKind() == Diagnostic.Kind.ERROR),
+        diagnostics.getDiagnostics().toString()
+      );
+
+      // Check it
+      try(URLClassLoader loader = new URLClassLoader(
+        new URL[]{directory.toUri().toURL()},
+        SimpleToStringProcessorTest.class.getClassLoader()
+      )){
+        Class<?> secretClass = loader.loadClass("zoo.Secret");
+        Object secret = secretClass.getDeclaredConstructor().newInstance();
+        Class<?> helper = loader.loadClass("zoo.SimpleToString_Secret");
+        assertEquals("Secret(secret=\"\")", helper.getMethod("toString", secretClass).invoke(null, secret));
+      }
+    }finally{
+      delete(directory);
+    }
+  }
+
+  private static DiagnosticCollector<JavaFileObject> compile(
+    Path directory,
+    String name,
+    String source,
+    boolean process
+  ) throws IOException{
+
+    // Write source
+    Path sourceFile = directory.resolve(name + ".java");
+    Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+
+    // Compile with the processor unless told otherwise
+    List<String> options = new ArrayList<>(Arrays.asList(
+      "-d",
+      directory.toString(),
+      "-cp",
+      directory + File.pathSeparator + System.getProperty("java.class.path")
+    ));
+    if(!process) options.add("-proc:none");
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try(StandardJavaFileManager manager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)){
+      JavaCompiler.CompilationTask task = compiler.getTask(
+        null,
+        manager,
+        diagnostics,
+        options,
+        null,
+        manager.getJavaFileObjectsFromFiles(Collections.singletonList(new File(sourceFile.toString())))
+      );
+      if(process) task.setProcessors(Collections.singletonList(new SimpleToStringProcessor()));
+      task.call();
+    }
+    return diagnostics;
+  }
+
+  private static void delete(Path directory) throws IOException{
+    try(Stream<Path> paths = Files.walk(directory)){
+      for(Path path : paths.sorted(Comparator.reverseOrder()).toArray(Path[]::new)) Files.delete(path);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.util.BitSet;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Precompiled set of characters that random strings are generated from
+ * <p>
+ * The characters and the number of random bits needed to pick one of them are worked out once on creation, so
+ * generating strings doesn't repeat any of it
+ */
+@Immutable
+public final class Alphabet{
+
+  /** Alphanumeric characters [A-Za-z0-9], same as what Utility.generateString(long) uses */
+  @Nonnull
+  public static final Alphabet BASE62 = of("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789");
+
+  /** Lower-case hexadecimal digits [0-9a-f] */
+  @Nonnull
+  public static final Alphabet HEX = of("0123456789abcdef");
+
+  /** Crockford's base32 digits, without I, L, O and U */
+  @Nonnull
+  public static final Alphabet CROCKFORD_BASE32 = of("0123456789ABCDEFGHJKMNPQRSTVWXYZ");
+
+  /** URL-safe base64 characters [A-Za-z0-9-_] */
+  @Nonnull
+  public static final Alphabet BASE64_URL = of("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_");
+
+  /** Largest number of characters in an alphabet */
+  private static final int MAX_SIZE = 1 << 16;
+
+  /** Characters */
+  @Nonnull
+  private final char[] characters;
+
+  /** Number of random bits needed to pick a character */
+  private final int bits;
+
+  /**
+   * Alphabet constructor
+   *
+   * @param characters characters
+   */
+  private Alphabet(@Nonnull char[] characters){
+    this.characters = characters;
+    this.bits = RandomStrings.bitsPerCharacter(characters.length);
+  }
+
+  /**
+   * Compiles alphabet of the characters
+   *
+   * @param characters distinct characters
+   * @return alphabet
+   * @throws IllegalArgumentException thrown if characters are empty or contain duplicates
+   */
+  @Nonnull
+  public static Alphabet of(@Nonnull CharSequence characters){
+
+    // Check parameters
+    Validation.assertNonnull(characters, "characters");
+    if(characters.length() == 0) throw new IllegalArgumentException("Alphabet must have at least one character");
+    if(characters.length() > MAX_SIZE){
+      throw new IllegalArgumentException(f("Alphabet has {} characters, at most {} are allowed", characters.length(), MAX_SIZE));
+    }
+
+    // Ensure no duplicates
+    BitSet seen = new BitSet(MAX_SIZE);
+    for(int i = 0; i < characters.length(); i++){
+      char character = characters.charAt(i);
+      if(seen.get(character)){
+        throw new IllegalArgumentException(f("Alphabet has character '{}' more than once", character));
+      }
+      seen.set(character);
+    }
+
+    // Return it
+    return new Alphabet(characters.toString().toCharArray());
+  }
+
+  /**
+   * Returns number of characters
+   *
+   * @return number of characters
+   */
+  public int size(){
+    return characters.length;
+  }
+
+  /**
+   * Returns number of random bits needed to pick a character
+   *
+   * @return number of bits
+   */
+  int bits(){
+    return bits;
+  }
+
+  /**
+   * Returns the characters, must not be modified
+   *
+   * @return characters
+   */
+  @Nonnull
+  char[] characters(){
+    return characters;
+  }
+
+  @Override
+  public String toString(){
+    return f("Alphabet(characters={})", Utility.sensibleToString(new String(characters)));
+  }
+}
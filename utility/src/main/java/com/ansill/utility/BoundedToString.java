@@ -0,0 +1,309 @@
+package com.ansill.utility;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Streams simpleToString-style representation of an object graph into an Appendable within a ToStringBudget
+ * <p>
+ * Objects are walked field by field with the same cached plans as Utility.simpleToString(Object), instead of calling
+ * their toString(), so that cycles can be detected. Leaf values, which are character sequences, enums and JDK classes
+ * other than collections, maps and optionals, are printed on their own, the same way as
+ * Utility.sensibleToString(Object) prints them, since fields of JDK classes cannot be read reflectively. Objects,
+ * collections, maps, optionals and arrays that are already being printed further up the graph are printed as
+ * "&lt;cycle&gt;".
+ */
+@NotThreadSafe
+final class BoundedToString{
+
+  /** Printed in place of an object that is already being printed further up the graph */
+  @Nonnull
+  static final String CYCLE = "<cycle>";
+
+  /** Printed when output is cut off or when elements are left out */
+  @Nonnull
+  static final String ELLIPSIS = "...";
+
+  /** Thrown internally to unwind once character budget has been used up */
+  @Nonnull
+  private static final Exhausted EXHAUSTED = new Exhausted();
+
+  /** Appendable to write to */
+  @Nonnull
+  private final Appendable out;
+
+  /** Maximum depth */
+  private final int maxDepth;
+
+  /** Maximum number of elements per collection, map or array */
+  private final int maxElements;
+
+  /** Objects that are currently being printed */
+  @Nonnull
+  private final IdentityHashMap<Object,Boolean> path = new IdentityHashMap<>();
+
+  /** Builder to render leaf values in */
+  @Nonnull
+  private final StringBuilder scratch = new StringBuilder();
+
+  /** Number of characters that can still be written */
+  private int remaining;
+
+  /**
+   * BoundedToString constructor
+   *
+   * @param out    appendable to write to
+   * @param budget budget
+   */
+  private BoundedToString(@Nonnull Appendable out, @Nonnull ToStringBudget budget){
+    this.out = out;
+    this.maxDepth = budget.getMaxDepth();
+    this.maxElements = budget.getMaxElements();
+    this.remaining = budget.getMaxCharacters();
+  }
+
+  /**
+   * Writes representation of the object to the appendable
+   *
+   * @param out    appendable to write to
+   * @param object object
+   * @param budget budget
+   * @throws IOException thrown if appendable fails to write
+   */
+  static void write(@Nonnull Appendable out, @Nonnull Object object, @Nonnull ToStringBudget budget)
+  throws IOException{
+    BoundedToString writer = new BoundedToString(out, budget);
+    try{
+
+      // If string, then write string like simpleToString does
+      if(object instanceof String) writer.append((String) object);
+
+      // Otherwise walk its fields
+      else{
+        writer.path.put(object, Boolean.TRUE);
+        writer.writeFields(object, 0);
+      }
+
+    }catch(Exhausted e){
+      // Cut off, ellipsis is already written
+    }
+  }
+
+  /**
+   * Writes a field value
+   *
+   * @param value value
+   * @param depth depth of the value
+   * @throws IOException thrown if appendable fails to write
+   */
+  private void writeValue(@Nullable Object value, int depth) throws IOException{
+
+    // Leaf values
+    if(value == null){
+      append("null");
+      return;
+    }
+    if(isLeaf(value.getClass())){
+      scratch.setLength(0);
+      append(SensibleToString.appendTo(scratch, value, remaining));
+      return;
+    }
+
+    // Cut off cycles
+    if(path.containsKey(value)){
+      append(CYCLE);
+      return;
+    }
+
+    // Write it
+    path.put(value, Boolean.TRUE);
+    try{
+      if(value.getClass().isArray()) writeArray(value, depth);
+      else if(value instanceof Collection) writeCollection((Collection<?>) value, depth);
+      else if(value instanceof Map) writeMap((Map<?,?>) value, depth);
+      else if(value instanceof Optional) writeOptional((Optional<?>) value, depth);
+      else writeFields(value, depth);
+    }finally{
+      path.remove(value);
+    }
+  }
+
+  /**
+   * Writes object field by field
+   *
+   * @param object object
+   * @param depth  depth of the object
+   * @throws IOException thrown if appendable fails to write
+   */
+  private void writeFields(@Nonnull Object object, int depth) throws IOException{
+    SimpleToStringPlan plan = SimpleToStringPlan.of(object.getClass());
+    append(plan.opening());
+    if(depth >= maxDepth && plan.size() > 0) append(ELLIPSIS);
+    else{
+      for(int i = 0; i < plan.size(); i++){
+        append(plan.prefix(i));
+        if(plan.isReadable(i)) writeValue(plan.get(i, object), depth + 1);
+        else append(SimpleToStringPlan.INACCESSIBLE);
+      }
+    }
+    append(")");
+  }
+
+  /**
+   * Writes array
+   *
+   * @param array array
+   * @param depth depth of the array
+   * @throws IOException thrown if appendable fails to write
+   */
+  private void writeArray(@Nonnull Object array, int depth) throws IOException{
+    int length = Array.getLength(array);
+    append("[");
+    if(depth >= maxDepth && length > 0) append(ELLIPSIS);
+    else for(int i = 0; i < length; i++){
+      if(i != 0) append(", ");
+      if(i == maxElements){
+        append(ELLIPSIS);
+        break;
+      }
+      writeValue(Array.get(array, i), depth + 1);
+    }
+    append("]");
+  }
+
+  /**
+   * Writes collection
+   *
+   * @param collection collection
+   * @param depth      depth of the collection
+   * @throws IOException thrown if appendable fails to write
+   */
+  private void writeCollection(@Nonnull Collection<?> collection, int depth) throws IOException{
+    append("[");
+    if(depth >= maxDepth && !collection.isEmpty()) append(ELLIPSIS);
+    else{
+      int index = 0;
+      for(Object item : collection){
+        if(index != 0) append(", ");
+        if(index++ == maxElements){
+          append(ELLIPSIS);
+          break;
+        }
+        writeValue(item, depth + 1);
+      }
+    }
+    append("]");
+  }
+
+  /**
+   * Writes map
+   *
+   * @param map   map
+   * @param depth depth of the map
+   * @throws IOException thrown if appendable fails to write
+   */
+  private void writeMap(@Nonnull Map<?,?> map, int depth) throws IOException{
+    append("{");
+    if(depth >= maxDepth && !map.isEmpty()) append(ELLIPSIS);
+    else{
+      Iterator<? extends Map.Entry<?,?>> iterator = map.entrySet().iterator();
+      for(int index = 0; iterator.hasNext(); index++){
+        Map.Entry<?,?> entry = iterator.next();
+        if(index != 0) append(", ");
+        if(index == maxElements){
+          append(ELLIPSIS);
+          break;
+        }
+        writeValue(entry.getKey(), depth + 1);
+        append("=");
+        writeValue(entry.getValue(), depth + 1);
+      }
+    }
+    append("}");
+  }
+
+  /**
+   * Writes optional
+   *
+   * @param optional optional
+   * @param depth    depth of the optional
+   * @throws IOException thrown if appendable fails to write
+   */
+  private void writeOptional(@Nonnull Optional<?> optional, int depth) throws IOException{
+    if(!optional.isPresent()){
+      append("Optional.empty");
+      return;
+    }
+    append("Optional[");
+    if(depth >= maxDepth) append(ELLIPSIS);
+    else writeValue(optional.get(), depth + 1);
+    append("]");
+  }
+
+  /**
+   * Writes string within character budget
+   *
+   * @param string string
+   * @throws IOException thrown if appendable fails to write
+   * @throws Exhausted   thrown if character budget has been used up
+   */
+  private void append(@Nonnull CharSequence string) throws IOException{
+    int length = string.length();
+    if(length <= remaining){
+      out.append(string);
+      remaining -= length;
+      return;
+    }
+    out.append(string, 0, remaining).append(ELLIPSIS);
+    remaining = 0;
+    throw EXHAUSTED;
+  }
+
+  /**
+   * Returns true if objects of the class are printed on their own rather than walked
+   *
+   * @param type class
+   * @return true if leaf, false if it should be walked
+   */
+  private static boolean isLeaf(@Nonnull Class<?> type){
+    if(CharSequence.class.isAssignableFrom(type) || Enum.class.isAssignableFrom(type)) return true;
+
+    // Containers are walked so that cycles can be detected
+    if(type.isArray() || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) return false;
+    if(type == Optional.class) return false;
+
+    // JDK classes are not opened for reflection, so their own toString() is used
+    return isJdkClass(type);
+  }
+
+  /**
+   * Returns true if the class belongs to the JDK
+   *
+   * @param type class
+   * @return true if it does, false if it doesn't
+   */
+  private static boolean isJdkClass(@Nonnull Class<?> type){
+    if(type.getClassLoader() == null) return true;
+    String name = type.getName();
+    return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.") || name.startsWith("sun.");
+  }
+
+  /** Signals that character budget has been used up */
+  private static final class Exhausted extends RuntimeException{
+
+    private static final long serialVersionUID = 1L;
+
+    /** Exhausted constructor */
+    private Exhausted(){
+      super(null, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.ansill.utility;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Arrays;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Crockford's base32 encoding of fixed-width numbers, used by Ulid and SnowflakeGenerator
+ * <p>
+ * Numbers are encoded most significant digit first and padded to a fixed width, so sorting encoded strings sorts the
+ * numbers. Decoding is case-insensitive and accepts I and L as 1 and O as 0.
+ */
+@ThreadSafe
+final class Crockford{
+
+  /** Digits */
+  @Nonnull
+  private static final char[] DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+  /** Value of each ASCII character, -1 if not a digit */
+  @Nonnull
+  private static final byte[] VALUES = new byte[128];
+
+  static{
+    Arrays.fill(VALUES, (byte) -1);
+    for(int i = 0; i < DIGITS.length; i++){
+      VALUES[DIGITS[i]] = (byte) i;
+      VALUES[Character.toLowerCase(DIGITS[i])] = (byte) i;
+    }
+    VALUES['I'] = VALUES['i'] = VALUES['L'] = VALUES['l'] = 1;
+    VALUES['O'] = VALUES['o'] = 0;
+  }
+
+  /**
+   * Private constructor
+   * <p>
+   * No instantiations allowed because this is an utility class
+   *
+   * @throws AssertionError thrown if any instantiations were attempted
+   */
+  private Crockford(){
+    throw new AssertionError(f("No {} instances for you!", this.getClass().getName()));
+  }
+
+  /**
+   * Encodes 128-bit number into 26 digits
+   *
+   * @param high   most significant 64 bits
+   * @param low    least significant 64 bits
+   * @param digits array to write digits to
+   * @param offset index of first digit
+   */
+  static void encode128(long high, long low, @Nonnull char[] digits, int offset){
+    for(int i = 25; i >= 0; i--){
+      int position = (25 - i) * 5;
+      long bits;
+      if(position >= 64) bits = high >>> (position - 64);
+      else if(position > 59) bits = (low >>> position) | (high << (64 - position));
+      else bits = low >>> position;
+      digits[offset + i] = DIGITS[(int) bits & 31];
+    }
+  }
+
+  /**
+   * Encodes 64-bit number into 13 digits
+   *
+   * @param value  number
+   * @param digits array to write digits to
+   * @param offset index of first digit
+   */
+  static void encode64(long value, @Nonnull char[] digits, int offset){
+    for(int i = 12; i >= 0; i--, value >>>= 5) digits[offset + i] = DIGITS[(int) value & 31];
+  }
+
+  /**
+   * Decodes 13 digits into 64-bit number
+   *
+   * @param digits digits
+   * @return number
+   * @throws IllegalArgumentException thrown if digits are invalid or too large
+   */
+  static long decode64(@Nonnull CharSequence digits){
+    if(digits.length() != 13) throw new IllegalArgumentException(f("Expected 13 digits, got {}", digits.length()));
+    if(value(digits, 0) > 15) throw new IllegalArgumentException(f("Value '{}' is too large", digits));
+    long value = 0;
+    for(int i = 0; i < 13; i++) value = (value << 5) | value(digits, i);
+    return value;
+  }
+
+  /**
+   * Decodes 26 digits into 128-bit number
+   *
+   * @param digits digits
+   * @return most and least significant 64 bits
+   * @throws IllegalArgumentException thrown if digits are invalid or too large
+   */
+  @Nonnull
+  static long[] decode128(@Nonnull CharSequence digits){
+    if(digits.length() != 26) throw new IllegalArgumentException(f("Expected 26 digits, got {}", digits.length()));
+    if(value(digits, 0) > 7) throw new IllegalArgumentException(f("Value '{}' is too large", digits));
+    long high = 0;
+    long low = 0;
+    for(int i = 0; i < 26; i++){
+      high = (high << 5) | (low >>> 59);
+      low = (low << 5) | value(digits, i);
+    }
+    return new long[]{high, low};
+  }
+
+  /**
+   * Returns value of digit
+   *
+   * @param digits digits
+   * @param index  index of digit
+   * @return value in range of 0 to 31
+   * @throws IllegalArgumentException thrown if character is not a digit
+   */
+  private static int value(@Nonnull CharSequence digits, int index){
+    char character = digits.charAt(index);
+    int value = character < 128 ? VALUES[character] : -1;
+    if(value == -1){
+      throw new IllegalArgumentException(f("Invalid base32 character '{}' at index {}", character, index));
+    }
+    return value;
+  }
+}
@@ -1,17 +1,27 @@
 package com.ansill.utility;
 
+import com.ansill.validation.Validation;
+
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.ansill.utility.Utility.f;
 
 /** Stolen a lot of stuff from original Collector to just implement new toMap and toConcurrentMap */
 public final class ExCollectors{
@@ -26,74 +36,242 @@ public final class ExCollectors{
     Collector.Characteristics.IDENTITY_FINISH
   ));
 
+  private static final Set<Collector.Characteristics> CH_UNORDERED_NOID
+    = Collections.unmodifiableSet(EnumSet.of(Collector.Characteristics.UNORDERED));
+
+  private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
   private ExCollectors(){
     throw new AssertionError("Instantiation of this class is not allowed");
   }
 
   public static <K, V> Collector<Map.Entry<K,V>,Map<K,V>,Map<K,V>> toMap(){
-    return new Collector<Map.Entry<K,V>,Map<K,V>,Map<K,V>>(){
+    return entriesToMap(() -> HashMap::new, ExCollectors::uniqKeysLargerMapMerger, CH_ID);
+  }
+
+  public static <K, V> Collector<Map.Entry<K,V>,Map<K,V>,Map<K,V>> toMap(int expectedSize){
+    return toMap(expectedSize, DEFAULT_LOAD_FACTOR);
+  }
+
+  public static <K, V> Collector<Map.Entry<K,V>,Map<K,V>,Map<K,V>> toMap(int expectedSize, float loadFactor){
+
+    // Only the first map of each collection is presized, a sequential stream has no other, and partial maps of parallel
+    // streams don't each get the full size
+    int capacity = capacityFor(expectedSize, loadFactor);
+    if(expectedSize == 0) return toMap();
+    return entriesToMap(
+      () -> {
+        AtomicBoolean presized = new AtomicBoolean(false);
+        return () -> presized.getAndSet(true) ? new HashMap<>() : new HashMap<>(capacity, loadFactor);
+      },
+      ExCollectors::uniqKeysLargerMapMerger,
+      CH_ID
+    );
+  }
+
+  public static <K, V, M extends Map<K,V>> Collector<Map.Entry<K,V>,M,M> toMap(Supplier<M> mapSupplier){
+    Validation.assertNonnull(mapSupplier, "mapSupplier");
+    return entriesToMap(() -> mapSupplier, ExCollectors::uniqKeysMapMerger, CH_ID);
+  }
+
+  public static <K, V> Collector<Map.Entry<K,V>,Map<K,V>,Map<K,V>> toConcurrentMap(){
+    return entriesToMap(() -> ConcurrentHashMap::new, ExCollectors::uniqKeysMapMerger, CH_CONCURRENT_ID);
+  }
+
+  public static <K, V> Collector<Map.Entry<K,V>,ConcurrentMap<K,V>,ConcurrentMap<K,V>> toConcurrentMap(
+    int expectedSize
+  ){
+    return toConcurrentMap(expectedSize, DEFAULT_LOAD_FACTOR);
+  }
+
+  public static <K, V> Collector<Map.Entry<K,V>,ConcurrentMap<K,V>,ConcurrentMap<K,V>> toConcurrentMap(
+    int expectedSize,
+    float loadFactor
+  ){
+    capacityFor(expectedSize, loadFactor);
+    if(expectedSize == 0) return toConcurrentMap(ConcurrentHashMap::new);
+    return entriesToMap(
+      () -> () -> new ConcurrentHashMap<>(expectedSize, loadFactor),
+      ExCollectors::uniqKeysMapMerger,
+      CH_CONCURRENT_ID
+    );
+  }
+
+  public static <K, V, M extends ConcurrentMap<K,V>> Collector<Map.Entry<K,V>,M,M> toConcurrentMap(
+    Supplier<M> mapSupplier
+  ){
+    Validation.assertNonnull(mapSupplier, "mapSupplier");
+    return entriesToMap(() -> mapSupplier, ExCollectors::uniqKeysMapMerger, CH_CONCURRENT_ID);
+  }
+
+  public static <K, V> Map<K,V> collectToMap(Stream<Map.Entry<K,V>> entries){
+    Validation.assertNonnull(entries, "entries");
+    Spliterator<Map.Entry<K,V>> spliterator = entries.spliterator();
+    int expectedSize = expectedSize(spliterator, entries.isParallel());
+    Stream<Map.Entry<K,V>> stream = StreamSupport.stream(spliterator, entries.isParallel()).onClose(entries::close);
+    if(expectedSize <= 0) return stream.collect(toMap());
+
+    // Every partial map is presized to its share of the entries
+    int capacity = capacityFor(expectedSize, DEFAULT_LOAD_FACTOR);
+    return stream.collect(entriesToMap(
+      () -> () -> new HashMap<>(capacity),
+      ExCollectors::uniqKeysLargerMapMerger,
+      CH_ID
+    ));
+  }
+
+  public static <K, V> ConcurrentMap<K,V> collectToConcurrentMap(Stream<Map.Entry<K,V>> entries){
+    Validation.assertNonnull(entries, "entries");
+    Spliterator<Map.Entry<K,V>> spliterator = entries.spliterator();
+    int expectedSize = expectedSize(spliterator, false);
+    Stream<Map.Entry<K,V>> stream = StreamSupport.stream(spliterator, entries.isParallel()).onClose(entries::close);
+    return stream.collect(expectedSize < 0 ? toConcurrentMap(ConcurrentHashMap::new) : toConcurrentMap(expectedSize));
+  }
+
+  public static <T> Collector<T,?,PersistentSet<T>> toPersistentSet(){
+    return new Collector<T,PersistentMap.Builder<T,T>,PersistentSet<T>>(){
 
       @Override
-      public Supplier<Map<K,V>> supplier(){
-        return HashMap::new;
+      public Supplier<PersistentMap.Builder<T,T>> supplier(){
+        return () -> new PersistentMap.Builder<>(PersistentMap.empty());
       }
 
-      @SuppressWarnings("RedundantTypeArguments") // IDE's suggestion does not work
       @Override
-      public BiConsumer<Map<K,V>,Map.Entry<K,V>> accumulator(){
-        return uniqKeysMapAccumulator(Map.Entry<K,V>::getKey, Map.Entry<K,V>::getValue);
+      public BiConsumer<PersistentMap.Builder<T,T>,T> accumulator(){
+        return (builder, element) -> {
+          if(builder.get(element, null) == null) builder.put(element, element);
+        };
       }
 
       @Override
-      public BinaryOperator<Map<K,V>> combiner(){
-        return uniqKeysMapMerger();
+      public BinaryOperator<PersistentMap.Builder<T,T>> combiner(){
+        return (b1, b2) -> {
+          if(b1.size() < b2.size()){
+            b2.putAll(b1);
+            return b2;
+          }
+          b1.putAll(b2);
+          return b1;
+        };
       }
 
       @Override
-      public Function<Map<K,V>,Map<K,V>> finisher(){
-        return i -> i;
+      public Function<PersistentMap.Builder<T,T>,PersistentSet<T>> finisher(){
+        return PersistentSet::of;
       }
 
       @Override
       public Set<Characteristics> characteristics(){
-        return CH_CONCURRENT_ID;
+        return CH_UNORDERED_NOID;
       }
     };
   }
 
-  public static <K, V> Collector<Map.Entry<K,V>,Map<K,V>,Map<K,V>> toConcurrentMap(){
-    return new Collector<Map.Entry<K,V>,Map<K,V>,Map<K,V>>(){
+  public static <K, V> Collector<Map.Entry<K,V>,?,PersistentMap<K,V>> toPersistentMap(){
+    return new Collector<Map.Entry<K,V>,PersistentMap.Builder<K,V>,PersistentMap<K,V>>(){
 
       @Override
-      public Supplier<Map<K,V>> supplier(){
-        return ConcurrentHashMap::new;
+      public Supplier<PersistentMap.Builder<K,V>> supplier(){
+        return () -> new PersistentMap.Builder<>(PersistentMap.empty());
+      }
+
+      @Override
+      public BiConsumer<PersistentMap.Builder<K,V>,Map.Entry<K,V>> accumulator(){
+        return (builder, element) -> uniqKeysBuilderPut(builder, element.getKey(), element.getValue());
+      }
+
+      @Override
+      public BinaryOperator<PersistentMap.Builder<K,V>> combiner(){
+        return (b1, b2) -> {
+          if(b1.size() < b2.size()) return uniqKeysBuilderMerger(b2, b1);
+          return uniqKeysBuilderMerger(b1, b2);
+        };
+      }
+
+      @Override
+      public Function<PersistentMap.Builder<K,V>,PersistentMap<K,V>> finisher(){
+        return PersistentMap.Builder::build;
+      }
+
+      @Override
+      public Set<Characteristics> characteristics(){
+        return CH_UNORDERED_NOID;
+      }
+    };
+  }
+
+  private static <K, V> PersistentMap.Builder<K,V> uniqKeysBuilderMerger(
+    PersistentMap.Builder<K,V> larger,
+    PersistentMap.Builder<K,V> smaller
+  ){
+    for(Map.Entry<K,V> e : smaller.build().entrySet()) uniqKeysBuilderPut(larger, e.getKey(), e.getValue());
+    return larger;
+  }
+
+  private static <K, V> void uniqKeysBuilderPut(PersistentMap.Builder<K,V> builder, K k, V v){
+    Objects.requireNonNull(v);
+    Object u = builder.get(Objects.requireNonNull(k), null);
+    if(u != null) throw duplicateKeyException(k, u, v);
+    builder.put(k, v);
+  }
+
+  private static <K, V, M extends Map<K,V>> Collector<Map.Entry<K,V>,M,M> entriesToMap(
+    Supplier<Supplier<M>> mapSuppliers,
+    BinaryOperator<M> merger,
+    Set<Collector.Characteristics> characteristics
+  ){
+    return new Collector<Map.Entry<K,V>,M,M>(){
+
+      // Streams ask for the supplier once per collection
+      @Override
+      public Supplier<M> supplier(){
+        return mapSuppliers.get();
       }
 
       @SuppressWarnings("RedundantTypeArguments") // IDE's suggestion does not work
       @Override
-      public BiConsumer<Map<K,V>,Map.Entry<K,V>> accumulator(){
+      public BiConsumer<M,Map.Entry<K,V>> accumulator(){
         return uniqKeysMapAccumulator(Map.Entry<K,V>::getKey, Map.Entry<K,V>::getValue);
       }
 
       @Override
-      public BinaryOperator<Map<K,V>> combiner(){
-        return uniqKeysMapMerger();
+      public BinaryOperator<M> combiner(){
+        return merger;
       }
 
       @Override
-      public Function<Map<K,V>,Map<K,V>> finisher(){
+      public Function<M,M> finisher(){
         return i -> i;
       }
 
       @Override
       public Set<Characteristics> characteristics(){
-        return CH_ID;
+        return characteristics;
       }
     };
   }
 
-  private static <T, K, V>
-  BiConsumer<Map<K,V>,T> uniqKeysMapAccumulator(
+  private static int capacityFor(int expectedSize, float loadFactor){
+    Validation.assertNonnegative(expectedSize, "expectedSize");
+    if(!(loadFactor > 0)) throw new IllegalArgumentException(f("Load factor {} must be positive", loadFactor));
+    return (int) Math.min((long) Math.ceil(expectedSize / (double) loadFactor), MAXIMUM_CAPACITY);
+  }
+
+  private static int expectedSize(Spliterator<?> spliterator, boolean partitioned){
+
+    // Unknown size, upper bound for filtered streams
+    long size = spliterator.estimateSize();
+    if(size == Long.MAX_VALUE) return -1;
+
+    // Parallel streams fill one map per leaf task, about four per worker, unless the map is shared
+    if(partitioned) size = size / ((long) ForkJoinPool.getCommonPoolParallelism() << 2) + 1;
+    return (int) Math.min(size, MAXIMUM_CAPACITY);
+  }
+
+  private static <T, K, V, M extends Map<K,V>>
+  BiConsumer<M,T> uniqKeysMapAccumulator(
     Function<? super T,? extends K> keyMapper,
     Function<? super T,? extends V> valueMapper
   ){
@@ -105,17 +283,27 @@ public final class ExCollectors{
     };
   }
 
-  private static <K, V, M extends Map<K,V>>
-  BinaryOperator<M> uniqKeysMapMerger(){
-    return (m1, m2) -> {
-      for(Map.Entry<K,V> e : m2.entrySet()){
-        K k = e.getKey();
-        V v = Objects.requireNonNull(e.getValue());
-        V u = m1.putIfAbsent(k, v);
-        if(u != null) throw duplicateKeyException(k, u, v);
-      }
-      return m1;
-    };
+  private static <K, V, M extends Map<K,V>> M uniqKeysMapMerger(M m1, M m2){
+    for(Map.Entry<K,V> e : m2.entrySet()){
+      K k = e.getKey();
+      V v = Objects.requireNonNull(e.getValue());
+      V u = m1.putIfAbsent(k, v);
+      if(u != null) throw duplicateKeyException(k, u, v);
+    }
+    return m1;
+  }
+
+  private static <K, V, M extends Map<K,V>> M uniqKeysLargerMapMerger(M m1, M m2){
+
+    // Merge into the larger partial, which resizes at most once since the result is at most twice its size
+    if(m1.size() >= m2.size()) return uniqKeysMapMerger(m1, m2);
+    for(Map.Entry<K,V> e : m1.entrySet()){
+      K k = e.getKey();
+      V u = Objects.requireNonNull(e.getValue());
+      V v = m2.putIfAbsent(k, u);
+      if(v != null) throw duplicateKeyException(k, u, v);
+    }
+    return m2;
   }
 
   private static IllegalStateException duplicateKeyException(
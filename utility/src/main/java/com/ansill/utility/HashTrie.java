@@ -0,0 +1,534 @@
+package com.ansill.utility;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Hash array mapped trie nodes shared by PersistentMap and PersistentSet
+ * <p>
+ * Each level consumes 5 bits of the key's hash. A bitmap node keeps a 32-bit bitmap of occupied positions and a packed
+ * array of key and value pairs, where a null key means the value is a child node. Keys whose hashes are equal in all 32
+ * bits share a collision node. Updates copy only the nodes on the path to the changed entry and share everything else.
+ * Nodes created under an edit token may be modified in place by the holder of that token, which lets builders skip the
+ * path copying.
+ */
+final class HashTrie{
+
+  /** Bits of hash consumed per level */
+  private static final int BITS = 5;
+
+  /** Mask of position within a level */
+  private static final int MASK = (1 << BITS) - 1;
+
+  /**
+   * Private constructor
+   * <p>
+   * No instantiations allowed because this is an utility class
+   *
+   * @throws AssertionError thrown if any instantiations were attempted
+   */
+  private HashTrie(){
+    throw new AssertionError(f("No {} instances for you!", this.getClass().getName()));
+  }
+
+  /**
+   * Hashes key
+   *
+   * @param key key
+   * @return spread hash
+   */
+  static int hash(@Nonnull Object key){
+    int hash = key.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Returns bit of hash's position at the level
+   *
+   * @param hash  hash
+   * @param shift bits consumed by upper levels
+   * @return bit
+   */
+  private static int bit(int hash, int shift){
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  /** Outcome of an update */
+  static final class Change{
+
+    /** Indicates whether number of entries changed */
+    boolean sizeChanged = false;
+
+    /** Previous value if key was present */
+    @Nullable
+    Object previous;
+  }
+
+  /** Base of trie nodes */
+  abstract static class Node{
+
+    /** Edit token of builder that may modify this node in place, null if none */
+    @Nullable
+    final Object edit;
+
+    /**
+     * Node constructor
+     *
+     * @param edit edit token or null
+     */
+    Node(@Nullable Object edit){
+      this.edit = edit;
+    }
+
+    /**
+     * Finds value of key
+     *
+     * @param shift    bits consumed by upper levels
+     * @param hash     hash of key
+     * @param key      key
+     * @param notFound value to return if key is absent
+     * @return value or notFound
+     */
+    @Nullable
+    abstract Object find(int shift, int hash, @Nonnull Object key, @Nullable Object notFound);
+
+    /**
+     * Associates value with key
+     *
+     * @param edit   edit token or null
+     * @param shift  bits consumed by upper levels
+     * @param hash   hash of key
+     * @param key    key
+     * @param value  value
+     * @param change outcome
+     * @return updated node, this if nothing changed
+     */
+    @Nonnull
+    abstract Node with(
+      @Nullable Object edit,
+      int shift,
+      int hash,
+      @Nonnull Object key,
+      @Nullable Object value,
+      @Nonnull Change change
+    );
+
+    /**
+     * Removes key
+     *
+     * @param edit   edit token or null
+     * @param shift  bits consumed by upper levels
+     * @param hash   hash of key
+     * @param key    key
+     * @param change outcome
+     * @return updated node, this if nothing changed, null if node became empty
+     */
+    @Nullable
+    abstract Node without(@Nullable Object edit, int shift, int hash, @Nonnull Object key, @Nonnull Change change);
+
+    /**
+     * Returns packed array of key and value pairs, null key means value is child node
+     *
+     * @return array, must not be modified
+     */
+    @Nonnull
+    abstract Object[] array();
+
+    /**
+     * Returns number of key and value pairs in the array
+     *
+     * @return number of pairs
+     */
+    abstract int pairs();
+
+    /**
+     * Checks whether node holds just one entry and no child, so parent can hold the entry instead
+     *
+     * @return true if it does
+     */
+    boolean isSingleEntry(){
+      return pairs() == 1 && array()[0] != null;
+    }
+  }
+
+  /** Node with bitmap of occupied positions */
+  static final class BitmapNode extends Node{
+
+    /** Empty node */
+    @Nonnull
+    static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+    /** Occupied positions */
+    private final int bitmap;
+
+    /** Key and value pairs of occupied positions */
+    @Nonnull
+    private final Object[] array;
+
+    /**
+     * BitmapNode constructor
+     *
+     * @param edit   edit token or null
+     * @param bitmap occupied positions
+     * @param array  key and value pairs
+     */
+    BitmapNode(@Nullable Object edit, int bitmap, @Nonnull Object[] array){
+      super(edit);
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    @Nullable
+    @Override
+    Object find(int shift, int hash, @Nonnull Object key, @Nullable Object notFound){
+      int bit = bit(hash, shift);
+      if((bitmap & bit) == 0) return notFound;
+      int index = Integer.bitCount(bitmap & (bit - 1)) * 2;
+      Object existing = array[index];
+      if(existing == null) return ((Node) array[index + 1]).find(shift + BITS, hash, key, notFound);
+      return key.equals(existing) ? array[index + 1] : notFound;
+    }
+
+    @Nonnull
+    @Override
+    Node with(
+      @Nullable Object edit,
+      int shift,
+      int hash,
+      @Nonnull Object key,
+      @Nullable Object value,
+      @Nonnull Change change
+    ){
+
+      // Insert into free position
+      int bit = bit(hash, shift);
+      int index = Integer.bitCount(bitmap & (bit - 1)) * 2;
+      if((bitmap & bit) == 0){
+        Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, index);
+        newArray[index] = key;
+        newArray[index + 1] = value;
+        System.arraycopy(array, index, newArray, index + 2, array.length - index);
+        change.sizeChanged = true;
+        return new BitmapNode(edit, bitmap | bit, newArray);
+      }
+
+      // Descend into child
+      Object existingKey = array[index];
+      Object existingValue = array[index + 1];
+      if(existingKey == null){
+        Node child = (Node) existingValue;
+        Node newChild = child.with(edit, shift + BITS, hash, key, value, change);
+        return newChild == child ? this : set(edit, index + 1, newChild);
+      }
+
+      // Replace value
+      if(key.equals(existingKey)){
+        change.previous = existingValue;
+        return existingValue == value ? this : set(edit, index + 1, value);
+      }
+
+      // Push both entries down into new child
+      change.sizeChanged = true;
+      Node child = pair(edit, shift + BITS, existingKey, existingValue, hash, key, value);
+      BitmapNode node = set(edit, index, null);
+      node.array[index + 1] = child;
+      return node;
+    }
+
+    @Nullable
+    @Override
+    Node without(@Nullable Object edit, int shift, int hash, @Nonnull Object key, @Nonnull Change change){
+
+      // Find position
+      int bit = bit(hash, shift);
+      if((bitmap & bit) == 0) return this;
+      int index = Integer.bitCount(bitmap & (bit - 1)) * 2;
+      Object existingKey = array[index];
+
+      // Descend into child
+      if(existingKey == null){
+        Node child = (Node) array[index + 1];
+        Node newChild = child.without(edit, shift + BITS, hash, key, change);
+        if(newChild == child) return this;
+        if(newChild == null) return remove(edit, bit, index);
+        if(newChild.isSingleEntry()){
+          BitmapNode node = set(edit, index, newChild.array()[0]);
+          node.array[index + 1] = newChild.array()[1];
+          return node;
+        }
+        return set(edit, index + 1, newChild);
+      }
+
+      // Remove entry
+      if(!key.equals(existingKey)) return this;
+      change.sizeChanged = true;
+      change.previous = array[index + 1];
+      return remove(edit, bit, index);
+    }
+
+    @Nonnull
+    @Override
+    Object[] array(){
+      return array;
+    }
+
+    @Override
+    int pairs(){
+      return array.length / 2;
+    }
+
+    /**
+     * Returns node with array element replaced, in place if the edit token owns this node
+     *
+     * @param edit  edit token or null
+     * @param index index in array
+     * @param item  new element
+     * @return updated node
+     */
+    @Nonnull
+    private BitmapNode set(@Nullable Object edit, int index, @Nullable Object item){
+      if(edit != null && edit == this.edit){
+        array[index] = item;
+        return this;
+      }
+      Object[] newArray = array.clone();
+      newArray[index] = item;
+      return new BitmapNode(edit, bitmap, newArray);
+    }
+
+    /**
+     * Returns node without the pair
+     *
+     * @param edit  edit token or null
+     * @param bit   bit of position
+     * @param index index of pair in array
+     * @return updated node or null if it became empty
+     */
+    @Nullable
+    private BitmapNode remove(@Nullable Object edit, int bit, int index){
+      if(bitmap == bit) return null;
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, index);
+      System.arraycopy(array, index + 2, newArray, index, newArray.length - index);
+      return new BitmapNode(edit, bitmap ^ bit, newArray);
+    }
+  }
+
+  /** Node of keys whose hashes are equal */
+  static final class CollisionNode extends Node{
+
+    /** Hash shared by all keys */
+    private final int hash;
+
+    /** Key and value pairs */
+    @Nonnull
+    private final Object[] array;
+
+    /**
+     * CollisionNode constructor
+     *
+     * @param edit  edit token or null
+     * @param hash  hash shared by all keys
+     * @param array key and value pairs
+     */
+    CollisionNode(@Nullable Object edit, int hash, @Nonnull Object[] array){
+      super(edit);
+      this.hash = hash;
+      this.array = array;
+    }
+
+    @Nullable
+    @Override
+    Object find(int shift, int hash, @Nonnull Object key, @Nullable Object notFound){
+      int index = indexOf(key);
+      return index < 0 ? notFound : array[index + 1];
+    }
+
+    @Nonnull
+    @Override
+    Node with(
+      @Nullable Object edit,
+      int shift,
+      int hash,
+      @Nonnull Object key,
+      @Nullable Object value,
+      @Nonnull Change change
+    ){
+
+      // Different hash, nest this node under a bitmap node
+      if(hash != this.hash){
+        return new BitmapNode(edit, bit(this.hash, shift), new Object[]{null, this})
+          .with(edit, shift, hash, key, value, change);
+      }
+
+      // Replace value
+      int index = indexOf(key);
+      if(index >= 0){
+        change.previous = array[index + 1];
+        if(array[index + 1] == value) return this;
+        Object[] newArray = array.clone();
+        newArray[index + 1] = value;
+        return new CollisionNode(edit, hash, newArray);
+      }
+
+      // Append
+      Object[] newArray = new Object[array.length + 2];
+      System.arraycopy(array, 0, newArray, 0, array.length);
+      newArray[array.length] = key;
+      newArray[array.length + 1] = value;
+      change.sizeChanged = true;
+      return new CollisionNode(edit, hash, newArray);
+    }
+
+    @Nullable
+    @Override
+    Node without(@Nullable Object edit, int shift, int hash, @Nonnull Object key, @Nonnull Change change){
+      int index = indexOf(key);
+      if(index < 0) return this;
+      change.sizeChanged = true;
+      change.previous = array[index + 1];
+      if(array.length == 2) return null;
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, index);
+      System.arraycopy(array, index + 2, newArray, index, newArray.length - index);
+      return new CollisionNode(edit, hash, newArray);
+    }
+
+    @Nonnull
+    @Override
+    Object[] array(){
+      return array;
+    }
+
+    @Override
+    int pairs(){
+      return array.length / 2;
+    }
+
+    /**
+     * Finds key in array
+     *
+     * @param key key
+     * @return index of key or -1 if absent
+     */
+    private int indexOf(@Nonnull Object key){
+      for(int index = 0; index < array.length; index += 2){
+        if(key.equals(array[index])) return index;
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * Creates node of two entries with different keys
+   *
+   * @param edit   edit token or null
+   * @param shift  bits consumed by upper levels
+   * @param key1   first key
+   * @param value1 first value
+   * @param hash2  hash of second key
+   * @param key2   second key
+   * @param value2 second value
+   * @return node
+   */
+  @Nonnull
+  private static Node pair(
+    @Nullable Object edit,
+    int shift,
+    @Nonnull Object key1,
+    @Nullable Object value1,
+    int hash2,
+    @Nonnull Object key2,
+    @Nullable Object value2
+  ){
+    int hash1 = hash(key1);
+    if(hash1 == hash2) return new CollisionNode(edit, hash1, new Object[]{key1, value1, key2, value2});
+    Change change = new Change();
+    return BitmapNode.EMPTY
+      .with(edit, shift, hash1, key1, value1, change)
+      .with(edit, shift, hash2, key2, value2, change);
+  }
+
+  /** Depth-first iterator over entries, keeps key and value of current entry */
+  abstract static class TrieIterator<T> implements Iterator<T>{
+
+    /** Deepest possible trie, 7 levels of hash bits plus collision node */
+    private static final int MAX_DEPTH = 8;
+
+    /** Nodes on path to current entry */
+    @Nonnull
+    private final Node[] nodes = new Node[MAX_DEPTH];
+
+    /** Index of next pair in each node on path */
+    @Nonnull
+    private final int[] indices = new int[MAX_DEPTH];
+
+    /** Depth of current node, -1 when exhausted */
+    private int depth;
+
+    /** Number of entries left */
+    private int remaining;
+
+    /** Key of current entry */
+    @Nullable
+    Object key;
+
+    /** Value of current entry */
+    @Nullable
+    Object value;
+
+    /**
+     * TrieIterator constructor
+     *
+     * @param root root node or null if empty
+     * @param size number of entries
+     */
+    TrieIterator(@Nullable Node root, int size){
+      nodes[0] = root;
+      depth = root == null ? -1 : 0;
+      remaining = size;
+    }
+
+    /**
+     * Returns element of current entry
+     *
+     * @return element
+     */
+    abstract T current();
+
+    @Override
+    public boolean hasNext(){
+      return remaining > 0;
+    }
+
+    @Override
+    public T next(){
+      if(remaining == 0) throw new NoSuchElementException();
+      while(true){
+        Node node = nodes[depth];
+        int index = indices[depth];
+        if(index == node.pairs()){
+          depth--;
+          continue;
+        }
+        indices[depth]++;
+        Object[] array = node.array();
+        if(array[index * 2] == null){
+          depth++;
+          nodes[depth] = (Node) array[index * 2 + 1];
+          indices[depth] = 0;
+          continue;
+        }
+        key = array[index * 2];
+        value = array[index * 2 + 1];
+        remaining--;
+        return current();
+      }
+    }
+  }
+}
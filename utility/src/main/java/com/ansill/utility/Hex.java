@@ -0,0 +1,796 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Hexadecimal codec
+ * <p>
+ * Encoding uses precomputed table of character pairs for all 256 byte values so each byte is a single lookup.
+ * Decoding uses 128-entry table of digit values and strictly rejects anything that's not a hexadecimal digit, in
+ * either case.
+ */
+public final class Hex{
+
+  /** Upper-case digits */
+  private static final char[] UPPER_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  /** Lower-case digits */
+  private static final char[] LOWER_DIGITS = "0123456789abcdef".toCharArray();
+
+  /** Upper-case character pairs, index is byte value times two */
+  private static final char[] UPPER_PAIRS = createPairs(UPPER_DIGITS);
+
+  /** Lower-case character pairs, index is byte value times two */
+  private static final char[] LOWER_PAIRS = createPairs(LOWER_DIGITS);
+
+  /** Number of bytes transcoded per chunk by channel functions */
+  private static final int CHANNEL_CHUNK_SIZE = 65536;
+
+  /** Number of bytes below which parallel functions don't split the work any further */
+  static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  /** Digit values of ASCII characters, -1 if character is not a hexadecimal digit */
+  private static final byte[] DIGIT_VALUES = createDigitValues();
+
+  /**
+   * Private constructor
+   * <p>
+   * No instantiations allowed because this is an utility class
+   *
+   * @throws AssertionError thrown if any instantiations were attempted
+   */
+  private Hex(){
+    throw new AssertionError(f("No {} instances for you!", this.getClass().getName()));
+  }
+
+  /**
+   * Creates table of character pairs
+   *
+   * @param digits digits
+   * @return table of character pairs
+   */
+  @Nonnull
+  private static char[] createPairs(@Nonnull char[] digits){
+    char[] pairs = new char[512];
+    for(int i = 0; i < 256; i++){
+      pairs[i << 1] = digits[i >>> 4];
+      pairs[(i << 1) + 1] = digits[i & 0x0F];
+    }
+    return pairs;
+  }
+
+  /**
+   * Creates table of digit values
+   *
+   * @return table of digit values
+   */
+  @Nonnull
+  private static byte[] createDigitValues(){
+    byte[] values = new byte[128];
+    for(int i = 0; i < values.length; i++) values[i] = -1;
+    for(int i = 0; i < 10; i++) values['0' + i] = (byte) i;
+    for(int i = 0; i < 6; i++){
+      values['a' + i] = (byte) (10 + i);
+      values['A' + i] = (byte) (10 + i);
+    }
+    return values;
+  }
+
+  /**
+   * Encodes bytes to upper-case hex string
+   *
+   * @param bytes bytes
+   * @return hex string
+   */
+  @Nonnull
+  public static String encode(@Nonnull byte[] bytes){
+    return encode(bytes, true);
+  }
+
+  /**
+   * Encodes bytes to hex string
+   *
+   * @param bytes     bytes
+   * @param upperCase true for upper-case digits, false for lower-case digits
+   * @return hex string
+   */
+  @Nonnull
+  public static String encode(@Nonnull byte[] bytes, boolean upperCase){
+    Validation.assertNonnull(bytes, "bytes");
+    return encode(bytes, 0, bytes.length, upperCase);
+  }
+
+  /**
+   * Encodes slice of bytes to hex string
+   *
+   * @param bytes     bytes
+   * @param offset    index of first byte to encode
+   * @param length    number of bytes to encode
+   * @param upperCase true for upper-case digits, false for lower-case digits
+   * @return hex string
+   */
+  @Nonnull
+  public static String encode(
+    @Nonnull byte[] bytes,
+    @Nonnegative int offset,
+    @Nonnegative int length,
+    boolean upperCase
+  ){
+
+    // Check parameters
+    Validation.assertNonnull(bytes, "bytes");
+    checkBounds(offset, length, bytes.length);
+
+    // Encode it
+    char[] chars = new char[length << 1];
+    encode(bytes, offset, length, chars, 0, pairs(upperCase));
+
+    // Return it
+    return new String(chars);
+  }
+
+  /**
+   * Encodes remaining bytes in the buffer to hex string. The buffer's position is advanced to its limit.
+   *
+   * @param buffer    heap or direct buffer
+   * @param upperCase true for upper-case digits, false for lower-case digits
+   * @return hex string
+   */
+  @Nonnull
+  public static String encode(@Nonnull ByteBuffer buffer, boolean upperCase){
+
+    // Ensure no null
+    Validation.assertNonnull(buffer, "buffer");
+
+    // Set up destination
+    int position = buffer.position();
+    int length = buffer.remaining();
+    char[] chars = new char[length << 1];
+
+    // Heap buffer can be encoded straight from its array
+    if(buffer.hasArray()){
+      encode(buffer.array(), buffer.arrayOffset() + position, length, chars, 0, pairs(upperCase));
+    }else{
+      char[] pairs = pairs(upperCase);
+      for(int i = 0, j = 0; i < length; i++, j += 2){
+        int index = (buffer.get(position + i) & 0xFF) << 1;
+        chars[j] = pairs[index];
+        chars[j + 1] = pairs[index + 1];
+      }
+    }
+
+    // Consume the buffer, called on Buffer so it still links on Java 8 when built with a newer JDK
+    ((Buffer) buffer).position(buffer.limit());
+
+    // Return it
+    return new String(chars);
+  }
+
+  /**
+   * Encodes slice of bytes into the character array
+   *
+   * @param bytes             bytes
+   * @param offset            index of first byte to encode
+   * @param length            number of bytes to encode
+   * @param destination       destination array
+   * @param destinationOffset index in destination array to start writing at
+   * @param upperCase         true for upper-case digits, false for lower-case digits
+   * @return number of characters written, always twice the length
+   */
+  public static int encodeTo(
+    @Nonnull byte[] bytes,
+    @Nonnegative int offset,
+    @Nonnegative int length,
+    @Nonnull char[] destination,
+    @Nonnegative int destinationOffset,
+    boolean upperCase
+  ){
+
+    // Check parameters
+    Validation.assertNonnull(bytes, "bytes");
+    Validation.assertNonnull(destination, "destination");
+    checkBounds(offset, length, bytes.length);
+    checkBounds(destinationOffset, length << 1, destination.length);
+
+    // Encode it
+    encode(bytes, offset, length, destination, destinationOffset, pairs(upperCase));
+
+    // Return number of characters
+    return length << 1;
+  }
+
+  /**
+   * Encodes bytes to hex string, splitting the work across the common fork-join pool. Arrays smaller than the
+   * splitting threshold are encoded on the calling thread.
+   *
+   * @param bytes     bytes
+   * @param upperCase true for upper-case digits, false for lower-case digits
+   * @return hex string
+   */
+  @Nonnull
+  public static String encodeParallel(@Nonnull byte[] bytes, boolean upperCase){
+    return encodeParallel(bytes, upperCase, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Encodes bytes to hex string, splitting the work across the fork-join pool. Arrays smaller than the splitting
+   * threshold are encoded on the calling thread.
+   *
+   * @param bytes     bytes
+   * @param upperCase true for upper-case digits, false for lower-case digits
+   * @param pool      pool to run on
+   * @return hex string
+   */
+  @Nonnull
+  public static String encodeParallel(@Nonnull byte[] bytes, boolean upperCase, @Nonnull ForkJoinPool pool){
+
+    // Check parameters
+    Validation.assertNonnull(bytes, "bytes");
+    Validation.assertNonnull(pool, "pool");
+
+    // Don't bother with small arrays
+    if(bytes.length <= PARALLEL_THRESHOLD) return encode(bytes, upperCase);
+
+    // Encode it
+    char[] chars = new char[bytes.length << 1];
+    pool.invoke(new EncodeTask(bytes, 0, bytes.length, chars, pairs(upperCase)));
+
+    // Return it
+    return new String(chars);
+  }
+
+  /**
+   * Decodes hex string to bytes, splitting the work across the common fork-join pool. Strings smaller than the
+   * splitting threshold are decoded on the calling thread.
+   *
+   * @param hex hex string in either case
+   * @return bytes
+   * @throws IllegalArgumentException thrown if length is odd or if any character is not a hexadecimal digit
+   */
+  @Nonnull
+  public static byte[] decodeParallel(@Nonnull CharSequence hex){
+    return decodeParallel(hex, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Decodes hex string to bytes, splitting the work across the fork-join pool. Strings smaller than the splitting
+   * threshold are decoded on the calling thread.
+   *
+   * @param hex  hex string in either case
+   * @param pool pool to run on
+   * @return bytes
+   * @throws IllegalArgumentException thrown if length is odd or if any character is not a hexadecimal digit
+   */
+  @Nonnull
+  public static byte[] decodeParallel(@Nonnull CharSequence hex, @Nonnull ForkJoinPool pool){
+
+    // Check parameters
+    Validation.assertNonnull(hex, "hex");
+    Validation.assertNonnull(pool, "pool");
+    checkEvenLength(hex.length());
+
+    // Don't bother with small strings
+    byte[] bytes = new byte[hex.length() >>> 1];
+    if(bytes.length <= PARALLEL_THRESHOLD){
+      decode(hex, 0, hex.length(), bytes, 0);
+      return bytes;
+    }
+
+    // Decode it
+    pool.invoke(new DecodeTask(hex, 0, bytes.length, bytes));
+
+    // Return it
+    return bytes;
+  }
+
+  /**
+   * Encodes everything from the source channel and writes it as ASCII hex digits to the destination channel, for
+   * example from one FileChannel to another. Data is transcoded in fixed-size chunks so memory use stays constant no
+   * matter how large the source is. Neither channel is closed.
+   *
+   * @param source      source channel
+   * @param destination destination channel
+   * @param upperCase   true for upper-case digits, false for lower-case digits
+   * @return number of bytes read from the source
+   * @throws IOException thrown if any of channels fails
+   */
+  public static long encode(
+    @Nonnull ReadableByteChannel source,
+    @Nonnull WritableByteChannel destination,
+    boolean upperCase
+  )
+  throws IOException{
+
+    // Check parameters
+    Validation.assertNonnull(source, "source");
+    Validation.assertNonnull(destination, "destination");
+
+    // Set up buffers
+    char[] pairs = pairs(upperCase);
+    ByteBuffer input = ByteBuffer.allocate(CHANNEL_CHUNK_SIZE);
+    ByteBuffer output = ByteBuffer.allocate(CHANNEL_CHUNK_SIZE << 1);
+
+    // Transcode chunk by chunk
+    long total = 0;
+    while(source.read(input) != -1){
+      int length = input.position();
+      encodeAscii(input.array(), 0, length, output.array(), 0, pairs);
+      ((Buffer) output).limit(length << 1);
+      while(output.hasRemaining()) destination.write(output);
+      ((Buffer) output).clear();
+      ((Buffer) input).clear();
+      total += length;
+    }
+
+    // Return number of bytes
+    return total;
+  }
+
+  /**
+   * Decodes ASCII hex digits from the source channel and writes the bytes to the destination channel, for example
+   * from one FileChannel to another. Data is transcoded in fixed-size chunks so memory use stays constant no matter
+   * how large the source is. Neither channel is closed.
+   *
+   * @param source      source channel
+   * @param destination destination channel
+   * @return number of bytes written to the destination
+   * @throws IOException thrown if any of channels fails, the source contains non-hexadecimal characters or odd number
+   *                     of digits
+   */
+  public static long decode(@Nonnull ReadableByteChannel source, @Nonnull WritableByteChannel destination)
+  throws IOException{
+
+    // Check parameters
+    Validation.assertNonnull(source, "source");
+    Validation.assertNonnull(destination, "destination");
+
+    // Set up buffers
+    ByteBuffer input = ByteBuffer.allocate(CHANNEL_CHUNK_SIZE << 1);
+    ByteBuffer output = ByteBuffer.allocate(CHANNEL_CHUNK_SIZE);
+
+    // Transcode chunk by chunk
+    long position = 0;
+    while(source.read(input) != -1){
+
+      // Decode all complete pairs
+      int digits = input.position() & ~1;
+      try{
+        decodeAscii(input.array(), 0, digits, output.array(), 0, position);
+      }catch(IllegalArgumentException e){
+        throw new IOException(e.getMessage(), e);
+      }
+      position += digits;
+
+      // Write it
+      ((Buffer) output).limit(digits >>> 1);
+      while(output.hasRemaining()) destination.write(output);
+      ((Buffer) output).clear();
+
+      // Keep the leftover digit for next round
+      ((Buffer) input).flip().position(digits);
+      input.compact();
+    }
+
+    // Ensure nothing is left over
+    if(input.position() != 0) throw new IOException(f("Hex input ends with an odd digit at index {}", position));
+
+    // Return number of bytes
+    return position >>> 1;
+  }
+
+  /**
+   * Encodes slice of bytes into the character array without checking parameters
+   *
+   * @param bytes             bytes
+   * @param offset            index of first byte to encode
+   * @param length            number of bytes to encode
+   * @param destination       destination array
+   * @param destinationOffset index in destination array to start writing at
+   * @param pairs             table of character pairs
+   */
+  static void encode(
+    @Nonnull byte[] bytes,
+    int offset,
+    int length,
+    @Nonnull char[] destination,
+    int destinationOffset,
+    @Nonnull char[] pairs
+  ){
+    for(int i = offset, end = offset + length, j = destinationOffset; i < end; i++, j += 2){
+      int index = (bytes[i] & 0xFF) << 1;
+      destination[j] = pairs[index];
+      destination[j + 1] = pairs[index + 1];
+    }
+  }
+
+  /**
+   * Encodes slice of bytes into the byte array as ASCII hex digits without checking parameters
+   *
+   * @param bytes             bytes
+   * @param offset            index of first byte to encode
+   * @param length            number of bytes to encode
+   * @param destination       destination array
+   * @param destinationOffset index in destination array to start writing at
+   * @param pairs             table of character pairs
+   */
+  static void encodeAscii(
+    @Nonnull byte[] bytes,
+    int offset,
+    int length,
+    @Nonnull byte[] destination,
+    int destinationOffset,
+    @Nonnull char[] pairs
+  ){
+    for(int i = offset, end = offset + length, j = destinationOffset; i < end; i++, j += 2){
+      int index = (bytes[i] & 0xFF) << 1;
+      destination[j] = (byte) pairs[index];
+      destination[j + 1] = (byte) pairs[index + 1];
+    }
+  }
+
+  /**
+   * Returns table of character pairs
+   *
+   * @param upperCase true for upper-case digits, false for lower-case digits
+   * @return table of character pairs
+   */
+  @Nonnull
+  static char[] pairs(boolean upperCase){
+    return upperCase ? UPPER_PAIRS : LOWER_PAIRS;
+  }
+
+  /**
+   * Decodes hex string to bytes
+   *
+   * @param hex hex string in either case
+   * @return bytes
+   * @throws IllegalArgumentException thrown if length is odd or if any character is not a hexadecimal digit
+   */
+  @Nonnull
+  public static byte[] decode(@Nonnull CharSequence hex){
+    Validation.assertNonnull(hex, "hex");
+    checkEvenLength(hex.length());
+    byte[] bytes = new byte[hex.length() >>> 1];
+    decode(hex, 0, hex.length(), bytes, 0);
+    return bytes;
+  }
+
+  /**
+   * Decodes slice of hex string into the byte array
+   *
+   * @param hex               hex string in either case
+   * @param start             index of first character to decode
+   * @param end               index after last character to decode
+   * @param destination       destination array
+   * @param destinationOffset index in destination array to start writing at
+   * @return number of bytes written
+   * @throws IllegalArgumentException thrown if length is odd or if any character is not a hexadecimal digit
+   */
+  public static int decodeTo(
+    @Nonnull CharSequence hex,
+    @Nonnegative int start,
+    @Nonnegative int end,
+    @Nonnull byte[] destination,
+    @Nonnegative int destinationOffset
+  ){
+
+    // Check parameters
+    Validation.assertNonnull(hex, "hex");
+    Validation.assertNonnull(destination, "destination");
+    checkBounds(start, end - start, hex.length());
+    checkEvenLength(end - start);
+    checkBounds(destinationOffset, (end - start) >>> 1, destination.length);
+
+    // Decode it
+    decode(hex, start, end, destination, destinationOffset);
+
+    // Return number of bytes
+    return (end - start) >>> 1;
+  }
+
+  /**
+   * Decodes slice of hex characters into the byte array
+   *
+   * @param hex               hex characters in either case
+   * @param offset            index of first character to decode
+   * @param length            number of characters to decode
+   * @param destination       destination array
+   * @param destinationOffset index in destination array to start writing at
+   * @return number of bytes written
+   * @throws IllegalArgumentException thrown if length is odd or if any character is not a hexadecimal digit
+   */
+  public static int decodeTo(
+    @Nonnull char[] hex,
+    @Nonnegative int offset,
+    @Nonnegative int length,
+    @Nonnull byte[] destination,
+    @Nonnegative int destinationOffset
+  ){
+
+    // Check parameters
+    Validation.assertNonnull(hex, "hex");
+    Validation.assertNonnull(destination, "destination");
+    checkBounds(offset, length, hex.length);
+    checkEvenLength(length);
+    checkBounds(destinationOffset, length >>> 1, destination.length);
+
+    // Decode it
+    decode(hex, offset, length, destination, destinationOffset, offset);
+
+    // Return number of bytes
+    return length >>> 1;
+  }
+
+  /**
+   * Decodes hex string into the buffer at its position. The buffer's position is advanced by number of bytes written.
+   *
+   * @param hex         hex string in either case
+   * @param destination heap or direct buffer
+   * @return number of bytes written
+   * @throws IllegalArgumentException thrown if length is odd or if any character is not a hexadecimal digit
+   * @throws BufferOverflowException  thrown if there's not enough room in the buffer
+   */
+  public static int decodeTo(@Nonnull CharSequence hex, @Nonnull ByteBuffer destination){
+
+    // Check parameters
+    Validation.assertNonnull(hex, "hex");
+    Validation.assertNonnull(destination, "destination");
+    checkEvenLength(hex.length());
+    int length = hex.length() >>> 1;
+    if(destination.remaining() < length) throw new BufferOverflowException();
+    int position = destination.position();
+
+    // Heap buffer can be decoded straight into its array
+    if(destination.hasArray() && !destination.isReadOnly()){
+      decode(hex, 0, hex.length(), destination.array(), destination.arrayOffset() + position);
+    }else{
+      for(int i = 0, j = 0; i < length; i++, j += 2){
+        destination.put(position + i, decodePair(hex.charAt(j), hex.charAt(j + 1), j));
+      }
+    }
+
+    // Advance the buffer
+    ((Buffer) destination).position(position + length);
+
+    // Return number of bytes
+    return length;
+  }
+
+  /**
+   * Decodes slice of hex string into the byte array without checking parameters
+   *
+   * @param hex               hex string
+   * @param start             index of first character to decode
+   * @param end               index after last character to decode
+   * @param destination       destination array
+   * @param destinationOffset index in destination array to start writing at
+   */
+  private static void decode(
+    @Nonnull CharSequence hex,
+    int start,
+    int end,
+    @Nonnull byte[] destination,
+    int destinationOffset
+  ){
+    for(int i = start, j = destinationOffset; i < end; i += 2, j++){
+      destination[j] = decodePair(hex.charAt(i), hex.charAt(i + 1), i);
+    }
+  }
+
+  /**
+   * Decodes slice of hex characters into the byte array without checking parameters
+   *
+   * @param hex               hex characters
+   * @param offset            index of first character to decode
+   * @param length            number of characters to decode
+   * @param destination       destination array
+   * @param destinationOffset index in destination array to start writing at
+   * @param position          position of first character in the whole input, used for error message
+   */
+  static void decode(
+    @Nonnull char[] hex,
+    int offset,
+    int length,
+    @Nonnull byte[] destination,
+    int destinationOffset,
+    long position
+  ){
+    for(int i = offset, end = offset + length, j = destinationOffset; i < end; i += 2, j++){
+      destination[j] = decodePair(hex[i], hex[i + 1], position + i - offset);
+    }
+  }
+
+  /**
+   * Decodes slice of ASCII hex digits into the byte array without checking parameters
+   *
+   * @param hex               ASCII hex digits
+   * @param offset            index of first digit to decode
+   * @param length            number of digits to decode
+   * @param destination       destination array
+   * @param destinationOffset index in destination array to start writing at
+   * @param position          position of first digit in the whole input, used for error message
+   */
+  static void decodeAscii(
+    @Nonnull byte[] hex,
+    int offset,
+    int length,
+    @Nonnull byte[] destination,
+    int destinationOffset,
+    long position
+  ){
+    for(int i = offset, end = offset + length, j = destinationOffset; i < end; i += 2, j++){
+      destination[j] = decodePair((char) (hex[i] & 0xFF), (char) (hex[i + 1] & 0xFF), position + i - offset);
+    }
+  }
+
+  /**
+   * Decodes pair of hex digits to byte
+   *
+   * @param high  high digit
+   * @param low   low digit
+   * @param index index of high digit, used for error message
+   * @return byte
+   * @throws IllegalArgumentException thrown if any of digits is not a hexadecimal digit
+   */
+  static byte decodePair(char high, char low, long index){
+    int highValue = high < 128 ? DIGIT_VALUES[high] : -1;
+    int lowValue = low < 128 ? DIGIT_VALUES[low] : -1;
+    if(highValue < 0) throw new IllegalArgumentException(invalidDigitMessage(high, index));
+    if(lowValue < 0) throw new IllegalArgumentException(invalidDigitMessage(low, index + 1));
+    return (byte) ((highValue << 4) | lowValue);
+  }
+
+  /**
+   * Creates message for invalid digit
+   *
+   * @param character invalid character
+   * @param index     index of the character
+   * @return message
+   */
+  @Nonnull
+  private static String invalidDigitMessage(char character, long index){
+    return f("Character '{}' at index {} is not a hexadecimal digit", character, index);
+  }
+
+  /**
+   * Checks that number of hex characters is even
+   *
+   * @param length number of characters
+   * @throws IllegalArgumentException thrown if length is odd
+   */
+  static void checkEvenLength(int length){
+    if((length & 1) != 0) throw new IllegalArgumentException(f("Hex length {} is not even", length));
+  }
+
+  /**
+   * Checks that slice is within the array
+   *
+   * @param offset offset of slice
+   * @param length length of slice
+   * @param size   size of array
+   * @throws IndexOutOfBoundsException thrown if slice is out of bounds
+   */
+  static void checkBounds(int offset, int length, int size){
+    if(offset < 0 || length < 0 || offset > size - length){
+      throw new IndexOutOfBoundsException(f(
+        "Range [{}, {} + {}) out of bounds for length {}",
+        offset,
+        offset,
+        length,
+        size
+      ));
+    }
+  }
+
+  /** Task that encodes range of bytes into shared character array */
+  private static final class EncodeTask extends RecursiveAction{
+
+    private static final long serialVersionUID = 1L;
+
+    /** Bytes */
+    @Nonnull
+    private final byte[] bytes;
+
+    /** Index of first byte to encode */
+    private final int start;
+
+    /** Index after last byte to encode */
+    private final int end;
+
+    /** Destination array, each byte goes to twice its index */
+    @Nonnull
+    private final char[] destination;
+
+    /** Table of character pairs */
+    @Nonnull
+    private final char[] pairs;
+
+    /**
+     * EncodeTask constructor
+     *
+     * @param bytes       bytes
+     * @param start       index of first byte to encode
+     * @param end         index after last byte to encode
+     * @param destination destination array
+     * @param pairs       table of character pairs
+     */
+    EncodeTask(@Nonnull byte[] bytes, int start, int end, @Nonnull char[] destination, @Nonnull char[] pairs){
+      this.bytes = bytes;
+      this.start = start;
+      this.end = end;
+      this.destination = destination;
+      this.pairs = pairs;
+    }
+
+    @Override
+    protected void compute(){
+      if(end - start <= PARALLEL_THRESHOLD){
+        encode(bytes, start, end - start, destination, start << 1, pairs);
+        return;
+      }
+      int middle = (start + end) >>> 1;
+      invokeAll(
+        new EncodeTask(bytes, start, middle, destination, pairs),
+        new EncodeTask(bytes, middle, end, destination, pairs)
+      );
+    }
+  }
+
+  /** Task that decodes range of hex string into shared byte array */
+  private static final class DecodeTask extends RecursiveAction{
+
+    private static final long serialVersionUID = 1L;
+
+    /** Hex string */
+    @Nonnull
+    private final CharSequence hex;
+
+    /** Index of first byte to decode */
+    private final int start;
+
+    /** Index after last byte to decode */
+    private final int end;
+
+    /** Destination array */
+    @Nonnull
+    private final byte[] destination;
+
+    /**
+     * DecodeTask constructor
+     *
+     * @param hex         hex string
+     * @param start       index of first byte to decode
+     * @param end         index after last byte to decode
+     * @param destination destination array
+     */
+    DecodeTask(@Nonnull CharSequence hex, int start, int end, @Nonnull byte[] destination){
+      this.hex = hex;
+      this.start = start;
+      this.end = end;
+      this.destination = destination;
+    }
+
+    @Override
+    protected void compute(){
+      if(end - start <= PARALLEL_THRESHOLD){
+        decode(hex, start << 1, end << 1, destination, start);
+        return;
+      }
+      int middle = (start + end) >>> 1;
+      invokeAll(new DecodeTask(hex, start, middle, destination), new DecodeTask(hex, middle, end, destination));
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * Input stream that reads hex digits from either an InputStream as ASCII bytes or from a Reader as characters and
+ * returns the decoded bytes
+ * <p>
+ * Digits are decoded in fixed-size chunks so memory use stays constant no matter how large the input is. Digits may be
+ * in either case. Non-hexadecimal characters and odd number of digits are reported as IOException.
+ */
+@NotThreadSafe
+public final class HexDecodingInputStream extends InputStream{
+
+  /** Default number of bytes decoded per chunk */
+  public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+  /** Input stream to read ASCII hex digits from, null if reading from a reader */
+  @Nullable
+  private final InputStream in;
+
+  /** Reader to read hex digits from, null if reading from an input stream */
+  @Nullable
+  private final Reader reader;
+
+  /** Raw ASCII hex digits, null if reading from a reader */
+  @Nullable
+  private final byte[] asciiBuffer;
+
+  /** Raw hex digits, null if reading from an input stream */
+  @Nullable
+  private final char[] charBuffer;
+
+  /** Decoded bytes */
+  @Nonnull
+  private final byte[] decoded;
+
+  /** Index of next decoded byte to return */
+  private int decodedPosition = 0;
+
+  /** Number of decoded bytes in the buffer */
+  private int decodedLimit = 0;
+
+  /** Number of undecoded digits left at the start of raw buffer, either 0 or 1 */
+  private int pending = 0;
+
+  /** Number of digits decoded so far, used for error messages */
+  private long position = 0;
+
+  /** Indicates whether the underlying input has been exhausted */
+  private boolean exhausted = false;
+
+  /** Indicates whether this stream has been closed */
+  private boolean closed = false;
+
+  /** Error that failed decoding, later reads fail with it too, null if none */
+  @Nullable
+  private IOException failure = null;
+
+  /**
+   * Creates stream that reads ASCII hex digits from the input stream
+   *
+   * @param in input stream
+   */
+  public HexDecodingInputStream(@Nonnull InputStream in){
+    this(in, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Creates stream that reads ASCII hex digits from the input stream
+   *
+   * @param in        input stream
+   * @param chunkSize number of bytes decoded per chunk
+   */
+  public HexDecodingInputStream(@Nonnull InputStream in, int chunkSize){
+    this.in = Validation.assertNonnull(in, "in");
+    this.reader = null;
+    this.decoded = new byte[HexEncodingOutputStream.assertChunkSize(chunkSize)];
+    this.asciiBuffer = new byte[chunkSize << 1];
+    this.charBuffer = null;
+  }
+
+  /**
+   * Creates stream that reads hex digits from the reader
+   *
+   * @param reader reader
+   */
+  public HexDecodingInputStream(@Nonnull Reader reader){
+    this(reader, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Creates stream that reads hex digits from the reader
+   *
+   * @param reader    reader
+   * @param chunkSize number of bytes decoded per chunk
+   */
+  public HexDecodingInputStream(@Nonnull Reader reader, int chunkSize){
+    this.in = null;
+    this.reader = Validation.assertNonnull(reader, "reader");
+    this.decoded = new byte[HexEncodingOutputStream.assertChunkSize(chunkSize)];
+    this.asciiBuffer = null;
+    this.charBuffer = new char[chunkSize << 1];
+  }
+
+  @Override
+  public int read() throws IOException{
+    ensureOpen();
+    if(decodedPosition == decodedLimit && !fill()) return -1;
+    return decoded[decodedPosition++] & 0xFF;
+  }
+
+  @Override
+  public int read(@Nonnull byte[] bytes, int offset, int length) throws IOException{
+
+    // Check parameters
+    ensureOpen();
+    Validation.assertNonnull(bytes, "bytes");
+    Hex.checkBounds(offset, length, bytes.length);
+    if(length == 0) return 0;
+
+    // Fill if empty
+    if(decodedPosition == decodedLimit && !fill()) return -1;
+
+    // Copy out what's available
+    int copying = Math.min(length, decodedLimit - decodedPosition);
+    System.arraycopy(decoded, decodedPosition, bytes, offset, copying);
+    decodedPosition += copying;
+
+    // Return number of bytes
+    return copying;
+  }
+
+  /**
+   * Reads next chunk of digits and decodes it
+   *
+   * @return true if anything was decoded, false if input is exhausted
+   * @throws IOException thrown if input cannot be read, contains non-hexadecimal characters or has odd number of digits
+   */
+  private boolean fill() throws IOException{
+
+    // Stay failed once input is found to be invalid
+    if(failure != null) throw new IOException(failure.getMessage(), failure);
+
+    // Reset decoded buffer
+    decodedPosition = 0;
+    decodedLimit = 0;
+
+    // Read until there's at least one pair of digits
+    while(!exhausted){
+
+      // Read raw digits after the pending one
+      int read;
+      if(in != null) read = in.read(asciiBuffer, pending, asciiBuffer.length - pending);
+      else if(reader != null) read = reader.read(charBuffer, pending, charBuffer.length - pending);
+      else throw new IllegalStateException("No input");
+
+      // Check if end of input
+      if(read == -1){
+        exhausted = true;
+        if(pending != 0){
+          failure = new IOException(Utility.f("Hex input ends with an odd digit at index {}", position));
+          throw failure;
+        }
+        return false;
+      }
+
+      // Decode all complete pairs
+      int available = pending + read;
+      int digits = available & ~1;
+      try{
+        if(asciiBuffer != null) Hex.decodeAscii(asciiBuffer, 0, digits, decoded, 0, position);
+        else if(charBuffer != null) Hex.decode(charBuffer, 0, digits, decoded, 0, position);
+      }catch(IllegalArgumentException e){
+        failure = new IOException(e.getMessage(), e);
+        throw failure;
+      }
+      position += digits;
+
+      // Move leftover digit to the start
+      pending = available - digits;
+      if(pending != 0){
+        if(asciiBuffer != null) asciiBuffer[0] = asciiBuffer[digits];
+        else if(charBuffer != null) charBuffer[0] = charBuffer[digits];
+      }
+
+      // Done if anything was decoded
+      decodedLimit = digits >>> 1;
+      if(decodedLimit > 0) return true;
+    }
+
+    // Nothing left
+    return false;
+  }
+
+  @Override
+  public int available() throws IOException{
+    ensureOpen();
+    return decodedLimit - decodedPosition;
+  }
+
+  @Override
+  public void close() throws IOException{
+    if(closed) return;
+    closed = true;
+    if(in != null) in.close();
+    else if(reader != null) reader.close();
+  }
+
+  /**
+   * Ensures that stream is not closed
+   *
+   * @throws IOException thrown if stream is closed
+   */
+  private void ensureOpen() throws IOException{
+    if(closed) throw new IOException("Stream closed");
+  }
+}
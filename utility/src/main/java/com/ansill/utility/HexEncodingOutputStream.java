@@ -0,0 +1,203 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Output stream that hex-encodes everything written to it and passes the hex digits on to either an OutputStream as
+ * ASCII bytes or to a Writer as characters
+ * <p>
+ * Bytes are encoded in fixed-size chunks so memory use stays constant no matter how much is written. Remember to
+ * flush or close the stream, otherwise the last chunk may not be passed on.
+ */
+@NotThreadSafe
+public final class HexEncodingOutputStream extends OutputStream{
+
+  /** Default number of bytes encoded per chunk */
+  public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+  /** Output stream to write ASCII hex digits to, null if writing to a writer */
+  @Nullable
+  private final OutputStream out;
+
+  /** Writer to write hex digits to, null if writing to an output stream */
+  @Nullable
+  private final Writer writer;
+
+  /** Table of character pairs */
+  @Nonnull
+  private final char[] pairs;
+
+  /** Number of bytes encoded per chunk */
+  private final int chunkSize;
+
+  /** Encoded ASCII hex digits, null if writing to a writer */
+  @Nullable
+  private final byte[] asciiBuffer;
+
+  /** Encoded hex digits, null if writing to an output stream */
+  @Nullable
+  private final char[] charBuffer;
+
+  /** Number of bytes encoded in the buffer */
+  private int count = 0;
+
+  /** Indicates whether this stream has been closed */
+  private boolean closed = false;
+
+  /**
+   * Creates stream that writes upper-case ASCII hex digits to the output stream
+   *
+   * @param out output stream
+   */
+  public HexEncodingOutputStream(@Nonnull OutputStream out){
+    this(out, true, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Creates stream that writes ASCII hex digits to the output stream
+   *
+   * @param out       output stream
+   * @param upperCase true for upper-case digits, false for lower-case digits
+   * @param chunkSize number of bytes encoded per chunk
+   */
+  public HexEncodingOutputStream(@Nonnull OutputStream out, boolean upperCase, int chunkSize){
+    this.out = Validation.assertNonnull(out, "out");
+    this.writer = null;
+    this.pairs = Hex.pairs(upperCase);
+    this.chunkSize = assertChunkSize(chunkSize);
+    this.asciiBuffer = new byte[chunkSize << 1];
+    this.charBuffer = null;
+  }
+
+  /**
+   * Creates stream that writes upper-case hex digits to the writer
+   *
+   * @param writer writer
+   */
+  public HexEncodingOutputStream(@Nonnull Writer writer){
+    this(writer, true, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Creates stream that writes hex digits to the writer
+   *
+   * @param writer    writer
+   * @param upperCase true for upper-case digits, false for lower-case digits
+   * @param chunkSize number of bytes encoded per chunk
+   */
+  public HexEncodingOutputStream(@Nonnull Writer writer, boolean upperCase, int chunkSize){
+    this.out = null;
+    this.writer = Validation.assertNonnull(writer, "writer");
+    this.pairs = Hex.pairs(upperCase);
+    this.chunkSize = assertChunkSize(chunkSize);
+    this.asciiBuffer = null;
+    this.charBuffer = new char[chunkSize << 1];
+  }
+
+  /**
+   * Ensures chunk size is valid
+   *
+   * @param chunkSize chunk size
+   * @return chunk size
+   * @throws IllegalArgumentException thrown if chunk size is not positive or too large
+   */
+  static int assertChunkSize(int chunkSize){
+    if(chunkSize <= 0 || chunkSize > Integer.MAX_VALUE >>> 2){
+      throw new IllegalArgumentException(Utility.f("Chunk size {} is out of range", chunkSize));
+    }
+    return chunkSize;
+  }
+
+  @Override
+  public void write(int b) throws IOException{
+
+    // Ensure not closed
+    ensureOpen();
+
+    // Encode the byte
+    int index = (b & 0xFF) << 1;
+    int position = count << 1;
+    if(asciiBuffer != null){
+      asciiBuffer[position] = (byte) pairs[index];
+      asciiBuffer[position + 1] = (byte) pairs[index + 1];
+    }else if(charBuffer != null){
+      charBuffer[position] = pairs[index];
+      charBuffer[position + 1] = pairs[index + 1];
+    }
+
+    // Pass it on if full
+    if(++count == chunkSize) flushBuffer();
+  }
+
+  @Override
+  public void write(@Nonnull byte[] bytes, int offset, int length) throws IOException{
+
+    // Check parameters
+    ensureOpen();
+    Validation.assertNonnull(bytes, "bytes");
+    Hex.checkBounds(offset, length, bytes.length);
+
+    // Encode chunk by chunk
+    while(length > 0){
+
+      // Encode as much as buffer can hold
+      int encoding = Math.min(length, chunkSize - count);
+      if(asciiBuffer != null) Hex.encodeAscii(bytes, offset, encoding, asciiBuffer, count << 1, pairs);
+      else if(charBuffer != null) Hex.encode(bytes, offset, encoding, charBuffer, count << 1, pairs);
+      count += encoding;
+      offset += encoding;
+      length -= encoding;
+
+      // Pass it on if full
+      if(count == chunkSize) flushBuffer();
+    }
+  }
+
+  /**
+   * Passes encoded digits in the buffer on
+   *
+   * @throws IOException thrown if underlying stream fails to write
+   */
+  private void flushBuffer() throws IOException{
+    if(count == 0) return;
+    if(out != null) out.write(asciiBuffer, 0, count << 1);
+    else if(writer != null) writer.write(charBuffer, 0, count << 1);
+    count = 0;
+  }
+
+  @Override
+  public void flush() throws IOException{
+    ensureOpen();
+    flushBuffer();
+    if(out != null) out.flush();
+    else if(writer != null) writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException{
+    if(closed) return;
+    closed = true;
+    try{
+      flushBuffer();
+    }finally{
+      if(out != null) out.close();
+      else if(writer != null) writer.close();
+    }
+  }
+
+  /**
+   * Ensures that stream is not closed
+   *
+   * @throws IOException thrown if stream is closed
+   */
+  private void ensureOpen() throws IOException{
+    if(closed) throw new IOException("Stream closed");
+  }
+}
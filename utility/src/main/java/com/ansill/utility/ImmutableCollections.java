@@ -0,0 +1,760 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Compact immutable sets and maps, created by Utility.immutableSetOf and Utility.immutableCopyOf
+ * <p>
+ * Sets and maps of one or two elements keep them in fields. Larger ones keep them in a single open-addressing array
+ * with linear probing, keys and values interleaved for maps, so there's no entry object per element like HashSet and
+ * HashMap have. Null elements and keys are not allowed, null values are.
+ */
+final class ImmutableCollections{
+
+  /** Table is this many times larger than the number of elements */
+  private static final int EXPAND_FACTOR = 2;
+
+  /** Empty set */
+  @Nonnull
+  static final ImmutableSet<Object> EMPTY_SET = new SetN<>(new Object[0], 0);
+
+  /** Empty map */
+  @Nonnull
+  static final ImmutableMap<Object,Object> EMPTY_MAP = new MapN<>(new Object[0], 0);
+
+  /**
+   * Private constructor
+   * <p>
+   * No instantiations allowed because this is an utility class
+   *
+   * @throws AssertionError thrown if any instantiations were attempted
+   */
+  private ImmutableCollections(){
+    throw new AssertionError(f("No {} instances for you!", this.getClass().getName()));
+  }
+
+  /**
+   * Creates set of the items, duplicates are dropped
+   *
+   * @param items items, not modified
+   * @param <V>   value type of set
+   * @return set
+   * @throws IllegalArgumentException thrown if any item is null
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  static <V> ImmutableSet<V> setOf(@Nonnull Object[] items){
+
+    // Check items
+    for(int i = 0; i < items.length; i++){
+      if(items[i] == null) throw new IllegalArgumentException(f("Item at index {} is null", i));
+    }
+
+    // Handle small sets
+    if(items.length == 0) return (ImmutableSet<V>) EMPTY_SET;
+    if(items.length == 1 || (items.length == 2 && items[0].equals(items[1]))) return new Set12<>((V) items[0], null);
+    if(items.length == 2) return new Set12<>((V) items[0], (V) items[1]);
+
+    // Hash into table
+    Object[] table = new Object[items.length * EXPAND_FACTOR];
+    int size = 0;
+    for(Object item : items){
+      int index = probe(table, item, 1);
+      if(index < 0){
+        table[-(index + 1)] = item;
+        size++;
+      }
+    }
+    if(size == items.length) return new SetN<>(table, size);
+
+    // Duplicates were dropped, shrink so the table isn't larger than needed
+    Object[] distinct = new Object[size];
+    int count = 0;
+    for(Object item : table){
+      if(item != null) distinct[count++] = item;
+    }
+    return setOf(distinct);
+  }
+
+  /**
+   * Creates map of the entries
+   *
+   * @param map map to copy
+   * @param <K> key type of map
+   * @param <V> value type of map
+   * @return map
+   * @throws IllegalArgumentException thrown if any key is null or keys are equal to each other, which can happen
+   *                                  with maps like IdentityHashMap
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  static <K, V> ImmutableMap<K,V> mapOf(@Nonnull Map<? extends K,? extends V> map){
+
+    // Handle small maps
+    int size = map.size();
+    if(size == 0) return (ImmutableMap<K,V>) EMPTY_MAP;
+    if(size <= 2){
+      Iterator<? extends Map.Entry<? extends K,? extends V>> iterator = map.entrySet().iterator();
+      Map.Entry<? extends K,? extends V> first = iterator.next();
+      K key0 = Validation.assertNonnull(first.getKey(), "key");
+      if(size == 1) return new Map12<>(key0, first.getValue(), null, null);
+      Map.Entry<? extends K,? extends V> second = iterator.next();
+      K key1 = Validation.assertNonnull(second.getKey(), "key");
+      if(key0.equals(key1)) throw new IllegalArgumentException(f("Duplicate key {}", Utility.sensibleToString(key1)));
+      return new Map12<>(key0, first.getValue(), key1, second.getValue());
+    }
+
+    // Hash into table
+    Object[] table = new Object[size * EXPAND_FACTOR * 2];
+    for(Map.Entry<? extends K,? extends V> entry : map.entrySet()){
+      K key = Validation.assertNonnull(entry.getKey(), "key");
+      int index = probe(table, key, 2);
+      if(index >= 0) throw new IllegalArgumentException(f("Duplicate key {}", Utility.sensibleToString(key)));
+      index = -(index + 1);
+      table[index] = key;
+      table[index + 1] = entry.getValue();
+    }
+    return new MapN<>(table, size);
+  }
+
+  /**
+   * Looks up the key in the table
+   *
+   * @param table  table of slots, key is at the start of each slot
+   * @param key    key
+   * @param stride number of array elements per slot
+   * @return index of key, or -(index + 1) of empty slot where it would go
+   */
+  private static int probe(@Nonnull Object[] table, @Nonnull Object key, int stride){
+    int slots = table.length / stride;
+    int hash = key.hashCode();
+    int index = ((hash ^ (hash >>> 16)) & 0x7FFFFFFF) % slots * stride;
+    while(true){
+      Object existing = table[index];
+      if(existing == null) return -(index + 1);
+      if(key.equals(existing)) return index;
+      index += stride;
+      if(index == table.length) index = 0;
+    }
+  }
+
+  /**
+   * Creates exception thrown on any attempt to modify
+   *
+   * @return exception
+   */
+  @Nonnull
+  private static UnsupportedOperationException unsupported(){
+    return new UnsupportedOperationException("Collection is immutable");
+  }
+
+  /**
+   * Base of immutable sets, all mutators throw UnsupportedOperationException
+   *
+   * @param <V> value type of set
+   */
+  @Immutable
+  abstract static class ImmutableSet<V> extends AbstractSet<V>{
+
+    @Override
+    public final boolean add(V item){
+      throw unsupported();
+    }
+
+    @Override
+    public final boolean addAll(@Nonnull Collection<? extends V> items){
+      throw unsupported();
+    }
+
+    @Override
+    public final boolean remove(Object item){
+      throw unsupported();
+    }
+
+    @Override
+    public final boolean removeAll(@Nonnull Collection<?> items){
+      throw unsupported();
+    }
+
+    @Override
+    public final boolean retainAll(@Nonnull Collection<?> items){
+      throw unsupported();
+    }
+
+    @Override
+    public final boolean removeIf(@Nonnull Predicate<? super V> filter){
+      throw unsupported();
+    }
+
+    @Override
+    public final void clear(){
+      throw unsupported();
+    }
+  }
+
+  /**
+   * Set of one or two elements
+   *
+   * @param <V> value type of set
+   */
+  @Immutable
+  private static final class Set12<V> extends ImmutableSet<V>{
+
+    /** First element */
+    @Nonnull
+    private final V element0;
+
+    /** Second element, null if there's only one */
+    @Nullable
+    private final V element1;
+
+    /**
+     * Set12 constructor
+     *
+     * @param element0 first element
+     * @param element1 second element, null if there's only one
+     */
+    Set12(@Nonnull V element0, @Nullable V element1){
+      this.element0 = element0;
+      this.element1 = element1;
+    }
+
+    @Override
+    public int size(){
+      return element1 == null ? 1 : 2;
+    }
+
+    @Override
+    public boolean isEmpty(){
+      return false;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object object){
+      return object != null && (object.equals(element0) || object.equals(element1));
+    }
+
+    @Override
+    public int hashCode(){
+      return element0.hashCode() + (element1 == null ? 0 : element1.hashCode());
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<V> iterator(){
+      return new Iterator<V>(){
+
+        /** Number of elements returned so far */
+        private int index = 0;
+
+        @Override
+        public boolean hasNext(){
+          return index < size();
+        }
+
+        @Override
+        public V next(){
+          if(!hasNext()) throw new NoSuchElementException();
+          return index++ == 0 ? element0 : element1;
+        }
+      };
+    }
+  }
+
+  /**
+   * Set of any number of elements in open-addressing table
+   *
+   * @param <V> value type of set
+   */
+  @Immutable
+  private static final class SetN<V> extends ImmutableSet<V>{
+
+    /** Table of elements, empty slots are null */
+    @Nonnull
+    private final Object[] table;
+
+    /** Number of elements */
+    private final int size;
+
+    /**
+     * SetN constructor
+     *
+     * @param table table of elements
+     * @param size  number of elements
+     */
+    SetN(@Nonnull Object[] table, int size){
+      this.table = table;
+      this.size = size;
+    }
+
+    @Override
+    public int size(){
+      return size;
+    }
+
+    @Override
+    public boolean isEmpty(){
+      return size == 0;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object object){
+      return object != null && size != 0 && probe(table, object, 1) >= 0;
+    }
+
+    @Override
+    public int hashCode(){
+      int hash = 0;
+      for(Object item : table){
+        if(item != null) hash += item.hashCode();
+      }
+      return hash;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<V> iterator(){
+      return new Iterator<V>(){
+
+        /** Index of next slot to look at */
+        private int index = 0;
+
+        /** Number of elements left */
+        private int remaining = size;
+
+        @Override
+        public boolean hasNext(){
+          return remaining > 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V next(){
+          if(remaining == 0) throw new NoSuchElementException();
+          while(table[index] == null) index++;
+          remaining--;
+          return (V) table[index++];
+        }
+      };
+    }
+  }
+
+  /**
+   * Base of immutable maps, all mutators throw UnsupportedOperationException
+   *
+   * @param <K> key type of map
+   * @param <V> value type of map
+   */
+  @Immutable
+  abstract static class ImmutableMap<K, V> extends AbstractMap<K,V>{
+
+    /** Entry set, created on first use */
+    @Nullable
+    private transient Set<Entry<K,V>> entries;
+
+    /** Key set, created on first use */
+    @Nullable
+    private transient Set<K> keys;
+
+    /** Values, created on first use */
+    @Nullable
+    private transient Collection<V> values;
+
+    /**
+     * Returns iterator over entries
+     *
+     * @return iterator
+     */
+    @Nonnull
+    abstract Iterator<Entry<K,V>> entryIterator();
+
+    @Nonnull
+    @Override
+    public Set<Entry<K,V>> entrySet(){
+      Set<Entry<K,V>> result = entries;
+      if(result == null){
+        result = new EntrySet();
+        entries = result;
+      }
+      return result;
+    }
+
+    @Nonnull
+    @Override
+    public Set<K> keySet(){
+      Set<K> result = keys;
+      if(result == null){
+        result = new KeySet();
+        keys = result;
+      }
+      return result;
+    }
+
+    @Nonnull
+    @Override
+    public Collection<V> values(){
+      Collection<V> result = values;
+      if(result == null){
+        result = Collections.unmodifiableCollection(super.values());
+        values = result;
+      }
+      return result;
+    }
+
+    @Override
+    public final V put(K key, V value){
+      throw unsupported();
+    }
+
+    @Override
+    public final void putAll(@Nonnull Map<? extends K,? extends V> map){
+      throw unsupported();
+    }
+
+    @Override
+    public final V remove(Object key){
+      throw unsupported();
+    }
+
+    @Override
+    public final void clear(){
+      throw unsupported();
+    }
+
+    @Override
+    public final void replaceAll(@Nonnull BiFunction<? super K,? super V,? extends V> function){
+      throw unsupported();
+    }
+
+    @Override
+    public final V putIfAbsent(K key, V value){
+      throw unsupported();
+    }
+
+    @Override
+    public final boolean remove(Object key, Object value){
+      throw unsupported();
+    }
+
+    @Override
+    public final boolean replace(K key, V oldValue, V newValue){
+      throw unsupported();
+    }
+
+    @Override
+    public final V replace(K key, V value){
+      throw unsupported();
+    }
+
+    @Override
+    public final V computeIfAbsent(K key, @Nonnull Function<? super K,? extends V> function){
+      throw unsupported();
+    }
+
+    @Override
+    public final V computeIfPresent(K key, @Nonnull BiFunction<? super K,? super V,? extends V> function){
+      throw unsupported();
+    }
+
+    @Override
+    public final V compute(K key, @Nonnull BiFunction<? super K,? super V,? extends V> function){
+      throw unsupported();
+    }
+
+    @Override
+    public final V merge(K key, @Nonnull V value, @Nonnull BiFunction<? super V,? super V,? extends V> function){
+      throw unsupported();
+    }
+
+    /** Key set view */
+    private final class KeySet extends ImmutableSet<K>{
+
+      @Override
+      public int size(){
+        return ImmutableMap.this.size();
+      }
+
+      @Override
+      public boolean contains(@Nullable Object object){
+        return containsKey(object);
+      }
+
+      @Nonnull
+      @Override
+      public Iterator<K> iterator(){
+        Iterator<Entry<K,V>> iterator = entrySet().iterator();
+        return new Iterator<K>(){
+
+          @Override
+          public boolean hasNext(){
+            return iterator.hasNext();
+          }
+
+          @Override
+          public K next(){
+            return iterator.next().getKey();
+          }
+        };
+      }
+    }
+
+    /** Entry set view */
+    private final class EntrySet extends ImmutableSet<Entry<K,V>>{
+
+      @Override
+      public int size(){
+        return ImmutableMap.this.size();
+      }
+
+      @Override
+      public boolean contains(@Nullable Object object){
+        if(!(object instanceof Entry)) return false;
+        Entry<?,?> entry = (Entry<?,?>) object;
+        Object key = entry.getKey();
+        if(!containsKey(key)) return false;
+        Object value = get(key);
+        return value == null ? entry.getValue() == null : value.equals(entry.getValue());
+      }
+
+      @Nonnull
+      @Override
+      public Iterator<Entry<K,V>> iterator(){
+        return entryIterator();
+      }
+    }
+  }
+
+  /**
+   * Base of compact immutable maps that keep entries at indices
+   *
+   * @param <K> key type of map
+   * @param <V> value type of map
+   */
+  @Immutable
+  abstract static class ArrayMap<K, V> extends ImmutableMap<K,V>{
+
+    /**
+     * Returns key at the index
+     *
+     * @param index index from 0 to size of map
+     * @return key
+     */
+    @Nonnull
+    abstract K keyAt(int index);
+
+    /**
+     * Returns value at the index
+     *
+     * @param index index from 0 to size of map
+     * @return value
+     */
+    @Nullable
+    abstract V valueAt(int index);
+
+    /**
+     * Returns index of next entry
+     *
+     * @param index index to start looking from
+     * @return index of entry at or after the index
+     */
+    abstract int nextIndex(int index);
+
+    @Nonnull
+    @Override
+    Iterator<Entry<K,V>> entryIterator(){
+      return new Iterator<Entry<K,V>>(){
+
+        /** Index of next entry to look at */
+        private int index = 0;
+
+        /** Number of entries left */
+        private int remaining = size();
+
+        @Override
+        public boolean hasNext(){
+          return remaining > 0;
+        }
+
+        @Override
+        public Entry<K,V> next(){
+          if(remaining == 0) throw new NoSuchElementException();
+          index = nextIndex(index);
+          remaining--;
+          Entry<K,V> entry = new SimpleImmutableEntry<>(keyAt(index), valueAt(index));
+          index++;
+          return entry;
+        }
+      };
+    }
+  }
+
+  /**
+   * Map of one or two entries
+   *
+   * @param <K> key type of map
+   * @param <V> value type of map
+   */
+  @Immutable
+  private static final class Map12<K, V> extends ArrayMap<K,V>{
+
+    /** First key */
+    @Nonnull
+    private final K key0;
+
+    /** First value */
+    @Nullable
+    private final V value0;
+
+    /** Second key, null if there's only one entry */
+    @Nullable
+    private final K key1;
+
+    /** Second value */
+    @Nullable
+    private final V value1;
+
+    /**
+     * Map12 constructor
+     *
+     * @param key0   first key
+     * @param value0 first value
+     * @param key1   second key, null if there's only one entry
+     * @param value1 second value
+     */
+    Map12(@Nonnull K key0, @Nullable V value0, @Nullable K key1, @Nullable V value1){
+      this.key0 = key0;
+      this.value0 = value0;
+      this.key1 = key1;
+      this.value1 = value1;
+    }
+
+    @Override
+    public int size(){
+      return key1 == null ? 1 : 2;
+    }
+
+    @Override
+    public boolean isEmpty(){
+      return false;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key){
+      return key != null && (key.equals(key0) || key.equals(key1));
+    }
+
+    @Override
+    public V get(@Nullable Object key){
+      if(key == null) return null;
+      if(key.equals(key0)) return value0;
+      if(key.equals(key1)) return value1;
+      return null;
+    }
+
+    @Nonnull
+    @Override
+    K keyAt(int index){
+      return index == 0 ? key0 : key1;
+    }
+
+    @Nullable
+    @Override
+    V valueAt(int index){
+      return index == 0 ? value0 : value1;
+    }
+
+    @Override
+    int nextIndex(int index){
+      return index;
+    }
+  }
+
+  /**
+   * Map of any number of entries in open-addressing table
+   *
+   * @param <K> key type of map
+   * @param <V> value type of map
+   */
+  @Immutable
+  private static final class MapN<K, V> extends ArrayMap<K,V>{
+
+    /** Table of keys and values interleaved, empty slots have null key */
+    @Nonnull
+    private final Object[] table;
+
+    /** Number of entries */
+    private final int size;
+
+    /**
+     * MapN constructor
+     *
+     * @param table table of keys and values
+     * @param size  number of entries
+     */
+    MapN(@Nonnull Object[] table, int size){
+      this.table = table;
+      this.size = size;
+    }
+
+    @Override
+    public int size(){
+      return size;
+    }
+
+    @Override
+    public boolean isEmpty(){
+      return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key){
+      return key != null && size != 0 && probe(table, key, 2) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(@Nullable Object key){
+      if(key == null || size == 0) return null;
+      int index = probe(table, key, 2);
+      return index < 0 ? null : (V) table[index + 1];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    @Override
+    K keyAt(int index){
+      return (K) table[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    V valueAt(int index){
+      return (V) table[index + 1];
+    }
+
+    @Override
+    int nextIndex(int index){
+      if((index & 1) != 0) index++;
+      while(table[index] == null) index += 2;
+      return index;
+    }
+  }
+}
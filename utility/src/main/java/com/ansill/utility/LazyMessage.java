@@ -0,0 +1,93 @@
+package com.ansill.utility;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.function.Supplier;
+
+/**
+ * Message that is formatted like Utility.format(String, Object, Object...) but only on first toString() or get(). The
+ * result is memoized after the first read. Only the arguments are captured on creation, so if the message is never
+ * read, then it costs nothing to format.
+ * <p>
+ * Use with APIs that accept Object, CharSequence or Supplier and convert to String only when needed, for example
+ * loggers with disabled levels
+ */
+@ThreadSafe
+public final class LazyMessage implements CharSequence, Supplier<String>{
+
+  /** Message with '{}' */
+  @Nullable
+  private final String message;
+
+  /** First object to replace */
+  @Nullable
+  private final Object object;
+
+  /** Rest of objects to replace */
+  @Nullable
+  private final Object[] objects;
+
+  /** Formatted message, null if not formatted yet */
+  @Nullable
+  private volatile String formatted = null;
+
+  /**
+   * LazyMessage constructor
+   *
+   * @param message message with '{}'
+   * @param object  object to replace
+   * @param objects objects to replace
+   */
+  LazyMessage(@Nullable String message, @Nullable Object object, @Nullable Object[] objects){
+    this.message = message;
+    this.object = object;
+    this.objects = objects;
+  }
+
+  /**
+   * Returns true if the message has been formatted already
+   *
+   * @return true if formatted, false otherwise
+   */
+  public boolean isFormatted(){
+    return formatted != null;
+  }
+
+  @Nonnull
+  @Override
+  public String get(){
+    return toString();
+  }
+
+  @Override
+  public int length(){
+    return toString().length();
+  }
+
+  @Override
+  public char charAt(int index){
+    return toString().charAt(index);
+  }
+
+  @Nonnull
+  @Override
+  public CharSequence subSequence(int start, int end){
+    return toString().subSequence(start, end);
+  }
+
+  @Nonnull
+  @Override
+  public String toString(){
+
+    // Format if not formatted already
+    String result = formatted;
+    if(result == null){
+      result = Utility.format(message, object, objects);
+      formatted = result;
+    }
+
+    // Return it
+    return result;
+  }
+}
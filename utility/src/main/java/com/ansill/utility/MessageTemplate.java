@@ -0,0 +1,341 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pre-compiled message pattern used by Utility.format(String, Object, Object...)
+ * <p>
+ * The pattern is scanned for '{}' slots only once on compile. The template stores the literal segments between the
+ * slots and the offset of each slot in the pattern so formatting is just a sequence of appends into a builder that is
+ * pre-sized from the literal length.
+ */
+@Immutable
+public final class MessageTemplate{
+
+  /** Slot marker */
+  private static final String SLOT = "{}";
+
+  /** Estimated length of each formatted argument, used to pre-size the output */
+  private static final int ESTIMATED_ARGUMENT_LENGTH = 16;
+
+  /** Original pattern */
+  @Nonnull
+  private final String pattern;
+
+  /** Literal segments, there is always one more segment than there are slots */
+  @Nonnull
+  private final String[] segments;
+
+  /** Offset of each slot in the pattern */
+  @Nonnull
+  private final int[] slotOffsets;
+
+  /** Total length of all literal segments */
+  private final int literalLength;
+
+  /**
+   * MessageTemplate constructor
+   *
+   * @param pattern     original pattern
+   * @param segments    literal segments
+   * @param slotOffsets offset of each slot in the pattern
+   */
+  private MessageTemplate(@Nonnull String pattern, @Nonnull String[] segments, @Nonnull int[] slotOffsets){
+    this.pattern = pattern;
+    this.segments = segments;
+    this.slotOffsets = slotOffsets;
+    this.literalLength = pattern.length() - slotOffsets.length * SLOT.length();
+  }
+
+  /**
+   * Compiles the pattern into template
+   *
+   * @param pattern message with '{}'
+   * @return compiled template
+   */
+  @Nonnull
+  public static MessageTemplate compile(@Nonnull String pattern){
+
+    // Ensure no null
+    Validation.assertNonnull(pattern, "pattern");
+
+    // Set up bins
+    List<String> segments = new ArrayList<>();
+    List<Integer> offsets = new ArrayList<>();
+
+    // Scan the pattern, same way as the original format loop did so overlapping braces are treated the same
+    int previousIndex = 0;
+    int braceIndex;
+    while((braceIndex = pattern.indexOf(SLOT, previousIndex)) != -1){
+      segments.add(pattern.substring(previousIndex, braceIndex));
+      offsets.add(braceIndex);
+      previousIndex = braceIndex + SLOT.length();
+    }
+
+    // Finish with the trailing segment
+    segments.add(pattern.substring(previousIndex));
+
+    // Convert offsets to primitive array
+    int[] slotOffsets = new int[offsets.size()];
+    for(int i = 0; i < slotOffsets.length; i++) slotOffsets[i] = offsets.get(i);
+
+    // Return it
+    return new MessageTemplate(pattern, segments.toArray(new String[0]), slotOffsets);
+  }
+
+  /**
+   * Returns the original pattern
+   *
+   * @return pattern
+   */
+  @Nonnull
+  public String getPattern(){
+    return pattern;
+  }
+
+  /**
+   * Returns the number of '{}' slots in the pattern
+   *
+   * @return number of slots
+   */
+  public int getSlotCount(){
+    return slotOffsets.length;
+  }
+
+  /**
+   * Formats the template, replaces '{}' slots with objects in order. If there are fewer objects than slots, the
+   * remaining slots are left in the output as-is. Excess objects are ignored.
+   *
+   * @param objects objects to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public String format(@Nullable Object... objects){
+
+    // If no objects, then return the pattern
+    if(objects == null) return pattern;
+
+    // Set up builder with enough room
+    StringBuilder builder = new StringBuilder(estimateLength(objects.length));
+
+    // Build it
+    appendTo(builder, objects);
+
+    // Return result
+    return builder.toString();
+  }
+
+  /**
+   * Estimates the length of formatted output
+   *
+   * @param argumentCount number of arguments
+   * @return estimated length
+   */
+  int estimateLength(int argumentCount){
+    return literalLength + Math.min(argumentCount, slotOffsets.length) * ESTIMATED_ARGUMENT_LENGTH;
+  }
+
+  /**
+   * Formats the template directly into the builder, replaces '{}' slots with objects in order
+   *
+   * @param builder builder to append to
+   * @param objects objects to replace
+   * @return the same builder
+   */
+  @Nonnull
+  public StringBuilder formatTo(@Nonnull StringBuilder builder, @Nullable Object... objects){
+
+    // Ensure no null
+    Validation.assertNonnull(builder, "builder");
+
+    // If no objects, then append the pattern
+    if(objects == null) return builder.append(pattern);
+
+    // Build it
+    appendTo(builder, objects);
+
+    // Return builder
+    return builder;
+  }
+
+  /**
+   * Formats the template directly into the appendable, replaces '{}' slots with objects in order
+   *
+   * @param appendable appendable to append to
+   * @param objects    objects to replace
+   * @param <A>        type of appendable
+   * @return the same appendable
+   * @throws IOException thrown if appendable fails to append
+   */
+  @Nonnull
+  public <A extends Appendable> A formatTo(@Nonnull A appendable, @Nullable Object... objects) throws IOException{
+
+    // Ensure no null
+    Validation.assertNonnull(appendable, "appendable");
+
+    // If no objects, then append the pattern
+    if(objects == null){
+      appendable.append(pattern);
+      return appendable;
+    }
+
+    // Build it
+    if(objects.length == 0) appendRemainder(appendable, 0);
+    else appendTo(appendable, objects[0], objects, 1);
+
+    // Return appendable
+    return appendable;
+  }
+
+  /**
+   * Appends formatted template to the builder
+   *
+   * @param builder builder
+   * @param objects objects to replace
+   */
+  void appendTo(@Nonnull StringBuilder builder, @Nonnull Object[] objects){
+    if(objects.length == 0) appendRemainder(builder, 0);
+    else appendTo(builder, objects[0], objects, 1);
+  }
+
+  /**
+   * Appends formatted template to the builder, the first object is passed separately so it doesn't need to be merged
+   * with the rest of objects into a new array
+   *
+   * @param builder    builder
+   * @param first      first object to replace
+   * @param rest       rest of objects to replace
+   * @param restOffset index of first element in rest to use
+   */
+  void appendTo(@Nonnull StringBuilder builder, @Nullable Object first, @Nonnull Object[] rest, int restOffset){
+
+    // Number of slots that will be filled
+    int filled = Math.min(rest.length - restOffset + 1, slotOffsets.length);
+
+    // Fill in slots
+    for(int i = 0; i < filled; i++){
+      builder.append(segments[i]);
+      builder.append(i == 0 ? first : rest[restOffset + i - 1]);
+    }
+
+    // Finish up
+    appendRemainder(builder, filled);
+  }
+
+  /**
+   * Appends formatted template to the builder with up to four objects passed without an array
+   *
+   * @param builder builder
+   * @param count   number of objects that are passed
+   * @param a0      first object to replace
+   * @param a1      second object to replace
+   * @param a2      third object to replace
+   * @param a3      fourth object to replace
+   */
+  void appendTo(
+    @Nonnull StringBuilder builder,
+    int count,
+    @Nullable Object a0,
+    @Nullable Object a1,
+    @Nullable Object a2,
+    @Nullable Object a3
+  ){
+
+    // Number of slots that will be filled
+    int filled = Math.min(count, slotOffsets.length);
+
+    // Fill in slots
+    if(filled > 0) builder.append(segments[0]).append(a0);
+    if(filled > 1) builder.append(segments[1]).append(a1);
+    if(filled > 2) builder.append(segments[2]).append(a2);
+    if(filled > 3) builder.append(segments[3]).append(a3);
+
+    // Finish up
+    appendRemainder(builder, filled);
+  }
+
+  /**
+   * Appends the literal segment in front of the slot
+   *
+   * @param builder builder
+   * @param slot    index of slot
+   */
+  void appendSegment(@Nonnull StringBuilder builder, int slot){
+    builder.append(segments[slot]);
+  }
+
+  /**
+   * Appends formatted template to the appendable, the first object is passed separately so it doesn't need to be
+   * merged with the rest of objects into a new array
+   *
+   * @param appendable appendable
+   * @param first      first object to replace
+   * @param rest       rest of objects to replace
+   * @param restOffset index of first element in rest to use
+   * @throws IOException thrown if appendable fails to append
+   */
+  void appendTo(@Nonnull Appendable appendable, @Nullable Object first, @Nonnull Object[] rest, int restOffset)
+  throws IOException{
+
+    // Use the faster path if it's a builder
+    if(appendable instanceof StringBuilder){
+      appendTo((StringBuilder) appendable, first, rest, restOffset);
+      return;
+    }
+
+    // Number of slots that will be filled
+    int filled = Math.min(rest.length - restOffset + 1, slotOffsets.length);
+
+    // Fill in slots
+    for(int i = 0; i < filled; i++){
+      appendable.append(segments[i]);
+      appendable.append(String.valueOf(i == 0 ? first : rest[restOffset + i - 1]));
+    }
+
+    // Finish up
+    appendRemainder(appendable, filled);
+  }
+
+  /**
+   * Appends the rest of template after the filled slots
+   *
+   * @param builder builder
+   * @param filled  number of slots that were filled
+   */
+  void appendRemainder(@Nonnull StringBuilder builder, int filled){
+
+    // Finish with the segment after the last filled slot
+    builder.append(segments[filled]);
+
+    // If there are unfilled slots, then copy the rest of the pattern verbatim
+    if(filled < slotOffsets.length) builder.append(pattern, slotOffsets[filled], pattern.length());
+  }
+
+  /**
+   * Appends the rest of template after the filled slots
+   *
+   * @param appendable appendable
+   * @param filled     number of slots that were filled
+   * @throws IOException thrown if appendable fails to append
+   */
+  private void appendRemainder(@Nonnull Appendable appendable, int filled) throws IOException{
+
+    // Finish with the segment after the last filled slot
+    appendable.append(segments[filled]);
+
+    // If there are unfilled slots, then copy the rest of the pattern verbatim
+    if(filled < slotOffsets.length) appendable.append(pattern, slotOffsets[filled], pattern.length());
+  }
+
+  @Override
+  public String toString(){
+    return "MessageTemplate(pattern=" + Utility.sensibleToString(pattern) + ")";
+  }
+}
@@ -0,0 +1,276 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Immutable map backed by a hash array mapped trie
+ * <p>
+ * with(K, V) and without(Object) return a new map that shares all but the O(log n) nodes on the path to the changed
+ * entry with this one, so deriving a map that differs by a few entries costs a few small arrays instead of a full copy.
+ * Null keys are not allowed, null values are.
+ *
+ * @param <K> key type of map
+ * @param <V> value type of map
+ */
+@Immutable
+public final class PersistentMap<K, V> extends ImmutableCollections.ImmutableMap<K,V>{
+
+  /** Empty map */
+  @Nonnull
+  private static final PersistentMap<Object,Object> EMPTY = new PersistentMap<>(null, 0);
+
+  /** Marker of absent key */
+  @Nonnull
+  private static final Object NOT_FOUND = new Object();
+
+  /** Root node, null if empty */
+  @Nullable
+  final HashTrie.Node root;
+
+  /** Number of entries */
+  private final int size;
+
+  /**
+   * PersistentMap constructor
+   *
+   * @param root root node or null if empty
+   * @param size number of entries
+   */
+  PersistentMap(@Nullable HashTrie.Node root, int size){
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Returns empty map
+   *
+   * @param <K> key type of map
+   * @param <V> value type of map
+   * @return empty map
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public static <K, V> PersistentMap<K,V> empty(){
+    return (PersistentMap<K,V>) EMPTY;
+  }
+
+  /**
+   * Copies map into persistent map, returns the map itself if it's already persistent map
+   *
+   * @param map map
+   * @param <K> key type of map
+   * @param <V> value type of map
+   * @return persistent map
+   * @throws IllegalArgumentException thrown if any key is null
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public static <K, V> PersistentMap<K,V> copyOf(@Nonnull Map<? extends K,? extends V> map){
+    Validation.assertNonnull(map, "map");
+    if(map instanceof PersistentMap) return (PersistentMap<K,V>) map;
+    return PersistentMap.<K,V>empty().withAll(map);
+  }
+
+  /**
+   * Returns map with the entry added or replaced
+   *
+   * @param key   key
+   * @param value value
+   * @return new map, or this map if key is already associated with the same value instance
+   * @throws IllegalArgumentException thrown if key is null
+   */
+  @Nonnull
+  public PersistentMap<K,V> with(@Nonnull K key, @Nullable V value){
+    Validation.assertNonnull(key, "key");
+    HashTrie.Change change = new HashTrie.Change();
+    HashTrie.Node newRoot = (root == null ? HashTrie.BitmapNode.EMPTY : root)
+      .with(null, 0, HashTrie.hash(key), key, value, change);
+    if(newRoot == root) return this;
+    return new PersistentMap<>(newRoot, change.sizeChanged ? size + 1 : size);
+  }
+
+  /**
+   * Returns map with the entries added or replaced, path copying is skipped for nodes created by this call
+   *
+   * @param map entries
+   * @return new map, or this map if nothing changed
+   * @throws IllegalArgumentException thrown if any key is null
+   */
+  @Nonnull
+  public PersistentMap<K,V> withAll(@Nonnull Map<? extends K,? extends V> map){
+    Validation.assertNonnull(map, "map");
+    if(map.isEmpty()) return this;
+    Builder<K,V> builder = new Builder<>(this);
+    for(Entry<? extends K,? extends V> entry : map.entrySet()) builder.put(entry.getKey(), entry.getValue());
+    return builder.build();
+  }
+
+  /**
+   * Returns map without the key
+   *
+   * @param key key
+   * @return new map, or this map if key is absent
+   */
+  @Nonnull
+  public PersistentMap<K,V> without(@Nullable Object key){
+    if(key == null || root == null) return this;
+    HashTrie.Change change = new HashTrie.Change();
+    HashTrie.Node newRoot = root.without(null, 0, HashTrie.hash(key), key, change);
+    if(newRoot == root) return this;
+    return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+  }
+
+  @Override
+  public int size(){
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty(){
+    return size == 0;
+  }
+
+  @Override
+  public boolean containsKey(@Nullable Object key){
+    return find(key, NOT_FOUND) != NOT_FOUND;
+  }
+
+  @Nullable
+  @Override
+  public V get(@Nullable Object key){
+    return getOrDefault(key, null);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Nullable
+  @Override
+  public V getOrDefault(@Nullable Object key, @Nullable V defaultValue){
+    return (V) find(key, defaultValue);
+  }
+
+  @Nonnull
+  @Override
+  Iterator<Entry<K,V>> entryIterator(){
+    return new HashTrie.TrieIterator<Entry<K,V>>(root, size){
+
+      @SuppressWarnings("unchecked")
+      @Override
+      Entry<K,V> current(){
+        return new SimpleImmutableEntry<>((K) key, (V) value);
+      }
+    };
+  }
+
+  /**
+   * Finds value of key
+   *
+   * @param key      key
+   * @param notFound value to return if key is absent
+   * @return value or notFound
+   */
+  @Nullable
+  private Object find(@Nullable Object key, @Nullable Object notFound){
+    if(key == null || root == null) return notFound;
+    return root.find(0, HashTrie.hash(key), key, notFound);
+  }
+
+  /**
+   * Builds persistent map by modifying nodes it created in place instead of copying them
+   *
+   * @param <K> key type of map
+   * @param <V> value type of map
+   */
+  @NotThreadSafe
+  static final class Builder<K, V>{
+
+    /** Edit token, replaced once map is built so built nodes are never modified again */
+    @Nonnull
+    private Object edit = new Object();
+
+    /** Root node, null if empty */
+    @Nullable
+    private HashTrie.Node root;
+
+    /** Number of entries */
+    private int size;
+
+    /** Outcome of last update */
+    @Nonnull
+    private final HashTrie.Change change = new HashTrie.Change();
+
+    /**
+     * Builder constructor
+     *
+     * @param map map to start from, its nodes are copied before they are modified
+     */
+    Builder(@Nonnull PersistentMap<K,V> map){
+      this.root = map.root;
+      this.size = map.size;
+    }
+
+    /**
+     * Adds or replaces entry
+     *
+     * @param key   key
+     * @param value value
+     * @return true if key was absent
+     * @throws IllegalArgumentException thrown if key is null
+     */
+    boolean put(@Nonnull K key, @Nullable V value){
+      Validation.assertNonnull(key, "key");
+      change.sizeChanged = false;
+      change.previous = null;
+      root = (root == null ? HashTrie.BitmapNode.EMPTY : root).with(edit, 0, HashTrie.hash(key), key, value, change);
+      if(change.sizeChanged) size++;
+      return change.sizeChanged;
+    }
+
+    /**
+     * Returns value of key
+     *
+     * @param key      key
+     * @param notFound value to return if key is absent
+     * @return value or notFound
+     */
+    @Nullable
+    Object get(@Nonnull Object key, @Nullable Object notFound){
+      return root == null ? notFound : root.find(0, HashTrie.hash(key), key, notFound);
+    }
+
+    /**
+     * Adds entries of other builder
+     *
+     * @param other other builder, its entries are read from a map built from it
+     */
+    void putAll(@Nonnull Builder<K,V> other){
+      for(Entry<K,V> entry : other.build().entrySet()) put(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * Returns number of entries
+     *
+     * @return number of entries
+     */
+    int size(){
+      return size;
+    }
+
+    /**
+     * Builds the map, the builder can still be used afterwards
+     *
+     * @return map
+     */
+    @Nonnull
+    PersistentMap<K,V> build(){
+      edit = new Object();
+      return size == 0 ? empty() : new PersistentMap<>(root, size);
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Immutable set backed by a hash array mapped trie
+ * <p>
+ * with(V), without(Object) and union(Collection) return a new set that shares all but the changed O(log n) paths with
+ * this one, so deriving a set that differs by a few elements from a large one costs a few small arrays instead of a
+ * full copy. Null elements are not allowed.
+ *
+ * @param <V> value type of set
+ */
+@Immutable
+public final class PersistentSet<V> extends ImmutableCollections.ImmutableSet<V>{
+
+  /** Empty set */
+  @Nonnull
+  private static final PersistentSet<Object> EMPTY = new PersistentSet<>(PersistentMap.empty());
+
+  /** Entries, every element maps to itself */
+  @Nonnull
+  private final PersistentMap<V,V> map;
+
+  /**
+   * PersistentSet constructor
+   *
+   * @param map entries
+   */
+  private PersistentSet(@Nonnull PersistentMap<V,V> map){
+    this.map = map;
+  }
+
+  /**
+   * Returns empty set
+   *
+   * @param <V> value type of set
+   * @return empty set
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public static <V> PersistentSet<V> empty(){
+    return (PersistentSet<V>) EMPTY;
+  }
+
+  /**
+   * Creates set of the items, duplicates are dropped
+   *
+   * @param items items
+   * @param <V>   value type of set
+   * @return set
+   * @throws IllegalArgumentException thrown if any item is null
+   */
+  @SafeVarargs
+  @Nonnull
+  public static <V> PersistentSet<V> of(@Nonnull V... items){
+    Validation.assertNonnull(items, "items");
+    PersistentMap.Builder<V,V> builder = new PersistentMap.Builder<>(PersistentMap.empty());
+    for(V item : items) builder.put(item, item);
+    return of(builder);
+  }
+
+  /**
+   * Copies collection into persistent set, returns the collection itself if it's already persistent set
+   *
+   * @param collection collection
+   * @param <V>        value type of set
+   * @return set
+   * @throws IllegalArgumentException thrown if any item is null
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public static <V> PersistentSet<V> copyOf(@Nonnull Collection<? extends V> collection){
+    Validation.assertNonnull(collection, "collection");
+    if(collection instanceof PersistentSet) return (PersistentSet<V>) collection;
+    return PersistentSet.<V>empty().union(collection);
+  }
+
+  /**
+   * Creates set from builder
+   *
+   * @param builder builder of entries that map elements to themselves
+   * @param <V>     value type of set
+   * @return set
+   */
+  @Nonnull
+  static <V> PersistentSet<V> of(@Nonnull PersistentMap.Builder<V,V> builder){
+    return builder.size() == 0 ? empty() : new PersistentSet<>(builder.build());
+  }
+
+  /**
+   * Returns set with the item added
+   *
+   * @param item item
+   * @return new set, or this set if item is already in it
+   * @throws IllegalArgumentException thrown if item is null
+   */
+  @Nonnull
+  public PersistentSet<V> with(@Nonnull V item){
+    Validation.assertNonnull(item, "item");
+    if(map.containsKey(item)) return this;
+    return new PersistentSet<>(map.with(item, item));
+  }
+
+  /**
+   * Returns set without the item
+   *
+   * @param item item
+   * @return new set, or this set if item is not in it
+   */
+  @Nonnull
+  public PersistentSet<V> without(@Nullable Object item){
+    PersistentMap<V,V> newMap = map.without(item);
+    if(newMap == map) return this;
+    return newMap.isEmpty() ? empty() : new PersistentSet<>(newMap);
+  }
+
+  /**
+   * Returns union of this set and the items. If the items are a larger persistent set, this set is added to it instead,
+   * so the larger set's structure is the one that gets shared.
+   *
+   * @param items items
+   * @return new set, or this set if nothing was added
+   * @throws IllegalArgumentException thrown if any item is null
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public PersistentSet<V> union(@Nonnull Collection<? extends V> items){
+    Validation.assertNonnull(items, "items");
+    if(items == this || items.isEmpty()) return this;
+    if(items instanceof PersistentSet && items.size() > size()){
+      return ((PersistentSet<V>) items).union(this);
+    }
+    PersistentMap.Builder<V,V> builder = new PersistentMap.Builder<>(map);
+    boolean changed = false;
+    for(V item : items){
+      if(!map.containsKey(item)) changed |= builder.put(item, item);
+    }
+    return changed ? of(builder) : this;
+  }
+
+  @Override
+  public int size(){
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty(){
+    return map.isEmpty();
+  }
+
+  @Override
+  public boolean contains(@Nullable Object object){
+    return map.containsKey(object);
+  }
+
+  @Nonnull
+  @Override
+  public Iterator<V> iterator(){
+    return new HashTrie.TrieIterator<V>(map.root, map.size()){
+
+      @SuppressWarnings("unchecked")
+      @Override
+      V current(){
+        return (V) key;
+      }
+    };
+  }
+}
@@ -0,0 +1,20 @@
+package com.ansill.utility;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Source of random bytes used by Utility.generateString and related functions
+ * <p>
+ * Implementations must be safe to call from many threads at once. Ready-made sources are in RandomSources, and any
+ * Random can be adapted with RandomSources.of(Random).
+ */
+@FunctionalInterface
+public interface RandomSource{
+
+  /**
+   * Fills the array with random bytes
+   *
+   * @param bytes array to fill
+   */
+  void nextBytes(@Nonnull byte[] bytes);
+}
@@ -0,0 +1,288 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Ready-made RandomSource implementations with different speed and strength trade-offs
+ * <ul>
+ * <li>stripedSecure() - pool of DRBG (Java 9+) or SHA1PRNG instances, each thread is mapped to one of them so threads
+ * rarely contend on the same instance. This is the default source.</li>
+ * <li>nonBlockingSecure() - same as stripedSecure() but with SHA1PRNG instances seeded from NativePRNGNonBlocking, so
+ * nothing ever blocks waiting for entropy.</li>
+ * <li>splittable() - non-cryptographic SplittableRandom per thread. Fast, but only suitable for test data and other
+ * things that don't need to be unpredictable.</li>
+ * <li>of(Random) - adapts any Random.</li>
+ * </ul>
+ * The striped pools don't use the default SecureRandom directly because on Unix-like systems it's NativePRNG, and all
+ * NativePRNG instances share one static state behind one lock, so striping them wouldn't spread any contention.
+ * Instead each stripe keeps its own state and is seeded once from the native source.
+ */
+public final class RandomSources{
+
+  /** Algorithms of stripes tried in order by stripedSecure(), each instance keeps its own state */
+  @Nonnull
+  private static final String[] STRIPE_ALGORITHMS = {"DRBG", "SHA1PRNG"};
+
+  /** Algorithms of stripes of nonBlockingSecure(), only seeded from the given seed so it never blocks */
+  @Nonnull
+  private static final String[] NON_BLOCKING_STRIPE_ALGORITHMS = {"SHA1PRNG"};
+
+  /** Algorithm of non-blocking native source, available on Unix-like systems */
+  @Nonnull
+  private static final String NON_BLOCKING_SEED_ALGORITHM = "NativePRNGNonBlocking";
+
+  /** Number of seed bytes of each stripe */
+  private static final int SEED_BYTES = 32;
+
+  /**
+   * Private constructor
+   * <p>
+   * No instantiations allowed because this is an utility class
+   *
+   * @throws AssertionError thrown if any instantiations were attempted
+   */
+  private RandomSources(){
+    throw new AssertionError(f("No {} instances for you!", this.getClass().getName()));
+  }
+
+  /**
+   * Creates striped pool of DRBG or SHA1PRNG instances seeded from the default SecureRandom, two per available
+   * processor
+   *
+   * @return random source
+   */
+  @Nonnull
+  public static RandomSource stripedSecure(){
+    return stripedSecure(defaultStripes());
+  }
+
+  /**
+   * Creates striped pool of DRBG or SHA1PRNG instances seeded from the default SecureRandom
+   *
+   * @param stripes number of instances, rounded up to power of two
+   * @return random source
+   */
+  @Nonnull
+  public static RandomSource stripedSecure(int stripes){
+    SecureRandom seeds = new SecureRandom();
+    return new Striped(stripes, () -> createStripe(STRIPE_ALGORITHMS, seeds));
+  }
+
+  /**
+   * Creates striped pool of SecureRandom instances that never block waiting for entropy, two per available processor
+   * <p>
+   * Stripes are SHA1PRNG instances seeded from NativePRNGNonBlocking where available (Unix-like systems), otherwise
+   * from the default SecureRandom
+   *
+   * @return random source
+   */
+  @Nonnull
+  public static RandomSource nonBlockingSecure(){
+    SecureRandom seeds = createNonBlockingSeeds();
+    return new Striped(defaultStripes(), () -> createStripe(NON_BLOCKING_STRIPE_ALGORITHMS, seeds));
+  }
+
+  /**
+   * Creates non-cryptographic source with a SplittableRandom per thread, seeded from the default seed generator
+   *
+   * @return random source
+   */
+  @Nonnull
+  public static RandomSource splittable(){
+    return new Splittable(new SplittableRandom());
+  }
+
+  /**
+   * Creates non-cryptographic source with a SplittableRandom per thread, split from a root seeded with the seed
+   * <p>
+   * Output depends on the order in which threads first use the source, so it's only reproducible with a single thread
+   *
+   * @param seed seed
+   * @return random source
+   */
+  @Nonnull
+  public static RandomSource splittable(long seed){
+    return new Splittable(new SplittableRandom(seed));
+  }
+
+  /**
+   * Adapts the random generator
+   *
+   * @param random random generator
+   * @return random source
+   */
+  @Nonnull
+  public static RandomSource of(@Nonnull Random random){
+    Validation.assertNonnull(random, "random");
+    return random::nextBytes;
+  }
+
+  /**
+   * Returns default number of stripes
+   *
+   * @return two per available processor
+   */
+  private static int defaultStripes(){
+    return Runtime.getRuntime().availableProcessors() * 2;
+  }
+
+  /**
+   * Creates native source of seeds that doesn't block waiting for entropy
+   *
+   * @return secure random generator
+   */
+  @Nonnull
+  private static SecureRandom createNonBlockingSeeds(){
+    try{
+      return SecureRandom.getInstance(NON_BLOCKING_SEED_ALGORITHM);
+    }catch(NoSuchAlgorithmException e){
+      return new SecureRandom();
+    }
+  }
+
+  /**
+   * Creates stripe with its own state, seeded once from the seed source
+   *
+   * @param algorithms algorithms tried in order
+   * @param seeds      source of seeds
+   * @return secure random generator
+   */
+  @Nonnull
+  private static SecureRandom createStripe(@Nonnull String[] algorithms, @Nonnull SecureRandom seeds){
+
+    // Find algorithm
+    SecureRandom random = null;
+    for(String algorithm : algorithms){
+      try{
+        random = SecureRandom.getInstance(algorithm);
+        break;
+      }catch(NoSuchAlgorithmException e){
+        // Try next one
+      }
+    }
+    if(random == null) throw new IllegalStateException(f("None of {} is available", Arrays.toString(algorithms)));
+
+    // Seed it
+    byte[] seed = new byte[SEED_BYTES];
+    seeds.nextBytes(seed);
+    random.setSeed(seed);
+    return random;
+  }
+
+  /**
+   * Picks a stripe for the calling thread
+   * <p>
+   * This is a multiplicative hash of the thread id, not the JDK-internal thread probe, so consecutive ids land on
+   * different stripes but a thread always uses the same stripe
+   *
+   * @param mask number of stripes minus one
+   * @return stripe index
+   */
+  private static int stripe(int mask){
+    long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+    return (int) (id >>> 32) & mask;
+  }
+
+  /** Pool of SecureRandom instances selected by hash of thread id */
+  @ThreadSafe
+  private static final class Striped implements RandomSource{
+
+    /** Instances */
+    @Nonnull
+    private final SecureRandom[] randoms;
+
+    /**
+     * Striped constructor
+     *
+     * @param stripes number of instances, rounded up to power of two
+     * @param factory creates instances
+     */
+    private Striped(int stripes, @Nonnull Supplier<SecureRandom> factory){
+      if(stripes <= 0 || stripes > 1 << 16){
+        throw new IllegalArgumentException(f("Number of stripes {} is out of range", stripes));
+      }
+      int size = Integer.highestOneBit(stripes - 1) << 1;
+      this.randoms = new SecureRandom[Math.max(size, 1)];
+      for(int i = 0; i < randoms.length; i++) randoms[i] = factory.get();
+    }
+
+    @Override
+    public void nextBytes(@Nonnull byte[] bytes){
+      randoms[stripe(randoms.length - 1)].nextBytes(bytes);
+    }
+
+    @Override
+    public String toString(){
+      return f("RandomSources.Striped(algorithm={}, stripes={})", randoms[0].getAlgorithm(), randoms.length);
+    }
+  }
+
+  /** SplittableRandom per thread, split from a shared root */
+  @ThreadSafe
+  private static final class Splittable implements RandomSource{
+
+    /** Root generator, only touched under its own lock when a thread first uses this source */
+    @Nonnull
+    private final SplittableRandom root;
+
+    /** Per-thread generators */
+    @Nonnull
+    private final ThreadLocal<SplittableRandom> generators;
+
+    /**
+     * Splittable constructor
+     *
+     * @param root root generator
+     */
+    private Splittable(@Nonnull SplittableRandom root){
+      this.root = root;
+      this.generators = ThreadLocal.withInitial(this::split);
+    }
+
+    /**
+     * Splits root generator
+     *
+     * @return new generator
+     */
+    @Nonnull
+    private SplittableRandom split(){
+      synchronized(root){
+        return root.split();
+      }
+    }
+
+    @Override
+    public void nextBytes(@Nonnull byte[] bytes){
+      SplittableRandom random = generators.get();
+
+      // Fill eight bytes at a time
+      int index = 0;
+      for(int end = bytes.length & ~7; index < end; ){
+        long value = random.nextLong();
+        for(int i = 0; i < 8; i++, value >>>= 8) bytes[index++] = (byte) value;
+      }
+
+      // Fill the rest
+      if(index < bytes.length){
+        long value = random.nextLong();
+        for(; index < bytes.length; value >>>= 8) bytes[index++] = (byte) value;
+      }
+    }
+
+    @Override
+    public String toString(){
+      return "RandomSources.Splittable()";
+    }
+  }
+}
@@ -0,0 +1,342 @@
+package com.ansill.utility;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Fills characters with random picks from an alphabet, used by Utility.generateString(long)
+ * <p>
+ * Random bytes are drawn in bulk with nextBytes(byte[]) and consumed a few bits at a time, as many bits per character
+ * as needed to index the alphabet. Values that fall outside the alphabet are rejected and drawn again, so every
+ * character of the alphabet is equally likely. With the 62-character alphanumeric alphabet, each character takes 6
+ * bits and only 2 of 64 values are rejected.
+ * <p>
+ * Streams of strings generate characters for many strings at once into a shared block and slice strings out of it.
+ * When a stream is parallel, each part is generated by whichever thread runs it, drawing from that thread's own buffer
+ * of the global source, or from the provided source which is safe to use from many threads.
+ * <p>
+ * When no source is provided, the global RandomSource is used through a per-thread buffer of random bytes, so most
+ * calls don't touch the source at all.
+ */
+@ThreadSafe
+final class RandomStrings{
+
+  /** Number of random bytes drawn at once into per-thread buffers */
+  private static final int THREAD_BUFFER_SIZE = 512;
+
+  /** Maximum number of random bytes drawn at once from caller-provided sources */
+  private static final int MAX_BUFFER_SIZE = 1024;
+
+  /** Number of characters generated at once by streams of strings */
+  private static final int BATCH_CHARACTERS = 8192;
+
+  /** Streams of strings are not split into parts smaller than this many strings */
+  private static final int MIN_SPLIT = 256;
+
+  /** Per-thread random bytes drawn from the global source */
+  @Nonnull
+  private static final ThreadLocal<RandomBytes> THREAD_BYTES = new ThreadLocal<>();
+
+  /**
+   * Private constructor
+   * <p>
+   * No instantiations allowed because this is an utility class
+   *
+   * @throws AssertionError thrown if any instantiations were attempted
+   */
+  private RandomStrings(){
+    throw new AssertionError(Utility.f("No {} instances for you!", this.getClass().getName()));
+  }
+
+  /**
+   * Generates string of random characters with the global source
+   *
+   * @param length   length of string
+   * @param alphabet alphabet
+   * @return random string
+   */
+  @Nonnull
+  static String generate(@Nonnegative int length, @Nonnull Alphabet alphabet){
+    char[] characters = new char[length];
+    fill(forThread(Utility.getRandomSource()), characters, 0, length, alphabet);
+    return new String(characters);
+  }
+
+  /**
+   * Generates string of random characters with the source
+   *
+   * @param source   random source
+   * @param length   length of string
+   * @param alphabet alphabet
+   * @return random string
+   */
+  @Nonnull
+  static String generate(@Nonnull RandomSource source, @Nonnegative int length, @Nonnull Alphabet alphabet){
+    char[] characters = new char[length];
+    fill(forCall(source, length, alphabet), characters, 0, length, alphabet);
+    return new String(characters);
+  }
+
+  /**
+   * Creates stream of random strings
+   *
+   * @param source   random source or null to use the global source
+   * @param count    number of strings
+   * @param length   length of each string
+   * @param alphabet alphabet
+   * @return sequential stream that can be made parallel
+   */
+  @Nonnull
+  static Stream<String> stream(
+    @Nullable RandomSource source,
+    @Nonnegative long count,
+    @Nonnegative int length,
+    @Nonnull Alphabet alphabet
+  ){
+    return StreamSupport.stream(new StringSpliterator(source, count, length, alphabet), false);
+  }
+
+  /**
+   * Fills characters with the source, or with the global source if null
+   *
+   * @param source     random source or null to use the global source
+   * @param characters characters to fill
+   * @param offset     index of first character to fill
+   * @param length     number of characters to fill
+   * @param alphabet   alphabet
+   */
+  static void fill(
+    @Nullable RandomSource source,
+    @Nonnull char[] characters,
+    int offset,
+    int length,
+    @Nonnull Alphabet alphabet
+  ){
+    RandomBytes bytes = source == null ? forThread(Utility.getRandomSource()) : forCall(source, length, alphabet);
+    fill(bytes, characters, offset, length, alphabet);
+  }
+
+  /**
+   * Returns the calling thread's buffer of random bytes drawn from the source
+   *
+   * @param source global random source
+   * @return random bytes
+   */
+  @Nonnull
+  static RandomBytes forThread(@Nonnull RandomSource source){
+
+    // Reuse buffer unless the global source has been changed since
+    RandomBytes bytes = THREAD_BYTES.get();
+    if(bytes == null || bytes.source != source){
+      bytes = new RandomBytes(source, THREAD_BUFFER_SIZE);
+      THREAD_BYTES.set(bytes);
+    }
+
+    // Return it
+    return bytes;
+  }
+
+  /**
+   * Creates random bytes sized for a single call
+   *
+   * @param source   random source
+   * @param length   number of characters to fill
+   * @param alphabet alphabet
+   * @return random bytes
+   */
+  @Nonnull
+  static RandomBytes forCall(@Nonnull RandomSource source, int length, @Nonnull Alphabet alphabet){
+
+    // Expected number of bits including rejected values, plus a little extra so rejections rarely need another draw
+    int bits = alphabet.bits();
+    long expectedBits = (long) length * bits * (1L << bits) / alphabet.size();
+    long bytes = (expectedBits >>> 3) + (expectedBits >>> 6) + 2;
+
+    // Return it
+    return new RandomBytes(source, (int) Math.min(bytes, MAX_BUFFER_SIZE));
+  }
+
+  /**
+   * Returns number of random bits needed to index the alphabet
+   *
+   * @param alphabetSize size of alphabet
+   * @return number of bits
+   */
+  static int bitsPerCharacter(int alphabetSize){
+    return Math.max(1, 32 - Integer.numberOfLeadingZeros(alphabetSize - 1));
+  }
+
+  /**
+   * Fills characters with random picks from the alphabet
+   *
+   * @param bytes      source of random bytes
+   * @param characters characters to fill
+   * @param offset     index of first character to fill
+   * @param length     number of characters to fill
+   * @param alphabet   alphabet
+   */
+  static void fill(
+    @Nonnull RandomBytes bytes,
+    @Nonnull char[] characters,
+    int offset,
+    int length,
+    @Nonnull Alphabet alphabet
+  ){
+
+    // Single-character alphabet needs no randomness
+    char[] table = alphabet.characters();
+    int size = table.length;
+    int end = offset + length;
+    if(size == 1){
+      for(int i = offset; i < end; i++) characters[i] = table[0];
+      return;
+    }
+
+    // Take bits from reservoir, refilling it a byte at a time
+    int bits = alphabet.bits();
+    int mask = (1 << bits) - 1;
+    int reservoir = 0;
+    int available = 0;
+    int position = offset;
+    while(position < end){
+      if(available < bits){
+        reservoir = (reservoir << 8) | bytes.next();
+        available += 8;
+        continue;
+      }
+      available -= bits;
+      int value = (reservoir >>> available) & mask;
+      if(value < size) characters[position++] = table[value];
+    }
+  }
+
+  /** Buffer of random bytes drawn in bulk from a source */
+  @NotThreadSafe
+  static final class RandomBytes{
+
+    /** Random source */
+    @Nonnull
+    private final RandomSource source;
+
+    /** Random bytes */
+    @Nonnull
+    private final byte[] buffer;
+
+    /** Index of next unused byte */
+    private int position;
+
+    /**
+     * RandomBytes constructor
+     *
+     * @param source random source
+     * @param size   number of bytes to draw at once
+     */
+    RandomBytes(@Nonnull RandomSource source, int size){
+      this.source = source;
+      this.buffer = new byte[Math.max(size, 1)];
+      this.position = buffer.length;
+    }
+
+    /**
+     * Returns next random byte, drawing a new batch if the buffer is used up
+     *
+     * @return random byte in range of 0 to 255
+     */
+    int next(){
+      if(position == buffer.length){
+        source.nextBytes(buffer);
+        position = 0;
+      }
+      return buffer[position++] & 0xFF;
+    }
+  }
+
+  /** Spliterator that generates random strings in batches */
+  @NotThreadSafe
+  private static final class StringSpliterator implements Spliterator<String>{
+
+    /** Random source or null to use the global source */
+    @Nullable
+    private final RandomSource source;
+
+    /** Length of each string */
+    private final int length;
+
+    /** Alphabet */
+    @Nonnull
+    private final Alphabet alphabet;
+
+    /** Number of strings not generated yet */
+    private long remaining;
+
+    /** Block of generated characters, null until first batch */
+    @Nullable
+    private char[] block;
+
+    /** Index of next string in the block */
+    private int index = 0;
+
+    /** Number of strings in the block */
+    private int limit = 0;
+
+    /**
+     * StringSpliterator constructor
+     *
+     * @param source   random source or null to use the global source
+     * @param count    number of strings
+     * @param length   length of each string
+     * @param alphabet alphabet
+     */
+    private StringSpliterator(@Nullable RandomSource source, long count, int length, @Nonnull Alphabet alphabet){
+      this.source = source;
+      this.remaining = count;
+      this.length = length;
+      this.alphabet = alphabet;
+    }
+
+    @Override
+    public boolean tryAdvance(@Nonnull Consumer<? super String> action){
+
+      // Generate next batch if block is used up
+      if(index == limit){
+        if(remaining == 0) return false;
+        int batch = (int) Math.min(remaining, Math.max(1, BATCH_CHARACTERS / Math.max(length, 1)));
+        if(block == null) block = new char[batch * length];
+        fill(source, block, 0, batch * length, alphabet);
+        remaining -= batch;
+        index = 0;
+        limit = batch;
+      }
+
+      // Slice next string out
+      action.accept(new String(block, index++ * length, length));
+      return true;
+    }
+
+    @Nullable
+    @Override
+    public Spliterator<String> trySplit(){
+      if(remaining < MIN_SPLIT * 2) return null;
+      long half = remaining >>> 1;
+      remaining -= half;
+      return new StringSpliterator(source, half, length, alphabet);
+    }
+
+    @Override
+    public long estimateSize(){
+      return remaining + limit - index;
+    }
+
+    @Override
+    public int characteristics(){
+      return SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+  }
+}
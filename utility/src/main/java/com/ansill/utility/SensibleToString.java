@@ -0,0 +1,331 @@
+package com.ansill.utility;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Renders objects for Utility.sensibleToString(Object) directly into a StringBuilder
+ * <p>
+ * Renderers are picked once per class and cached in a ClassValue. Strings and other CharSequences are printed in double
+ * quotation marks with quotes, backslashes and control characters escaped. Primitive arrays, object arrays and
+ * collections are printed like [a, b], maps like {k=v} and optionals like Optional[v]. Collections and maps whose class
+ * overrides the JDK's toString() are printed with it instead. Everything else, including enums, is printed with its
+ * toString(). Elements are rendered recursively the same way.
+ * <p>
+ * Output is cut off with "..." after the given number of characters. Containers nested more than MAX_DEPTH levels deep
+ * are printed as "...", and containers that contain themselves print "(this Collection)", "(this Map)" or "[...]" like
+ * the JDK does.
+ */
+@ThreadSafe
+final class SensibleToString{
+
+  /** Maximum nesting of arrays, collections, maps and optionals */
+  static final int MAX_DEPTH = 16;
+
+  /** Printed when output is cut off */
+  @Nonnull
+  private static final String ELLIPSIS = "...";
+
+  /** Hex digits for escaping control characters */
+  @Nonnull
+  private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+  /** Renders CharSequence */
+  @Nonnull
+  private static final Renderer CHAR_SEQUENCE = (builder, object, limit, depth) -> appendQuoted(
+    builder,
+    (CharSequence) object,
+    limit
+  );
+
+  /** Renders object with its own toString() */
+  @Nonnull
+  private static final Renderer OTHER = (builder, object, limit, depth) -> builder.append(object.toString());
+
+  /** Renders Optional */
+  @Nonnull
+  private static final Renderer OPTIONAL = (builder, object, limit, depth) -> {
+    Optional<?> optional = (Optional<?>) object;
+    if(!optional.isPresent()) builder.append("Optional.empty");
+    else if(depth >= MAX_DEPTH) builder.append("Optional[...]");
+    else{
+      builder.append("Optional[");
+      render(builder, optional.get(), limit, depth + 1);
+      builder.append(']');
+    }
+  };
+
+  /** Renders Collection */
+  @Nonnull
+  private static final Renderer COLLECTION = (builder, object, limit, depth) -> {
+    builder.append('[');
+    if(depth >= MAX_DEPTH) builder.append(ELLIPSIS);
+    else{
+      boolean first = true;
+      for(Object item : (Collection<?>) object){
+        if(builder.length() > limit) break;
+        if(!first) builder.append(", ");
+        first = false;
+        if(item == object) builder.append("(this Collection)");
+        else render(builder, item, limit, depth + 1);
+      }
+    }
+    builder.append(']');
+  };
+
+  /** Renders Map */
+  @Nonnull
+  private static final Renderer MAP = (builder, object, limit, depth) -> {
+    builder.append('{');
+    if(depth >= MAX_DEPTH) builder.append(ELLIPSIS);
+    else{
+      boolean first = true;
+      for(Map.Entry<?,?> entry : ((Map<?,?>) object).entrySet()){
+        if(builder.length() > limit) break;
+        if(!first) builder.append(", ");
+        first = false;
+        if(entry.getKey() == object) builder.append("(this Map)");
+        else render(builder, entry.getKey(), limit, depth + 1);
+        builder.append('=');
+        if(entry.getValue() == object) builder.append("(this Map)");
+        else render(builder, entry.getValue(), limit, depth + 1);
+      }
+    }
+    builder.append('}');
+  };
+
+  /** Renders Object[] */
+  @Nonnull
+  private static final Renderer OBJECT_ARRAY = (builder, object, limit, depth) -> {
+    Object[] array = (Object[]) object;
+    builder.append('[');
+    if(depth >= MAX_DEPTH && array.length != 0) builder.append(ELLIPSIS);
+    else for(int i = 0; i < array.length && builder.length() <= limit; i++){
+      if(i != 0) builder.append(", ");
+      if(array[i] == array) builder.append("[...]");
+      else render(builder, array[i], limit, depth + 1);
+    }
+    builder.append(']');
+  };
+
+  /** Renderers by class */
+  @Nonnull
+  private static final ClassValue<Renderer> RENDERERS = new ClassValue<Renderer>(){
+    @Override
+    protected Renderer computeValue(Class<?> type){
+      return rendererFor(type);
+    }
+  };
+
+  /**
+   * Private constructor
+   * <p>
+   * No instantiations allowed because this is an utility class
+   *
+   * @throws AssertionError thrown if any instantiations were attempted
+   */
+  private SensibleToString(){
+    throw new AssertionError(Utility.f("No {} instances for you!", this.getClass().getName()));
+  }
+
+  /**
+   * Appends sensible representation of the object to the builder
+   *
+   * @param builder   builder
+   * @param object    object
+   * @param maxLength maximum number of characters to append before cutting off with "..."
+   * @return the same builder
+   */
+  @Nonnull
+  static StringBuilder appendTo(@Nonnull StringBuilder builder, @Nullable Object object, @Nonnegative int maxLength){
+
+    // Figure out where to cut off
+    int start = builder.length();
+    int limit = (int) Math.min((long) start + maxLength, Integer.MAX_VALUE);
+
+    // Render it
+    render(builder, object, limit, 0);
+
+    // Cut off if too long
+    if(builder.length() > limit){
+      builder.setLength(limit);
+      builder.append(ELLIPSIS);
+    }
+
+    // Return it
+    return builder;
+  }
+
+  /**
+   * Renders the object
+   *
+   * @param builder builder
+   * @param object  object
+   * @param limit   length of builder at which rendering can stop
+   * @param depth   nesting depth
+   */
+  private static void render(@Nonnull StringBuilder builder, @Nullable Object object, int limit, int depth){
+    if(object == null) builder.append("null");
+    else RENDERERS.get(object.getClass()).render(builder, object, limit, depth);
+  }
+
+  /**
+   * Picks renderer for the class
+   *
+   * @param type class
+   * @return renderer
+   */
+  @Nonnull
+  private static Renderer rendererFor(@Nonnull Class<?> type){
+
+    // Arrays
+    if(type.isArray()){
+      Class<?> component = type.getComponentType();
+      if(!component.isPrimitive()) return OBJECT_ARRAY;
+      if(component == boolean.class) return primitiveArray((out, array, i) -> out.append(((boolean[]) array)[i]));
+      if(component == byte.class) return primitiveArray((out, array, i) -> out.append(((byte[]) array)[i]));
+      if(component == short.class) return primitiveArray((out, array, i) -> out.append(((short[]) array)[i]));
+      if(component == char.class) return primitiveArray((out, array, i) -> out.append(((char[]) array)[i]));
+      if(component == int.class) return primitiveArray((out, array, i) -> out.append(((int[]) array)[i]));
+      if(component == long.class) return primitiveArray((out, array, i) -> out.append(((long[]) array)[i]));
+      if(component == float.class) return primitiveArray((out, array, i) -> out.append(((float[]) array)[i]));
+      return primitiveArray((out, array, i) -> out.append(((double[]) array)[i]));
+    }
+
+    // Enums are printed with their own toString() like everything else
+    if(CharSequence.class.isAssignableFrom(type)) return CHAR_SEQUENCE;
+    if(Enum.class.isAssignableFrom(type)) return OTHER;
+    if(type == Optional.class) return OPTIONAL;
+
+    // Collections and maps are walked only if their toString() is the JDK's, otherwise it's respected
+    if(!hasJdkToString(type)) return OTHER;
+    if(Collection.class.isAssignableFrom(type)) return COLLECTION;
+    if(Map.class.isAssignableFrom(type)) return MAP;
+    return OTHER;
+  }
+
+  /**
+   * Creates renderer of primitive array
+   *
+   * @param appender appends element at index
+   * @return renderer
+   */
+  @Nonnull
+  private static Renderer primitiveArray(@Nonnull ElementAppender appender){
+    return (builder, object, limit, depth) -> {
+      int length = Array.getLength(object);
+      builder.append('[');
+      for(int i = 0; i < length && builder.length() <= limit; i++){
+        if(i != 0) builder.append(", ");
+        appender.append(builder, object, i);
+      }
+      builder.append(']');
+    };
+  }
+
+  /**
+   * Checks whether toString() of the class is declared by a JDK class, either a JDK class itself or one it inherits
+   * without overriding
+   *
+   * @param type class
+   * @return true if it is, false if the class or one of its own superclasses overrides it
+   */
+  private static boolean hasJdkToString(@Nonnull Class<?> type){
+    try{
+      return type.getMethod("toString").getDeclaringClass().getName().startsWith("java.");
+    }catch(NoSuchMethodException e){
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Appends characters in double quotation marks, escaping quotes, backslashes and control characters
+   *
+   * @param builder  builder
+   * @param sequence characters
+   * @param limit    length of builder at which appending can stop
+   */
+  private static void appendQuoted(@Nonnull StringBuilder builder, @Nonnull CharSequence sequence, int limit){
+    builder.append('"');
+
+    // Append runs of plain characters at once
+    int length = sequence.length();
+    int run = 0;
+    for(int i = 0; i < length; i++){
+      char character = sequence.charAt(i);
+      if(character >= 0x20 && character != '"' && character != '\\' && character != 0x7F) continue;
+
+      // Stop if already too long
+      builder.append(sequence, run, i);
+      run = i + 1;
+      if(builder.length() > limit) return;
+
+      // Escape it
+      switch(character){
+        case '"':
+          builder.append("\\\"");
+          break;
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        case '\r':
+          builder.append("\\r");
+          break;
+        case '\t':
+          builder.append("\\t");
+          break;
+        case '\b':
+          builder.append("\\b");
+          break;
+        case '\f':
+          builder.append("\\f");
+          break;
+        default:
+          builder.append("\\u00").append(DIGITS[character >>> 4]).append(DIGITS[character & 0xF]);
+      }
+    }
+
+    // Append the rest, only as much as needed
+    int remaining = Math.max(limit - builder.length() + 1, 0);
+    builder.append(sequence, run, length - run > remaining ? run + remaining : length);
+    builder.append('"');
+  }
+
+  /** Renders object of a particular class */
+  @FunctionalInterface
+  private interface Renderer{
+
+    /**
+     * Renders the object
+     *
+     * @param builder builder
+     * @param object  non-null object
+     * @param limit   length of builder at which rendering can stop
+     * @param depth   nesting depth
+     */
+    void render(@Nonnull StringBuilder builder, @Nonnull Object object, int limit, int depth);
+  }
+
+  /** Appends element of primitive array */
+  @FunctionalInterface
+  private interface ElementAppender{
+
+    /**
+     * Appends the element
+     *
+     * @param builder builder
+     * @param array   primitive array
+     * @param index   index of element
+     */
+    void append(@Nonnull StringBuilder builder, @Nonnull Object array, int index);
+  }
+}
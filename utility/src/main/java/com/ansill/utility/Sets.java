@@ -0,0 +1,449 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Multi-way union and intersection of many large sets
+ * <p>
+ * The result is presized from the input sizes so it never rehashes while being filled. Intersection walks the smallest
+ * set and probes the others smallest-first, so most misses are found early. Functions that take a ForkJoinPool split the
+ * sets into a fork-join tree of tasks once the number of elements to visit reaches the parallel threshold, down to
+ * chunks of each set's spliterator. The chunks sort their elements into buckets by hash, then each range of hashes is
+ * added into its own presized HashSet shard in parallel, and the shards are returned together as a single modifiable
+ * set without copying them again. Input sets must not be modified while they're being merged.
+ */
+public final class Sets{
+
+  /** Number of elements to visit below which the work is done on the calling thread */
+  static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  /** Number of elements below which a set's spliterator isn't split any further */
+  private static final int LEAF_SIZE = 1 << 12;
+
+  /** Largest capacity of presized sets */
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  /** Number of shards per worker of the pool, so workers that finish early can take over shards of slower ones */
+  private static final int SHARDS_PER_WORKER = 4;
+
+  /** Largest number of shards */
+  private static final int MAXIMUM_SHARDS = 1 << 10;
+
+  /**
+   * Private constructor
+   * <p>
+   * No instantiations allowed because this is an utility class
+   *
+   * @throws AssertionError thrown if any instantiations were attempted
+   */
+  private Sets(){
+    throw new AssertionError(f("No {} instances for you!", this.getClass().getName()));
+  }
+
+  /**
+   * Unites sets together on the calling thread, will re-use any one of set if all other sets are empty. Otherwise, the
+   * result is a new HashSet presized to the summed sizes.
+   *
+   * @param sets sets
+   * @param <V>  value type of set
+   * @return united set, or a new empty HashSet if there's no sets
+   * @throws IllegalArgumentException thrown if sets or any set is null
+   */
+  @Nonnull
+  public static <V> Set<V> unionAll(@Nonnull Collection<? extends Set<V>> sets){
+    return unionAll(sets, null);
+  }
+
+  /**
+   * Unites sets together, will re-use any one of set if all other sets are empty. Otherwise, the result is a new HashSet
+   * presized to the summed sizes. If that's at least the parallel threshold, sets are united by tasks on the pool into
+   * HashSet shards, and the result is a new modifiable set made of those shards that behaves like a HashSet.
+   *
+   * @param sets sets
+   * @param pool pool to run on, null to run on the calling thread
+   * @param <V>  value type of set
+   * @return united set, or a new empty HashSet if there's no sets
+   * @throws IllegalArgumentException thrown if sets or any set is null
+   */
+  @Nonnull
+  public static <V> Set<V> unionAll(@Nonnull Collection<? extends Set<V>> sets, @Nullable ForkJoinPool pool){
+
+    // Check parameters
+    List<Set<V>> nonEmpty = nonNullSets(sets);
+
+    // Count elements and drop empty sets in a single pass
+    Set<V> first = null;
+    long total = 0;
+    for(int i = nonEmpty.size() - 1; i >= 0; i--){
+      Set<V> set = nonEmpty.get(i);
+      if(set.isEmpty()){
+        nonEmpty.remove(i);
+        first = set;
+      }else total += set.size();
+    }
+
+    // Re-use set if there's only one with anything in it
+    if(nonEmpty.isEmpty()) return first == null ? new HashSet<>() : first;
+    if(nonEmpty.size() == 1) return nonEmpty.get(0);
+
+    // Unite it on the calling thread if it's small
+    if(pool == null || total < PARALLEL_THRESHOLD || pool.getParallelism() == 1){
+      Set<V> united = new HashSet<>(capacityFor(total));
+      for(Set<V> set : nonEmpty) united.addAll(set);
+      return united;
+    }
+
+    // Sort elements into buckets in parallel
+    int shards = shardsFor(pool);
+    Queue<List<V>[]> buckets = new ConcurrentLinkedQueue<>();
+    pool.invoke(new SetsTask<>(nonEmpty, 0, nonEmpty.size(), buckets, new Set<?>[0], shards));
+
+    // Add buckets into shards in parallel
+    return toShardedSet(pool, buckets, shards);
+  }
+
+  /**
+   * Intersects sets together on the calling thread. Elements of the smallest set are checked against the others in the
+   * order of their sizes, and the result is presized to the smallest set.
+   *
+   * @param sets sets
+   * @param <V>  value type of set
+   * @return new HashSet of elements in every set, empty if there's no sets
+   * @throws IllegalArgumentException thrown if sets or any set is null
+   */
+  @Nonnull
+  public static <V> Set<V> intersectAll(@Nonnull Collection<? extends Set<? extends V>> sets){
+    return intersectAll(sets, null);
+  }
+
+  /**
+   * Intersects sets together. Elements of the smallest set are checked against the others in the order of their sizes,
+   * and the result is presized to the smallest set. If the smallest set has at least the parallel threshold elements,
+   * it's split into tasks on the pool that add into HashSet shards, and the result is a new modifiable set made of
+   * those shards that behaves like a HashSet.
+   *
+   * @param sets sets
+   * @param pool pool to run on, null to run on the calling thread
+   * @param <V>  value type of set
+   * @return new set of elements in every set, empty if there's no sets
+   * @throws IllegalArgumentException thrown if sets or any set is null
+   */
+  @Nonnull
+  public static <V> Set<V> intersectAll(
+    @Nonnull Collection<? extends Set<? extends V>> sets,
+    @Nullable ForkJoinPool pool
+  ){
+
+    // Check parameters
+    List<Set<? extends V>> sorted = nonNullSets(sets);
+
+    // Sort it so smallest set is walked and smaller sets are probed first
+    if(sorted.isEmpty()) return new HashSet<>();
+    sorted.sort(Comparator.comparingInt(Set::size));
+    Set<? extends V> smallest = sorted.get(0);
+    if(smallest.isEmpty()) return new HashSet<>();
+    Set<?>[] filters = sorted.subList(1, sorted.size()).toArray(new Set<?>[0]);
+
+    // Intersect it on the calling thread if it's small
+    if(pool == null || smallest.size() < PARALLEL_THRESHOLD || pool.getParallelism() == 1){
+      Set<V> intersection = new HashSet<>(capacityFor(smallest.size()));
+      for(V item : smallest){
+        if(containedInAll(item, filters)) intersection.add(item);
+      }
+      return intersection;
+    }
+
+    // Sort elements that are in every set into buckets in parallel
+    int shards = shardsFor(pool);
+    Queue<List<V>[]> buckets = new ConcurrentLinkedQueue<>();
+    pool.invoke(new ElementsTask<V>(smallest.spliterator(), buckets, filters, shards));
+
+    // Add buckets into shards in parallel
+    return toShardedSet(pool, buckets, shards);
+  }
+
+  /**
+   * Copies sets into list, making sure none of them is null
+   *
+   * @param sets sets
+   * @param <S>  type of set
+   * @return modifiable list of sets
+   * @throws IllegalArgumentException thrown if sets or any set is null
+   */
+  @Nonnull
+  private static <S extends Set<?>> List<S> nonNullSets(@Nonnull Collection<? extends S> sets){
+    Validation.assertNonnull(sets, "sets");
+    List<S> list = new ArrayList<>(sets);
+    for(int i = 0; i < list.size(); i++) Validation.assertNonnull(list.get(i), "sets[" + i + "]");
+    return list;
+  }
+
+  /**
+   * Returns capacity of hash set that holds the number of elements without rehashing
+   *
+   * @param size number of elements
+   * @return capacity
+   */
+  private static int capacityFor(long size){
+    return (int) Math.min(size * 4 / 3 + 1, MAXIMUM_CAPACITY);
+  }
+
+  /**
+   * Checks whether item is in all of the sets
+   *
+   * @param item item
+   * @param sets sets
+   * @return true if it is, false if any set doesn't have it
+   */
+  private static boolean containedInAll(Object item, @Nonnull Set<?>[] sets){
+    for(Set<?> set : sets){
+      if(!set.contains(item)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns number of shards to split parallel results into
+   *
+   * @param pool pool
+   * @return number of shards, a power of two
+   */
+  private static int shardsFor(@Nonnull ForkJoinPool pool){
+    return Math.min(Integer.highestOneBit(pool.getParallelism() * SHARDS_PER_WORKER), MAXIMUM_SHARDS);
+  }
+
+  /**
+   * Creates array of buckets, generic arrays can't be created directly
+   *
+   * @param count number of buckets
+   * @param <V>   value type of set
+   * @return array of nulls
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  private static <V> List<V>[] newBuckets(int count){
+    return (List<V>[]) new List<?>[count];
+  }
+
+  /**
+   * Adds buckets into presized HashSet shards by tasks on the pool, one shard per task, and returns them together
+   *
+   * @param pool    pool
+   * @param buckets buckets of elements by shard
+   * @param shards  number of shards
+   * @param <V>     value type of set
+   * @return set made of the shards
+   */
+  @Nonnull
+  private static <V> Set<V> toShardedSet(@Nonnull ForkJoinPool pool, @Nonnull Queue<List<V>[]> buckets, int shards){
+    HashSet<V>[] filled = ShardedSet.newShards(shards);
+    pool.invoke(new ShardsTask<>(new ArrayList<>(buckets), filled, 0, shards));
+    return new ShardedSet<>(filled);
+  }
+
+  /** Task that sorts elements of range of sets into buckets by shard */
+  private static final class SetsTask<V> extends RecursiveAction{
+
+    private static final long serialVersionUID = 1L;
+
+    /** Sets */
+    @Nonnull
+    private final List<? extends Set<? extends V>> sets;
+
+    /** Index of first set to add */
+    private final int start;
+
+    /** Index after last set to add */
+    private final int end;
+
+    /** Buckets of elements by shard, filled by each chunk */
+    @Nonnull
+    private final Queue<List<V>[]> buckets;
+
+    /** Sets that element must be in to be added */
+    @Nonnull
+    private final Set<?>[] filters;
+
+    /** Number of shards */
+    private final int shards;
+
+    /**
+     * SetsTask constructor
+     *
+     * @param sets    sets
+     * @param start   index of first set to add
+     * @param end     index after last set to add
+     * @param buckets buckets of elements by shard, filled by each chunk
+     * @param filters sets that element must be in to be added
+     * @param shards  number of shards
+     */
+    SetsTask(
+      @Nonnull List<? extends Set<? extends V>> sets,
+      int start,
+      int end,
+      @Nonnull Queue<List<V>[]> buckets,
+      @Nonnull Set<?>[] filters,
+      int shards
+    ){
+      this.sets = sets;
+      this.start = start;
+      this.end = end;
+      this.buckets = buckets;
+      this.filters = filters;
+      this.shards = shards;
+    }
+
+    @Override
+    protected void compute(){
+      if(end - start == 1){
+        new ElementsTask<V>(sets.get(start).spliterator(), buckets, filters, shards).compute();
+        return;
+      }
+      int middle = (start + end) >>> 1;
+      invokeAll(
+        new SetsTask<>(sets, start, middle, buckets, filters, shards),
+        new SetsTask<>(sets, middle, end, buckets, filters, shards)
+      );
+    }
+  }
+
+  /** Task that sorts elements of spliterator into buckets by shard */
+  private static final class ElementsTask<V> extends RecursiveAction{
+
+    private static final long serialVersionUID = 1L;
+
+    /** Elements */
+    @Nonnull
+    private final Spliterator<? extends V> elements;
+
+    /** Buckets of elements by shard, filled by each chunk */
+    @Nonnull
+    private final Queue<List<V>[]> buckets;
+
+    /** Sets that element must be in to be added */
+    @Nonnull
+    private final Set<?>[] filters;
+
+    /** Number of shards */
+    private final int shards;
+
+    /**
+     * ElementsTask constructor
+     *
+     * @param elements elements
+     * @param buckets  buckets of elements by shard, filled by each chunk
+     * @param filters  sets that element must be in to be added
+     * @param shards   number of shards
+     */
+    ElementsTask(
+      @Nonnull Spliterator<? extends V> elements,
+      @Nonnull Queue<List<V>[]> buckets,
+      @Nonnull Set<?>[] filters,
+      int shards
+    ){
+      this.elements = elements;
+      this.buckets = buckets;
+      this.filters = filters;
+      this.shards = shards;
+    }
+
+    @Override
+    protected void compute(){
+
+      // Split off chunks for other workers
+      List<ElementsTask<V>> forks = new ArrayList<>();
+      Spliterator<? extends V> split;
+      while(elements.estimateSize() > LEAF_SIZE && (split = elements.trySplit()) != null){
+        ElementsTask<V> fork = new ElementsTask<>(split, buckets, filters, shards);
+        fork.fork();
+        forks.add(fork);
+      }
+
+      // Sort what's left into buckets of its own
+      List<V>[] chunk = newBuckets(shards);
+      int shift = ShardedSet.shiftFor(shards);
+      int bucketSize = (int) Math.min(elements.estimateSize() / shards * 5 / 4 + 16, MAXIMUM_CAPACITY);
+      elements.forEachRemaining(item -> {
+        if(!containedInAll(item, filters)) return;
+        int shard = ShardedSet.shardOf(item, shift);
+        if(chunk[shard] == null) chunk[shard] = new ArrayList<>(bucketSize);
+        chunk[shard].add(item);
+      });
+      buckets.add(chunk);
+
+      // Wait for the chunks
+      for(ElementsTask<V> fork : forks) fork.join();
+    }
+  }
+
+  /** Task that adds buckets of range of shards into their presized HashSets */
+  private static final class ShardsTask<V> extends RecursiveAction{
+
+    private static final long serialVersionUID = 1L;
+
+    /** Buckets of elements by shard, one array per chunk */
+    @Nonnull
+    private final List<List<V>[]> buckets;
+
+    /** Shards to fill */
+    @Nonnull
+    private final HashSet<V>[] shards;
+
+    /** Index of first shard to fill */
+    private final int start;
+
+    /** Index after last shard to fill */
+    private final int end;
+
+    /**
+     * ShardsTask constructor
+     *
+     * @param buckets buckets of elements by shard, one array per chunk
+     * @param shards  shards to fill
+     * @param start   index of first shard to fill
+     * @param end     index after last shard to fill
+     */
+    ShardsTask(@Nonnull List<List<V>[]> buckets, @Nonnull HashSet<V>[] shards, int start, int end){
+      this.buckets = buckets;
+      this.shards = shards;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute(){
+      if(end - start > 1){
+        int middle = (start + end) >>> 1;
+        invokeAll(new ShardsTask<>(buckets, shards, start, middle), new ShardsTask<>(buckets, shards, middle, end));
+        return;
+      }
+
+      // Presize the shard to its buckets, then fill it
+      long size = 0;
+      for(List<V>[] chunk : buckets){
+        if(chunk[start] != null) size += chunk[start].size();
+      }
+      HashSet<V> shard = new HashSet<>(capacityFor(size));
+      for(List<V>[] chunk : buckets){
+        if(chunk[start] != null) shard.addAll(chunk[start]);
+      }
+      shards[start] = shard;
+    }
+  }
+}
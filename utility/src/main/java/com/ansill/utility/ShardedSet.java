@@ -0,0 +1,150 @@
+package com.ansill.utility;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Modifiable hash set split into HashSet shards by hash, created by parallel Sets functions
+ * <p>
+ * Each shard holds the elements whose hash falls in its range, so shards can be filled by different threads at once
+ * and the set is used as-is afterwards instead of being copied into a single HashSet. It behaves like a HashSet,
+ * including holding null, and isn't safe to modify from several threads once it's returned.
+ *
+ * @param <V> value type of set
+ */
+@NotThreadSafe
+final class ShardedSet<V> extends AbstractSet<V>{
+
+  /** Shards, their number is a power of two */
+  @Nonnull
+  private final HashSet<V>[] shards;
+
+  /** Number of bits to shift spread hash right by to get index of shard */
+  private final int shift;
+
+  /**
+   * ShardedSet constructor
+   *
+   * @param shards shards, already filled with elements that belong to them
+   */
+  ShardedSet(@Nonnull HashSet<V>[] shards){
+    this.shards = shards;
+    this.shift = shiftFor(shards.length);
+  }
+
+  /**
+   * Creates array of shards, generic arrays can't be created directly
+   *
+   * @param count number of shards, a power of two
+   * @param <V>   value type of set
+   * @return array of nulls
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  static <V> HashSet<V>[] newShards(int count){
+    return (HashSet<V>[]) new HashSet<?>[count];
+  }
+
+  /**
+   * Returns number of bits to shift spread hash right by for the number of shards
+   *
+   * @param count number of shards, a power of two
+   * @return shift
+   */
+  static int shiftFor(int count){
+    return Integer.SIZE - Integer.numberOfTrailingZeros(count);
+  }
+
+  /**
+   * Returns index of shard the item belongs to
+   *
+   * @param item  item
+   * @param shift shift for the number of shards
+   * @return index of shard
+   */
+  static int shardOf(@Nullable Object item, int shift){
+    if(item == null || shift == Integer.SIZE) return 0;
+    return (item.hashCode() * 0x9E3779B9) >>> shift;
+  }
+
+  @Override
+  public boolean contains(@Nullable Object object){
+    return shards[shardOf(object, shift)].contains(object);
+  }
+
+  @Override
+  public boolean add(@Nullable V item){
+    return shards[shardOf(item, shift)].add(item);
+  }
+
+  @Override
+  public boolean remove(@Nullable Object object){
+    return shards[shardOf(object, shift)].remove(object);
+  }
+
+  @Override
+  public void clear(){
+    for(HashSet<V> shard : shards) shard.clear();
+  }
+
+  @Override
+  public int size(){
+    int size = 0;
+    for(HashSet<V> shard : shards) size += shard.size();
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty(){
+    for(HashSet<V> shard : shards){
+      if(!shard.isEmpty()) return false;
+    }
+    return true;
+  }
+
+  @Nonnull
+  @Override
+  public Iterator<V> iterator(){
+    return new Iterator<V>(){
+
+      /** Index of shard that current iterates */
+      private int index = 0;
+
+      /** Iterator of current shard */
+      @Nonnull
+      private Iterator<V> current = shards[0].iterator();
+
+      /** Iterator that returned the last element, null if there's none to remove */
+      @Nullable
+      private Iterator<V> last = null;
+
+      @Override
+      public boolean hasNext(){
+        while(!current.hasNext()){
+          if(index + 1 == shards.length) return false;
+          current = shards[++index].iterator();
+        }
+        return true;
+      }
+
+      @Override
+      public V next(){
+        if(!hasNext()) throw new NoSuchElementException();
+        last = current;
+        return current.next();
+      }
+
+      @Override
+      public void remove(){
+        if(last == null) throw new IllegalStateException();
+        last.remove();
+        last = null;
+      }
+    };
+  }
+}
@@ -0,0 +1,27 @@
+package com.ansill.utility;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class to have its simpleToString helper generated at compile time by the utility-processor annotation
+ * processor
+ * <p>
+ * For class Dog, the processor generates class SimpleToString_Dog in the same package, for nested class Outer.Dog it
+ * generates SimpleToString_Outer_Dog. The generated class has static toString(Dog) and appendTo(StringBuilder, Dog)
+ * methods that print the same ClassName(field=value, ...) string as Utility.simpleToString(Object) without walking the
+ * class with reflection. Utility.simpleToString(Object) uses the generated helper automatically when it exists, so call
+ * sites don't need to change.
+ * <p>
+ * The generated code reads non-private fields directly. Private fields can't be reached from another class, so for them
+ * it falls back to MethodHandle getters that it creates with reflection once when it's loaded, make the fields
+ * package-private to avoid reflection entirely. The class must not be private, and nested classes must be static.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SimpleToString{
+}
@@ -0,0 +1,269 @@
+package com.ansill.utility;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pre-resolved plan of how Utility.simpleToString(Object) prints a class
+ * <p>
+ * Plans are created once per class and cached in a ClassValue. Each plan holds the class name, the "name=" prefix of
+ * each non-static field and a MethodHandle getter for it. The fields are made accessible once when the plan is created
+ * and are never toggled back, so repeated calls don't do any reflection lookups or accessibility changes.
+ * <p>
+ * If the class is annotated with SimpleToString and its helper was generated at compile time, then the plan calls the
+ * generated helper instead of reading fields through the getters.
+ */
+@Immutable
+final class SimpleToStringPlan{
+
+  /** Cache of plans */
+  @Nonnull
+  private static final ClassValue<SimpleToStringPlan> PLANS = new ClassValue<SimpleToStringPlan>(){
+    @Override
+    protected SimpleToStringPlan computeValue(Class<?> type){
+      return create(type);
+    }
+  };
+
+  /** Value printed for fields that cannot be read */
+  @Nonnull
+  static final String INACCESSIBLE = "inaccessible";
+
+  /** Type of getters after adapting */
+  @Nonnull
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  /** Type of generated appendTo helpers after adapting */
+  @Nonnull
+  private static final MethodType GENERATED_TYPE = MethodType.methodType(void.class, StringBuilder.class, Object.class);
+
+  /** Prefix of names of generated helper classes */
+  @Nonnull
+  private static final String GENERATED_PREFIX = "SimpleToString_";
+
+  /** Simple name of the class followed by opening parenthesis */
+  @Nonnull
+  private final String opening;
+
+  /** Field prefixes, like "name=" for first field and ", name=" for the rest */
+  @Nonnull
+  private final String[] prefixes;
+
+  /** Getters of fields, null if field cannot be read */
+  @Nonnull
+  private final MethodHandle[] getters;
+
+  /** Generated appendTo helper adapted to (StringBuilder,Object)void, null if there's none */
+  @Nullable
+  private final MethodHandle generated;
+
+  /**
+   * SimpleToStringPlan constructor
+   *
+   * @param opening   simple name of the class followed by opening parenthesis
+   * @param prefixes  field prefixes
+   * @param getters   getters of fields
+   * @param generated generated appendTo helper or null if there's none
+   */
+  private SimpleToStringPlan(
+    @Nonnull String opening,
+    @Nonnull String[] prefixes,
+    @Nonnull MethodHandle[] getters,
+    @Nullable MethodHandle generated
+  ){
+    this.opening = opening;
+    this.prefixes = prefixes;
+    this.getters = getters;
+    this.generated = generated;
+  }
+
+  /**
+   * Retrieves plan for the class
+   *
+   * @param type class
+   * @return plan
+   */
+  @Nonnull
+  static SimpleToStringPlan of(@Nonnull Class<?> type){
+    return PLANS.get(type);
+  }
+
+  /**
+   * Creates plan for the class
+   *
+   * @param type class
+   * @return plan
+   */
+  @Nonnull
+  private static SimpleToStringPlan create(@Nonnull Class<?> type){
+
+    // Set up bins
+    List<String> prefixes = new ArrayList<>();
+    List<MethodHandle> getters = new ArrayList<>();
+
+    // Resolve each non-static field
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    for(Field field : type.getDeclaredFields()){
+      if(Modifier.isStatic(field.getModifiers())) continue;
+      prefixes.add((prefixes.isEmpty() ? "" : ", ") + field.getName() + "=");
+      getters.add(createGetter(lookup, field));
+    }
+
+    // Return it
+    return new SimpleToStringPlan(
+      type.getSimpleName() + "(",
+      prefixes.toArray(new String[0]),
+      getters.toArray(new MethodHandle[0]),
+      type.isAnnotationPresent(SimpleToString.class) ? findGenerated(type) : null
+    );
+  }
+
+  /**
+   * Finds appendTo helper generated for the class
+   *
+   * @param type class annotated with SimpleToString
+   * @return helper adapted to (StringBuilder,Object)void or null if it was not generated
+   */
+  @Nullable
+  private static MethodHandle findGenerated(@Nonnull Class<?> type){
+
+    // Local and anonymous classes are not processed
+    if(type.isLocalClass() || type.isAnonymousClass()) return null;
+
+    // Build the name like the processor does, SimpleToString_Outer_Inner in the same package
+    StringBuilder name = new StringBuilder(type.getSimpleName());
+    for(Class<?> outer = type.getEnclosingClass(); outer != null; outer = outer.getEnclosingClass()){
+      name.insert(0, '_').insert(0, outer.getSimpleName());
+    }
+    name.insert(0, GENERATED_PREFIX);
+    int dot = type.getName().lastIndexOf('.');
+    if(dot != -1) name.insert(0, type.getName().substring(0, dot + 1));
+
+    // Look it up
+    try{
+      Class<?> helper = Class.forName(name.toString(), true, type.getClassLoader());
+      return MethodHandles.publicLookup()
+                          .findStatic(helper, "appendTo", MethodType.methodType(void.class, StringBuilder.class, type))
+                          .asType(GENERATED_TYPE);
+    }catch(ClassNotFoundException | NoSuchMethodException | IllegalAccessException | LinkageError e){
+      // Processor didn't run, fall back to getters
+      return null;
+    }
+  }
+
+  /**
+   * Creates getter for the field
+   *
+   * @param lookup lookup
+   * @param field  field
+   * @return getter adapted to (Object)Object or null if field cannot be made accessible
+   */
+  @Nullable
+  private static MethodHandle createGetter(@Nonnull MethodHandles.Lookup lookup, @Nonnull Field field){
+    try{
+      field.setAccessible(true);
+      return lookup.unreflectGetter(field).asType(GETTER_TYPE);
+    }catch(IllegalAccessException | RuntimeException e){
+      // Such as module encapsulation on JDK 9+ which throws InaccessibleObjectException
+      return null;
+    }
+  }
+
+  /**
+   * Appends string representation of the object to the builder
+   *
+   * @param builder builder
+   * @param object  object of the class this plan was created for
+   */
+  void appendTo(@Nonnull StringBuilder builder, @Nonnull Object object){
+
+    // Use generated helper if there's one
+    if(generated != null){
+      try{
+        generated.invokeExact(builder, object);
+      }catch(RuntimeException | Error e){
+        throw e;
+      }catch(Throwable e){
+        // Generated helpers don't throw checked exceptions
+        throw new IllegalStateException(e);
+      }
+      return;
+    }
+
+    // Otherwise read fields with getters
+    builder.append(opening);
+    for(int i = 0; i < getters.length; i++){
+      builder.append(prefixes[i]);
+      if(getters[i] == null) builder.append(INACCESSIBLE);
+      else SensibleToString.appendTo(builder, get(i, object), Integer.MAX_VALUE);
+    }
+    builder.append(')');
+  }
+
+  /**
+   * Returns simple name of the class followed by opening parenthesis
+   *
+   * @return opening
+   */
+  @Nonnull
+  String opening(){
+    return opening;
+  }
+
+  /**
+   * Returns number of fields
+   *
+   * @return number of fields
+   */
+  int size(){
+    return getters.length;
+  }
+
+  /**
+   * Returns prefix of the field
+   *
+   * @param index index of field
+   * @return prefix like "name=" or ", name="
+   */
+  @Nonnull
+  String prefix(int index){
+    return prefixes[index];
+  }
+
+  /**
+   * Returns true if the field can be read
+   *
+   * @param index index of field
+   * @return true if readable, false if inaccessible
+   */
+  boolean isReadable(int index){
+    return getters[index] != null;
+  }
+
+  /**
+   * Reads the field
+   *
+   * @param index  index of field
+   * @param object object to read from
+   * @return value of the field
+   */
+  @Nullable
+  Object get(int index, @Nonnull Object object){
+    try{
+      return (Object) getters[index].invokeExact(object);
+    }catch(RuntimeException | Error e){
+      throw e;
+    }catch(Throwable e){
+      // Field getters don't throw checked exceptions
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Lock-free generator of monotonic 64-bit IDs in Snowflake layout
+ * <p>
+ * Each ID is 41-bit timestamp in milliseconds since the epoch, followed by 10-bit node id and 12-bit sequence number,
+ * so IDs from different nodes never collide and IDs sort by time. Up to 4096 IDs are generated per millisecond; beyond
+ * that, or when the clock goes backwards, the timestamp is advanced past the clock instead of waiting, so IDs from the
+ * same generator are always strictly increasing. The last ID is swapped in with compare-and-set, so threads never block
+ * each other.
+ */
+@ThreadSafe
+public final class SnowflakeGenerator{
+
+  /** Default epoch, 2020-01-01T00:00:00Z in milliseconds since Unix epoch */
+  public static final long DEFAULT_EPOCH = 1577836800000L;
+
+  /** Largest node id */
+  public static final int MAX_NODE = (1 << 10) - 1;
+
+  /** Number of characters in string form */
+  public static final int LENGTH = 13;
+
+  /** Number of bits for sequence */
+  private static final int SEQUENCE_BITS = 12;
+
+  /** Number of bits for node id and sequence */
+  private static final int TIMESTAMP_SHIFT = 10 + SEQUENCE_BITS;
+
+  /** Mask of sequence */
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+  /** Largest timestamp */
+  private static final long MAX_TIMESTAMP = (1L << 41) - 1;
+
+  /** Last generated id */
+  @Nonnull
+  private final AtomicLong last = new AtomicLong(-1);
+
+  /** Node id shifted into place */
+  private final long node;
+
+  /** Epoch in milliseconds since Unix epoch */
+  private final long epoch;
+
+  /** Clock in milliseconds since Unix epoch */
+  @Nonnull
+  private final LongSupplier clock;
+
+  /**
+   * Creates generator with the default epoch and the system clock
+   *
+   * @param node node id from 0 to 1023, unique among all generators whose IDs must not collide
+   */
+  public SnowflakeGenerator(int node){
+    this(node, DEFAULT_EPOCH, System::currentTimeMillis);
+  }
+
+  /**
+   * Creates generator
+   *
+   * @param node  node id from 0 to 1023, unique among all generators whose IDs must not collide
+   * @param epoch epoch in milliseconds since Unix epoch, timestamps are counted from it
+   * @param clock clock in milliseconds since Unix epoch
+   */
+  public SnowflakeGenerator(int node, long epoch, @Nonnull LongSupplier clock){
+    if(node < 0 || node > MAX_NODE) throw new IllegalArgumentException(f("Node id {} is out of range", node));
+    this.node = (long) node << SEQUENCE_BITS;
+    this.epoch = epoch;
+    this.clock = Validation.assertNonnull(clock, "clock");
+  }
+
+  /**
+   * Generates next ID
+   *
+   * @return ID greater than any previously generated by this generator
+   * @throws IllegalStateException thrown if clock is before epoch or timestamp has run out of bits
+   */
+  public long nextLong(){
+    while(true){
+
+      // Figure out timestamp and sequence
+      long previous = last.get();
+      long timestamp = clock.getAsLong() - epoch;
+      if(timestamp < 0) throw new IllegalStateException(f("Clock is {} milliseconds before epoch", -timestamp));
+      long previousTimestamp = previous >>> TIMESTAMP_SHIFT;
+      long sequence = 0;
+      if(previous != -1 && timestamp <= previousTimestamp){
+        timestamp = previousTimestamp;
+        sequence = (previous & SEQUENCE_MASK) + 1;
+        if(sequence > SEQUENCE_MASK){
+          timestamp++;
+          sequence = 0;
+        }
+      }
+      if(timestamp > MAX_TIMESTAMP) throw new IllegalStateException("Timestamp has run out of bits");
+
+      // Swap it in
+      long next = (timestamp << TIMESTAMP_SHIFT) | node | sequence;
+      if(last.compareAndSet(previous, next)) return next;
+    }
+  }
+
+  /**
+   * Generates next ID in string form
+   *
+   * @return 13 characters of Crockford's base32, sorts the same way as the IDs
+   */
+  @Nonnull
+  public String nextString(){
+    return toString(nextLong());
+  }
+
+  /**
+   * Encodes ID into string form
+   *
+   * @param id ID
+   * @return 13 characters of Crockford's base32
+   */
+  @Nonnull
+  public static String toString(long id){
+    char[] characters = new char[LENGTH];
+    Crockford.encode64(id, characters, 0);
+    return new String(characters);
+  }
+
+  /**
+   * Decodes string form into ID
+   *
+   * @param string 13 characters of Crockford's base32, case-insensitive
+   * @return ID
+   * @throws IllegalArgumentException thrown if string is not valid
+   */
+  public static long parse(@Nonnull CharSequence string){
+    Validation.assertNonnull(string, "string");
+    return Crockford.decode64(string);
+  }
+
+  /**
+   * Returns timestamp of ID
+   *
+   * @param id ID
+   * @return milliseconds since this generator's epoch
+   */
+  public static long getTimestamp(long id){
+    return id >>> TIMESTAMP_SHIFT;
+  }
+
+  /**
+   * Returns node id of ID
+   *
+   * @param id ID
+   * @return node id
+   */
+  public static int getNode(long id){
+    return (int) (id >>> SEQUENCE_BITS) & MAX_NODE;
+  }
+
+  @Override
+  public String toString(){
+    return f("SnowflakeGenerator(node={}, epoch={})", node >>> SEQUENCE_BITS, epoch);
+  }
+}
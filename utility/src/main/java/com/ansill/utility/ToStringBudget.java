@@ -0,0 +1,80 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import static com.ansill.utility.Utility.f;
+
+/** Limits of how much Utility.simpleToStringTo(Appendable, Object, ToStringBudget) may print */
+@Immutable
+public final class ToStringBudget{
+
+  /** Default budget, 8 levels deep, 64K characters and 100 elements per collection, map or array */
+  @Nonnull
+  public static final ToStringBudget DEFAULT = new ToStringBudget(8, 65536, 100);
+
+  /** Budget without limits, only cycles are cut off */
+  @Nonnull
+  public static final ToStringBudget UNLIMITED = new ToStringBudget(
+    Integer.MAX_VALUE,
+    Integer.MAX_VALUE,
+    Integer.MAX_VALUE
+  );
+
+  /** Maximum depth of nested objects, collections, maps and arrays */
+  private final int maxDepth;
+
+  /** Maximum number of characters */
+  private final int maxCharacters;
+
+  /** Maximum number of elements printed per collection, map or array */
+  private final int maxElements;
+
+  /**
+   * ToStringBudget constructor
+   *
+   * @param maxDepth      maximum depth of nested objects, collections, maps and arrays, 0 prints only the top object
+   * @param maxCharacters maximum number of characters, output is cut off with "..." once reached
+   * @param maxElements   maximum number of elements printed per collection, map or array
+   */
+  public ToStringBudget(@Nonnegative int maxDepth, @Nonnegative int maxCharacters, @Nonnegative int maxElements){
+    this.maxDepth = (int) Validation.assertNonnegative(maxDepth, "maxDepth");
+    this.maxCharacters = (int) Validation.assertNonnegative(maxCharacters, "maxCharacters");
+    this.maxElements = (int) Validation.assertNonnegative(maxElements, "maxElements");
+  }
+
+  /**
+   * Returns maximum depth of nested objects, collections, maps and arrays
+   *
+   * @return maximum depth
+   */
+  public int getMaxDepth(){
+    return maxDepth;
+  }
+
+  /**
+   * Returns maximum number of characters
+   *
+   * @return maximum number of characters
+   */
+  public int getMaxCharacters(){
+    return maxCharacters;
+  }
+
+  /**
+   * Returns maximum number of elements printed per collection, map or array
+   *
+   * @return maximum number of elements
+   */
+  public int getMaxElements(){
+    return maxElements;
+  }
+
+  @Override
+  public String toString(){
+    return f("ToStringBudget(maxDepth={}, maxCharacters={}, maxElements={})", maxDepth, maxCharacters, maxElements);
+  }
+}
@@ -0,0 +1,210 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Universally unique lexicographically sortable identifier
+ * <p>
+ * 128 bits made of 48-bit timestamp in milliseconds since Unix epoch followed by 80 bits of randomness. IDs sort by
+ * time in numeric, byte and string form, so they make good database keys that are inserted in roughly increasing
+ * order. The string form is 26 characters of Crockford's base32. Create them with UlidGenerator.
+ */
+@Immutable
+public final class Ulid implements Comparable<Ulid>{
+
+  /** Number of bytes in binary form */
+  public static final int BYTES = 16;
+
+  /** Number of characters in string form */
+  public static final int LENGTH = 26;
+
+  /** Largest timestamp */
+  public static final long MAX_TIMESTAMP = (1L << 48) - 1;
+
+  /** Most significant 64 bits, timestamp followed by 16 bits of randomness */
+  private final long high;
+
+  /** Least significant 64 bits of randomness */
+  private final long low;
+
+  /**
+   * Ulid constructor
+   *
+   * @param high most significant 64 bits
+   * @param low  least significant 64 bits
+   */
+  public Ulid(long high, long low){
+    this.high = high;
+    this.low = low;
+  }
+
+  /**
+   * Parses string form
+   *
+   * @param string 26 characters of Crockford's base32, case-insensitive
+   * @return ulid
+   * @throws IllegalArgumentException thrown if string is not a valid ULID
+   */
+  @Nonnull
+  public static Ulid parse(@Nonnull CharSequence string){
+    Validation.assertNonnull(string, "string");
+    long[] bits = Crockford.decode128(string);
+    return new Ulid(bits[0], bits[1]);
+  }
+
+  /**
+   * Reads binary form
+   *
+   * @param bytes  bytes
+   * @param offset index of first byte
+   * @return ulid
+   * @throws IndexOutOfBoundsException thrown if there are less than 16 bytes after offset
+   */
+  @Nonnull
+  public static Ulid fromBytes(@Nonnull byte[] bytes, int offset){
+    Validation.assertNonnull(bytes, "bytes");
+    Hex.checkBounds(offset, BYTES, bytes.length);
+    return new Ulid(readLong(bytes, offset), readLong(bytes, offset + 8));
+  }
+
+  /**
+   * Returns most significant 64 bits
+   *
+   * @return most significant bits
+   */
+  public long getMostSignificantBits(){
+    return high;
+  }
+
+  /**
+   * Returns least significant 64 bits
+   *
+   * @return least significant bits
+   */
+  public long getLeastSignificantBits(){
+    return low;
+  }
+
+  /**
+   * Returns timestamp
+   *
+   * @return milliseconds since Unix epoch
+   */
+  public long getTimestamp(){
+    return high >>> 16;
+  }
+
+  /**
+   * Returns binary form
+   *
+   * @return 16 bytes, big-endian
+   */
+  @Nonnull
+  public byte[] toBytes(){
+    byte[] bytes = new byte[BYTES];
+    writeTo(bytes, 0);
+    return bytes;
+  }
+
+  /**
+   * Writes binary form into the array
+   *
+   * @param bytes  array to write to
+   * @param offset index of first byte
+   * @throws IndexOutOfBoundsException thrown if there are less than 16 bytes after offset
+   */
+  public void writeTo(@Nonnull byte[] bytes, int offset){
+    Validation.assertNonnull(bytes, "bytes");
+    Hex.checkBounds(offset, BYTES, bytes.length);
+    writeLong(bytes, offset, high);
+    writeLong(bytes, offset + 8, low);
+  }
+
+  /**
+   * Writes string form into the array
+   *
+   * @param characters array to write to
+   * @param offset     index of first character
+   * @throws IndexOutOfBoundsException thrown if there are less than 26 characters after offset
+   */
+  public void writeTo(@Nonnull char[] characters, int offset){
+    Validation.assertNonnull(characters, "characters");
+    Hex.checkBounds(offset, LENGTH, characters.length);
+    Crockford.encode128(high, low, characters, offset);
+  }
+
+  @Override
+  public int compareTo(@Nonnull Ulid other){
+    int result = Long.compareUnsigned(high, other.high);
+    return result != 0 ? result : Long.compareUnsigned(low, other.low);
+  }
+
+  @Override
+  public boolean equals(Object object){
+    if(this == object) return true;
+    if(!(object instanceof Ulid)) return false;
+    Ulid other = (Ulid) object;
+    return high == other.high && low == other.low;
+  }
+
+  @Override
+  public int hashCode(){
+    long hash = high ^ low;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  /**
+   * Returns string form
+   *
+   * @return 26 characters of Crockford's base32
+   */
+  @Override
+  public String toString(){
+    char[] characters = new char[LENGTH];
+    Crockford.encode128(high, low, characters, 0);
+    return new String(characters);
+  }
+
+  /**
+   * Reads big-endian long
+   *
+   * @param bytes  bytes
+   * @param offset index of first byte
+   * @return long
+   */
+  private static long readLong(@Nonnull byte[] bytes, int offset){
+    long value = 0;
+    for(int i = 0; i < 8; i++) value = (value << 8) | (bytes[offset + i] & 0xFF);
+    return value;
+  }
+
+  /**
+   * Writes big-endian long
+   *
+   * @param bytes  bytes
+   * @param offset index of first byte
+   * @param value  long
+   */
+  static void writeLong(@Nonnull byte[] bytes, int offset, long value){
+    for(int i = 7; i >= 0; i--, value >>>= 8) bytes[offset + i] = (byte) value;
+  }
+
+  /**
+   * Ensures timestamp fits in 48 bits
+   *
+   * @param timestamp milliseconds since Unix epoch
+   * @return timestamp
+   * @throws IllegalStateException thrown if timestamp is out of range
+   */
+  static long assertTimestamp(long timestamp){
+    if(timestamp < 0 || timestamp > MAX_TIMESTAMP){
+      throw new IllegalStateException(f("Timestamp {} is out of range for ULID", timestamp));
+    }
+    return timestamp;
+  }
+}
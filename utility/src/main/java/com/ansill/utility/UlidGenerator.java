@@ -0,0 +1,230 @@
+package com.ansill.utility;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free generator of monotonic ULIDs
+ * <p>
+ * Every ULID generated by the same generator is strictly greater than the previous one, even when many threads
+ * generate at once or when the clock goes backwards. Within the same millisecond, ULIDs count up by one from the
+ * randomness drawn for that millisecond instead of drawing new randomness, like the monotonic ULID specification
+ * describes. Randomness of a millisecond is swapped in with compare-and-set once when the clock moves on, ULIDs within
+ * the millisecond are taken from an atomic counter and rendered straight from its bits, so threads never block each
+ * other and no intermediate objects are created per ULID.
+ */
+@ThreadSafe
+public final class UlidGenerator{
+
+  /** Randomness of the current millisecond */
+  @Nonnull
+  private final AtomicReference<Millisecond> current = new AtomicReference<>(new Millisecond(0, 0, 1));
+
+  /** Random source or null to use the global source */
+  @Nullable
+  private final RandomSource source;
+
+  /** Clock in milliseconds since Unix epoch */
+  @Nonnull
+  private final LongSupplier clock;
+
+  /** Per-thread random bytes drawn from the source, null if using the global source */
+  @Nullable
+  private final ThreadLocal<RandomStrings.RandomBytes> bytes;
+
+  /** Creates generator with the global random source and the system clock */
+  public UlidGenerator(){
+    this.source = null;
+    this.clock = System::currentTimeMillis;
+    this.bytes = null;
+  }
+
+  /**
+   * Creates generator
+   *
+   * @param source random source, see RandomSources for ready-made ones
+   * @param clock  clock in milliseconds since Unix epoch
+   */
+  public UlidGenerator(@Nonnull RandomSource source, @Nonnull LongSupplier clock){
+    this.source = Validation.assertNonnull(source, "source");
+    this.clock = Validation.assertNonnull(clock, "clock");
+    this.bytes = ThreadLocal.withInitial(() -> new RandomStrings.RandomBytes(source, Ulid.BYTES * 16));
+  }
+
+  /**
+   * Generates next ULID
+   *
+   * @return ULID greater than any previously generated by this generator
+   * @throws IllegalStateException thrown if clock is outside of ULID's range
+   */
+  @Nonnull
+  public Ulid next(){
+    return next(Ulid::new);
+  }
+
+  /**
+   * Generates next ULID in string form
+   *
+   * @return 26 characters of Crockford's base32
+   * @throws IllegalStateException thrown if clock is outside of ULID's range
+   */
+  @Nonnull
+  public String nextString(){
+    return next(UlidGenerator::toString);
+  }
+
+  /**
+   * Generates next ULID in binary form
+   *
+   * @return 16 bytes, big-endian
+   * @throws IllegalStateException thrown if clock is outside of ULID's range
+   */
+  @Nonnull
+  public byte[] nextBytes(){
+    return next(UlidGenerator::toBytes);
+  }
+
+  /**
+   * Generates next ULID and renders it
+   *
+   * @param renderer renders bits of the ULID
+   * @param <T>      type of rendered ULID
+   * @return rendered ULID
+   * @throws IllegalStateException thrown if clock is outside of ULID's range
+   */
+  @Nonnull
+  private <T> T next(@Nonnull Renderer<T> renderer){
+    while(true){
+      Millisecond millisecond = current.get();
+      long timestamp = Ulid.assertTimestamp(clock.getAsLong());
+
+      // Draw fresh randomness if clock has moved on, the first ULID of the millisecond is the randomness itself
+      if(timestamp > millisecond.timestamp){
+        Millisecond next = random(timestamp);
+        if(current.compareAndSet(millisecond, next)) return renderer.render(next.high, next.low);
+        continue;
+      }
+
+      // Otherwise count up, the count only counts if the millisecond wasn't swapped out in the meantime
+      long count = millisecond.counter.getAndIncrement();
+      if(current.get() != millisecond) continue;
+      long low = millisecond.low + count;
+      long high = Long.compareUnsigned(low, millisecond.low) < 0 ? millisecond.high + 1 : millisecond.high;
+
+      // If 80 bits of randomness have overflown, then move on to the next millisecond early
+      if(high >>> 16 != millisecond.timestamp){
+        Millisecond next = random(Ulid.assertTimestamp(millisecond.timestamp + 1));
+        if(current.compareAndSet(millisecond, next)) return renderer.render(next.high, next.low);
+        continue;
+      }
+
+      // Render it
+      return renderer.render(high, low);
+    }
+  }
+
+  /**
+   * Draws randomness for the millisecond
+   *
+   * @param timestamp timestamp
+   * @return millisecond with random bits
+   */
+  @Nonnull
+  private Millisecond random(long timestamp){
+
+    // Draw 80 random bits
+    RandomStrings.RandomBytes random = bytes == null ? RandomStrings.forThread(Utility.getRandomSource()) : bytes.get();
+    long high = timestamp;
+    for(int i = 0; i < 2; i++) high = (high << 8) | random.next();
+    long low = 0;
+    for(int i = 0; i < 8; i++) low = (low << 8) | random.next();
+
+    // Return it, the randomness itself is taken by whoever swaps it in
+    return new Millisecond(high, low, 1);
+  }
+
+  /**
+   * Renders ULID in string form
+   *
+   * @param high most significant 64 bits
+   * @param low  least significant 64 bits
+   * @return 26 characters of Crockford's base32
+   */
+  @Nonnull
+  private static String toString(long high, long low){
+    char[] characters = new char[Ulid.LENGTH];
+    Crockford.encode128(high, low, characters, 0);
+    return new String(characters);
+  }
+
+  /**
+   * Renders ULID in binary form
+   *
+   * @param high most significant 64 bits
+   * @param low  least significant 64 bits
+   * @return 16 bytes, big-endian
+   */
+  @Nonnull
+  private static byte[] toBytes(long high, long low){
+    byte[] bytes = new byte[Ulid.BYTES];
+    Ulid.writeLong(bytes, 0, high);
+    Ulid.writeLong(bytes, 8, low);
+    return bytes;
+  }
+
+  /**
+   * Renders bits of a ULID
+   *
+   * @param <T> type of rendered ULID
+   */
+  @FunctionalInterface
+  private interface Renderer<T>{
+
+    /**
+     * Renders ULID
+     *
+     * @param high most significant 64 bits
+     * @param low  least significant 64 bits
+     * @return rendered ULID
+     */
+    @Nonnull
+    T render(long high, long low);
+  }
+
+  /** Randomness drawn for a millisecond and how many ULIDs have been counted up from it */
+  private static final class Millisecond{
+
+    /** Timestamp */
+    private final long timestamp;
+
+    /** Most significant 64 bits of the first ULID of the millisecond */
+    private final long high;
+
+    /** Least significant 64 bits of the first ULID of the millisecond */
+    private final long low;
+
+    /** Number to add to the first ULID to get the next one */
+    @Nonnull
+    private final AtomicLong counter;
+
+    /**
+     * Millisecond constructor
+     *
+     * @param high  most significant 64 bits of the first ULID
+     * @param low   least significant 64 bits of the first ULID
+     * @param count number to add to the first ULID to get the next one
+     */
+    private Millisecond(long high, long low, long count){
+      this.timestamp = high >>> 16;
+      this.high = high;
+      this.low = low;
+      this.counter = new AtomicLong(count);
+    }
+  }
+}
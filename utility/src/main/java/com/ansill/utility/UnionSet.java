@@ -0,0 +1,192 @@
+package com.ansill.utility;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Unmodifiable view of union of sets, created by Utility.unionView
+ * <p>
+ * Nothing is copied. Membership is answered by probing each member set in turn, and iteration visits each member set
+ * while skipping elements that an earlier member set already has. The size needs a full pass like that, so it's worked
+ * out on first use and cached, which means member sets must not be modified after the view is created. Use
+ * materialize() to get a standalone copy.
+ *
+ * @param <V> value type of set
+ */
+@ThreadSafe
+public final class UnionSet<V> extends AbstractSet<V>{
+
+  /** Member sets, nested views are flattened */
+  @Nonnull
+  private final Set<? extends V>[] members;
+
+  /** Cached size, -1 if not yet computed */
+  private volatile int size = -1;
+
+  /**
+   * UnionSet constructor
+   *
+   * @param members member sets
+   */
+  private UnionSet(@Nonnull List<Set<? extends V>> members){
+    this.members = members.toArray(newArray(members.size()));
+  }
+
+  /**
+   * Creates array of sets, generic arrays can't be created directly
+   *
+   * @param length length of array
+   * @param <V>    value type of set
+   * @return array of nulls
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  static <V> Set<? extends V>[] newArray(int length){
+    return (Set<? extends V>[]) new Set<?>[length];
+  }
+
+  /**
+   * Creates view of union of the sets
+   *
+   * @param sets sets
+   * @param <V>  value type of set
+   * @return view
+   */
+  @Nonnull
+  static <V> UnionSet<V> of(@Nonnull Set<? extends V>[] sets){
+    List<Set<? extends V>> members = new ArrayList<>(sets.length);
+    for(Set<? extends V> set : sets){
+      if(set instanceof UnionSet) Collections.addAll(members, ((UnionSet<? extends V>) set).members);
+      else members.add(set);
+    }
+    return new UnionSet<>(members);
+  }
+
+  @Override
+  public boolean contains(@Nullable Object object){
+    for(Set<? extends V> member : members){
+      if(member.contains(object)) return true;
+    }
+    return false;
+  }
+
+  @Override
+  public boolean isEmpty(){
+    for(Set<? extends V> member : members){
+      if(!member.isEmpty()) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int size(){
+
+    // Use cached size if available
+    int result = size;
+    if(result != -1) return result;
+
+    // Count elements not in any earlier member set
+    long count = 0;
+    for(int i = 0; i < members.length; i++){
+      if(i == 0){
+        count += members[0].size();
+        continue;
+      }
+      for(V item : members[i]){
+        if(!containedBefore(item, i)) count++;
+      }
+    }
+
+    // Cache it
+    result = (int) Math.min(count, Integer.MAX_VALUE);
+    size = result;
+    return result;
+  }
+
+  @Nonnull
+  @Override
+  public Iterator<V> iterator(){
+    return new UnionIterator();
+  }
+
+  /**
+   * Copies the union into a new set, presized with the union's size
+   *
+   * @return modifiable copy of the union
+   */
+  @Nonnull
+  public Set<V> materialize(){
+    Set<V> set = new HashSet<>(Math.max((int) (size() / .75f) + 1, 16));
+    for(Set<? extends V> member : members) set.addAll(member);
+    return set;
+  }
+
+  /**
+   * Checks whether item is in any member set before the index
+   *
+   * @param item  item
+   * @param index index of member set
+   * @return true if it's in any earlier member set
+   */
+  private boolean containedBefore(@Nullable Object item, int index){
+    for(int i = 0; i < index; i++){
+      if(members[i].contains(item)) return true;
+    }
+    return false;
+  }
+
+  /** Iterator that skips elements found in earlier member sets */
+  private final class UnionIterator implements Iterator<V>{
+
+    /** Index of current member set */
+    private int index = 0;
+
+    /** Iterator of current member set, null when exhausted */
+    @Nullable
+    private Iterator<? extends V> current = members.length == 0 ? null : members[0].iterator();
+
+    /** Next element to return */
+    @Nullable
+    private V next;
+
+    /** Indicates whether next element has been found */
+    private boolean ready = false;
+
+    @Override
+    public boolean hasNext(){
+
+      // Look ahead until an element unseen in earlier member sets is found
+      while(!ready && current != null){
+        if(current.hasNext()){
+          V item = current.next();
+          if(index == 0 || !containedBefore(item, index)){
+            next = item;
+            ready = true;
+          }
+        }else{
+          index++;
+          current = index < members.length ? members[index].iterator() : null;
+        }
+      }
+      return ready;
+    }
+
+    @Override
+    public V next(){
+      if(!hasNext()) throw new NoSuchElementException();
+      ready = false;
+      V item = next;
+      next = null;
+      return item;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package com.ansill.utility;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Registry of collection classes whose instances can't be modified through them, used by Utility.unmodifiable* to
+ * avoid stacking wrappers
+ * <p>
+ * A class counts if it or any of its superclasses or interfaces is registered. The answer is cached per class in a
+ * ClassValue, so a lookup is a single probe no matter how many classes are registered. Registering a class replaces
+ * the ClassValue, dropping cached answers.
+ */
+@ThreadSafe
+final class UnmodifiableClasses{
+
+  /** Names of JDK 9+ immutable collection base classes, absent on Java 8 */
+  @Nonnull
+  private static final String[] JDK_IMMUTABLE_CLASS_NAMES = {
+    "java.util.ImmutableCollections$AbstractImmutableCollection",
+    "java.util.ImmutableCollections$AbstractImmutableList",
+    "java.util.ImmutableCollections$AbstractImmutableSet",
+    "java.util.ImmutableCollections$AbstractImmutableMap"
+  };
+
+  /** Registered classes */
+  @Nonnull
+  private static final List<Class<?>> REGISTERED = new CopyOnWriteArrayList<>();
+
+  /** Cached answers, replaced when a class is registered */
+  @Nonnull
+  private static volatile ClassValue<Boolean> unmodifiable = createClassValue();
+
+  static{
+
+    // Wrappers, the unmodifiable list, set, sorted and navigable ones all extend the collection and map ones
+    register(Collections.unmodifiableCollection(new ArrayList<>()).getClass());
+    register(Collections.unmodifiableMap(new HashMap<>()).getClass());
+
+    // Empty, singleton and copies collections
+    register(Collections.emptyList().getClass());
+    register(Collections.emptySet().getClass());
+    register(Collections.emptyMap().getClass());
+    register(Collections.singletonList(null).getClass());
+    register(Collections.singleton(null).getClass());
+    register(Collections.singletonMap(null, null).getClass());
+    register(Collections.nCopies(0, null).getClass());
+
+    // JDK 9+ List.of, Set.of and Map.of collections
+    for(String name : JDK_IMMUTABLE_CLASS_NAMES){
+      try{
+        register(Class.forName(name));
+      }catch(ClassNotFoundException ignored){
+        // Older JDK
+      }
+    }
+
+    // Our own
+    register(ImmutableCollections.ImmutableSet.class);
+    register(ImmutableCollections.ImmutableMap.class);
+    register(UnionSet.class);
+  }
+
+  /**
+   * Private constructor
+   * <p>
+   * No instantiations allowed because this is an utility class
+   *
+   * @throws AssertionError thrown if any instantiations were attempted
+   */
+  private UnmodifiableClasses(){
+    throw new AssertionError(f("No {} instances for you!", this.getClass().getName()));
+  }
+
+  /**
+   * Creates ClassValue that checks classes against registered classes
+   *
+   * @return ClassValue
+   */
+  @Nonnull
+  private static ClassValue<Boolean> createClassValue(){
+    return new ClassValue<Boolean>(){
+      @Override
+      protected Boolean computeValue(Class<?> type){
+        for(Class<?> registered : REGISTERED){
+          if(registered.isAssignableFrom(type)) return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Registers class, its instances and instances of its subclasses are considered unmodifiable
+   *
+   * @param type class
+   */
+  static synchronized void register(@Nonnull Class<?> type){
+    if(REGISTERED.contains(type)) return;
+    REGISTERED.add(type);
+    unmodifiable = createClassValue();
+  }
+
+  /**
+   * Checks whether object's class is registered
+   *
+   * @param object object
+   * @return true if it is, false otherwise
+   */
+  static boolean isUnmodifiable(@Nonnull Object object){
+    return unmodifiable.get(object.getClass());
+  }
+}
@@ -5,53 +5,51 @@ import com.ansill.validation.Validation;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.lang.reflect.Modifier;
-import java.security.SecureRandom;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
 import java.util.Random;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
-import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /** Utility Class */
 public final class Utility{
 
-  /** RNG */
-  private static final AtomicReference<Random> RANDOM_GENERATOR = new AtomicReference<>(null);
+  /** Global random source, created on first use */
+  private static final AtomicReference<RandomSource> RANDOM_SOURCE = new AtomicReference<>(null);
 
-  /** Hex array */
-  private static final char[] HEX_ARRAY = "0123456789ABCDEF".toCharArray();
+  /** Number of compiled message templates to keep, must be power of two */
+  private static final int TEMPLATE_CACHE_SIZE = 256;
 
-  /** Class for unmodifiable map class created by Collections.unmodifiableMap(Map<K,V>) */
+  /**
+   * Cache of compiled message templates, indexed by identity hash of the pattern. Races on this array are benign
+   * because MessageTemplate is immutable and a lost entry just gets compiled again
+   */
   @Nonnull
-  private static final Class<?> UNMODIFIABLE_MAP_CLASS;
+  private static final MessageTemplate[] TEMPLATE_CACHE = new MessageTemplate[TEMPLATE_CACHE_SIZE];
 
-  /** Class for unmodifiable set class created by Collections.unmodifiableSet(Set<V>) */
+  /** Empty objects array */
   @Nonnull
-  private static final Class<?> UNMODIFIABLE_SET_CLASS;
+  private static final Object[] NO_OBJECTS = new Object[0];
 
-  /** Class for unmodifiable list class created by Collections.unmodifiableList(List<V>) */
+  /** Whether String-returning format functions should reuse thread-local builders */
   @Nonnull
-  private static final Class<?> UNMODIFIABLE_LIST_CLASS;
+  private static final AtomicBoolean POOL_FORMAT_BUILDERS = new AtomicBoolean(false);
 
-  /** Class for unmodifiable list class created by Collections.unmodifiableSet(List<V>) that's for special list classes like ArrayList */
+  /** Thread-local builders for format functions */
   @Nonnull
-  private static final Class<?> UNMODIFIABLE_RANDOM_ACCESS_LIST_CLASS;
-
-  static{
-    UNMODIFIABLE_MAP_CLASS = Collections.unmodifiableMap(new HashMap<>()).getClass();
-    UNMODIFIABLE_SET_CLASS = Collections.unmodifiableSet(new HashSet<>()).getClass();
-    UNMODIFIABLE_LIST_CLASS = Collections.unmodifiableList(new LinkedList<>()).getClass();
-    UNMODIFIABLE_RANDOM_ACCESS_LIST_CLASS = Collections.unmodifiableList(new ArrayList<>()).getClass();
-  }
+  private static final ThreadLocal<FormatBuffer> FORMAT_BUFFER = ThreadLocal.withInitial(FormatBuffer::new);
 
   /**
    * Private constructor
@@ -68,36 +66,23 @@ public final class Utility{
    * Converts bytes to hex string
    *
    * @param bytes byte array
-   * @return hex string
+   * @return upper-case hex string
    */
   @Nonnull
   public static String bytesToHex(byte[] bytes){
-    char[] hexChars = new char[bytes.length * 2];
-    for(int j = 0; j < bytes.length; j++){
-      int v = bytes[j] & 0xFF;
-      hexChars[j * 2] = HEX_ARRAY[v >>> 4];
-      hexChars[j * 2 + 1] = HEX_ARRAY[v & 0x0F];
-    }
-    return new String(hexChars);
+    return Hex.encode(bytes, true);
   }
 
   /**
    * Converts hex string to byte array
    *
-   * @param string hex string
+   * @param string hex string in either case
    * @return byte array
+   * @throws IllegalArgumentException thrown if length of string is odd or if string contains non-hexadecimal characters
    */
   @Nonnull
   public static byte[] hexToBytes(String string){
-    int len = string.length();
-    byte[] data = new byte[len / 2];
-    for(int i = 0; i < len; i += 2){
-      data[i / 2] = (byte) (
-        (Character.digit(string.charAt(i), 16) << 4)
-        + Character.digit(string.charAt(i + 1), 16)
-      );
-    }
-    return data;
+    return Hex.decode(string);
   }
 
   /**
@@ -113,6 +98,299 @@ public final class Utility{
     return format(message, object, objects);
   }
 
+  /**
+   * Formats string, replaces any '{}' with object. Same as f(String, Object, Object...) but doesn't allocate varargs array
+   *
+   * @param message message with '{}'
+   * @param object  first object to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(@Nonnull String message, @Nullable Object object){
+    return formatArguments(message, 1, object, null, null, null);
+  }
+
+  /**
+   * Formats string, replaces any '{}' with objects. Same as f(String, Object, Object...) but doesn't allocate varargs array
+   *
+   * @param message message with '{}'
+   * @param object  first object to replace
+   * @param object1 second object to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(@Nonnull String message, @Nullable Object object, @Nullable Object object1){
+    return formatArguments(message, 2, object, object1, null, null);
+  }
+
+  /**
+   * Formats string, replaces any '{}' with objects. Same as f(String, Object, Object...) but doesn't allocate varargs array
+   *
+   * @param message message with '{}'
+   * @param object  first object to replace
+   * @param object1 second object to replace
+   * @param object2 third object to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(
+    @Nonnull String message,
+    @Nullable Object object,
+    @Nullable Object object1,
+    @Nullable Object object2
+  ){
+    return formatArguments(message, 3, object, object1, object2, null);
+  }
+
+  /**
+   * Formats string, replaces any '{}' with objects. Same as f(String, Object, Object...) but doesn't allocate varargs array
+   *
+   * @param message message with '{}'
+   * @param object  first object to replace
+   * @param object1 second object to replace
+   * @param object2 third object to replace
+   * @param object3 fourth object to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(
+    @Nonnull String message,
+    @Nullable Object object,
+    @Nullable Object object1,
+    @Nullable Object object2,
+    @Nullable Object object3
+  ){
+    return formatArguments(message, 4, object, object1, object2, object3);
+  }
+
+  /**
+   * Formats string, replaces first '{}' with int value without boxing it
+   *
+   * @param message message with '{}'
+   * @param value   value to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(@Nonnull String message, int value){
+
+    // Return message as-is if there's nothing to replace
+    MessageTemplate template = slottedTemplate(message);
+    if(template == null) return message == null ? "null" : message;
+
+    // Append value straight into the builder
+    FormatBuffer buffer = acquireBuffer();
+    try{
+      return closeFormat(template, openFormat(buffer, template, 1).append(value), 1);
+    }finally{
+      releaseBuffer(buffer);
+    }
+  }
+
+  /**
+   * Formats string, replaces first '{}' with long value without boxing it
+   *
+   * @param message message with '{}'
+   * @param value   value to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(@Nonnull String message, long value){
+
+    // Return message as-is if there's nothing to replace
+    MessageTemplate template = slottedTemplate(message);
+    if(template == null) return message == null ? "null" : message;
+
+    // Append value straight into the builder
+    FormatBuffer buffer = acquireBuffer();
+    try{
+      return closeFormat(template, openFormat(buffer, template, 1).append(value), 1);
+    }finally{
+      releaseBuffer(buffer);
+    }
+  }
+
+  /**
+   * Formats string, replaces first '{}' with double value without boxing it
+   *
+   * @param message message with '{}'
+   * @param value   value to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(@Nonnull String message, double value){
+
+    // Return message as-is if there's nothing to replace
+    MessageTemplate template = slottedTemplate(message);
+    if(template == null) return message == null ? "null" : message;
+
+    // Append value straight into the builder
+    FormatBuffer buffer = acquireBuffer();
+    try{
+      return closeFormat(template, openFormat(buffer, template, 1).append(value), 1);
+    }finally{
+      releaseBuffer(buffer);
+    }
+  }
+
+  /**
+   * Formats string, replaces first '{}' with float value without boxing it
+   *
+   * @param message message with '{}'
+   * @param value   value to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(@Nonnull String message, float value){
+
+    // Return message as-is if there's nothing to replace
+    MessageTemplate template = slottedTemplate(message);
+    if(template == null) return message == null ? "null" : message;
+
+    // Append value straight into the builder
+    FormatBuffer buffer = acquireBuffer();
+    try{
+      return closeFormat(template, openFormat(buffer, template, 1).append(value), 1);
+    }finally{
+      releaseBuffer(buffer);
+    }
+  }
+
+  /**
+   * Formats string, replaces first '{}' with char value without boxing it
+   *
+   * @param message message with '{}'
+   * @param value   value to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(@Nonnull String message, char value){
+
+    // Return message as-is if there's nothing to replace
+    MessageTemplate template = slottedTemplate(message);
+    if(template == null) return message == null ? "null" : message;
+
+    // Append value straight into the builder
+    FormatBuffer buffer = acquireBuffer();
+    try{
+      return closeFormat(template, openFormat(buffer, template, 1).append(value), 1);
+    }finally{
+      releaseBuffer(buffer);
+    }
+  }
+
+  /**
+   * Formats string, replaces first '{}' with boolean value without boxing it
+   *
+   * @param message message with '{}'
+   * @param value   value to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(@Nonnull String message, boolean value){
+
+    // Return message as-is if there's nothing to replace
+    MessageTemplate template = slottedTemplate(message);
+    if(template == null) return message == null ? "null" : message;
+
+    // Append value straight into the builder
+    FormatBuffer buffer = acquireBuffer();
+    try{
+      return closeFormat(template, openFormat(buffer, template, 1).append(value), 1);
+    }finally{
+      releaseBuffer(buffer);
+    }
+  }
+
+  /**
+   * Formats string, replaces first '{}' with string and second '{}' with int value without boxing it
+   *
+   * @param message message with '{}'
+   * @param string  string to replace
+   * @param value   value to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(@Nonnull String message, @Nullable String string, int value){
+
+    // Like f(String, Object, Object...), null first object is skipped
+    if(string == null) return f(message, value);
+
+    // Return message as-is if there's nothing to replace
+    MessageTemplate template = slottedTemplate(message);
+    if(template == null) return message == null ? "null" : message;
+
+    // Append string and value straight into the builder
+    FormatBuffer buffer = acquireBuffer();
+    try{
+      StringBuilder builder = openFormat(buffer, template, 2).append(string);
+      if(template.getSlotCount() == 1) return closeFormat(template, builder, 1);
+      template.appendSegment(builder, 1);
+      return closeFormat(template, builder.append(value), 2);
+    }finally{
+      releaseBuffer(buffer);
+    }
+  }
+
+  /**
+   * Formats string, replaces first '{}' with string and second '{}' with long value without boxing it
+   *
+   * @param message message with '{}'
+   * @param string  string to replace
+   * @param value   value to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(@Nonnull String message, @Nullable String string, long value){
+
+    // Like f(String, Object, Object...), null first object is skipped
+    if(string == null) return f(message, value);
+
+    // Return message as-is if there's nothing to replace
+    MessageTemplate template = slottedTemplate(message);
+    if(template == null) return message == null ? "null" : message;
+
+    // Append string and value straight into the builder
+    FormatBuffer buffer = acquireBuffer();
+    try{
+      StringBuilder builder = openFormat(buffer, template, 2).append(string);
+      if(template.getSlotCount() == 1) return closeFormat(template, builder, 1);
+      template.appendSegment(builder, 1);
+      return closeFormat(template, builder.append(value), 2);
+    }finally{
+      releaseBuffer(buffer);
+    }
+  }
+
+  /**
+   * Formats string, replaces first '{}' with string and second '{}' with char value without boxing it
+   *
+   * @param message message with '{}'
+   * @param string  string to replace
+   * @param value   value to replace
+   * @return formatted string
+   */
+  @Nonnull
+  public static String f(@Nonnull String message, @Nullable String string, char value){
+
+    // Like f(String, Object, Object...), null first object is skipped
+    if(string == null) return f(message, value);
+
+    // Return message as-is if there's nothing to replace
+    MessageTemplate template = slottedTemplate(message);
+    if(template == null) return message == null ? "null" : message;
+
+    // Append string and value straight into the builder
+    FormatBuffer buffer = acquireBuffer();
+    try{
+      StringBuilder builder = openFormat(buffer, template, 2).append(string);
+      if(template.getSlotCount() == 1) return closeFormat(template, builder, 1);
+      template.appendSegment(builder, 1);
+      return closeFormat(template, builder.append(value), 2);
+    }finally{
+      releaseBuffer(buffer);
+    }
+  }
+
   /**
    * Formats string, replaces any '{}' with objects
    *
@@ -123,13 +401,107 @@ public final class Utility{
    */
   @Nonnull
   public static String format(@Nullable String message, @Nullable Object object, @Nullable Object... objects){
-    if(object == null && objects == null) return format(message, (Object[]) null);
+    if(message == null) return "null";
+    if(object == null && objects == null) return message;
     if(object == null) return format(message, objects);
-    if(objects == null) return format(message, new Object[]{object});
-    Object[] newobj = new Object[objects.length + 1];
-    newobj[0] = object;
-    System.arraycopy(objects, 0, newobj, 1, objects.length);
-    return format(message, newobj);
+    return format(template(message), object, objects == null ? NO_OBJECTS : objects, 0);
+  }
+
+  /**
+   * Formats string directly into the builder, replaces any '{}' with objects
+   *
+   * @param builder builder to append to
+   * @param message message with '{}'
+   * @param object  object to replace
+   * @param objects objects to replace
+   * @return the same builder
+   */
+  @Nonnull
+  public static StringBuilder formatTo(
+    @Nonnull StringBuilder builder,
+    @Nullable String message,
+    @Nullable Object object,
+    @Nullable Object... objects
+  ){
+
+    // Ensure no null
+    Validation.assertNonnull(builder, "builder");
+
+    // Same rules as format(String, Object, Object...)
+    if(message == null) return builder.append("null");
+    if(object == null && objects == null) return builder.append(message);
+    if(object == null) return template(message).formatTo(builder, objects);
+
+    // Append it
+    template(message).appendTo(builder, object, objects == null ? NO_OBJECTS : objects, 0);
+
+    // Return builder
+    return builder;
+  }
+
+  /**
+   * Formats string directly into the appendable, replaces any '{}' with objects
+   *
+   * @param appendable appendable to append to
+   * @param message    message with '{}'
+   * @param object     object to replace
+   * @param objects    objects to replace
+   * @param <A>        type of appendable
+   * @return the same appendable
+   * @throws IOException thrown if appendable fails to append
+   */
+  @Nonnull
+  public static <A extends Appendable> A formatTo(
+    @Nonnull A appendable,
+    @Nullable String message,
+    @Nullable Object object,
+    @Nullable Object... objects
+  )
+  throws IOException{
+
+    // Ensure no null
+    Validation.assertNonnull(appendable, "appendable");
+
+    // Same rules as format(String, Object, Object...)
+    if(message == null){
+      appendable.append("null");
+      return appendable;
+    }
+    if(object == null && objects == null){
+      appendable.append(message);
+      return appendable;
+    }
+    if(object == null) return template(message).formatTo(appendable, objects);
+
+    // Append it
+    template(message).appendTo(appendable, object, objects == null ? NO_OBJECTS : objects, 0);
+
+    // Return appendable
+    return appendable;
+  }
+
+  /**
+   * Creates message that is formatted like format(String, Object, Object...) only when it's first read with
+   * toString(). Use it where the message is likely to be discarded, like debug logging
+   *
+   * @param message message with '{}'
+   * @param object  object to replace
+   * @param objects objects to replace
+   * @return lazily formatted message
+   */
+  @Nonnull
+  public static LazyMessage lazy(@Nullable String message, @Nullable Object object, @Nullable Object... objects){
+    return new LazyMessage(message, object, objects);
+  }
+
+  /**
+   * Enables or disables reuse of thread-local builders in String-returning format functions. When enabled, the
+   * formatting only allocates the resulting String. Disabled by default.
+   *
+   * @param enabled true to reuse thread-local builders, false to allocate a new builder on every call
+   */
+  public static void setFormatBuilderPooling(boolean enabled){
+    POOL_FORMAT_BUILDERS.set(enabled);
   }
 
   /**
@@ -145,49 +517,215 @@ public final class Utility{
 
     // If any of parameters are null, then return message
     if(message == null) return "null";
-    if(objects == null) return message;
+    if(objects == null || objects.length == 0) return message;
 
-    // Set up builder
-    StringBuilder builder = new StringBuilder();
+    // Format with compiled template
+    return format(template(message), objects[0], objects, 1);
+  }
 
-    // Set up index in objects
-    int objectsIndex = 0;
+  /**
+   * Retrieves compiled template for the message if there's anything to replace in it
+   *
+   * @param message message with '{}'
+   * @return compiled template, or null if message is null or has no '{}'
+   */
+  @Nullable
+  private static MessageTemplate slottedTemplate(@Nullable String message){
+    if(message == null) return null;
+    MessageTemplate template = template(message);
+    return template.getSlotCount() == 0 ? null : template;
+  }
 
-    // Set up indices for message
-    int previousIndex = 0;
-    int braceIndex = 0;
+  /**
+   * Starts formatting the template, up to the first '{}'
+   *
+   * @param buffer        buffer acquired with acquireBuffer()
+   * @param template      compiled template with at least one '{}'
+   * @param argumentCount number of arguments
+   * @return builder to append the first argument to
+   */
+  @Nonnull
+  private static StringBuilder openFormat(
+    @Nullable FormatBuffer buffer,
+    @Nonnull MessageTemplate template,
+    int argumentCount
+  ){
+    StringBuilder builder = builderOf(buffer, template, argumentCount);
+    template.appendSegment(builder, 0);
+    return builder;
+  }
 
-    // Loop until all is replaced or all elements in object array is used
-    while(objectsIndex < objects.length && (braceIndex = message.indexOf("{}", braceIndex)) != -1){
+  /**
+   * Finishes formatting the template after the arguments were appended
+   *
+   * @param template compiled template
+   * @param builder  builder with arguments appended
+   * @param consumed number of '{}' that were replaced
+   * @return formatted string
+   */
+  @Nonnull
+  private static String closeFormat(@Nonnull MessageTemplate template, @Nonnull StringBuilder builder, int consumed){
+    template.appendRemainder(builder, consumed);
+    return builder.toString();
+  }
 
-      // Copy in characters since previous index
-      builder.append(message, previousIndex, braceIndex);
+  /**
+   * Formats the template into a String, using the thread-local builder if pooling is enabled
+   *
+   * @param template   compiled template
+   * @param first      first object to replace
+   * @param rest       rest of objects to replace
+   * @param restOffset index of first element in rest to use
+   * @return formatted string
+   */
+  @Nonnull
+  private static String format(
+    @Nonnull MessageTemplate template,
+    @Nullable Object first,
+    @Nonnull Object[] rest,
+    int restOffset
+  ){
 
-      // Update brace index to skip "{}"
-      braceIndex = Math.min(braceIndex + 2, message.length());
+    // Build it
+    FormatBuffer buffer = acquireBuffer();
+    StringBuilder builder = builderOf(buffer, template, rest.length - restOffset + 1);
+    try{
+      template.appendTo(builder, first, rest, restOffset);
+      return builder.toString();
+    }finally{
+      releaseBuffer(buffer);
+    }
+  }
 
-      // Update the previous index
-      previousIndex = braceIndex;
+  /**
+   * Formats the template into a String with up to four objects passed without an array. Like
+   * format(String, Object, Object...), null first object is skipped
+   *
+   * @param message message with '{}'
+   * @param count   number of objects that are passed
+   * @param a0      first object to replace
+   * @param a1      second object to replace
+   * @param a2      third object to replace
+   * @param a3      fourth object to replace
+   * @return formatted string
+   */
+  @Nonnull
+  private static String formatArguments(
+    @Nullable String message,
+    int count,
+    @Nullable Object a0,
+    @Nullable Object a1,
+    @Nullable Object a2,
+    @Nullable Object a3
+  ){
 
-      // Format 'null' if null
-      if(objects[objectsIndex] == null) builder.append("null");
+    // If message is null, then return "null"
+    if(message == null) return "null";
 
-        // Use normal string if String
-      else if(objects[objectsIndex] instanceof String) builder.append((String) objects[objectsIndex]);
+    // Skip null first object
+    if(a0 == null) return formatPositional(message, count - 1, a1, a2, a3, null);
+    return formatPositional(message, count, a0, a1, a2, a3);
+  }
 
-        // Else, use .toString() method
-      else builder.append(objects[objectsIndex].toString());
+  /**
+   * Formats the template into a String with up to four objects passed without an array
+   *
+   * @param message message with '{}'
+   * @param count   number of objects that are passed
+   * @param a0      first object to replace
+   * @param a1      second object to replace
+   * @param a2      third object to replace
+   * @param a3      fourth object to replace
+   * @return formatted string
+   */
+  @Nonnull
+  private static String formatPositional(
+    @Nonnull String message,
+    int count,
+    @Nullable Object a0,
+    @Nullable Object a1,
+    @Nullable Object a2,
+    @Nullable Object a3
+  ){
 
-      // Increment the array
-      objectsIndex++;
+    // Nothing to replace
+    if(count == 0) return message;
 
+    // Build it
+    MessageTemplate template = template(message);
+    FormatBuffer buffer = acquireBuffer();
+    StringBuilder builder = builderOf(buffer, template, count);
+    try{
+      template.appendTo(builder, count, a0, a1, a2, a3);
+      return builder.toString();
+    }finally{
+      releaseBuffer(buffer);
     }
+  }
 
-    // Finish the string if there's any remaining
-    if(previousIndex < message.length()) builder.append(message, previousIndex, message.length());
+  /**
+   * Acquires the thread-local buffer for formatting if pooling is enabled and it's not already used by an enclosing
+   * format call on this thread
+   *
+   * @return acquired buffer, or null if new builder should be created
+   */
+  @Nullable
+  private static FormatBuffer acquireBuffer(){
+    if(!POOL_FORMAT_BUILDERS.get()) return null;
+    FormatBuffer buffer = FORMAT_BUFFER.get();
+    return buffer.acquire() ? buffer : null;
+  }
 
-    // Return result
-    return builder.toString();
+  /**
+   * Returns builder of the acquired buffer, or new builder presized for the template if there's no buffer
+   *
+   * @param buffer        buffer acquired with acquireBuffer()
+   * @param template      compiled template
+   * @param argumentCount number of arguments
+   * @return empty builder
+   */
+  @Nonnull
+  private static StringBuilder builderOf(
+    @Nullable FormatBuffer buffer,
+    @Nonnull MessageTemplate template,
+    int argumentCount
+  ){
+    return buffer == null ? new StringBuilder(template.estimateLength(argumentCount)) : buffer.getBuilder();
+  }
+
+  /**
+   * Releases the buffer acquired with acquireBuffer(), so it's released even if pooling was disabled in the meantime
+   *
+   * @param buffer buffer, or null if none was acquired
+   */
+  private static void releaseBuffer(@Nullable FormatBuffer buffer){
+    if(buffer != null) buffer.release();
+  }
+
+  /**
+   * Retrieves compiled template for the message, compiling and caching it if it's not already cached
+   * <p>
+   * The cache is keyed by identity of the message so constant patterns hit the cache without hashing the contents
+   *
+   * @param message message with '{}'
+   * @return compiled template
+   */
+  @Nonnull
+  static MessageTemplate template(@Nonnull String message){
+
+    // Find the cache slot
+    int index = System.identityHashCode(message) & (TEMPLATE_CACHE_SIZE - 1);
+
+    // Use it if it's the same message
+    MessageTemplate template = TEMPLATE_CACHE[index];
+    if(template != null && template.getPattern() == message) return template;
+
+    // Otherwise compile it and replace whatever is in the slot
+    template = MessageTemplate.compile(message);
+    TEMPLATE_CACHE[index] = template;
+
+    // Return it
+    return template;
   }
 
   /**
@@ -204,41 +742,52 @@ public final class Utility{
     // If string, then return string
     if(object instanceof String) return (String) object;
 
-    // Print class name and its fields
-    return object.getClass().getSimpleName() + "(" + Arrays.stream(object.getClass().getDeclaredFields())
-                                                           .filter(field -> !Modifier.isStatic(field.getModifiers()))
-                                                           .map(field -> {
-                                                             try{
-                                                               return field.getName() +
-                                                                      "=" +
-                                                                      sensibleToString(field.get(object));
-                                                             }catch(IllegalAccessException e){
-
-                                                               // Check if it's access issue
-                                                               //if (!e.getMessage().contains("modifiers \"private")) return "error";
+    // Print class name and its fields with cached plan
+    StringBuilder builder = new StringBuilder();
+    SimpleToStringPlan.of(object.getClass()).appendTo(builder, object);
+    return builder.toString();
+  }
 
-                                                               // Temporarily change access
-                                                               field.setAccessible(true);
-                                                               try{
+  /**
+   * Writes the same representation as simpleToString(Object) into the appendable, bounded by the budget
+   * <p>
+   * Output is written piece by piece without building an intermediate string. Nested objects, collections, maps and
+   * arrays are walked instead of calling their toString(), so self-referencing objects print "&lt;cycle&gt;" rather
+   * than overflowing the stack. Character sequences, enums and other JDK classes such as numbers, dates and UUIDs are
+   * printed like sensibleToString(Object) does. Anything nested deeper than the maximum depth is printed as "...",
+   * collections, maps and arrays are cut off with "..." after the maximum number of elements, and the whole output is
+   * cut off with "..." once the maximum number of characters is reached.
+   *
+   * @param appendable appendable to write to
+   * @param object     object to be out-stringed
+   * @param budget     limits of depth, characters and elements
+   * @param <A>        type of appendable
+   * @return the same appendable
+   * @throws IOException thrown if appendable fails to write
+   */
+  @Nonnull
+  public static <A extends Appendable> A simpleToStringTo(
+    @Nonnull A appendable,
+    @Nonnull Object object,
+    @Nonnull ToStringBudget budget
+  ) throws IOException{
 
-                                                                 // Access it
-                                                                 return field.getName() +
-                                                                        "=" +
-                                                                        sensibleToString(field.get(object));
+    // Ensure no null
+    Validation.assertNonnull(appendable, "appendable");
+    Validation.assertNonnull(object, "object");
+    Validation.assertNonnull(budget, "budget");
 
-                                                               }catch(IllegalAccessException ex){
-                                                                 ex.printStackTrace();
-                                                                 return "inaccessible";
-                                                               }finally{
-                                                                 field.setAccessible(false);
-                                                               }
-                                                             }
-                                                           })
-                                                           .collect(Collectors.joining(", ")) + ")";
+    // Write it
+    BoundedToString.write(appendable, object, budget);
+    return appendable;
   }
 
   /**
    * Simple function that if it's a String, it adds double quotation marks to each of its ends, otherwise if it is not a string, it simply returns .toString() representation
+   * <p>
+   * Quotes, backslashes and control characters in strings and other CharSequences are escaped. Arrays, collections and
+   * maps are printed element by element like [a, b] and {k=v}, optionals like Optional[v], and enums with their name,
+   * with elements printed the same way.
    *
    * @param object object
    * @return string representation
@@ -246,24 +795,59 @@ public final class Utility{
   @Nonnull
   public static String sensibleToString(@Nullable Object object){
     if(object == null) return "null";
-    if(object instanceof String) return "\"" + object.toString() + "\"";
-    else return object.toString();
+    return SensibleToString.appendTo(new StringBuilder(), object, Integer.MAX_VALUE).toString();
   }
 
   /**
-   * Retrieves an shared random generator
-   * <p>
-   * The generator is created with SecureRandom()
+   * Same as sensibleToString(Object) but the output is cut off with "..." after maximum number of characters
    *
-   * @return random generator
+   * @param object    object
+   * @param maxLength maximum number of characters
+   * @return string representation
    */
   @Nonnull
-  private static Random getRandom(){
-    return RANDOM_GENERATOR.updateAndGet(item -> item == null ? new SecureRandom() : item);
+  public static String sensibleToString(@Nullable Object object, @Nonnegative int maxLength){
+    Validation.assertNonnegative(maxLength, "maxLength");
+    return SensibleToString.appendTo(new StringBuilder(), object, maxLength).toString();
+  }
+
+  /**
+   * Same as sensibleToString(Object) but appends directly into the builder
+   *
+   * @param builder builder
+   * @param object  object
+   * @return the same builder
+   */
+  @Nonnull
+  public static StringBuilder sensibleToStringTo(@Nonnull StringBuilder builder, @Nullable Object object){
+    Validation.assertNonnull(builder, "builder");
+    return SensibleToString.appendTo(builder, object, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Same as sensibleToString(Object, int) but appends directly into the builder
+   *
+   * @param builder   builder
+   * @param object    object
+   * @param maxLength maximum number of characters to append
+   * @return the same builder
+   */
+  @Nonnull
+  public static StringBuilder sensibleToStringTo(
+    @Nonnull StringBuilder builder,
+    @Nullable Object object,
+    @Nonnegative int maxLength
+  ){
+    Validation.assertNonnull(builder, "builder");
+    Validation.assertNonnegative(maxLength, "maxLength");
+    return SensibleToString.appendTo(builder, object, maxLength);
   }
 
   /**
    * Generates string with random characters of specified length
+   * <p>
+   * Random bytes are drawn from the generator in bulk and turned into characters 6 bits at a time, rejecting values
+   * outside of the alphabet so each character is equally likely
    *
    * @param length          length of string
    * @param randomGenerator random generator used to generate the string
@@ -274,33 +858,225 @@ public final class Utility{
 
     // Check length
     Validation.assertNonnull(randomGenerator, "randomGenerator");
-    Validation.assertNaturalNumber(length, "length");
+    Validation.assertNonnegative(length, "length");
 
-    // Set up characterset
-    String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
-    String fullAlphabetSet = alphabet + alphabet.toLowerCase() + "0123456789";
-
-    // Set up string builder
-    StringBuilder sb = new StringBuilder();
+    // Generate it
+    return RandomStrings.generate(randomGenerator::nextBytes, assertStringLength(length), Alphabet.BASE62);
+  }
 
-    // Build random string
-    LongStream.range(0, length)
-              .forEach(i -> sb.append(fullAlphabetSet.charAt(randomGenerator.nextInt(fullAlphabetSet.length()))));
+  /**
+   * Generates string with random characters of specified length
+   *
+   * @param source random source used to generate the string, see RandomSources for ready-made ones
+   * @param length length of string
+   * @return randomized string up to specified length
+   */
+  @Nonnull
+  public static String generateStringFrom(@Nonnull RandomSource source, @Nonnegative long length){
 
-    // Return the string
-    return sb.toString();
+    // Check parameters
+    Validation.assertNonnull(source, "source");
+    Validation.assertNonnegative(length, "length");
 
+    // Generate it
+    return RandomStrings.generate(source, assertStringLength(length), Alphabet.BASE62);
   }
 
   /**
    * Generates string with random characters of specified length
+   * <p>
+   * The string is generated with the global random source, which is a striped pool of SecureRandom instances unless
+   * changed with setRandomSource(RandomSource). Each thread draws random bytes from it in bulk into its own buffer.
    *
    * @param length length of string
    * @return randomized string up to specified length
    */
   @Nonnull
   public static String generateString(@Nonnegative long length){
-    return generateString(getRandom(), length);
+    Validation.assertNonnegative(length, "length");
+    return RandomStrings.generate(assertStringLength(length), Alphabet.BASE62);
+  }
+
+  /**
+   * Creates stream of random strings, generated in batches as the stream is consumed
+   * <p>
+   * Characters for many strings are generated at once, so this is much cheaper than calling generateString(long) in a
+   * loop. The stream is sequential, call parallel() on it to generate strings on many threads, each thread draws from
+   * its own buffer of the global random source.
+   *
+   * @param count    number of strings
+   * @param length   length of each string
+   * @param alphabet alphabet to pick characters from, like Alphabet.BASE62
+   * @return stream of random strings
+   */
+  @Nonnull
+  public static Stream<String> generateStrings(
+    @Nonnegative long count,
+    @Nonnegative int length,
+    @Nonnull Alphabet alphabet
+  ){
+    Validation.assertNonnegative(count, "count");
+    Validation.assertNonnegative(length, "length");
+    Validation.assertNonnull(alphabet, "alphabet");
+    return RandomStrings.stream(null, count, length, alphabet);
+  }
+
+  /**
+   * Same as generateStrings(long, int, Alphabet) but with the provided random source
+   *
+   * @param source   random source, see RandomSources for ready-made ones
+   * @param count    number of strings
+   * @param length   length of each string
+   * @param alphabet alphabet to pick characters from, like Alphabet.BASE62
+   * @return stream of random strings
+   */
+  @Nonnull
+  public static Stream<String> generateStrings(
+    @Nonnull RandomSource source,
+    @Nonnegative long count,
+    @Nonnegative int length,
+    @Nonnull Alphabet alphabet
+  ){
+    Validation.assertNonnull(source, "source");
+    Validation.assertNonnegative(count, "count");
+    Validation.assertNonnegative(length, "length");
+    Validation.assertNonnull(alphabet, "alphabet");
+    return RandomStrings.stream(source, count, length, alphabet);
+  }
+
+  /**
+   * Same as generateStrings(long, int, Alphabet) but collected into an array
+   *
+   * @param count    number of strings
+   * @param length   length of each string
+   * @param alphabet alphabet to pick characters from, like Alphabet.BASE62
+   * @return array of random strings
+   */
+  @Nonnull
+  public static String[] generateStringArray(
+    @Nonnegative int count,
+    @Nonnegative int length,
+    @Nonnull Alphabet alphabet
+  ){
+    Validation.assertNonnegative(count, "count");
+    return generateStrings(count, length, alphabet).toArray(String[]::new);
+  }
+
+  /**
+   * Fills slice of the array with random characters from the alphabet, with the global random source
+   *
+   * @param characters array to fill
+   * @param offset     index of first character to fill
+   * @param length     number of characters to fill
+   * @param alphabet   alphabet to pick characters from, like Alphabet.BASE62
+   * @throws IndexOutOfBoundsException thrown if slice is out of bounds
+   */
+  public static void fillRandom(
+    @Nonnull char[] characters,
+    @Nonnegative int offset,
+    @Nonnegative int length,
+    @Nonnull Alphabet alphabet
+  ){
+    Validation.assertNonnull(characters, "characters");
+    Validation.assertNonnull(alphabet, "alphabet");
+    Hex.checkBounds(offset, length, characters.length);
+    RandomStrings.fill((RandomSource) null, characters, offset, length, alphabet);
+  }
+
+  /**
+   * Same as fillRandom(char[], int, int, Alphabet) but with the provided random source
+   *
+   * @param source     random source, see RandomSources for ready-made ones
+   * @param characters array to fill
+   * @param offset     index of first character to fill
+   * @param length     number of characters to fill
+   * @param alphabet   alphabet to pick characters from, like Alphabet.BASE62
+   * @throws IndexOutOfBoundsException thrown if slice is out of bounds
+   */
+  public static void fillRandom(
+    @Nonnull RandomSource source,
+    @Nonnull char[] characters,
+    @Nonnegative int offset,
+    @Nonnegative int length,
+    @Nonnull Alphabet alphabet
+  ){
+    Validation.assertNonnull(source, "source");
+    Validation.assertNonnull(characters, "characters");
+    Validation.assertNonnull(alphabet, "alphabet");
+    Hex.checkBounds(offset, length, characters.length);
+    RandomStrings.fill(source, characters, offset, length, alphabet);
+  }
+
+  /**
+   * Returns the global random source used by generateString(long)
+   *
+   * @return random source
+   */
+  @Nonnull
+  public static RandomSource getRandomSource(){
+    RandomSource source = RANDOM_SOURCE.get();
+    if(source != null) return source;
+    RANDOM_SOURCE.compareAndSet(null, RandomSources.stripedSecure());
+    return RANDOM_SOURCE.get();
+  }
+
+  /**
+   * Sets the global random source used by generateString(long)
+   *
+   * @param source random source, see RandomSources for ready-made ones
+   */
+  public static void setRandomSource(@Nonnull RandomSource source){
+    RANDOM_SOURCE.set(Validation.assertNonnull(source, "source"));
+  }
+
+  /**
+   * Ensures length fits in a string
+   *
+   * @param length length
+   * @return length as int
+   * @throws IllegalArgumentException thrown if length is too large
+   */
+  private static int assertStringLength(long length){
+    if(length > Integer.MAX_VALUE - 8) throw new IllegalArgumentException(f("Length {} is too large", length));
+    return (int) length;
+  }
+
+  /**
+   * Registers class whose instances can't be modified, so unmodifiable* functions return them as-is instead of wrapping
+   * them. Instances of its subclasses count too, so only register classes that every subclass keeps unmodifiable.
+   * Unmodifiable JDK wrappers, empty, singleton and JDK 9+ immutable collections and this library's own unmodifiable
+   * collections are already registered.
+   *
+   * @param type class
+   * @throws IllegalArgumentException thrown if type is null
+   */
+  public static void registerUnmodifiableClass(@Nonnull Class<?> type){
+    UnmodifiableClasses.register(Validation.assertNonnull(type, "type"));
+  }
+
+  /**
+   * Checks whether object is an instance of a class registered as unmodifiable
+   *
+   * @param object object
+   * @return true if it is, false otherwise
+   * @throws IllegalArgumentException thrown if object is null
+   */
+  public static boolean isUnmodifiable(@Nonnull Object object){
+    return UnmodifiableClasses.isUnmodifiable(Validation.assertNonnull(object, "object"));
+  }
+
+  /**
+   * Behaves same as Collections.unmodifiableCollection(Collection) but this function will simply return if input
+   * collection is already unmodifiable instead of wrapping it again
+   *
+   * @param originalCollection original collection
+   * @param <V>                value type of collection
+   * @return unmodifiable collection
+   */
+  @Nonnull
+  public static <V> Collection<V> unmodifiableCollection(@Nonnull Collection<V> originalCollection){
+    if(UnmodifiableClasses.isUnmodifiable(originalCollection)) return originalCollection;
+    return Collections.unmodifiableCollection(originalCollection);
   }
 
   /**
@@ -313,10 +1089,40 @@ public final class Utility{
    */
   @Nonnull
   public static <K, V> Map<K,V> unmodifiableMap(@Nonnull Map<K,V> originalMap){
-    if(originalMap.getClass().equals(UNMODIFIABLE_MAP_CLASS)) return originalMap;
+    if(UnmodifiableClasses.isUnmodifiable(originalMap)) return originalMap;
     return Collections.unmodifiableMap(originalMap);
   }
 
+  /**
+   * Behaves same as Collections.unmodifiableSortedMap(SortedMap) but this function will simply return if input map is
+   * already unmodifiable instead of wrapping it again
+   *
+   * @param originalMap original map
+   * @param <K>         key type of map
+   * @param <V>         value type of map
+   * @return unmodifiable map
+   */
+  @Nonnull
+  public static <K, V> SortedMap<K,V> unmodifiableSortedMap(@Nonnull SortedMap<K,V> originalMap){
+    if(UnmodifiableClasses.isUnmodifiable(originalMap)) return originalMap;
+    return Collections.unmodifiableSortedMap(originalMap);
+  }
+
+  /**
+   * Behaves same as Collections.unmodifiableNavigableMap(NavigableMap) but this function will simply return if input
+   * map is already unmodifiable instead of wrapping it again
+   *
+   * @param originalMap original map
+   * @param <K>         key type of map
+   * @param <V>         value type of map
+   * @return unmodifiable map
+   */
+  @Nonnull
+  public static <K, V> NavigableMap<K,V> unmodifiableNavigableMap(@Nonnull NavigableMap<K,V> originalMap){
+    if(UnmodifiableClasses.isUnmodifiable(originalMap)) return originalMap;
+    return Collections.unmodifiableNavigableMap(originalMap);
+  }
+
   /**
    * Behaves same as Collections.unmodifiableSet(Set) but this function will simply return if input set is already an unmodifiable set instead of wrapping it again
    *
@@ -326,10 +1132,38 @@ public final class Utility{
    */
   @Nonnull
   public static <V> Set<V> unmodifiableSet(@Nonnull Set<V> originalSet){
-    if(originalSet.getClass().equals(UNMODIFIABLE_SET_CLASS)) return originalSet;
+    if(UnmodifiableClasses.isUnmodifiable(originalSet)) return originalSet;
     return Collections.unmodifiableSet(originalSet);
   }
 
+  /**
+   * Behaves same as Collections.unmodifiableSortedSet(SortedSet) but this function will simply return if input set is
+   * already unmodifiable instead of wrapping it again
+   *
+   * @param originalSet original set
+   * @param <V>         value type of set
+   * @return unmodifiable set
+   */
+  @Nonnull
+  public static <V> SortedSet<V> unmodifiableSortedSet(@Nonnull SortedSet<V> originalSet){
+    if(UnmodifiableClasses.isUnmodifiable(originalSet)) return originalSet;
+    return Collections.unmodifiableSortedSet(originalSet);
+  }
+
+  /**
+   * Behaves same as Collections.unmodifiableNavigableSet(NavigableSet) but this function will simply return if input
+   * set is already unmodifiable instead of wrapping it again
+   *
+   * @param originalSet original set
+   * @param <V>         value type of set
+   * @return unmodifiable set
+   */
+  @Nonnull
+  public static <V> NavigableSet<V> unmodifiableNavigableSet(@Nonnull NavigableSet<V> originalSet){
+    if(UnmodifiableClasses.isUnmodifiable(originalSet)) return originalSet;
+    return Collections.unmodifiableNavigableSet(originalSet);
+  }
+
   /**
    * Behaves same as Collections.unmodifiableList(Set) but this function will simply return if input list is already an unmodifiable list instead of wrapping it again
    *
@@ -339,13 +1173,14 @@ public final class Utility{
    */
   @Nonnull
   public static <V> List<V> unmodifiableList(@Nonnull List<V> originalList){
-    if(originalList.getClass().equals(UNMODIFIABLE_LIST_CLASS) || originalList.getClass().equals(
-      UNMODIFIABLE_RANDOM_ACCESS_LIST_CLASS)) return originalList;
+    if(UnmodifiableClasses.isUnmodifiable(originalList)) return originalList;
     return Collections.unmodifiableList(originalList);
   }
 
   /**
-   * Unites multiple sets together, will re-use any one of set if all other sets are empty
+   * Unites multiple sets together, will re-use any one of set if all other sets are empty. Otherwise, it's united by
+   * Sets.unionAll(Collection) and the result is a new modifiable HashSet, even if some of the sets are PersistentSets.
+   * Use persistentUnion(Set, Set, Set...) to share structure of PersistentSets instead.
    *
    * @param originalSet original set
    * @param otherSet    other set
@@ -356,19 +1191,47 @@ public final class Utility{
   @SafeVarargs
   @Nonnull
   public static <V> Set<V> union(@Nonnull Set<V> originalSet, @Nonnull Set<V> otherSet, @Nonnull Set<V>... moreSet){
-    long nonEmptys = Arrays.stream(moreSet).filter(item -> !item.isEmpty()).count();
-    if(nonEmptys == 0 && otherSet.isEmpty()) return originalSet;
-    if(nonEmptys == 0 && originalSet.isEmpty()) return otherSet;
-    if(nonEmptys == 1 && originalSet.isEmpty() && otherSet.isEmpty()){
-      return Arrays.stream(moreSet)
-                   .filter(item -> !item.isEmpty())
-                   .findAny()
-                   .orElseThrow(() -> new RuntimeException("count failed"));
+    List<Set<V>> sets = new ArrayList<>(moreSet.length + 2);
+    sets.add(originalSet);
+    sets.add(otherSet);
+    Collections.addAll(sets, moreSet);
+    return Sets.unionAll(sets);
+  }
+
+  /**
+   * Unites multiple sets together into an immutable PersistentSet. The other sets are added to the largest
+   * PersistentSet among them, so its structure is shared instead of copied, and the largest PersistentSet itself is
+   * returned if nothing was added to it.
+   *
+   * @param originalSet original set
+   * @param otherSet    other set
+   * @param moreSet     list of additional set
+   * @param <V>         value type of set
+   * @return united set
+   * @throws IllegalArgumentException thrown if any set contains null
+   */
+  @SafeVarargs
+  @Nonnull
+  public static <V> PersistentSet<V> persistentUnion(
+    @Nonnull Set<V> originalSet,
+    @Nonnull Set<V> otherSet,
+    @Nonnull Set<V>... moreSet
+  ){
+
+    // Find the largest persistent set to add the others to
+    PersistentSet<V> largest = null;
+    for(int i = -2; i < moreSet.length; i++){
+      Set<V> set = i == -2 ? originalSet : i == -1 ? otherSet : moreSet[i];
+      if(set instanceof PersistentSet && (largest == null || set.size() > largest.size())){
+        largest = (PersistentSet<V>) set;
+      }
     }
-    Set<V> newSet = new HashSet<>(originalSet);
-    newSet.addAll(otherSet);
-    Arrays.stream(moreSet).forEach(newSet::addAll);
-    return newSet;
+
+    // Add the others to it
+    PersistentSet<V> united = largest == null ? PersistentSet.empty() : largest;
+    united = united.union(originalSet).union(otherSet);
+    for(Set<V> set : moreSet) united = united.union(set);
+    return united;
   }
 
   /**
@@ -390,6 +1253,33 @@ public final class Utility{
     return unmodifiableSet(union(originalSet, otherSet, moreSet));
   }
 
+  /**
+   * Unites multiple sets together without copying, returns an unmodifiable view that probes each set on lookup.
+   * Member sets must not be modified while the view is in use because its size is cached once computed.
+   *
+   * @param originalSet original set
+   * @param otherSet    other set
+   * @param moreSet     list of additional set
+   * @param <V>         value type of set
+   * @return unmodifiable view of united set
+   */
+  @SafeVarargs
+  @Nonnull
+  public static <V> UnionSet<V> unionView(
+    @Nonnull Set<? extends V> originalSet,
+    @Nonnull Set<? extends V> otherSet,
+    @Nonnull Set<? extends V>... moreSet
+  ){
+    Validation.assertNonnull(originalSet, "originalSet");
+    Validation.assertNonnull(otherSet, "otherSet");
+    Validation.assertNonnull(moreSet, "moreSet");
+    Set<? extends V>[] sets = UnionSet.newArray(moreSet.length + 2);
+    sets[0] = originalSet;
+    sets[1] = otherSet;
+    for(int i = 0; i < moreSet.length; i++) sets[i + 2] = Validation.assertNonnull(moreSet[i], "moreSet[" + i + "]");
+    return UnionSet.of(sets);
+  }
+
   /**
    * Behaves same as Arrays.asList(V...)  but for set
    *
@@ -402,4 +1292,100 @@ public final class Utility{
   public static <V> Set<V> asSet(@Nonnull V... items){
     return new HashSet<>(Arrays.asList(items));
   }
+
+  /**
+   * Creates compact immutable set of the items, duplicates are dropped. Unlike asSet(V...), there's no entry object per
+   * item, so it's much smaller on the heap.
+   *
+   * @param items items
+   * @param <V>   value type of set
+   * @return immutable set
+   * @throws IllegalArgumentException thrown if any item is null
+   */
+  @SafeVarargs
+  @Nonnull
+  public static <V> Set<V> immutableSetOf(@Nonnull V... items){
+    Validation.assertNonnull(items, "items");
+    return ImmutableCollections.setOf(items);
+  }
+
+  /**
+   * Copies collection into compact immutable set, duplicates are dropped. Returns the collection itself if it's already
+   * compact immutable set or PersistentSet.
+   *
+   * @param collection collection
+   * @param <V>        value type of set
+   * @return immutable set
+   * @throws IllegalArgumentException thrown if any item is null
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public static <V> Set<V> immutableCopyOf(@Nonnull Collection<? extends V> collection){
+    Validation.assertNonnull(collection, "collection");
+    if(collection instanceof ImmutableCollections.ImmutableSet) return (Set<V>) collection;
+    return ImmutableCollections.setOf(collection.toArray());
+  }
+
+  /**
+   * Copies map into compact immutable map. Returns the map itself if it's already compact immutable map or
+   * PersistentMap.
+   *
+   * @param map map
+   * @param <K> key type of map
+   * @param <V> value type of map
+   * @return immutable map
+   * @throws IllegalArgumentException thrown if any key is null, null values are allowed
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public static <K, V> Map<K,V> immutableCopyOf(@Nonnull Map<? extends K,? extends V> map){
+    Validation.assertNonnull(map, "map");
+    if(map instanceof ImmutableCollections.ImmutableMap) return (Map<K,V>) map;
+    return ImmutableCollections.mapOf(map);
+  }
+
+  /** Thread-local builder that is reused by format functions */
+  private static final class FormatBuffer{
+
+    /** Initial capacity of the builder */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** Builders that grew larger than this are discarded on release so a single huge message isn't retained */
+    private static final int MAX_RETAINED_CAPACITY = 8192;
+
+    /** Builder */
+    @Nonnull
+    private StringBuilder builder = new StringBuilder(INITIAL_CAPACITY);
+
+    /** Indicates whether the builder is currently being used */
+    private boolean inUse = false;
+
+    /**
+     * Acquires the builder and empties it
+     *
+     * @return true if acquired, false if the builder is already in use
+     */
+    boolean acquire(){
+      if(inUse) return false;
+      inUse = true;
+      builder.setLength(0);
+      return true;
+    }
+
+    /**
+     * Returns the builder
+     *
+     * @return builder
+     */
+    @Nonnull
+    StringBuilder getBuilder(){
+      return builder;
+    }
+
+    /** Releases the builder */
+    void release(){
+      if(builder.capacity() > MAX_RETAINED_CAPACITY) builder = new StringBuilder(INITIAL_CAPACITY);
+      inUse = false;
+    }
+  }
 }
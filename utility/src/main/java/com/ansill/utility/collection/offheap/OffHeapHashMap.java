@@ -0,0 +1,848 @@
+package com.ansill.utility.collection.offheap;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Hash map of byte keys to byte values stored outside of the Java heap
+ * <p>
+ * Entries live in a fixed-capacity open-addressing table with linear probing, split into direct or memory-mapped
+ * ByteBuffer segments of up to 1 GiB each, so hundreds of millions of entries cost the garbage collector nothing. Each
+ * slot starts with a 4-byte tag taken from the key's hash, which marks the slot as used, skips most key comparisons and
+ * tells where the entry belongs when entries are shifted back on removal. A memory-mapped map keeps its layout, capacity
+ * and size in a header at the start of the file, so open(Path) only maps the file again, without reading or rehashing
+ * any entries.
+ * <p>
+ * The Map view uses ByteBuffer keys and values because they compare by content; returned buffers are heap copies. The
+ * getBytes/putBytes/removeBytes/containsBytes methods take byte arrays and avoid the copies where possible.
+ */
+@NotThreadSafe
+public final class OffHeapHashMap extends AbstractMap<ByteBuffer,ByteBuffer> implements Closeable{
+
+  /** Fraction of slots that may be used */
+  public static final double MAX_LOAD_FACTOR = 0.75;
+
+  /** Largest number of slots */
+  private static final long MAX_SLOTS = 1L << 31;
+
+  /** Largest number of bytes per segment */
+  private static final int MAX_SEGMENT_BYTES = 1 << 30;
+
+  /** Magic number at the start of mapped file */
+  private static final long MAGIC = 0x4F46464845415031L; // "OFFHEAP1"
+
+  /** Bytes of header */
+  private static final int HEADER_BYTES = 64;
+
+  /** Offset of flags in header */
+  private static final int FLAGS_OFFSET = 8;
+
+  /** Offset of key size in header */
+  private static final int KEY_BYTES_OFFSET = 12;
+
+  /** Offset of value size in header */
+  private static final int VALUE_BYTES_OFFSET = 16;
+
+  /** Offset of number of slots in header */
+  private static final int SLOTS_OFFSET = 24;
+
+  /** Offset of number of entries in header */
+  private static final int SIZE_OFFSET = 32;
+
+  /** Flag of length-prefixed layout */
+  private static final int FLAG_LENGTH_PREFIXED = 1;
+
+  /** Layout of slots */
+  @Nonnull
+  private final OffHeapLayout layout;
+
+  /** Size of each slot */
+  private final int slotBytes;
+
+  /** Number of slots minus one */
+  private final long mask;
+
+  /** Largest number of entries */
+  private final long maxEntries;
+
+  /** Number of bits of slot index within segment */
+  private final int segmentShift;
+
+  /** Slots per segment minus one */
+  private final long segmentMask;
+
+  /** Header, number of entries is kept in it */
+  @Nonnull
+  private final ByteBuffer header;
+
+  /** Segments of slots */
+  @Nonnull
+  private final ByteBuffer[] segments;
+
+  /** File channel of memory-mapped map, null if in direct buffers */
+  @Nullable
+  private FileChannel channel;
+
+  /** Number of entries */
+  private long size;
+
+  /** Indicates whether the map is closed */
+  private boolean closed = false;
+
+  /** Entry set, created on first use */
+  @Nullable
+  private Set<Entry<ByteBuffer,ByteBuffer>> entries;
+
+  /**
+   * OffHeapHashMap constructor
+   *
+   * @param layout   layout of slots
+   * @param slots    power of two number of slots
+   * @param header   header
+   * @param segments segments of slots
+   * @param channel  file channel or null
+   */
+  private OffHeapHashMap(
+    @Nonnull OffHeapLayout layout,
+    long slots,
+    @Nonnull ByteBuffer header,
+    @Nonnull ByteBuffer[] segments,
+    @Nullable FileChannel channel
+  ){
+    this.layout = layout;
+    this.slotBytes = layout.getSlotBytes();
+    this.mask = slots - 1;
+    this.maxEntries = (long) (slots * MAX_LOAD_FACTOR);
+    long slotsPerSegment = slotsPerSegment(slots, slotBytes);
+    this.segmentShift = Long.numberOfTrailingZeros(slotsPerSegment);
+    this.segmentMask = slotsPerSegment - 1;
+    this.header = header;
+    this.segments = segments;
+    this.channel = channel;
+    this.size = header.getLong(SIZE_OFFSET);
+  }
+
+  /**
+   * Creates map in direct ByteBuffers
+   *
+   * @param layout     layout of keys and values
+   * @param maxEntries largest number of entries the map will hold
+   * @return empty map
+   * @throws IllegalArgumentException thrown if the map would be too large
+   */
+  @Nonnull
+  public static OffHeapHashMap allocate(@Nonnull OffHeapLayout layout, long maxEntries){
+
+    // Size it up
+    Validation.assertNonnull(layout, "layout");
+    long slots = slotsFor(maxEntries);
+    long slotsPerSegment = slotsPerSegment(slots, layout.getSlotBytes());
+
+    // Allocate it
+    ByteBuffer header = writeHeader(ByteBuffer.allocateDirect(HEADER_BYTES), layout, slots);
+    ByteBuffer[] segments = new ByteBuffer[(int) (slots / slotsPerSegment)];
+    for(int i = 0; i < segments.length; i++){
+      segments[i] = ByteBuffer.allocateDirect((int) (slotsPerSegment * layout.getSlotBytes()));
+    }
+    return new OffHeapHashMap(layout, slots, header, segments, null);
+  }
+
+  /**
+   * Creates map in memory-mapped file, the file is replaced if it exists
+   *
+   * @param file       file
+   * @param layout     layout of keys and values
+   * @param maxEntries largest number of entries the map will hold
+   * @return empty map
+   * @throws IOException              thrown if file can't be created or mapped
+   * @throws IllegalArgumentException thrown if the map would be too large
+   */
+  @Nonnull
+  public static OffHeapHashMap create(@Nonnull Path file, @Nonnull OffHeapLayout layout, long maxEntries)
+  throws IOException{
+    Validation.assertNonnull(file, "file");
+    Validation.assertNonnull(layout, "layout");
+    long slots = slotsFor(maxEntries);
+    FileChannel channel = FileChannel.open(
+      file,
+      StandardOpenOption.CREATE,
+      StandardOpenOption.TRUNCATE_EXISTING,
+      StandardOpenOption.READ,
+      StandardOpenOption.WRITE
+    );
+    try{
+      MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+      writeHeader(header, layout, slots);
+      return new OffHeapHashMap(layout, slots, header, mapSegments(channel, layout, slots), channel);
+    }catch(IOException | RuntimeException exception){
+      channel.close();
+      throw exception;
+    }
+  }
+
+  /**
+   * Opens map previously created in memory-mapped file, entries are not read until they are looked up
+   *
+   * @param file file
+   * @return map
+   * @throws IOException thrown if file can't be opened or mapped, or isn't an OffHeapHashMap file
+   */
+  @Nonnull
+  public static OffHeapHashMap open(@Nonnull Path file) throws IOException{
+    Validation.assertNonnull(file, "file");
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try{
+
+      // Read header
+      if(channel.size() < HEADER_BYTES) throw new IOException(f("File '{}' is too small", file));
+      MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+      if(header.getLong(0) != MAGIC) throw new IOException(f("File '{}' is not an OffHeapHashMap file", file));
+      OffHeapLayout layout;
+      try{
+        layout = OffHeapLayout.of(
+          header.getInt(KEY_BYTES_OFFSET),
+          header.getInt(VALUE_BYTES_OFFSET),
+          (header.getInt(FLAGS_OFFSET) & FLAG_LENGTH_PREFIXED) != 0
+        );
+      }catch(IllegalArgumentException exception){
+        throw new IOException(f("File '{}' has invalid layout", file), exception);
+      }
+      long slots = header.getLong(SLOTS_OFFSET);
+      long entries = header.getLong(SIZE_OFFSET);
+      if(slots < 1 || slots > MAX_SLOTS || Long.bitCount(slots) != 1 || entries < 0 || entries >= slots){
+        throw new IOException(f("File '{}' has invalid header", file));
+      }
+      if(channel.size() < HEADER_BYTES + slots * layout.getSlotBytes()){
+        throw new IOException(f("File '{}' is truncated", file));
+      }
+
+      // Map it
+      return new OffHeapHashMap(layout, slots, header, mapSegments(channel, layout, slots), channel);
+    }catch(IOException | RuntimeException exception){
+      channel.close();
+      throw exception;
+    }
+  }
+
+  /**
+   * Returns layout of keys and values
+   *
+   * @return layout
+   */
+  @Nonnull
+  public OffHeapLayout getLayout(){
+    return layout;
+  }
+
+  /**
+   * Returns largest number of entries the map can hold
+   *
+   * @return maximum number of entries
+   */
+  public long getMaxEntries(){
+    return maxEntries;
+  }
+
+  /**
+   * Returns number of entries
+   *
+   * @return number of entries
+   */
+  public long longSize(){
+    return size;
+  }
+
+  @Override
+  public int size(){
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public boolean isEmpty(){
+    return size == 0;
+  }
+
+  /**
+   * Returns value of key
+   *
+   * @param key key
+   * @return copy of value or null if key is absent
+   */
+  @Nullable
+  public byte[] getBytes(@Nonnull byte[] key){
+    Validation.assertNonnull(key, "key");
+    long slot = find(key, hash(key));
+    return slot < 0 ? null : readValue(slot);
+  }
+
+  /**
+   * Checks whether key is in the map
+   *
+   * @param key key
+   * @return true if it is
+   */
+  public boolean containsBytes(@Nonnull byte[] key){
+    Validation.assertNonnull(key, "key");
+    return find(key, hash(key)) >= 0;
+  }
+
+  /**
+   * Associates value with key, without copying out the previous value
+   *
+   * @param key   key
+   * @param value value
+   * @return true if key was absent
+   * @throws IllegalArgumentException thrown if key or value doesn't fit the layout
+   * @throws IllegalStateException    thrown if the map is full
+   */
+  public boolean putBytes(@Nonnull byte[] key, @Nonnull byte[] value){
+
+    // Check parameters
+    Validation.assertNonnull(key, "key");
+    Validation.assertNonnull(value, "value");
+    layout.checkKey(key.length);
+    layout.checkValue(value.length);
+
+    // Replace or insert
+    long hash = hash(key);
+    return store(key, hash, find(key, hash), value);
+  }
+
+  /**
+   * Removes key, without copying out the previous value
+   *
+   * @param key key
+   * @return true if key was present
+   */
+  public boolean removeBytes(@Nonnull byte[] key){
+    Validation.assertNonnull(key, "key");
+    long slot = find(key, hash(key));
+    if(slot < 0) return false;
+    shiftBack(slot);
+    setSize(size - 1);
+    return true;
+  }
+
+  @Override
+  public boolean containsKey(@Nullable Object key){
+    return key instanceof ByteBuffer && containsBytes(toBytes((ByteBuffer) key));
+  }
+
+  @Nullable
+  @Override
+  public ByteBuffer get(@Nullable Object key){
+    if(!(key instanceof ByteBuffer)) return null;
+    byte[] value = getBytes(toBytes((ByteBuffer) key));
+    return value == null ? null : ByteBuffer.wrap(value);
+  }
+
+  /**
+   * Associates value with key, the remaining bytes of both buffers are used and their positions aren't changed
+   *
+   * @param key   key
+   * @param value value
+   * @return copy of previous value or null if key was absent
+   * @throws IllegalArgumentException thrown if key or value doesn't fit the layout
+   * @throws IllegalStateException    thrown if the map is full
+   */
+  @Nullable
+  @Override
+  public ByteBuffer put(@Nonnull ByteBuffer key, @Nonnull ByteBuffer value){
+
+    // Check parameters
+    Validation.assertNonnull(key, "key");
+    Validation.assertNonnull(value, "value");
+    byte[] keyBytes = toBytes(key);
+    byte[] valueBytes = toBytes(value);
+    layout.checkKey(keyBytes.length);
+    layout.checkValue(valueBytes.length);
+
+    // Copy out previous value and store it in the same slot
+    long hash = hash(keyBytes);
+    long slot = find(keyBytes, hash);
+    ByteBuffer previous = slot < 0 ? null : ByteBuffer.wrap(readValue(slot));
+    store(keyBytes, hash, slot, valueBytes);
+    return previous;
+  }
+
+  @Nullable
+  @Override
+  public ByteBuffer remove(@Nullable Object key){
+    if(!(key instanceof ByteBuffer)) return null;
+    byte[] keyBytes = toBytes((ByteBuffer) key);
+    long slot = find(keyBytes, hash(keyBytes));
+    if(slot < 0) return null;
+    ByteBuffer previous = ByteBuffer.wrap(readValue(slot));
+    shiftBack(slot);
+    setSize(size - 1);
+    return previous;
+  }
+
+  @Override
+  public void clear(){
+    ensureOpen();
+    for(ByteBuffer segment : segments){
+      for(int offset = 0; offset < segment.capacity(); offset += slotBytes) segment.putInt(offset, 0);
+    }
+    setSize(0);
+  }
+
+  /**
+   * Returns entries, iterated in table order, the map must not be modified while iterating
+   *
+   * @return entry set
+   */
+  @Nonnull
+  @Override
+  public Set<Entry<ByteBuffer,ByteBuffer>> entrySet(){
+    Set<Entry<ByteBuffer,ByteBuffer>> result = entries;
+    if(result == null){
+      result = new EntrySet();
+      entries = result;
+    }
+    return result;
+  }
+
+  /**
+   * Writes changes of memory-mapped map to the file, does nothing for map in direct buffers
+   *
+   * @throws IllegalStateException thrown if the map is closed
+   */
+  public void flush(){
+    ensureOpen();
+    if(channel == null) return;
+    for(ByteBuffer segment : segments) ((MappedByteBuffer) segment).force();
+    ((MappedByteBuffer) header).force();
+  }
+
+  /**
+   * Flushes and closes the map, further use throws IllegalStateException. The memory is released once the map is
+   * garbage-collected because Java 8 can't unmap or free buffers explicitly.
+   *
+   * @throws IOException thrown if file can't be closed
+   */
+  @Override
+  public void close() throws IOException{
+    if(closed) return;
+    flush();
+    closed = true;
+    if(channel != null) channel.close();
+    channel = null;
+  }
+
+  @Override
+  public String toString(){
+    return f(
+      "OffHeapHashMap(layout={}, size={}, maxEntries={}, mapped={})",
+      layout,
+      size,
+      maxEntries,
+      channel != null
+    );
+  }
+
+  /**
+   * Returns number of slots for the number of entries
+   *
+   * @param maxEntries largest number of entries
+   * @return power of two number of slots
+   * @throws IllegalArgumentException thrown if there would be too many slots
+   */
+  private static long slotsFor(long maxEntries){
+    Validation.assertNaturalNumber(maxEntries, "maxEntries");
+    long needed = (long) Math.ceil(maxEntries / MAX_LOAD_FACTOR) + 1;
+    if(needed > MAX_SLOTS) throw new IllegalArgumentException(f("Maximum entries {} is too large", maxEntries));
+    long slots = 4;
+    while(slots < needed) slots <<= 1;
+    return slots;
+  }
+
+  /**
+   * Returns number of slots per segment
+   *
+   * @param slots     power of two number of slots
+   * @param slotBytes size of each slot
+   * @return power of two number of slots per segment
+   */
+  private static long slotsPerSegment(long slots, int slotBytes){
+    return Math.min(slots, Long.highestOneBit(MAX_SEGMENT_BYTES / slotBytes));
+  }
+
+  /**
+   * Writes new header
+   *
+   * @param header header buffer
+   * @param layout layout
+   * @param slots  number of slots
+   * @return header buffer
+   */
+  @Nonnull
+  private static ByteBuffer writeHeader(@Nonnull ByteBuffer header, @Nonnull OffHeapLayout layout, long slots){
+    header.putLong(0, MAGIC);
+    header.putInt(FLAGS_OFFSET, layout.isLengthPrefixed() ? FLAG_LENGTH_PREFIXED : 0);
+    header.putInt(KEY_BYTES_OFFSET, layout.getKeyBytes());
+    header.putInt(VALUE_BYTES_OFFSET, layout.getValueBytes());
+    header.putLong(SLOTS_OFFSET, slots);
+    header.putLong(SIZE_OFFSET, 0);
+    return header;
+  }
+
+  /**
+   * Maps segments of file
+   *
+   * @param channel file channel
+   * @param layout  layout
+   * @param slots   number of slots
+   * @return segments
+   * @throws IOException thrown if file can't be mapped
+   */
+  @Nonnull
+  private static ByteBuffer[] mapSegments(@Nonnull FileChannel channel, @Nonnull OffHeapLayout layout, long slots)
+  throws IOException{
+    long segmentBytes = slotsPerSegment(slots, layout.getSlotBytes()) * layout.getSlotBytes();
+    ByteBuffer[] segments = new ByteBuffer[(int) (slots * layout.getSlotBytes() / segmentBytes)];
+    for(int i = 0; i < segments.length; i++){
+      segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + i * segmentBytes, segmentBytes);
+    }
+    return segments;
+  }
+
+  /**
+   * Hashes key
+   *
+   * @param key key
+   * @return 64-bit hash
+   */
+  private static long hash(@Nonnull byte[] key){
+    long hash = 0xCBF29CE484222325L ^ key.length;
+    for(byte item : key) hash = (hash ^ (item & 0xFF)) * 0x100000001B3L;
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    return hash ^ (hash >>> 33);
+  }
+
+  /**
+   * Returns tag stored in slot, never zero
+   *
+   * @param hash 64-bit hash
+   * @return tag
+   */
+  private static int tag(long hash){
+    return (int) hash | Integer.MIN_VALUE;
+  }
+
+  /**
+   * Returns home slot of tag
+   *
+   * @param tag tag
+   * @return slot index
+   */
+  private long home(int tag){
+    return tag & mask;
+  }
+
+  /**
+   * Returns segment of slot
+   *
+   * @param slot slot index
+   * @return segment
+   */
+  @Nonnull
+  private ByteBuffer segment(long slot){
+    return segments[(int) (slot >>> segmentShift)];
+  }
+
+  /**
+   * Returns offset of slot within its segment
+   *
+   * @param slot slot index
+   * @return offset
+   */
+  private int offset(long slot){
+    return (int) (slot & segmentMask) * slotBytes;
+  }
+
+  /**
+   * Finds key in table
+   *
+   * @param key  key
+   * @param hash hash of key
+   * @return slot index, or -(index + 1) of empty slot where it would go
+   * @throws IllegalStateException thrown if the map is closed
+   */
+  private long find(@Nonnull byte[] key, long hash){
+    ensureOpen();
+    int tag = tag(hash);
+    for(long slot = home(tag); ; slot = (slot + 1) & mask){
+      ByteBuffer segment = segment(slot);
+      int offset = offset(slot);
+      int existing = segment.getInt(offset);
+      if(existing == 0) return -(slot + 1);
+      if(existing == tag && keyEquals(segment, offset, key)) return slot;
+    }
+  }
+
+  /**
+   * Replaces value in found slot or inserts entry into empty slot
+   *
+   * @param key   key that fits layout
+   * @param hash  hash of key
+   * @param slot  result of find(byte[], long) for the key
+   * @param value value that fits layout
+   * @return true if key was absent
+   * @throws IllegalStateException thrown if the map is full
+   */
+  private boolean store(@Nonnull byte[] key, long hash, long slot, @Nonnull byte[] value){
+    if(slot >= 0){
+      writeValue(slot, value);
+      return false;
+    }
+    if(size >= maxEntries) throw new IllegalStateException(f("Map is full at {} entries", size));
+    slot = -(slot + 1);
+    ByteBuffer segment = segment(slot);
+    int offset = offset(slot);
+    segment.putInt(offset, tag(hash));
+    if(layout.isLengthPrefixed()) segment.putShort(offset + layout.keyLengthOffset(), (short) key.length);
+    write(segment, offset + layout.keyOffset(), key);
+    writeValue(slot, value);
+    setSize(size + 1);
+    return true;
+  }
+
+  /**
+   * Compares key in slot
+   *
+   * @param segment segment
+   * @param offset  offset of slot
+   * @param key     key
+   * @return true if they are equal
+   */
+  private boolean keyEquals(@Nonnull ByteBuffer segment, int offset, @Nonnull byte[] key){
+    if(layout.isLengthPrefixed() && (segment.getShort(offset + layout.keyLengthOffset()) & 0xFFFF) != key.length){
+      return false;
+    }
+    if(!layout.isLengthPrefixed() && key.length != layout.getKeyBytes()) return false;
+    int keyOffset = offset + layout.keyOffset();
+    for(int i = 0; i < key.length; i++){
+      if(segment.get(keyOffset + i) != key[i]) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Reads key of slot
+   *
+   * @param slot slot index
+   * @return copy of key
+   */
+  @Nonnull
+  private byte[] readKey(long slot){
+    ByteBuffer segment = segment(slot);
+    int offset = offset(slot);
+    int length = layout.isLengthPrefixed() ?
+      segment.getShort(offset + layout.keyLengthOffset()) & 0xFFFF :
+      layout.getKeyBytes();
+    return read(segment, offset + layout.keyOffset(), length);
+  }
+
+  /**
+   * Reads value of slot
+   *
+   * @param slot slot index
+   * @return copy of value
+   */
+  @Nonnull
+  private byte[] readValue(long slot){
+    ByteBuffer segment = segment(slot);
+    int offset = offset(slot);
+    int length = layout.isLengthPrefixed() ?
+      segment.getShort(offset + layout.valueLengthOffset()) & 0xFFFF :
+      layout.getValueBytes();
+    return read(segment, offset + layout.valueOffset(), length);
+  }
+
+  /**
+   * Writes value into slot
+   *
+   * @param slot  slot index
+   * @param value value that fits layout
+   */
+  private void writeValue(long slot, @Nonnull byte[] value){
+    ByteBuffer segment = segment(slot);
+    int offset = offset(slot);
+    if(layout.isLengthPrefixed()) segment.putShort(offset + layout.valueLengthOffset(), (short) value.length);
+    write(segment, offset + layout.valueOffset(), value);
+  }
+
+  /**
+   * Empties slot and moves following entries back so they stay reachable from their home slot
+   *
+   * @param gap index of slot to empty
+   */
+  private void shiftBack(long gap){
+    for(long slot = (gap + 1) & mask; ; slot = (slot + 1) & mask){
+      ByteBuffer segment = segment(slot);
+      int offset = offset(slot);
+      int tag = segment.getInt(offset);
+      if(tag == 0) break;
+      long home = home(tag);
+      if(((slot - home) & mask) >= ((slot - gap) & mask)){
+        copySlot(segment, offset, segment(gap), offset(gap));
+        gap = slot;
+      }
+    }
+    segment(gap).putInt(offset(gap), 0);
+  }
+
+  /**
+   * Copies whole slot
+   *
+   * @param from       segment to copy from
+   * @param fromOffset offset of slot to copy from
+   * @param to         segment to copy to
+   * @param toOffset   offset of slot to copy to
+   */
+  private void copySlot(@Nonnull ByteBuffer from, int fromOffset, @Nonnull ByteBuffer to, int toOffset){
+    for(int i = 0; i < slotBytes; i += 4) to.putInt(toOffset + i, from.getInt(fromOffset + i));
+  }
+
+  /**
+   * Updates number of entries, also in header
+   *
+   * @param size number of entries
+   */
+  private void setSize(long size){
+    this.size = size;
+    header.putLong(SIZE_OFFSET, size);
+  }
+
+  /**
+   * Ensures map is open
+   *
+   * @throws IllegalStateException thrown if it's closed
+   */
+  private void ensureOpen(){
+    if(closed) throw new IllegalStateException("Map is closed");
+  }
+
+  /**
+   * Reads bytes from buffer
+   *
+   * @param buffer buffer
+   * @param offset index of first byte
+   * @param length number of bytes
+   * @return bytes
+   */
+  @Nonnull
+  private static byte[] read(@Nonnull ByteBuffer buffer, int offset, int length){
+    byte[] bytes = new byte[length];
+    view(buffer, offset, length).get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Writes bytes into buffer in bulk
+   *
+   * @param buffer buffer
+   * @param offset index of first byte
+   * @param bytes  bytes
+   */
+  private static void write(@Nonnull ByteBuffer buffer, int offset, @Nonnull byte[] bytes){
+    view(buffer, offset, bytes.length).put(bytes);
+  }
+
+  /**
+   * Creates view of range of buffer without changing its position and limit
+   *
+   * @param buffer buffer
+   * @param offset index of first byte
+   * @param length number of bytes
+   * @return view positioned at the range
+   */
+  @Nonnull
+  private static ByteBuffer view(@Nonnull ByteBuffer buffer, int offset, int length){
+    ByteBuffer view = buffer.duplicate();
+
+    // Called on Buffer so it still links on Java 8 when built with a newer JDK
+    ((Buffer) view).limit(offset + length).position(offset);
+    return view;
+  }
+
+  /**
+   * Copies remaining bytes of buffer without changing its position
+   *
+   * @param buffer buffer
+   * @return bytes
+   */
+  @Nonnull
+  private static byte[] toBytes(@Nonnull ByteBuffer buffer){
+    return read(buffer, buffer.position(), buffer.remaining());
+  }
+
+  /** Entry set view */
+  private final class EntrySet extends AbstractSet<Entry<ByteBuffer,ByteBuffer>>{
+
+    @Override
+    public int size(){
+      return OffHeapHashMap.this.size();
+    }
+
+    @Override
+    public void clear(){
+      OffHeapHashMap.this.clear();
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<Entry<ByteBuffer,ByteBuffer>> iterator(){
+      ensureOpen();
+      return new Iterator<Entry<ByteBuffer,ByteBuffer>>(){
+
+        /** Index of next slot to look at */
+        private long slot = 0;
+
+        /** Number of entries left */
+        private long remaining = size;
+
+        @Override
+        public boolean hasNext(){
+          return remaining > 0;
+        }
+
+        @Override
+        public Entry<ByteBuffer,ByteBuffer> next(){
+          if(remaining == 0) throw new NoSuchElementException();
+          ensureOpen();
+          while(segment(slot).getInt(offset(slot)) == 0) slot++;
+          remaining--;
+          Entry<ByteBuffer,ByteBuffer> entry = new SimpleImmutableEntry<>(
+            ByteBuffer.wrap(readKey(slot)),
+            ByteBuffer.wrap(readValue(slot))
+          );
+          slot++;
+          return entry;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,224 @@
+package com.ansill.utility.collection.offheap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import static com.ansill.utility.Utility.f;
+
+/**
+ * Layout of keys and values in OffHeapHashMap slots
+ * <p>
+ * Every slot has room for the largest key and value, so the table can be addressed by index without any indirection.
+ * Fixed-width layouts require keys and values of exactly the given size. Length-prefixed layouts accept anything up to
+ * the given size and keep the actual length in two bytes before the key and the value.
+ */
+@Immutable
+public final class OffHeapLayout{
+
+  /** Largest key or value size of length-prefixed layout */
+  public static final int MAX_PREFIXED_BYTES = 0xFFFF;
+
+  /** Largest slot size */
+  private static final int MAX_SLOT_BYTES = 1 << 20;
+
+  /** Bytes of hash tag at the start of each slot */
+  static final int TAG_BYTES = 4;
+
+  /** Bytes of length prefix */
+  static final int LENGTH_BYTES = 2;
+
+  /** Key size, exact or maximum */
+  private final int keyBytes;
+
+  /** Value size, exact or maximum */
+  private final int valueBytes;
+
+  /** Indicates whether keys and values are length-prefixed */
+  private final boolean lengthPrefixed;
+
+  /** Size of each slot, rounded up to multiple of 4 */
+  private final int slotBytes;
+
+  /**
+   * OffHeapLayout constructor
+   *
+   * @param keyBytes       key size, exact or maximum
+   * @param valueBytes     value size, exact or maximum
+   * @param lengthPrefixed true if keys and values are length-prefixed
+   */
+  private OffHeapLayout(int keyBytes, int valueBytes, boolean lengthPrefixed){
+    this.keyBytes = keyBytes;
+    this.valueBytes = valueBytes;
+    this.lengthPrefixed = lengthPrefixed;
+    int bytes = TAG_BYTES + keyBytes + valueBytes + (lengthPrefixed ? LENGTH_BYTES * 2 : 0);
+    this.slotBytes = (bytes + 3) & ~3;
+    if(slotBytes > MAX_SLOT_BYTES) throw new IllegalArgumentException(f("Slot size {} is too large", slotBytes));
+  }
+
+  /**
+   * Creates layout of keys and values that are always the same size
+   *
+   * @param keyBytes   key size, at least 1
+   * @param valueBytes value size, 0 to use the map as a set
+   * @return layout
+   * @throws IllegalArgumentException thrown if sizes are out of range
+   */
+  @Nonnull
+  public static OffHeapLayout fixed(int keyBytes, int valueBytes){
+    if(keyBytes < 1) throw new IllegalArgumentException(f("Key size {} must be at least 1", keyBytes));
+    if(valueBytes < 0) throw new IllegalArgumentException(f("Value size {} must not be negative", valueBytes));
+    return new OffHeapLayout(keyBytes, valueBytes, false);
+  }
+
+  /**
+   * Creates layout of keys and values of any size up to the maximums
+   *
+   * @param maxKeyBytes   maximum key size, up to 65535
+   * @param maxValueBytes maximum value size, up to 65535
+   * @return layout
+   * @throws IllegalArgumentException thrown if sizes are out of range
+   */
+  @Nonnull
+  public static OffHeapLayout lengthPrefixed(int maxKeyBytes, int maxValueBytes){
+    if(maxKeyBytes < 0 || maxKeyBytes > MAX_PREFIXED_BYTES){
+      throw new IllegalArgumentException(f("Maximum key size {} is out of range", maxKeyBytes));
+    }
+    if(maxValueBytes < 0 || maxValueBytes > MAX_PREFIXED_BYTES){
+      throw new IllegalArgumentException(f("Maximum value size {} is out of range", maxValueBytes));
+    }
+    return new OffHeapLayout(maxKeyBytes, maxValueBytes, true);
+  }
+
+  /**
+   * Creates layout from persisted fields
+   *
+   * @param keyBytes       key size
+   * @param valueBytes     value size
+   * @param lengthPrefixed true if length-prefixed
+   * @return layout
+   * @throws IllegalArgumentException thrown if sizes are out of range
+   */
+  @Nonnull
+  static OffHeapLayout of(int keyBytes, int valueBytes, boolean lengthPrefixed){
+    return lengthPrefixed ? lengthPrefixed(keyBytes, valueBytes) : fixed(keyBytes, valueBytes);
+  }
+
+  /**
+   * Returns key size
+   *
+   * @return exact or maximum key size
+   */
+  public int getKeyBytes(){
+    return keyBytes;
+  }
+
+  /**
+   * Returns value size
+   *
+   * @return exact or maximum value size
+   */
+  public int getValueBytes(){
+    return valueBytes;
+  }
+
+  /**
+   * Checks whether keys and values are length-prefixed
+   *
+   * @return true if they are, false if they are fixed-width
+   */
+  public boolean isLengthPrefixed(){
+    return lengthPrefixed;
+  }
+
+  /**
+   * Returns size of each slot
+   *
+   * @return slot size
+   */
+  public int getSlotBytes(){
+    return slotBytes;
+  }
+
+  /**
+   * Returns offset of key length in slot
+   *
+   * @return offset
+   */
+  int keyLengthOffset(){
+    return TAG_BYTES;
+  }
+
+  /**
+   * Returns offset of key in slot
+   *
+   * @return offset
+   */
+  int keyOffset(){
+    return TAG_BYTES + (lengthPrefixed ? LENGTH_BYTES : 0);
+  }
+
+  /**
+   * Returns offset of value length in slot
+   *
+   * @return offset
+   */
+  int valueLengthOffset(){
+    return keyOffset() + keyBytes;
+  }
+
+  /**
+   * Returns offset of value in slot
+   *
+   * @return offset
+   */
+  int valueOffset(){
+    return valueLengthOffset() + (lengthPrefixed ? LENGTH_BYTES : 0);
+  }
+
+  /**
+   * Ensures key fits the layout
+   *
+   * @param length key length
+   * @throws IllegalArgumentException thrown if it doesn't
+   */
+  void checkKey(int length){
+    if(lengthPrefixed ? length > keyBytes : length != keyBytes){
+      throw new IllegalArgumentException(f("Key of {} bytes doesn't fit {}", length, this));
+    }
+  }
+
+  /**
+   * Ensures value fits the layout
+   *
+   * @param length value length
+   * @throws IllegalArgumentException thrown if it doesn't
+   */
+  void checkValue(int length){
+    if(lengthPrefixed ? length > valueBytes : length != valueBytes){
+      throw new IllegalArgumentException(f("Value of {} bytes doesn't fit {}", length, this));
+    }
+  }
+
+  @Override
+  public boolean equals(Object object){
+    if(this == object) return true;
+    if(!(object instanceof OffHeapLayout)) return false;
+    OffHeapLayout other = (OffHeapLayout) object;
+    return keyBytes == other.keyBytes && valueBytes == other.valueBytes && lengthPrefixed == other.lengthPrefixed;
+  }
+
+  @Override
+  public int hashCode(){
+    return (keyBytes * 31 + valueBytes) * 2 + (lengthPrefixed ? 1 : 0);
+  }
+
+  @Override
+  public String toString(){
+    return f(
+      "OffHeapLayout(keyBytes={}, valueBytes={}, lengthPrefixed={})",
+      keyBytes,
+      valueBytes,
+      lengthPrefixed
+    );
+  }
+}
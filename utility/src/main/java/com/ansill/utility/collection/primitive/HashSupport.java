@@ -0,0 +1,110 @@
+package com.ansill.utility.collection.primitive;
+
+import com.ansill.validation.Validation;
+
+import static com.ansill.utility.Utility.f;
+
+/** Sizing and hashing shared by the open-addressing collections in this package */
+final class HashSupport{
+
+  /** Default load factor */
+  static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+  /** Default expected number of elements */
+  static final int DEFAULT_EXPECTED_SIZE = 8;
+
+  /** Smallest table capacity */
+  private static final int MIN_CAPACITY = 4;
+
+  /** Largest table capacity */
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  /**
+   * Private constructor
+   * <p>
+   * No instantiations allowed because this is an utility class
+   *
+   * @throws AssertionError thrown if any instantiations were attempted
+   */
+  private HashSupport(){
+    throw new AssertionError(f("No {} instances for you!", this.getClass().getName()));
+  }
+
+  /**
+   * Ensures load factor is usable for open addressing
+   *
+   * @param loadFactor load factor
+   * @return load factor
+   * @throws IllegalArgumentException thrown if load factor is not between 0 and 1, exclusive
+   */
+  static float assertLoadFactor(float loadFactor){
+    if(!(loadFactor > 0 && loadFactor < 1)){
+      throw new IllegalArgumentException(f("Load factor {} must be between 0 and 1, exclusive", loadFactor));
+    }
+    return loadFactor;
+  }
+
+  /**
+   * Returns table capacity that holds the number of elements without resizing
+   *
+   * @param expectedSize expected number of elements
+   * @param loadFactor   load factor
+   * @return power of two capacity
+   * @throws IllegalArgumentException thrown if expected size is negative or too large
+   */
+  static int capacityFor(int expectedSize, float loadFactor){
+    Validation.assertNonnegative(expectedSize, "expectedSize");
+    long needed = (long) Math.ceil(expectedSize / (double) loadFactor) + 1;
+    if(needed > MAX_CAPACITY) throw new IllegalArgumentException(f("Expected size {} is too large", expectedSize));
+    int capacity = MIN_CAPACITY;
+    while(capacity < needed) capacity <<= 1;
+    return capacity;
+  }
+
+  /**
+   * Returns number of elements that triggers resize
+   *
+   * @param capacity   table capacity
+   * @param loadFactor load factor
+   * @return number of elements, always leaves at least one free slot
+   */
+  static int resizeAt(int capacity, float loadFactor){
+    return Math.min((int) (capacity * loadFactor), capacity - 1);
+  }
+
+  /**
+   * Returns doubled table capacity
+   *
+   * @param capacity table capacity
+   * @return doubled capacity
+   * @throws IllegalStateException thrown if capacity can't grow anymore
+   */
+  static int grow(int capacity){
+    if(capacity >= MAX_CAPACITY) throw new IllegalStateException("Collection is full");
+    return capacity << 1;
+  }
+
+  /**
+   * Spreads int key over table
+   *
+   * @param key  key
+   * @param mask table capacity minus one
+   * @return slot
+   */
+  static int slot(int key, int mask){
+    int hash = key * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  /**
+   * Spreads long key over table
+   *
+   * @param key  key
+   * @param mask table capacity minus one
+   * @return slot
+   */
+  static int slot(long key, int mask){
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+}
@@ -0,0 +1,30 @@
+package com.ansill.utility.collection.primitive;
+
+/**
+ * Cursor over int-to-int entries that doesn't box or allocate per entry
+ * <p>
+ * Usage: {@code for(IntIntCursor cursor = map.cursor(); cursor.advance(); ) use(cursor.key(), cursor.value());}
+ */
+public interface IntIntCursor{
+
+  /**
+   * Moves to next entry
+   *
+   * @return true if there is an entry, false if there are no more entries
+   */
+  boolean advance();
+
+  /**
+   * Returns key of current entry, only valid after advance() returned true
+   *
+   * @return key
+   */
+  int key();
+
+  /**
+   * Returns value of current entry, only valid after advance() returned true
+   *
+   * @return value
+   */
+  int value();
+}
@@ -0,0 +1,396 @@
+package com.ansill.utility.collection.primitive;
+
+import com.ansill.utility.function.IntIntConsumer;
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+
+/**
+ * Map of int keys to int values in an open-addressing table with linear probing
+ * <p>
+ * Keys and values are interleaved in a single int[] without boxing or entry objects, so it takes a fraction of the
+ * memory of a HashMap of Integer to Integer, and a lookup touches a single cache line. Key zero marks an empty slot,
+ * so key zero is tracked by a flag instead. Lookups of absent keys return the missing value, zero unless specified.
+ */
+@NotThreadSafe
+public final class IntIntHashMap{
+
+  /** Load factor */
+  private final float loadFactor;
+
+  /** Value returned for absent keys */
+  private final int missingValue;
+
+  /** Table of keys and values interleaved, key zero is empty slot */
+  @Nonnull
+  private int[] table;
+
+  /** Slot capacity minus one */
+  private int mask;
+
+  /** Number of entries in table that triggers resize */
+  private int resizeAt;
+
+  /** Number of entries in table, not counting key zero */
+  private int assigned = 0;
+
+  /** Indicates whether key zero is in the map */
+  private boolean hasZeroKey = false;
+
+  /** Value of key zero */
+  private int zeroValue;
+
+  /** Creates empty map */
+  public IntIntHashMap(){
+    this(HashSupport.DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * Creates empty map that holds the number of entries without resizing
+   *
+   * @param expectedSize expected number of entries
+   */
+  public IntIntHashMap(int expectedSize){
+    this(expectedSize, HashSupport.DEFAULT_LOAD_FACTOR, 0);
+  }
+
+  /**
+   * Creates empty map that holds the number of entries without resizing
+   *
+   * @param expectedSize expected number of entries
+   * @param loadFactor   fraction of table that is filled before it's resized, between 0 and 1, exclusive
+   * @param missingValue value returned for absent keys
+   */
+  public IntIntHashMap(int expectedSize, float loadFactor, int missingValue){
+    this.loadFactor = HashSupport.assertLoadFactor(loadFactor);
+    this.missingValue = missingValue;
+    allocate(HashSupport.capacityFor(expectedSize, loadFactor));
+  }
+
+  /**
+   * Returns value of key
+   *
+   * @param key key
+   * @return value or missing value if key is absent
+   */
+  public int get(int key){
+    return getOrDefault(key, missingValue);
+  }
+
+  /**
+   * Returns value of key
+   *
+   * @param key          key
+   * @param defaultValue value to return if key is absent
+   * @return value or default value if key is absent
+   */
+  public int getOrDefault(int key, int defaultValue){
+    if(key == 0) return hasZeroKey ? zeroValue : defaultValue;
+    int index = find(key);
+    return index < 0 ? defaultValue : table[index + 1];
+  }
+
+  /**
+   * Checks whether key is in the map
+   *
+   * @param key key
+   * @return true if it is
+   */
+  public boolean containsKey(int key){
+    return key == 0 ? hasZeroKey : find(key) >= 0;
+  }
+
+  /**
+   * Associates value with key
+   *
+   * @param key   key
+   * @param value value
+   * @return previous value or missing value if key was absent
+   */
+  public int put(int key, int value){
+
+    // Handle key zero
+    if(key == 0){
+      int previous = hasZeroKey ? zeroValue : missingValue;
+      hasZeroKey = true;
+      zeroValue = value;
+      return previous;
+    }
+
+    // Replace or insert
+    int index = find(key);
+    if(index >= 0){
+      int previous = table[index + 1];
+      table[index + 1] = value;
+      return previous;
+    }
+    insert(-(index + 1), key, value);
+    return missingValue;
+  }
+
+  /**
+   * Adds delta to value of key, absent key starts from zero
+   *
+   * @param key   key
+   * @param delta amount to add
+   * @return new value
+   */
+  public int addTo(int key, int delta){
+
+    // Handle key zero
+    if(key == 0){
+      zeroValue = hasZeroKey ? zeroValue + delta : delta;
+      hasZeroKey = true;
+      return zeroValue;
+    }
+
+    // Add or insert
+    int index = find(key);
+    if(index >= 0) return table[index + 1] += delta;
+    insert(-(index + 1), key, delta);
+    return delta;
+  }
+
+  /**
+   * Removes key
+   *
+   * @param key key
+   * @return previous value or missing value if key was absent
+   */
+  public int remove(int key){
+
+    // Handle key zero
+    if(key == 0){
+      int previous = hasZeroKey ? zeroValue : missingValue;
+      hasZeroKey = false;
+      return previous;
+    }
+
+    // Find and remove
+    int index = find(key);
+    if(index < 0) return missingValue;
+    int previous = table[index + 1];
+    shiftBack(index);
+    assigned--;
+    return previous;
+  }
+
+  /**
+   * Returns number of entries
+   *
+   * @return number of entries
+   */
+  public int size(){
+    return assigned + (hasZeroKey ? 1 : 0);
+  }
+
+  /**
+   * Checks whether the map is empty
+   *
+   * @return true if it is
+   */
+  public boolean isEmpty(){
+    return size() == 0;
+  }
+
+  /** Removes all entries, keeping the table */
+  public void clear(){
+    Arrays.fill(table, 0);
+    assigned = 0;
+    hasZeroKey = false;
+  }
+
+  /**
+   * Grows the table if needed so it holds the number of entries without resizing
+   *
+   * @param expectedSize expected number of entries
+   */
+  public void ensureCapacity(int expectedSize){
+    int capacity = HashSupport.capacityFor(expectedSize, loadFactor);
+    if(capacity > mask + 1) rehash(capacity);
+  }
+
+  /**
+   * Performs action on every entry
+   *
+   * @param action action that takes key and value
+   */
+  public void forEach(@Nonnull IntIntConsumer action){
+    Validation.assertNonnull(action, "action");
+    if(hasZeroKey) action.accept(0, zeroValue);
+    int[] table = this.table;
+    for(int index = 0; index < table.length; index += 2){
+      if(table[index] != 0) action.accept(table[index], table[index + 1]);
+    }
+  }
+
+  /**
+   * Returns cursor over entries, the map must not be modified while it's in use
+   *
+   * @return cursor
+   */
+  @Nonnull
+  public IntIntCursor cursor(){
+    return new Cursor();
+  }
+
+  @Override
+  public boolean equals(Object object){
+    if(this == object) return true;
+    if(!(object instanceof IntIntHashMap)) return false;
+    IntIntHashMap other = (IntIntHashMap) object;
+    if(other.size() != size() || other.hasZeroKey != hasZeroKey) return false;
+    if(hasZeroKey && other.zeroValue != zeroValue) return false;
+    for(int index = 0; index < table.length; index += 2){
+      int key = table[index];
+      if(key == 0) continue;
+      int otherIndex = other.find(key);
+      if(otherIndex < 0 || other.table[otherIndex + 1] != table[index + 1]) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns hash code, same as Map of Integer to Integer with the same entries
+   *
+   * @return hash code
+   */
+  @Override
+  public int hashCode(){
+    int hash = hasZeroKey ? zeroValue : 0;
+    for(int index = 0; index < table.length; index += 2) hash += table[index] ^ table[index + 1];
+    return hash;
+  }
+
+  @Override
+  public String toString(){
+    StringBuilder builder = new StringBuilder("{");
+    forEach((key, value) -> builder.append(builder.length() == 1 ? "" : ", ").append(key).append('=').append(value));
+    return builder.append('}').toString();
+  }
+
+  /**
+   * Finds key in table
+   *
+   * @param key non-zero key
+   * @return index of key, or -(index + 1) of empty slot where it would go
+   */
+  private int find(int key){
+    int[] table = this.table;
+    int index = HashSupport.slot(key, mask) << 1;
+    for(int existing; (existing = table[index]) != 0; index = (index + 2) & (table.length - 1)){
+      if(existing == key) return index;
+    }
+    return -(index + 1);
+  }
+
+  /**
+   * Puts new entry into empty slot
+   *
+   * @param index index of empty slot
+   * @param key   non-zero key
+   * @param value value
+   */
+  private void insert(int index, int key, int value){
+    table[index] = key;
+    table[index + 1] = value;
+    if(++assigned > resizeAt) rehash(HashSupport.grow(mask + 1));
+  }
+
+  /**
+   * Allocates empty table
+   *
+   * @param capacity power of two number of slots
+   */
+  private void allocate(int capacity){
+    table = new int[capacity * 2];
+    mask = capacity - 1;
+    resizeAt = HashSupport.resizeAt(capacity, loadFactor);
+  }
+
+  /**
+   * Moves entries into new table
+   *
+   * @param capacity power of two number of slots
+   */
+  private void rehash(int capacity){
+    int[] old = table;
+    allocate(capacity);
+    int[] table = this.table;
+    for(int oldIndex = 0; oldIndex < old.length; oldIndex += 2){
+      int key = old[oldIndex];
+      if(key == 0) continue;
+      int index = HashSupport.slot(key, mask) << 1;
+      while(table[index] != 0) index = (index + 2) & (table.length - 1);
+      table[index] = key;
+      table[index + 1] = old[oldIndex + 1];
+    }
+  }
+
+  /**
+   * Empties slot and moves following entries back so they stay reachable from their slot
+   *
+   * @param gap index of slot to empty
+   */
+  private void shiftBack(int gap){
+    int[] table = this.table;
+    int indexMask = table.length - 1;
+    for(int index = (gap + 2) & indexMask, key; (key = table[index]) != 0; index = (index + 2) & indexMask){
+      int slot = HashSupport.slot(key, mask) << 1;
+      if(((index - slot) & indexMask) >= ((index - gap) & indexMask)){
+        table[gap] = key;
+        table[gap + 1] = table[index + 1];
+        gap = index;
+      }
+    }
+    table[gap] = 0;
+    table[gap + 1] = 0;
+  }
+
+  /** Cursor that walks the table */
+  private final class Cursor implements IntIntCursor{
+
+    /** Index of next slot to look at, -2 if key zero hasn't been looked at */
+    private int index = -2;
+
+    /** Current key */
+    private int key;
+
+    /** Current value */
+    private int value;
+
+    @Override
+    public boolean advance(){
+      if(index == -2){
+        index = 0;
+        if(hasZeroKey){
+          key = 0;
+          value = zeroValue;
+          return true;
+        }
+      }
+      int[] table = IntIntHashMap.this.table;
+      for(; index < table.length; index += 2){
+        if(table[index] != 0){
+          key = table[index];
+          value = table[index + 1];
+          index += 2;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public int key(){
+      return key;
+    }
+
+    @Override
+    public int value(){
+      return value;
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.ansill.utility.collection.primitive;
+
+/**
+ * Cursor over long values that doesn't box or allocate per value
+ * <p>
+ * Usage: {@code for(LongCursor cursor = set.cursor(); cursor.advance(); ) use(cursor.value());}
+ */
+public interface LongCursor{
+
+  /**
+   * Moves to next value
+   *
+   * @return true if there is a value, false if there are no more values
+   */
+  boolean advance();
+
+  /**
+   * Returns current value, only valid after advance() returned true
+   *
+   * @return value
+   */
+  long value();
+}
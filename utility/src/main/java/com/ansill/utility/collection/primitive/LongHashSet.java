@@ -0,0 +1,345 @@
+package com.ansill.utility.collection.primitive;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of long values in an open-addressing table with linear probing
+ * <p>
+ * Values are kept in a single long[] without boxing or entry objects, so it takes a fraction of the memory of a
+ * HashSet of Long. Zero marks an empty slot, so value zero is tracked by a flag instead.
+ */
+@NotThreadSafe
+public final class LongHashSet{
+
+  /** Load factor */
+  private final float loadFactor;
+
+  /** Table of values, zero is empty slot */
+  @Nonnull
+  private long[] table;
+
+  /** Table capacity minus one */
+  private int mask;
+
+  /** Number of values in table that triggers resize */
+  private int resizeAt;
+
+  /** Number of values in table, not counting zero */
+  private int assigned = 0;
+
+  /** Indicates whether zero is in the set */
+  private boolean hasZero = false;
+
+  /** Creates empty set */
+  public LongHashSet(){
+    this(HashSupport.DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * Creates empty set that holds the number of values without resizing
+   *
+   * @param expectedSize expected number of values
+   */
+  public LongHashSet(int expectedSize){
+    this(expectedSize, HashSupport.DEFAULT_LOAD_FACTOR);
+  }
+
+  /**
+   * Creates empty set that holds the number of values without resizing
+   *
+   * @param expectedSize expected number of values
+   * @param loadFactor   fraction of table that is filled before it's resized, between 0 and 1, exclusive
+   */
+  public LongHashSet(int expectedSize, float loadFactor){
+    this.loadFactor = HashSupport.assertLoadFactor(loadFactor);
+    allocate(HashSupport.capacityFor(expectedSize, loadFactor));
+  }
+
+  /**
+   * Adds value
+   *
+   * @param value value
+   * @return true if value was added, false if it was already in the set
+   */
+  public boolean add(long value){
+
+    // Handle zero
+    if(value == 0){
+      if(hasZero) return false;
+      hasZero = true;
+      return true;
+    }
+
+    // Find slot
+    long[] table = this.table;
+    int index = HashSupport.slot(value, mask);
+    for(long existing; (existing = table[index]) != 0; index = (index + 1) & mask){
+      if(existing == value) return false;
+    }
+
+    // Put it in
+    table[index] = value;
+    if(++assigned > resizeAt) rehash(HashSupport.grow(table.length));
+    return true;
+  }
+
+  /**
+   * Adds all values
+   *
+   * @param values values
+   */
+  public void addAll(@Nonnull long... values){
+    Validation.assertNonnull(values, "values");
+    ensureCapacity(size() + values.length);
+    for(long value : values) add(value);
+  }
+
+  /**
+   * Adds all values of other set
+   *
+   * @param other other set
+   */
+  public void addAll(@Nonnull LongHashSet other){
+    Validation.assertNonnull(other, "other");
+    ensureCapacity(size() + other.size());
+    if(other.hasZero) hasZero = true;
+    for(long value : other.table){
+      if(value != 0) add(value);
+    }
+  }
+
+  /**
+   * Checks whether value is in the set
+   *
+   * @param value value
+   * @return true if it is
+   */
+  public boolean contains(long value){
+    if(value == 0) return hasZero;
+    long[] table = this.table;
+    int index = HashSupport.slot(value, mask);
+    for(long existing; (existing = table[index]) != 0; index = (index + 1) & mask){
+      if(existing == value) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Removes value
+   *
+   * @param value value
+   * @return true if value was removed, false if it wasn't in the set
+   */
+  public boolean remove(long value){
+
+    // Handle zero
+    if(value == 0){
+      boolean removed = hasZero;
+      hasZero = false;
+      return removed;
+    }
+
+    // Find slot
+    long[] table = this.table;
+    int index = HashSupport.slot(value, mask);
+    for(long existing; (existing = table[index]) != 0; index = (index + 1) & mask){
+      if(existing == value){
+        shiftBack(index);
+        assigned--;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns number of values
+   *
+   * @return number of values
+   */
+  public int size(){
+    return assigned + (hasZero ? 1 : 0);
+  }
+
+  /**
+   * Checks whether the set is empty
+   *
+   * @return true if it is
+   */
+  public boolean isEmpty(){
+    return size() == 0;
+  }
+
+  /** Removes all values, keeping the table */
+  public void clear(){
+    Arrays.fill(table, 0);
+    assigned = 0;
+    hasZero = false;
+  }
+
+  /**
+   * Grows the table if needed so it holds the number of values without resizing
+   *
+   * @param expectedSize expected number of values
+   */
+  public void ensureCapacity(int expectedSize){
+    int capacity = HashSupport.capacityFor(expectedSize, loadFactor);
+    if(capacity > table.length) rehash(capacity);
+  }
+
+  /**
+   * Performs action on every value
+   *
+   * @param action action
+   */
+  public void forEach(@Nonnull LongConsumer action){
+    Validation.assertNonnull(action, "action");
+    if(hasZero) action.accept(0);
+    for(long value : table){
+      if(value != 0) action.accept(value);
+    }
+  }
+
+  /**
+   * Returns cursor over values, the set must not be modified while it's in use
+   *
+   * @return cursor
+   */
+  @Nonnull
+  public LongCursor cursor(){
+    return new Cursor();
+  }
+
+  /**
+   * Returns values in an array
+   *
+   * @return array of values
+   */
+  @Nonnull
+  public long[] toArray(){
+    long[] array = new long[size()];
+    int count = 0;
+    if(hasZero) count++;
+    for(long value : table){
+      if(value != 0) array[count++] = value;
+    }
+    return array;
+  }
+
+  @Override
+  public boolean equals(Object object){
+    if(this == object) return true;
+    if(!(object instanceof LongHashSet)) return false;
+    LongHashSet other = (LongHashSet) object;
+    if(other.size() != size() || other.hasZero != hasZero) return false;
+    for(long value : table){
+      if(value != 0 && !other.contains(value)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns hash code, same as Set of Long with the same values
+   *
+   * @return hash code
+   */
+  @Override
+  public int hashCode(){
+    int hash = 0;
+    for(long value : table) hash += Long.hashCode(value);
+    return hash;
+  }
+
+  @Override
+  public String toString(){
+    StringBuilder builder = new StringBuilder("[");
+    forEach(value -> builder.append(builder.length() == 1 ? "" : ", ").append(value));
+    return builder.append(']').toString();
+  }
+
+  /**
+   * Allocates empty table
+   *
+   * @param capacity power of two capacity
+   */
+  private void allocate(int capacity){
+    table = new long[capacity];
+    mask = capacity - 1;
+    resizeAt = HashSupport.resizeAt(capacity, loadFactor);
+  }
+
+  /**
+   * Moves values into new table
+   *
+   * @param capacity power of two capacity
+   */
+  private void rehash(int capacity){
+    long[] old = table;
+    allocate(capacity);
+    long[] table = this.table;
+    for(long value : old){
+      if(value == 0) continue;
+      int index = HashSupport.slot(value, mask);
+      while(table[index] != 0) index = (index + 1) & mask;
+      table[index] = value;
+    }
+  }
+
+  /**
+   * Empties slot and moves following values back so they stay reachable from their slot
+   *
+   * @param gap index of slot to empty
+   */
+  private void shiftBack(int gap){
+    long[] table = this.table;
+    for(int index = (gap + 1) & mask; table[index] != 0; index = (index + 1) & mask){
+      long value = table[index];
+      int slot = HashSupport.slot(value, mask);
+      if(((index - slot) & mask) >= ((index - gap) & mask)){
+        table[gap] = value;
+        gap = index;
+      }
+    }
+    table[gap] = 0;
+  }
+
+  /** Cursor that walks the table */
+  private final class Cursor implements LongCursor{
+
+    /** Index of next slot to look at, -1 if zero hasn't been looked at */
+    private int index = -1;
+
+    /** Current value */
+    private long value;
+
+    @Override
+    public boolean advance(){
+      if(index == -1){
+        index = 0;
+        if(hasZero){
+          value = 0;
+          return true;
+        }
+      }
+      long[] table = LongHashSet.this.table;
+      while(index < table.length){
+        long next = table[index++];
+        if(next != 0){
+          value = next;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public long value(){
+      return value;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.ansill.utility.collection.primitive;
+
+/**
+ * Cursor over long-to-object entries that doesn't box or allocate per entry
+ * <p>
+ * Usage: {@code for(LongObjectCursor<V> cursor = map.cursor(); cursor.advance(); ) use(cursor.key(), cursor.value());}
+ *
+ * @param <V> value type
+ */
+public interface LongObjectCursor<V>{
+
+  /**
+   * Moves to next entry
+   *
+   * @return true if there is an entry, false if there are no more entries
+   */
+  boolean advance();
+
+  /**
+   * Returns key of current entry, only valid after advance() returned true
+   *
+   * @return key
+   */
+  long key();
+
+  /**
+   * Returns value of current entry, only valid after advance() returned true
+   *
+   * @return value
+   */
+  V value();
+}
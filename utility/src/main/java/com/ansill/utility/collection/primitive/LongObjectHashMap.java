@@ -0,0 +1,427 @@
+package com.ansill.utility.collection.primitive;
+
+import com.ansill.utility.function.LongObjectConsumer;
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * Map of long keys to object values in an open-addressing table with linear probing
+ * <p>
+ * Keys are kept in a long[] and values in a parallel Object[] without boxing or entry objects, so it takes a fraction
+ * of the memory of a HashMap of Long. Key zero marks an empty slot, so key zero is tracked by a flag instead. Null
+ * values are allowed, use containsKey(long) to tell them apart from absent keys.
+ *
+ * @param <V> value type
+ */
+@NotThreadSafe
+public final class LongObjectHashMap<V>{
+
+  /** Load factor */
+  private final float loadFactor;
+
+  /** Table of keys, zero is empty slot */
+  @Nonnull
+  private long[] keys;
+
+  /** Table of values, same index as their keys */
+  @Nonnull
+  private Object[] values;
+
+  /** Table capacity minus one */
+  private int mask;
+
+  /** Number of entries in table that triggers resize */
+  private int resizeAt;
+
+  /** Number of entries in table, not counting key zero */
+  private int assigned = 0;
+
+  /** Indicates whether key zero is in the map */
+  private boolean hasZeroKey = false;
+
+  /** Value of key zero */
+  @Nullable
+  private V zeroValue;
+
+  /** Creates empty map */
+  public LongObjectHashMap(){
+    this(HashSupport.DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * Creates empty map that holds the number of entries without resizing
+   *
+   * @param expectedSize expected number of entries
+   */
+  public LongObjectHashMap(int expectedSize){
+    this(expectedSize, HashSupport.DEFAULT_LOAD_FACTOR);
+  }
+
+  /**
+   * Creates empty map that holds the number of entries without resizing
+   *
+   * @param expectedSize expected number of entries
+   * @param loadFactor   fraction of table that is filled before it's resized, between 0 and 1, exclusive
+   */
+  public LongObjectHashMap(int expectedSize, float loadFactor){
+    this.loadFactor = HashSupport.assertLoadFactor(loadFactor);
+    allocate(HashSupport.capacityFor(expectedSize, loadFactor));
+  }
+
+  /**
+   * Returns value of key
+   *
+   * @param key key
+   * @return value or null if key is absent
+   */
+  @Nullable
+  public V get(long key){
+    return getOrDefault(key, null);
+  }
+
+  /**
+   * Returns value of key
+   *
+   * @param key          key
+   * @param defaultValue value to return if key is absent
+   * @return value or default value if key is absent
+   */
+  @SuppressWarnings("unchecked")
+  @Nullable
+  public V getOrDefault(long key, @Nullable V defaultValue){
+    if(key == 0) return hasZeroKey ? zeroValue : defaultValue;
+    int index = find(key);
+    return index < 0 ? defaultValue : (V) values[index];
+  }
+
+  /**
+   * Checks whether key is in the map
+   *
+   * @param key key
+   * @return true if it is
+   */
+  public boolean containsKey(long key){
+    return key == 0 ? hasZeroKey : find(key) >= 0;
+  }
+
+  /**
+   * Associates value with key
+   *
+   * @param key   key
+   * @param value value
+   * @return previous value or null if key was absent
+   */
+  @SuppressWarnings("unchecked")
+  @Nullable
+  public V put(long key, @Nullable V value){
+
+    // Handle key zero
+    if(key == 0){
+      V previous = zeroValue;
+      hasZeroKey = true;
+      zeroValue = value;
+      return previous;
+    }
+
+    // Replace or insert
+    int index = find(key);
+    if(index >= 0){
+      V previous = (V) values[index];
+      values[index] = value;
+      return previous;
+    }
+    insert(-(index + 1), key, value);
+    return null;
+  }
+
+  /**
+   * Returns value of key, computes and associates it first if key is absent or associated with null, like
+   * Map.computeIfAbsent
+   *
+   * @param key      key
+   * @param function function that computes value from key
+   * @return existing or computed value
+   */
+  @SuppressWarnings("unchecked")
+  public V computeIfAbsent(long key, @Nonnull LongFunction<? extends V> function){
+    Validation.assertNonnull(function, "function");
+
+    // Handle key zero
+    if(key == 0){
+      if(zeroValue == null){
+        zeroValue = function.apply(key);
+        hasZeroKey = hasZeroKey || zeroValue != null;
+      }
+      return zeroValue;
+    }
+
+    // Find existing value
+    int index = find(key);
+    if(index >= 0 && values[index] != null) return (V) values[index];
+
+    // Compute and put it in unless it's null
+    V value = function.apply(key);
+    if(value == null) return null;
+    if(index >= 0) values[index] = value;
+    else insert(-(index + 1), key, value);
+    return value;
+  }
+
+  /**
+   * Removes key
+   *
+   * @param key key
+   * @return previous value or null if key was absent
+   */
+  @SuppressWarnings("unchecked")
+  @Nullable
+  public V remove(long key){
+
+    // Handle key zero
+    if(key == 0){
+      V previous = zeroValue;
+      hasZeroKey = false;
+      zeroValue = null;
+      return previous;
+    }
+
+    // Find and remove
+    int index = find(key);
+    if(index < 0) return null;
+    V previous = (V) values[index];
+    shiftBack(index);
+    assigned--;
+    return previous;
+  }
+
+  /**
+   * Returns number of entries
+   *
+   * @return number of entries
+   */
+  public int size(){
+    return assigned + (hasZeroKey ? 1 : 0);
+  }
+
+  /**
+   * Checks whether the map is empty
+   *
+   * @return true if it is
+   */
+  public boolean isEmpty(){
+    return size() == 0;
+  }
+
+  /** Removes all entries, keeping the table */
+  public void clear(){
+    Arrays.fill(keys, 0);
+    Arrays.fill(values, null);
+    assigned = 0;
+    hasZeroKey = false;
+    zeroValue = null;
+  }
+
+  /**
+   * Grows the table if needed so it holds the number of entries without resizing
+   *
+   * @param expectedSize expected number of entries
+   */
+  public void ensureCapacity(int expectedSize){
+    int capacity = HashSupport.capacityFor(expectedSize, loadFactor);
+    if(capacity > keys.length) rehash(capacity);
+  }
+
+  /**
+   * Performs action on every entry
+   *
+   * @param action action that takes key and value
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(@Nonnull LongObjectConsumer<? super V> action){
+    Validation.assertNonnull(action, "action");
+    if(hasZeroKey) action.accept(0, zeroValue);
+    long[] keys = this.keys;
+    for(int index = 0; index < keys.length; index++){
+      if(keys[index] != 0) action.accept(keys[index], (V) values[index]);
+    }
+  }
+
+  /**
+   * Returns cursor over entries, the map must not be modified while it's in use
+   *
+   * @return cursor
+   */
+  @Nonnull
+  public LongObjectCursor<V> cursor(){
+    return new Cursor();
+  }
+
+  @Override
+  public boolean equals(Object object){
+    if(this == object) return true;
+    if(!(object instanceof LongObjectHashMap)) return false;
+    LongObjectHashMap<?> other = (LongObjectHashMap<?>) object;
+    if(other.size() != size() || other.hasZeroKey != hasZeroKey) return false;
+    if(hasZeroKey && !Objects.equals(other.zeroValue, zeroValue)) return false;
+    for(int index = 0; index < keys.length; index++){
+      long key = keys[index];
+      if(key == 0) continue;
+      int otherIndex = other.find(key);
+      if(otherIndex < 0 || !Objects.equals(other.values[otherIndex], values[index])) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns hash code, same as Map of Long with the same entries
+   *
+   * @return hash code
+   */
+  @Override
+  public int hashCode(){
+    int hash = hasZeroKey ? Objects.hashCode(zeroValue) : 0;
+    for(int index = 0; index < keys.length; index++){
+      if(keys[index] != 0) hash += Long.hashCode(keys[index]) ^ Objects.hashCode(values[index]);
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString(){
+    StringBuilder builder = new StringBuilder("{");
+    forEach((key, value) -> builder.append(builder.length() == 1 ? "" : ", ").append(key).append('=').append(value));
+    return builder.append('}').toString();
+  }
+
+  /**
+   * Finds key in table
+   *
+   * @param key non-zero key
+   * @return index of key, or -(index + 1) of empty slot where it would go
+   */
+  private int find(long key){
+    long[] keys = this.keys;
+    int index = HashSupport.slot(key, mask);
+    for(long existing; (existing = keys[index]) != 0; index = (index + 1) & mask){
+      if(existing == key) return index;
+    }
+    return -(index + 1);
+  }
+
+  /**
+   * Puts new entry into empty slot
+   *
+   * @param index index of empty slot
+   * @param key   non-zero key
+   * @param value value
+   */
+  private void insert(int index, long key, @Nullable V value){
+    keys[index] = key;
+    values[index] = value;
+    if(++assigned > resizeAt) rehash(HashSupport.grow(keys.length));
+  }
+
+  /**
+   * Allocates empty table
+   *
+   * @param capacity power of two capacity
+   */
+  private void allocate(int capacity){
+    keys = new long[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+    resizeAt = HashSupport.resizeAt(capacity, loadFactor);
+  }
+
+  /**
+   * Moves entries into new table
+   *
+   * @param capacity power of two capacity
+   */
+  private void rehash(int capacity){
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+    long[] keys = this.keys;
+    for(int oldIndex = 0; oldIndex < oldKeys.length; oldIndex++){
+      long key = oldKeys[oldIndex];
+      if(key == 0) continue;
+      int index = HashSupport.slot(key, mask);
+      while(keys[index] != 0) index = (index + 1) & mask;
+      keys[index] = key;
+      values[index] = oldValues[oldIndex];
+    }
+  }
+
+  /**
+   * Empties slot and moves following entries back so they stay reachable from their slot
+   *
+   * @param gap index of slot to empty
+   */
+  private void shiftBack(int gap){
+    long[] keys = this.keys;
+    for(int index = (gap + 1) & mask; keys[index] != 0; index = (index + 1) & mask){
+      int slot = HashSupport.slot(keys[index], mask);
+      if(((index - slot) & mask) >= ((index - gap) & mask)){
+        keys[gap] = keys[index];
+        values[gap] = values[index];
+        gap = index;
+      }
+    }
+    keys[gap] = 0;
+    values[gap] = null;
+  }
+
+  /** Cursor that walks the table */
+  private final class Cursor implements LongObjectCursor<V>{
+
+    /** Index of next slot to look at, -1 if key zero hasn't been looked at */
+    private int index = -1;
+
+    /** Current key */
+    private long key;
+
+    /** Current value */
+    @Nullable
+    private V value;
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean advance(){
+      if(index == -1){
+        index = 0;
+        if(hasZeroKey){
+          key = 0;
+          value = zeroValue;
+          return true;
+        }
+      }
+      long[] keys = LongObjectHashMap.this.keys;
+      while(index < keys.length){
+        if(keys[index] != 0){
+          key = keys[index];
+          value = (V) values[index++];
+          return true;
+        }
+        index++;
+      }
+      return false;
+    }
+
+    @Override
+    public long key(){
+      return key;
+    }
+
+    @Override
+    public V value(){
+      return value;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package com.ansill.utility.collection.primitive;
+
+import com.ansill.validation.Validation;
+
+import javax.annotation.Nonnull;
+
+import static com.ansill.utility.Utility.f;
+
+/** Factories for primitive collections, like Utility.asSet and Utility.union for boxed ones */
+public final class PrimitiveCollections{
+
+  /**
+   * Private constructor
+   * <p>
+   * No instantiations allowed because this is an utility class
+   *
+   * @throws AssertionError thrown if any instantiations were attempted
+   */
+  private PrimitiveCollections(){
+    throw new AssertionError(f("No {} instances for you!", this.getClass().getName()));
+  }
+
+  /**
+   * Behaves same as Utility.asSet(V...) but for int values
+   *
+   * @param values values
+   * @return set
+   */
+  @Nonnull
+  public static IntHashSet asIntSet(@Nonnull int... values){
+    Validation.assertNonnull(values, "values");
+    IntHashSet set = new IntHashSet(values.length);
+    for(int value : values) set.add(value);
+    return set;
+  }
+
+  /**
+   * Behaves same as Utility.asSet(V...) but for long values
+   *
+   * @param values values
+   * @return set
+   */
+  @Nonnull
+  public static LongHashSet asLongSet(@Nonnull long... values){
+    Validation.assertNonnull(values, "values");
+    LongHashSet set = new LongHashSet(values.length);
+    for(long value : values) set.add(value);
+    return set;
+  }
+
+  /**
+   * Unites multiple sets together, will re-use any one of set if all other sets are empty
+   *
+   * @param originalSet original set
+   * @param otherSet    other set
+   * @param moreSet     list of additional set
+   * @return united set
+   */
+  @Nonnull
+  public static IntHashSet union(
+    @Nonnull IntHashSet originalSet,
+    @Nonnull IntHashSet otherSet,
+    @Nonnull IntHashSet... moreSet
+  ){
+
+    // Check parameters
+    Validation.assertNonnull(originalSet, "originalSet");
+    Validation.assertNonnull(otherSet, "otherSet");
+    Validation.assertNonnull(moreSet, "moreSet");
+
+    // Re-use the only non-empty set
+    IntHashSet only = null;
+    int nonEmpty = 0;
+    long total = 0;
+    for(int i = -2; i < moreSet.length; i++){
+      IntHashSet set = i == -2 ? originalSet : i == -1 ? otherSet : moreSet[i];
+      if(set.isEmpty()) continue;
+      only = set;
+      nonEmpty++;
+      total += set.size();
+    }
+    if(nonEmpty == 0) return originalSet;
+    if(nonEmpty == 1) return only;
+
+    // Copy into presized set
+    IntHashSet newSet = new IntHashSet((int) Math.min(total, Integer.MAX_VALUE - 8));
+    newSet.addAll(originalSet);
+    newSet.addAll(otherSet);
+    for(IntHashSet set : moreSet) newSet.addAll(set);
+    return newSet;
+  }
+
+  /**
+   * Unites multiple sets together, will re-use any one of set if all other sets are empty
+   *
+   * @param originalSet original set
+   * @param otherSet    other set
+   * @param moreSet     list of additional set
+   * @return united set
+   */
+  @Nonnull
+  public static LongHashSet union(
+    @Nonnull LongHashSet originalSet,
+    @Nonnull LongHashSet otherSet,
+    @Nonnull LongHashSet... moreSet
+  ){
+
+    // Check parameters
+    Validation.assertNonnull(originalSet, "originalSet");
+    Validation.assertNonnull(otherSet, "otherSet");
+    Validation.assertNonnull(moreSet, "moreSet");
+
+    // Re-use the only non-empty set
+    LongHashSet only = null;
+    int nonEmpty = 0;
+    long total = 0;
+    for(int i = -2; i < moreSet.length; i++){
+      LongHashSet set = i == -2 ? originalSet : i == -1 ? otherSet : moreSet[i];
+      if(set.isEmpty()) continue;
+      only = set;
+      nonEmpty++;
+      total += set.size();
+    }
+    if(nonEmpty == 0) return originalSet;
+    if(nonEmpty == 1) return only;
+
+    // Copy into presized set
+    LongHashSet newSet = new LongHashSet((int) Math.min(total, Integer.MAX_VALUE - 8));
+    newSet.addAll(originalSet);
+    newSet.addAll(otherSet);
+    for(LongHashSet set : moreSet) newSet.addAll(set);
+    return newSet;
+  }
+}
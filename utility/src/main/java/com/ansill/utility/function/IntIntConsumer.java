@@ -0,0 +1,6 @@
+package com.ansill.utility.function;
+
+@FunctionalInterface
+public interface IntIntConsumer{
+  void accept(int a, int b);
+}
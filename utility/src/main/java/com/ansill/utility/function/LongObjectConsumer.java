@@ -0,0 +1,6 @@
+package com.ansill.utility.function;
+
+@FunctionalInterface
+public interface LongObjectConsumer<A>{
+  void accept(long a, A b);
+}
@@ -0,0 +1,93 @@
+package com.ansill.test.utility;
+
+import com.ansill.utility.Alphabet;
+import com.ansill.utility.RandomSources;
+import com.ansill.utility.Utility;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlphabetTest{
+
+  /**
+   * Ensures every character of the string is in the alphabet
+   *
+   * @param alphabet alphabet characters
+   * @param string   string
+   */
+  private static void assertInAlphabet(String alphabet, String string){
+    for(char character : string.toCharArray()) assertTrue(alphabet.indexOf(character) != -1, string);
+  }
+
+  @Test
+  void testOf(){
+    assertEquals(62, Alphabet.BASE62.size());
+    assertEquals(16, Alphabet.HEX.size());
+    assertEquals(32, Alphabet.CROCKFORD_BASE32.size());
+    assertEquals(64, Alphabet.BASE64_URL.size());
+    assertEquals(3, Alphabet.of("abc").size());
+    assertThrows(IllegalArgumentException.class, () -> Alphabet.of(""));
+    assertThrows(IllegalArgumentException.class, () -> Alphabet.of("abca"));
+  }
+
+  @Test
+  void testGenerateStrings(){
+
+    // Sequential
+    List<String> strings = Utility.generateStrings(1000, 20, Alphabet.CROCKFORD_BASE32).collect(Collectors.toList());
+    assertEquals(1000, strings.size());
+    assertEquals(1000, strings.stream().distinct().count());
+    for(String string : strings){
+      assertEquals(20, string.length());
+      assertInAlphabet("0123456789ABCDEFGHJKMNPQRSTVWXYZ", string);
+    }
+
+    // Parallel
+    Set<String> parallel = Utility.generateStrings(RandomSources.stripedSecure(), 100_000, 16, Alphabet.BASE62)
+                                  .parallel()
+                                  .collect(Collectors.toSet());
+    assertEquals(100_000, parallel.size());
+
+    // Array
+    String[] array = Utility.generateStringArray(500, 7, Alphabet.of("xy"));
+    assertEquals(500, array.length);
+    for(String string : array){
+      assertEquals(7, string.length());
+      assertInAlphabet("xy", string);
+    }
+
+    // Edge cases
+    assertEquals(0, Utility.generateStrings(0, 5, Alphabet.HEX).count());
+    assertEquals(Arrays.asList("", ""), Utility.generateStrings(2, 0, Alphabet.HEX).collect(Collectors.toList()));
+    assertEquals("aaa", Utility.generateStringArray(1, 3, Alphabet.of("a"))[0]);
+    assertEquals(0, Utility.generateStringArray(0, 3, Alphabet.HEX).length);
+    assertThrows(IllegalArgumentException.class, () -> Utility.generateStrings(-1, 5, Alphabet.HEX));
+  }
+
+  @Test
+  void testFillRandom(){
+
+    // Fill the middle only
+    char[] characters = new char[10];
+    Arrays.fill(characters, '-');
+    Utility.fillRandom(characters, 2, 6, Alphabet.HEX);
+    String string = new String(characters);
+    assertTrue(string.startsWith("--") && string.endsWith("--"));
+    assertInAlphabet("0123456789abcdef", string.substring(2, 8));
+
+    // Seeded source is reproducible
+    char[] first = new char[32];
+    char[] second = new char[32];
+    Utility.fillRandom(RandomSources.splittable(1), first, 0, 32, Alphabet.BASE64_URL);
+    Utility.fillRandom(RandomSources.splittable(1), second, 0, 32, Alphabet.BASE64_URL);
+    assertArrayEquals(first, second);
+
+    // Out of bounds
+    assertThrows(IndexOutOfBoundsException.class, () -> Utility.fillRandom(characters, 8, 3, Alphabet.HEX));
+  }
+}
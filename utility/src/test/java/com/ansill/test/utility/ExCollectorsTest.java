@@ -4,14 +4,25 @@ import com.ansill.utility.ExCollectors;
 import org.junit.jupiter.api.Test;
 
 import java.security.SecureRandom;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.ansill.utility.Utility.generateString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ExCollectorsTest{
@@ -93,4 +104,106 @@ class ExCollectorsTest{
     // Compare
     assertEquals(full, shortcut);
   }
-}
\ No newline at end of file
+
+  @Test
+  void testSizedToMap(){
+
+    // Set up original
+    Map<Integer,String> original = new HashMap<>();
+    for(int i = 0; i < 5000; i++) original.put(i, "v" + i);
+
+    // Sized and supplied variants
+    assertEquals(original, original.entrySet().stream().collect(ExCollectors.toMap(original.size())));
+    assertEquals(original, original.entrySet().stream().collect(ExCollectors.toMap(10, 4f)));
+    TreeMap<Integer,String> sorted = original.entrySet().stream().collect(ExCollectors.toMap(TreeMap::new));
+    assertEquals(original, sorted);
+
+    // Presized collector on parallel streams and re-used
+    Collector<Map.Entry<Integer,String>,?,Map<Integer,String>> sized = ExCollectors.toMap(original.size());
+    assertEquals(original, original.entrySet().parallelStream().collect(sized));
+    assertEquals(original, original.entrySet().stream().collect(sized));
+    ConcurrentMap<Integer,String> concurrent = original.entrySet()
+                                                       .parallelStream()
+                                                       .collect(ExCollectors.toConcurrentMap(original.size()));
+    assertEquals(original, concurrent);
+    ConcurrentSkipListMap<Integer,String> skipList = original.entrySet()
+                                                             .stream()
+                                                             .collect(ExCollectors.toConcurrentMap(
+                                                               ConcurrentSkipListMap::new
+                                                             ));
+    assertEquals(original, skipList);
+
+    // Size derived from stream
+    assertEquals(original, ExCollectors.collectToMap(original.entrySet().stream()));
+    assertEquals(original, ExCollectors.collectToMap(original.entrySet().stream().filter(e -> true)));
+    assertEquals(original, ExCollectors.collectToConcurrentMap(original.entrySet().parallelStream()));
+    assertEquals(original, ExCollectors.collectToConcurrentMap(Stream.iterate(0, i -> i + 1)
+                                                                     .limit(5000)
+                                                                     .map(i -> new SimpleEntry<>(i, "v" + i))));
+
+    // Empty streams and sizes get default-sized maps
+    assertTrue(ExCollectors.collectToMap(Stream.<Map.Entry<Integer,String>>empty()).isEmpty());
+    assertTrue(ExCollectors.collectToMap(new ArrayList<Map.Entry<Integer,String>>().stream()).isEmpty());
+    assertTrue(ExCollectors.collectToMap(new ArrayList<Map.Entry<Integer,String>>().parallelStream()).isEmpty());
+    assertTrue(ExCollectors.collectToConcurrentMap(Stream.<Map.Entry<Integer,String>>empty()).isEmpty());
+    assertEquals(original, original.entrySet().stream().collect(ExCollectors.toMap(0)));
+    assertEquals(original, original.entrySet().parallelStream().collect(ExCollectors.toConcurrentMap(0)));
+
+    // Duplicates are still detected
+    assertThrows(IllegalStateException.class, () -> Stream.of(new SimpleEntry<>(1, "a"), new SimpleEntry<>(1, "b"))
+                                                          .collect(ExCollectors.toMap(2)));
+
+    // Bad sizes
+    assertThrows(IllegalArgumentException.class, () -> ExCollectors.toMap(-1));
+    assertThrows(IllegalArgumentException.class, () -> ExCollectors.toMap(1, 0f));
+    assertThrows(IllegalArgumentException.class, () -> ExCollectors.toConcurrentMap(1, Float.NaN));
+  }
+
+  @Test
+  void testCharacteristics(){
+
+    // Plain maps can't be shared across threads
+    assertFalse(ExCollectors.toMap().characteristics().contains(Collector.Characteristics.CONCURRENT));
+    assertFalse(ExCollectors.toMap(10).characteristics().contains(Collector.Characteristics.CONCURRENT));
+    Collector<Map.Entry<String,String>,?,?> ordered = ExCollectors.toMap(LinkedHashMap::new);
+    assertFalse(ordered.characteristics().contains(Collector.Characteristics.CONCURRENT));
+
+    // Concurrent maps can
+    assertTrue(ExCollectors.toConcurrentMap().characteristics().contains(Collector.Characteristics.CONCURRENT));
+    assertTrue(ExCollectors.toConcurrentMap(10).characteristics().contains(Collector.Characteristics.CONCURRENT));
+  }
+
+  @Test
+  void testParallel(){
+
+    // Set up original
+    Map<Integer,Integer> original = new HashMap<>();
+    for(int i = 0; i < 200000; i++) original.put(i, -i);
+
+    // Collect it repeatedly so a race would show up
+    for(int i = 0; i < 5; i++){
+      assertEquals(original, original.entrySet().parallelStream().collect(ExCollectors.toMap()));
+      assertEquals(original, original.entrySet().parallelStream().collect(ExCollectors.toMap(original.size())));
+      assertEquals(original, ExCollectors.collectToMap(original.entrySet().parallelStream()));
+      assertEquals(original, original.entrySet().parallelStream().collect(ExCollectors.toConcurrentMap()));
+      assertEquals(original, ExCollectors.collectToConcurrentMap(original.entrySet().parallelStream()));
+    }
+
+    // Encounter order is kept by supplied ordered maps
+    List<Integer> keys = IntStream.range(0, 10000).boxed().collect(Collectors.toList());
+    LinkedHashMap<Integer,Integer> ordered = keys.parallelStream()
+                                                 .map(i -> new SimpleEntry<>(i, i))
+                                                 .collect(ExCollectors.toMap(LinkedHashMap::new));
+    assertEquals(keys, new ArrayList<>(ordered.keySet()));
+
+    // Duplicates are detected in either strategy
+    assertThrows(IllegalStateException.class, () -> IntStream.range(0, 100000)
+                                                             .parallel()
+                                                             .mapToObj(i -> new SimpleEntry<>(i % 99999, i))
+                                                             .collect(ExCollectors.toMap()));
+    assertThrows(IllegalStateException.class, () -> IntStream.range(0, 100000)
+                                                             .parallel()
+                                                             .mapToObj(i -> new SimpleEntry<>(i % 99999, i))
+                                                             .collect(ExCollectors.toConcurrentMap()));
+  }
+}
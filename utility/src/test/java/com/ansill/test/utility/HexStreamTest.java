@@ -0,0 +1,197 @@
+package com.ansill.test.utility;
+
+import com.ansill.utility.Hex;
+import com.ansill.utility.HexDecodingInputStream;
+import com.ansill.utility.HexEncodingOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HexStreamTest{
+
+  /**
+   * Creates random bytes
+   *
+   * @param length number of bytes
+   * @return random bytes
+   */
+  private static byte[] randomBytes(int length){
+    byte[] bytes = new byte[length];
+    new SecureRandom().nextBytes(bytes);
+    return bytes;
+  }
+
+  /**
+   * Reads everything from the stream in odd-sized reads
+   *
+   * @param is input stream
+   * @return bytes
+   * @throws IOException thrown if stream fails
+   */
+  private static byte[] readAll(InputStream is) throws IOException{
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    byte[] buffer = new byte[7];
+    int read;
+    while((read = is.read(buffer)) != -1) baos.write(buffer, 0, read);
+    return baos.toByteArray();
+  }
+
+  @Test
+  void testEncodingOutputStream() throws IOException{
+
+    // Set up
+    byte[] bytes = randomBytes(1000);
+    Random random = new SecureRandom();
+
+    // Write in random pieces with tiny chunk size
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try(OutputStream os = new HexEncodingOutputStream(baos, false, 16)){
+      int offset = 0;
+      while(offset < bytes.length){
+        int length = Math.min(bytes.length - offset, random.nextInt(40));
+        if(length == 1) os.write(bytes[offset]);
+        else os.write(bytes, offset, length);
+        offset += length;
+      }
+    }
+
+    // Compare
+    assertEquals(Hex.encode(bytes, false), new String(baos.toByteArray(), StandardCharsets.US_ASCII));
+  }
+
+  @Test
+  void testEncodingToWriter() throws IOException{
+
+    // Set up
+    byte[] bytes = randomBytes(100);
+
+    // Write it
+    StringWriter writer = new StringWriter();
+    try(OutputStream os = new HexEncodingOutputStream(writer)){
+      os.write(bytes);
+    }
+
+    // Compare
+    assertEquals(Hex.encode(bytes), writer.toString());
+
+    // Closed stream should not be written to
+    assertThrows(IOException.class, () -> {
+      OutputStream os = new HexEncodingOutputStream(new StringWriter());
+      os.close();
+      os.write(1);
+    });
+  }
+
+  @Test
+  void testDecodingInputStream() throws IOException{
+
+    // Set up
+    byte[] bytes = randomBytes(1000);
+    String hex = Hex.encode(bytes, true);
+
+    // Read from input stream with tiny odd chunk size
+    try(InputStream is = new HexDecodingInputStream(
+      new ByteArrayInputStream(hex.getBytes(StandardCharsets.US_ASCII)),
+      5
+    )){
+      assertArrayEquals(bytes, readAll(is));
+    }
+
+    // Read from reader
+    try(InputStream is = new HexDecodingInputStream(new StringReader(hex.toLowerCase()))){
+      assertArrayEquals(bytes, readAll(is));
+    }
+
+    // Read byte by byte
+    try(InputStream is = new HexDecodingInputStream(new StringReader("00fF7f"))){
+      assertEquals(0x00, is.read());
+      assertEquals(0xFF, is.read());
+      assertEquals(0x7F, is.read());
+      assertEquals(-1, is.read());
+    }
+  }
+
+  @Test
+  void testDecodingInvalidInput(){
+
+    // Odd number of digits, stream stays failed afterwards
+    assertThrows(IOException.class, () -> readAll(new HexDecodingInputStream(new StringReader("abc"))));
+    HexDecodingInputStream odd = new HexDecodingInputStream(new StringReader("abc"));
+    assertThrows(IOException.class, () -> readAll(odd));
+    assertThrows(IOException.class, odd::read);
+    assertThrows(IOException.class, () -> odd.read(new byte[4], 0, 4));
+
+    // Invalid digit far into the input is reported with its index
+    StringBuilder builder = new StringBuilder();
+    for(int i = 0; i < 100; i++) builder.append("00");
+    builder.append("0x");
+    IOException exception = assertThrows(
+      IOException.class,
+      () -> readAll(new HexDecodingInputStream(new StringReader(builder.toString()), 3))
+    );
+    assertTrue(exception.getMessage().contains("index 201"), exception.getMessage());
+  }
+
+  @Test
+  void testFileChannels() throws IOException{
+
+    // Set up files
+    Path directory = Files.createTempDirectory("hex-channel-test");
+    Path original = directory.resolve("original.bin");
+    Path encoded = directory.resolve("encoded.hex");
+    Path decoded = directory.resolve("decoded.bin");
+    byte[] bytes = randomBytes(200_001);
+    Files.write(original, bytes);
+
+    try{
+
+      // Encode
+      try(
+        FileChannel source = FileChannel.open(original, StandardOpenOption.READ);
+        FileChannel destination = FileChannel.open(encoded, StandardOpenOption.CREATE, StandardOpenOption.WRITE)
+      ){
+        assertEquals(bytes.length, Hex.encode(source, destination, false));
+      }
+      assertEquals(Hex.encode(bytes, false), new String(Files.readAllBytes(encoded), StandardCharsets.US_ASCII));
+
+      // Decode
+      try(
+        FileChannel source = FileChannel.open(encoded, StandardOpenOption.READ);
+        FileChannel destination = FileChannel.open(decoded, StandardOpenOption.CREATE, StandardOpenOption.WRITE)
+      ){
+        assertEquals(bytes.length, Hex.decode(source, destination));
+      }
+      assertArrayEquals(bytes, Files.readAllBytes(decoded));
+
+      // Odd input
+      Files.write(encoded, "abc".getBytes(StandardCharsets.US_ASCII));
+      try(
+        FileChannel source = FileChannel.open(encoded, StandardOpenOption.READ);
+        FileChannel destination = FileChannel.open(decoded, StandardOpenOption.WRITE)
+      ){
+        assertThrows(IOException.class, () -> Hex.decode(source, destination));
+      }
+
+    }finally{
+      Files.delete(original);
+      Files.delete(encoded);
+      Files.delete(decoded);
+      Files.delete(directory);
+    }
+  }
+}
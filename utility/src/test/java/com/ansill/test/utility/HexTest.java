@@ -0,0 +1,159 @@
+package com.ansill.test.utility;
+
+import com.ansill.utility.Hex;
+import com.ansill.utility.Utility;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HexTest{
+
+  @Test
+  void testAllByteValues(){
+
+    // Create all byte values
+    byte[] bytes = new byte[256];
+    for(int i = 0; i < bytes.length; i++) bytes[i] = (byte) i;
+
+    // Build expected with JDK
+    StringBuilder expected = new StringBuilder();
+    for(byte b : bytes) expected.append(String.format("%02x", b & 0xFF));
+
+    // Check both cases
+    assertEquals(expected.toString(), Hex.encode(bytes, false));
+    assertEquals(expected.toString().toUpperCase(), Hex.encode(bytes, true));
+    assertEquals(expected.toString().toUpperCase(), Hex.encode(bytes));
+    assertEquals(expected.toString().toUpperCase(), Utility.bytesToHex(bytes));
+
+    // Decode back in both cases
+    assertArrayEquals(bytes, Hex.decode(expected));
+    assertArrayEquals(bytes, Hex.decode(expected.toString().toUpperCase()));
+    assertArrayEquals(bytes, Utility.hexToBytes(expected.toString()));
+  }
+
+  @Test
+  void testRoundTrip(){
+
+    // Set up random
+    Random random = new SecureRandom();
+
+    // Repeat with random lengths
+    for(int i = 0; i < 100; i++){
+      byte[] bytes = new byte[random.nextInt(100)];
+      random.nextBytes(bytes);
+      assertArrayEquals(bytes, Hex.decode(Hex.encode(bytes, random.nextBoolean())));
+    }
+  }
+
+  @Test
+  void testSlices(){
+
+    // Set up
+    byte[] bytes = {0x00, 0x12, (byte) 0xAB, (byte) 0xFF, 0x7F};
+
+    // Encode slice
+    assertEquals("12abff", Hex.encode(bytes, 1, 3, false));
+
+    // Encode into array
+    char[] chars = new char[8];
+    assertEquals(6, Hex.encodeTo(bytes, 1, 3, chars, 1, true));
+    assertArrayEquals(new char[]{0, '1', '2', 'A', 'B', 'F', 'F', 0}, chars);
+
+    // Decode slice of string
+    byte[] decoded = new byte[4];
+    assertEquals(2, Hex.decodeTo("xx12ABxx", 2, 6, decoded, 1));
+    assertArrayEquals(new byte[]{0, 0x12, (byte) 0xAB, 0}, decoded);
+
+    // Decode slice of array
+    decoded = new byte[2];
+    assertEquals(2, Hex.decodeTo("xxff7f".toCharArray(), 2, 4, decoded, 0));
+    assertArrayEquals(new byte[]{(byte) 0xFF, 0x7F}, decoded);
+
+    // Out of bounds
+    assertThrows(IndexOutOfBoundsException.class, () -> Hex.encode(bytes, 3, 3, true));
+    assertThrows(IndexOutOfBoundsException.class, () -> Hex.encode(bytes, -1, 1, true));
+    assertThrows(IndexOutOfBoundsException.class, () -> Hex.encodeTo(bytes, 0, 5, new char[9], 0, true));
+    assertThrows(IndexOutOfBoundsException.class, () -> Hex.decodeTo("0011", 0, 4, new byte[1], 0));
+  }
+
+  @Test
+  void testByteBuffers(){
+
+    // Set up
+    byte[] bytes = {0x01, 0x23, 0x45, 0x67, (byte) 0x89};
+
+    // Heap and direct buffers should behave the same
+    for(ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(5), ByteBuffer.allocateDirect(5)}){
+
+      // Encode from position to limit
+      buffer.put(bytes).flip().position(1);
+      assertEquals("23456789", Hex.encode(buffer, false));
+      assertEquals(buffer.limit(), buffer.position());
+
+      // Decode at position
+      buffer.clear().position(1);
+      assertEquals(2, Hex.decodeTo("abCD", buffer));
+      assertEquals(3, buffer.position());
+      assertEquals((byte) 0xAB, buffer.get(1));
+      assertEquals((byte) 0xCD, buffer.get(2));
+
+      // Not enough room
+      buffer.clear().position(4);
+      assertThrows(BufferOverflowException.class, () -> Hex.decodeTo("0011", buffer));
+    }
+
+    // Heap buffer with array offset
+    ByteBuffer slice = ByteBuffer.wrap(new byte[]{0, 0x11, 0x22, 0x33}, 1, 3).slice();
+    assertEquals("112233", Hex.encode(slice, true));
+  }
+
+  @Test
+  void testInvalidInput(){
+    assertThrows(IllegalArgumentException.class, () -> Hex.decode("abc"));
+    assertThrows(IllegalArgumentException.class, () -> Hex.decode("zz"));
+    assertThrows(IllegalArgumentException.class, () -> Hex.decode("0g"));
+    assertThrows(IllegalArgumentException.class, () -> Hex.decode("0\u0661"));
+    assertThrows(IllegalArgumentException.class, () -> Hex.decode(" 0"));
+    assertThrows(IllegalArgumentException.class, () -> Utility.hexToBytes("-1"));
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> Hex.decode("00a0x0"));
+    assertTrue(exception.getMessage().contains("index 4"), exception.getMessage());
+  }
+
+  @Test
+  void testParallel(){
+
+    // Set up large array
+    byte[] bytes = new byte[1_000_003];
+    new SecureRandom().nextBytes(bytes);
+
+    // Should be same as sequential
+    String hex = Hex.encode(bytes, false);
+    assertEquals(hex, Hex.encodeParallel(bytes, false));
+    assertArrayEquals(bytes, Hex.decodeParallel(hex));
+
+    // With own pool
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try{
+      assertEquals(hex.toUpperCase(), Hex.encodeParallel(bytes, true, pool));
+      assertArrayEquals(bytes, Hex.decodeParallel(hex.toUpperCase(), pool));
+
+      // Invalid digit somewhere in the middle
+      StringBuilder invalid = new StringBuilder(hex);
+      invalid.setCharAt(1_234_567, 'x');
+      assertThrows(IllegalArgumentException.class, () -> Hex.decodeParallel(invalid, pool));
+    }finally{
+      pool.shutdown();
+    }
+
+    // Small arrays
+    assertEquals("0a", Hex.encodeParallel(new byte[]{0x0A}, false));
+    assertArrayEquals(new byte[]{0x0A}, Hex.decodeParallel("0A"));
+    assertThrows(IllegalArgumentException.class, () -> Hex.decodeParallel("0"));
+  }
+}
@@ -0,0 +1,130 @@
+package com.ansill.test.utility;
+
+import com.ansill.utility.Utility;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImmutableCollectionsTest{
+
+  @Test
+  void testSetOf(){
+
+    // Every size from empty through table-backed
+    for(int size = 0; size < 50; size++){
+      List<String> items = new ArrayList<>();
+      for(int i = 0; i < size; i++) items.add("item" + i);
+      Set<String> expected = new HashSet<>(items);
+      Set<String> set = Utility.immutableSetOf(items.toArray(new String[0]));
+      assertEquals(expected, set);
+      assertEquals(set, expected);
+      assertEquals(expected.hashCode(), set.hashCode());
+      assertEquals(size, set.size());
+      assertEquals(size == 0, set.isEmpty());
+      List<String> iterated = new ArrayList<>(set);
+      assertEquals(size, iterated.size());
+      assertEquals(expected, new HashSet<>(iterated));
+      assertFalse(set.contains("missing"));
+      assertFalse(set.contains(null));
+    }
+
+    // Duplicates are dropped
+    assertEquals(1, Utility.immutableSetOf("a", "a").size());
+    Set<String> set = Utility.immutableSetOf("a", "b", "a", "c", "b");
+    assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), set);
+    assertEquals(3, set.size());
+
+    // Nulls aren't allowed
+    assertThrows(IllegalArgumentException.class, () -> Utility.immutableSetOf("a", null));
+  }
+
+  @Test
+  void testCopyOf(){
+
+    // Copy collection
+    Set<Integer> original = new HashSet<>();
+    for(int i = 0; i < 100; i++) original.add(i * 31);
+    Set<Integer> copy = Utility.immutableCopyOf(original);
+    assertEquals(original, copy);
+    assertSame(copy, Utility.immutableCopyOf(copy));
+    assertEquals(new HashSet<>(Arrays.asList(0, 31, 62)), Utility.immutableCopyOf(Arrays.asList(0, 0, 31, 62, 31)));
+
+    // Copy maps of every size
+    for(int size = 0; size < 50; size++){
+      Map<String,Integer> expected = new HashMap<>();
+      for(int i = 0; i < size; i++) expected.put("key" + i, i % 3 == 0 ? null : i);
+      Map<String,Integer> map = Utility.immutableCopyOf(expected);
+      assertEquals(expected, map);
+      assertEquals(map, expected);
+      assertEquals(expected.hashCode(), map.hashCode());
+      assertEquals(size, map.size());
+      assertEquals(expected.keySet(), map.keySet());
+      for(int i = 0; i < size; i++){
+        assertTrue(map.containsKey("key" + i));
+        assertEquals(expected.get("key" + i), map.get("key" + i));
+      }
+      assertFalse(map.containsKey("missing"));
+      assertNull(map.get("missing"));
+      assertNull(map.get(null));
+      assertEquals(size, new ArrayList<>(map.entrySet()).size());
+      assertSame(map, Utility.immutableCopyOf(map));
+    }
+
+    // Keys equal to each other aren't allowed
+    Map<String,String> identity = new IdentityHashMap<>();
+    identity.put("a", "1");
+    identity.put(new String("a"), "2");
+    assertThrows(IllegalArgumentException.class, () -> Utility.immutableCopyOf(identity));
+    identity.put(new String("a"), "3");
+    assertThrows(IllegalArgumentException.class, () -> Utility.immutableCopyOf(identity));
+    assertThrows(IllegalArgumentException.class, () -> Utility.immutableCopyOf(Collections.singletonMap(null, 1)));
+  }
+
+  @Test
+  void testImmutable(){
+
+    // Sets
+    for(Set<String> set : Arrays.asList(
+      Utility.<String>immutableSetOf(),
+      Utility.immutableSetOf("a"),
+      Utility.immutableSetOf("a", "b", "c")
+    )){
+      assertThrows(UnsupportedOperationException.class, () -> set.add("z"));
+      assertThrows(UnsupportedOperationException.class, () -> set.remove("a"));
+      assertThrows(UnsupportedOperationException.class, set::clear);
+      assertThrows(UnsupportedOperationException.class, () -> set.removeIf(item -> true));
+      assertSame(set, Utility.unmodifiableSet(set));
+    }
+
+    // Maps
+    Map<String,Integer> source = new HashMap<>();
+    for(int i = 0; i < 5; i++) source.put("key" + i, i);
+    for(Map<String,Integer> map : Arrays.asList(
+      Utility.<String,Integer>immutableCopyOf(Collections.<String,Integer>emptyMap()),
+      Utility.<String,Integer>immutableCopyOf(Collections.singletonMap("key0", 0)),
+      Utility.immutableCopyOf(source)
+    )){
+      assertThrows(UnsupportedOperationException.class, () -> map.put("z", 1));
+      assertThrows(UnsupportedOperationException.class, () -> map.remove("key0"));
+      assertThrows(UnsupportedOperationException.class, () -> map.computeIfAbsent("key0", key -> 1));
+      assertThrows(UnsupportedOperationException.class, () -> map.merge("key0", 1, Integer::sum));
+      assertThrows(UnsupportedOperationException.class, map::clear);
+      assertThrows(UnsupportedOperationException.class, () -> map.keySet().remove("key0"));
+      assertThrows(UnsupportedOperationException.class, () -> map.values().remove(0));
+      if(!map.isEmpty()){
+        assertThrows(UnsupportedOperationException.class, () -> map.entrySet().iterator().next().setValue(1));
+      }
+      assertSame(map, Utility.unmodifiableMap(map));
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.ansill.test.utility;
+
+import com.ansill.utility.MessageTemplate;
+import org.junit.jupiter.api.Test;
+
+import static com.ansill.utility.Utility.f;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MessageTemplateTest{
+
+  @Test
+  void testCompile(){
+
+    // Compile it
+    MessageTemplate template = MessageTemplate.compile("Hello {}, you are {} years old");
+
+    // Check it
+    assertEquals(2, template.getSlotCount());
+    assertEquals("Hello {}, you are {} years old", template.getPattern());
+    assertEquals("Hello fido, you are 1 years old", template.format("fido", 1));
+  }
+
+  @Test
+  void testFewerObjectsThanSlots(){
+    MessageTemplate template = MessageTemplate.compile("{} and {} and {}");
+    assertEquals("a and {} and {}", template.format("a"));
+    assertEquals("a and b and {}", template.format("a", "b"));
+  }
+
+  @Test
+  void testMoreObjectsThanSlots(){
+    MessageTemplate template = MessageTemplate.compile("only {}!");
+    assertEquals("only a!", template.format("a", "b", "c"));
+  }
+
+  @Test
+  void testNoSlots(){
+    MessageTemplate template = MessageTemplate.compile("nothing to see here");
+    assertEquals(0, template.getSlotCount());
+    assertEquals("nothing to see here", template.format("a"));
+  }
+
+  @Test
+  void testNullObjects(){
+    MessageTemplate template = MessageTemplate.compile("{} is {}");
+    assertEquals("null is null", template.format(null, null));
+    assertEquals("{} is {}", template.format((Object[]) null));
+  }
+
+  @Test
+  void testAdjacentBraces(){
+    assertEquals("{a}", MessageTemplate.compile("{{}}").format("a"));
+    assertEquals("ab", MessageTemplate.compile("{}{}").format("a", "b"));
+  }
+
+  @Test
+  void testFormatUsesSameRules(){
+
+    // Same pattern repeatedly so it would hit the cache
+    for(int i = 0; i < 10; i++){
+      assertEquals("value " + i + " of {}", f("value {} of {}", i));
+      assertEquals("value " + i + " of 10", f("value {} of {}", i, 10));
+    }
+  }
+}
@@ -0,0 +1,252 @@
+package com.ansill.test.utility;
+
+import com.ansill.utility.ExCollectors;
+import com.ansill.utility.PersistentMap;
+import com.ansill.utility.PersistentSet;
+import com.ansill.utility.Utility;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentCollectionsTest{
+
+  /** Key whose hash code is chosen by the test */
+  private static final class Collider{
+
+    private final int id;
+
+    private final int hash;
+
+    Collider(int id, int hash){
+      this.id = id;
+      this.hash = hash;
+    }
+
+    @Override
+    public boolean equals(Object object){
+      return object instanceof Collider && ((Collider) object).id == id;
+    }
+
+    @Override
+    public int hashCode(){
+      return hash;
+    }
+  }
+
+  @Test
+  void testMapAgainstHashMap(){
+
+    // Random puts and removes
+    Random random = new Random(7);
+    Map<Integer,String> expected = new HashMap<>();
+    PersistentMap<Integer,String> map = PersistentMap.empty();
+    for(int i = 0; i < 20000; i++){
+      int key = random.nextInt(3000);
+      if(random.nextInt(3) == 0){
+        expected.remove(key);
+        map = map.without(key);
+      }else{
+        String value = "v" + random.nextInt(10);
+        expected.put(key, value);
+        map = map.with(key, value);
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    assertEquals(expected, map);
+    assertEquals(map, expected);
+    assertEquals(expected.hashCode(), map.hashCode());
+    for(int key = 0; key < 3000; key++){
+      assertEquals(expected.get(key), map.get(key));
+      assertEquals(expected.containsKey(key), map.containsKey(key));
+    }
+
+    // Remove everything
+    for(Integer key : expected.keySet()) map = map.without(key);
+    assertTrue(map.isEmpty());
+    assertSame(PersistentMap.empty(), map);
+  }
+
+  @Test
+  void testMapNullValuesAndKeys(){
+    PersistentMap<String,String> map = PersistentMap.<String,String>empty().with("a", null);
+    assertTrue(map.containsKey("a"));
+    assertNull(map.get("a"));
+    assertEquals("x", map.getOrDefault("b", "x"));
+    assertNull(map.getOrDefault("a", "x"));
+    assertFalse(map.containsKey(null));
+    assertThrows(IllegalArgumentException.class, () -> map.with(null, "b"));
+  }
+
+  @Test
+  void testStructuralSharing(){
+
+    // Deriving leaves the original intact
+    PersistentMap<Integer,Integer> original = PersistentMap.empty();
+    for(int i = 0; i < 1000; i++) original = original.with(i, i);
+    PersistentMap<Integer,Integer> changed = original.with(5, -5).without(6).with(1000, 1000);
+    assertEquals(1000, original.size());
+    assertEquals(Integer.valueOf(5), original.get(5));
+    assertEquals(Integer.valueOf(6), original.get(6));
+    assertFalse(original.containsKey(1000));
+    assertEquals(1000, changed.size());
+    assertEquals(Integer.valueOf(-5), changed.get(5));
+    assertFalse(changed.containsKey(6));
+
+    // No-op updates return the same instance
+    Integer value = original.get(7);
+    assertSame(original, original.with(7, value));
+    assertSame(original, original.without(-1));
+    assertSame(original, PersistentMap.copyOf(original));
+
+    // Bulk building doesn't modify the source map
+    Map<Integer,Integer> more = new HashMap<>();
+    for(int i = 0; i < 1000; i++) more.put(i * 2, -i);
+    PersistentMap<Integer,Integer> bulk = original.withAll(more);
+    assertEquals(1500, bulk.size());
+    assertEquals(Integer.valueOf(4), original.get(4));
+    assertEquals(Integer.valueOf(-2), bulk.get(4));
+    assertEquals(Integer.valueOf(3), bulk.get(3));
+    assertSame(original, original.withAll(new HashMap<>()));
+  }
+
+  @Test
+  void testCollisions(){
+
+    // All keys land in few buckets
+    Map<Collider,Integer> expected = new HashMap<>();
+    PersistentMap<Collider,Integer> map = PersistentMap.empty();
+    for(int i = 0; i < 200; i++){
+      Collider key = new Collider(i, i % 3);
+      expected.put(key, i);
+      map = map.with(key, i);
+    }
+    assertEquals(expected, map);
+    assertEquals(Integer.valueOf(10), map.get(new Collider(10, 1)));
+    assertNull(map.get(new Collider(10, 2)));
+
+    // Removing collisions down to nothing
+    for(int i = 0; i < 200; i += 2){
+      expected.remove(new Collider(i, i % 3));
+      map = map.without(new Collider(i, i % 3));
+      assertEquals(expected, map);
+    }
+    for(int i = 1; i < 200; i += 2) map = map.without(new Collider(i, i % 3));
+    assertTrue(map.isEmpty());
+  }
+
+  @Test
+  void testSet(){
+
+    // Random adds and removes
+    Random random = new Random(11);
+    Set<Integer> expected = new HashSet<>();
+    PersistentSet<Integer> set = PersistentSet.empty();
+    for(int i = 0; i < 10000; i++){
+      int item = random.nextInt(2000);
+      if(random.nextBoolean()){
+        expected.add(item);
+        set = set.with(item);
+      }else{
+        expected.remove(item);
+        set = set.without(item);
+      }
+    }
+    assertEquals(expected, set);
+    assertEquals(set, expected);
+    assertEquals(expected.hashCode(), set.hashCode());
+    assertEquals(expected, new HashSet<>(Arrays.asList(set.toArray())));
+    assertSame(set, set.with(set.iterator().next()));
+    assertThrows(IllegalArgumentException.class, () -> PersistentSet.of("a", null));
+
+    // Union shares the larger set
+    PersistentSet<Integer> large = PersistentSet.copyOf(IntStream.range(0, 1000).boxed().collect(Collectors.toSet()));
+    PersistentSet<Integer> small = PersistentSet.of(1, 2, 1001);
+    PersistentSet<Integer> union = small.union(large);
+    assertEquals(1001, union.size());
+    assertEquals(1000, large.size());
+    assertEquals(3, small.size());
+    assertSame(large, PersistentSet.of(1, 2).union(large).union(PersistentSet.of(3)));
+    assertSame(large, large.union(new HashSet<>(Arrays.asList(1, 2))));
+  }
+
+  @Test
+  void testImmutability(){
+    PersistentMap<String,String> map = PersistentMap.<String,String>empty().with("a", "b");
+    PersistentSet<String> set = PersistentSet.of("a");
+    assertThrows(UnsupportedOperationException.class, () -> map.put("c", "d"));
+    assertThrows(UnsupportedOperationException.class, () -> map.remove("a"));
+    assertThrows(UnsupportedOperationException.class, map::clear);
+    assertThrows(UnsupportedOperationException.class, () -> map.keySet().remove("a"));
+    assertThrows(UnsupportedOperationException.class, () -> map.entrySet().iterator().next().setValue("x"));
+    assertThrows(UnsupportedOperationException.class, () -> set.add("b"));
+    assertThrows(UnsupportedOperationException.class, () -> set.remove("a"));
+    assertSame(map, Utility.immutableCopyOf(map));
+    assertSame(set, Utility.immutableCopyOf(set));
+  }
+
+  @Test
+  void testUtilityUnion(){
+    PersistentSet<Integer> large = PersistentSet.copyOf(IntStream.range(0, 100).boxed().collect(Collectors.toSet()));
+    Set<Integer> other = new HashSet<>(Arrays.asList(100, 101));
+
+    // Plain union stays modifiable even with persistent sets
+    Set<Integer> union = Utility.union(other, large, new HashSet<>(Arrays.asList(1, 102)));
+    assertEquals(HashSet.class, union.getClass());
+    assertEquals(103, union.size());
+    assertTrue(union.add(103));
+    assertEquals(100, large.size());
+
+    // Persistent union adds into the largest persistent set
+    PersistentSet<Integer> persistent = Utility.persistentUnion(other, large, new HashSet<>(Arrays.asList(1, 102)));
+    assertEquals(103, persistent.size());
+    assertEquals(100, large.size());
+    assertSame(large, Utility.persistentUnion(PersistentSet.of(1, 2), large, Collections.emptySet()));
+
+    // Even if a plain set is larger, or there's no persistent set at all
+    Set<Integer> plain = IntStream.range(50, 500).boxed().collect(Collectors.toCollection(HashSet::new));
+    assertEquals(500, Utility.persistentUnion(large, plain).size());
+    assertEquals(Utility.union(plain, other), Utility.persistentUnion(plain, other));
+    assertTrue(Utility.persistentUnion(Collections.<Integer>emptySet(), Collections.emptySet()).isEmpty());
+  }
+
+  @Test
+  void testCollectors(){
+
+    // Set, sequential and parallel
+    Set<Integer> expected = IntStream.range(0, 5000).boxed().collect(Collectors.toSet());
+    PersistentSet<Integer> set = IntStream.range(0, 10000).map(i -> i % 5000).boxed()
+      .collect(ExCollectors.toPersistentSet());
+    assertEquals(expected, set);
+    PersistentSet<Integer> parallel = IntStream.range(0, 10000).parallel().map(i -> i % 5000).boxed()
+      .collect(ExCollectors.toPersistentSet());
+    assertEquals(expected, parallel);
+    assertSame(PersistentSet.empty(), Stream.<String>empty().collect(ExCollectors.toPersistentSet()));
+
+    // Map, sequential and parallel
+    Map<Integer,String> expectedMap = new HashMap<>();
+    for(int i = 0; i < 5000; i++) expectedMap.put(i, "v" + i);
+    assertEquals(expectedMap, expectedMap.entrySet().stream().collect(ExCollectors.toPersistentMap()));
+    assertEquals(expectedMap, expectedMap.entrySet().parallelStream().collect(ExCollectors.toPersistentMap()));
+
+    // Duplicate keys
+    assertThrows(IllegalStateException.class, () -> Stream.of(
+      new AbstractMap.SimpleEntry<>("a", "b"),
+      new AbstractMap.SimpleEntry<>("a", "c")
+    ).collect(ExCollectors.toPersistentMap()));
+    assertThrows(IllegalStateException.class, () -> IntStream.range(0, 10000).parallel().boxed()
+      .map(i -> new AbstractMap.SimpleEntry<>(i % 9999, i))
+      .collect(ExCollectors.toPersistentMap()));
+  }
+}
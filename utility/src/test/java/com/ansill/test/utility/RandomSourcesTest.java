@@ -0,0 +1,88 @@
+package com.ansill.test.utility;
+
+import com.ansill.utility.RandomSource;
+import com.ansill.utility.RandomSources;
+import com.ansill.utility.Utility;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomSourcesTest{
+
+  /**
+   * Ensures source fills odd-sized arrays and produces different bytes every time
+   *
+   * @param source random source
+   */
+  private static void assertRandom(RandomSource source){
+    byte[] first = new byte[37];
+    byte[] second = new byte[37];
+    source.nextBytes(first);
+    source.nextBytes(second);
+    assertFalse(Arrays.equals(first, second));
+    assertFalse(Arrays.equals(new byte[37], first));
+  }
+
+  @Test
+  void testSources(){
+    assertRandom(RandomSources.stripedSecure());
+    assertRandom(RandomSources.stripedSecure(1));
+    assertRandom(RandomSources.stripedSecure(3));
+    assertRandom(RandomSources.nonBlockingSecure());
+    assertRandom(RandomSources.splittable());
+    assertRandom(RandomSources.of(new Random()));
+    assertThrows(IllegalArgumentException.class, () -> RandomSources.stripedSecure(0));
+  }
+
+  @Test
+  void testSplittableSeed(){
+    assertEquals(
+      Utility.generateStringFrom(RandomSources.splittable(42), 64),
+      Utility.generateStringFrom(RandomSources.splittable(42), 64)
+    );
+    assertNotEquals(
+      Utility.generateStringFrom(RandomSources.splittable(42), 64),
+      Utility.generateStringFrom(RandomSources.splittable(43), 64)
+    );
+    assertEquals("", Utility.generateStringFrom(RandomSources.splittable(42), 0));
+  }
+
+  @Test
+  void testGlobalSource() throws InterruptedException{
+    RandomSource original = Utility.getRandomSource();
+    try{
+
+      // Switch to seeded source
+      Utility.setRandomSource(RandomSources.splittable(7));
+      String first = Utility.generateString(32);
+      Utility.setRandomSource(RandomSources.splittable(7));
+      assertEquals(first, Utility.generateString(32));
+
+      // Use from many threads at once
+      Utility.setRandomSource(RandomSources.stripedSecure(4));
+      List<Thread> threads = new ArrayList<>();
+      Set<String> results = Collections.synchronizedSet(new HashSet<>());
+      for(int i = 0; i < 8; i++){
+        Thread thread = new Thread(() -> {
+          for(int j = 0; j < 1000; j++) results.add(Utility.generateString(16));
+        });
+        threads.add(thread);
+        thread.start();
+      }
+      for(Thread thread : threads) thread.join();
+      assertEquals(8000, results.size());
+
+    }finally{
+      Utility.setRandomSource(original);
+    }
+    assertThrows(IllegalArgumentException.class, () -> Utility.setRandomSource(null));
+  }
+}
@@ -0,0 +1,119 @@
+package com.ansill.test.utility;
+
+import com.ansill.utility.Sets;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SetsTest{
+
+  /** Pool with several workers regardless of machine, its threads are daemons */
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+  private static Set<Integer> range(int start, int end){
+    return IntStream.range(start, end).boxed().collect(Collectors.toCollection(HashSet::new));
+  }
+
+  @Test
+  void testUnionAllSmall(){
+
+    // Regular union
+    Set<Integer> expected = range(0, 30);
+    assertEquals(expected, Sets.unionAll(Arrays.asList(range(0, 10), range(5, 20), range(20, 30))));
+
+    // Re-used sets
+    Set<Integer> only = range(0, 5);
+    assertSame(only, Sets.unionAll(Arrays.asList(new HashSet<>(), only, Collections.emptySet())));
+    Set<Integer> empty = new HashSet<>();
+    assertSame(empty, Sets.unionAll(Arrays.asList(empty, new HashSet<>())));
+    assertTrue(Sets.unionAll(Collections.<Set<Integer>>emptyList()).isEmpty());
+
+    // Nulls
+    assertEquals(
+      new HashSet<>(Arrays.asList(null, 1, 2)),
+      Sets.unionAll(Arrays.asList(new HashSet<>(Arrays.asList(null, 1)), new HashSet<>(Arrays.asList(2))))
+    );
+    assertThrows(IllegalArgumentException.class, () -> Sets.unionAll(Arrays.asList(range(0, 1), null)));
+  }
+
+  @Test
+  void testUnionAllLarge(){
+
+    // Many overlapping sets
+    List<Set<Integer>> sets = new ArrayList<>();
+    for(int i = 0; i < 50; i++) sets.add(range(i * 5000, i * 5000 + 20000));
+    Set<Integer> united = Sets.unionAll(sets, POOL);
+    assertEquals(range(0, 49 * 5000 + 20000), united);
+
+    // Parallel result behaves like the sequential one
+    Set<Integer> sequential = Sets.unionAll(sets);
+    assertEquals(HashSet.class, sequential.getClass());
+    assertEquals(range(0, 49 * 5000 + 20000), sequential);
+    assertEquals(sequential.hashCode(), united.hashCode());
+    assertFalse(united.contains(null));
+    assertTrue(united.add(null));
+    assertFalse(united.add(null));
+    assertTrue(united.contains(null));
+    assertTrue(united.remove(0));
+    assertFalse(united.contains(0));
+    assertEquals(sequential.size(), united.size());
+    united.removeIf(item -> item != null && item % 2 == 0);
+    assertEquals(sequential.size() / 2 + 1, united.size());
+    assertTrue(united.stream().allMatch(item -> item == null || item % 2 == 1));
+    united.clear();
+    assertTrue(united.isEmpty());
+    assertFalse(united.iterator().hasNext());
+
+    // Few huge sets are split by their spliterators
+    assertEquals(range(0, 300000), Sets.unionAll(Arrays.asList(range(0, 200000), range(100000, 300000)), POOL));
+
+    // Null survives parallel union
+    Set<Integer> withNull = range(0, 100000);
+    withNull.add(null);
+    Set<Integer> unitedWithNull = Sets.unionAll(Arrays.asList(withNull, range(50000, 150000)), POOL);
+    assertEquals(150001, unitedWithNull.size());
+    assertTrue(unitedWithNull.contains(null));
+  }
+
+  @Test
+  void testIntersectAll(){
+
+    // Small
+    assertEquals(range(10, 20), Sets.intersectAll(Arrays.asList(range(0, 20), range(10, 30), range(5, 25))));
+    assertTrue(Sets.intersectAll(Arrays.asList(range(0, 20), new HashSet<Integer>())).isEmpty());
+    assertTrue(Sets.intersectAll(Collections.<Set<Integer>>emptyList()).isEmpty());
+    Set<Integer> single = range(0, 5);
+    Set<Integer> copy = Sets.intersectAll(Collections.singletonList(single));
+    assertEquals(single, copy);
+    assertNotSame(single, copy);
+
+    // Large
+    List<Set<Integer>> sets = new ArrayList<>();
+    for(int i = 0; i < 20; i++) sets.add(range(i * 1000, 200000 + i * 1000));
+    Set<Integer> intersection = Sets.intersectAll(sets, POOL);
+    assertEquals(range(19000, 200000), intersection);
+    assertFalse(intersection.contains(null));
+    assertTrue(intersection.add(-1));
+    assertTrue(intersection.contains(-1));
+    assertEquals(range(19000, 200000), Sets.intersectAll(sets));
+
+    // Null survives parallel intersection
+    Set<Integer> first = range(0, 100000);
+    Set<Integer> second = range(0, 100000);
+    first.add(null);
+    second.add(null);
+    Set<Integer> withNull = Sets.intersectAll(Arrays.asList(first, second), POOL);
+    assertEquals(100001, withNull.size());
+    assertTrue(withNull.contains(null));
+  }
+}
@@ -0,0 +1,150 @@
+package com.ansill.test.utility;
+
+import com.ansill.utility.RandomSources;
+import com.ansill.utility.SnowflakeGenerator;
+import com.ansill.utility.Ulid;
+import com.ansill.utility.UlidGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UlidTest{
+
+  @Test
+  void testEncoding(){
+
+    // Known values
+    assertEquals("00000000000000000000000000", new Ulid(0, 0).toString());
+    assertEquals("7ZZZZZZZZZZZZZZZZZZZZZZZZZ", new Ulid(-1, -1).toString());
+    Ulid ulid = new Ulid(0x0123456789ABCDEFL, 0xFEDCBA9876543210L);
+    assertEquals(0x0123456789ABL, ulid.getTimestamp());
+
+    // Round trips
+    assertEquals(ulid, Ulid.parse(ulid.toString()));
+    assertEquals(ulid, Ulid.parse(ulid.toString().toLowerCase()));
+    assertEquals(ulid, Ulid.fromBytes(ulid.toBytes(), 0));
+    char[] characters = new char[30];
+    ulid.writeTo(characters, 2);
+    assertEquals(ulid.toString(), new String(characters, 2, Ulid.LENGTH));
+
+    // Invalid
+    assertThrows(IllegalArgumentException.class, () -> Ulid.parse("8ZZZZZZZZZZZZZZZZZZZZZZZZZ"));
+    assertThrows(IllegalArgumentException.class, () -> Ulid.parse("0000000000000000000000000U"));
+    assertThrows(IllegalArgumentException.class, () -> Ulid.parse("0"));
+    assertThrows(IndexOutOfBoundsException.class, () -> Ulid.fromBytes(new byte[15], 0));
+  }
+
+  @Test
+  void testMonotonic(){
+
+    // Same millisecond increments, clock going backwards doesn't break ordering
+    AtomicLong clock = new AtomicLong(1000);
+    UlidGenerator generator = new UlidGenerator(RandomSources.splittable(1), clock::get);
+    Ulid first = generator.next();
+    Ulid second = generator.next();
+    assertEquals(1000, first.getTimestamp());
+    assertEquals(first.getLeastSignificantBits() + 1, second.getLeastSignificantBits());
+    clock.set(500);
+    Ulid third = generator.next();
+    assertTrue(third.compareTo(second) > 0);
+    clock.set(2000);
+    Ulid fourth = generator.next();
+    assertEquals(2000, fourth.getTimestamp());
+    assertTrue(fourth.toString().compareTo(third.toString()) > 0);
+
+    // String and binary forms come from the same sequence
+    Ulid fifth = Ulid.parse(generator.nextString());
+    Ulid sixth = Ulid.fromBytes(generator.nextBytes(), 0);
+    assertEquals(fourth.getLeastSignificantBits() + 1, fifth.getLeastSignificantBits());
+    assertEquals(fifth.getLeastSignificantBits() + 1, sixth.getLeastSignificantBits());
+
+    // Randomness overflowing moves on to the next millisecond
+    UlidGenerator full = new UlidGenerator(bytes -> Arrays.fill(bytes, (byte) 0xFF), clock::get);
+    Ulid last = full.next();
+    assertEquals(2000, last.getTimestamp());
+    assertEquals(-1, last.getLeastSignificantBits());
+    Ulid overflown = full.next();
+    assertEquals(2001, overflown.getTimestamp());
+    assertTrue(overflown.compareTo(last) > 0);
+    assertTrue(full.next().compareTo(overflown) > 0);
+
+    // Out of range
+    clock.set(-1);
+    assertThrows(IllegalStateException.class, generator::next);
+  }
+
+  @Test
+  void testConcurrent() throws InterruptedException{
+
+    // Generate from many threads
+    UlidGenerator generator = new UlidGenerator();
+    SnowflakeGenerator snowflake = new SnowflakeGenerator(7);
+    List<List<Ulid>> ulids = new ArrayList<>();
+    List<List<Long>> ids = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for(int i = 0; i < 8; i++){
+      List<Ulid> ulidList = new ArrayList<>();
+      List<Long> idList = new ArrayList<>();
+      ulids.add(ulidList);
+      ids.add(idList);
+      Thread thread = new Thread(() -> {
+        for(int j = 0; j < 10_000; j++){
+          ulidList.add(generator.next());
+          idList.add(snowflake.nextLong());
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for(Thread thread : threads) thread.join();
+
+    // Each thread sees increasing values and all are unique
+    List<Ulid> allUlids = new ArrayList<>();
+    List<Long> allIds = new ArrayList<>();
+    for(int i = 0; i < 8; i++){
+      for(int j = 1; j < 10_000; j++){
+        assertTrue(ulids.get(i).get(j).compareTo(ulids.get(i).get(j - 1)) > 0);
+        assertTrue(ids.get(i).get(j) > ids.get(i).get(j - 1));
+      }
+      allUlids.addAll(ulids.get(i));
+      allIds.addAll(ids.get(i));
+    }
+    assertEquals(80_000, allUlids.stream().distinct().count());
+    assertEquals(80_000, allIds.stream().distinct().count());
+    assertTrue(allIds.stream().allMatch(id -> SnowflakeGenerator.getNode(id) == 7));
+  }
+
+  @Test
+  void testSnowflake(){
+
+    // Sequence overflows into next millisecond instead of waiting
+    AtomicLong clock = new AtomicLong(SnowflakeGenerator.DEFAULT_EPOCH + 10);
+    SnowflakeGenerator generator = new SnowflakeGenerator(3, SnowflakeGenerator.DEFAULT_EPOCH, clock::get);
+    long previous = -1;
+    for(int i = 0; i < 5000; i++){
+      long id = generator.nextLong();
+      assertTrue(id > previous);
+      previous = id;
+    }
+    assertEquals(11, SnowflakeGenerator.getTimestamp(previous));
+    assertEquals(3, SnowflakeGenerator.getNode(previous));
+
+    // String form sorts like numbers and round trips
+    String string = SnowflakeGenerator.toString(previous);
+    assertEquals(SnowflakeGenerator.LENGTH, string.length());
+    assertEquals(previous, SnowflakeGenerator.parse(string));
+    assertTrue(generator.nextString().compareTo(string) > 0);
+    assertEquals(Long.MAX_VALUE, SnowflakeGenerator.parse(SnowflakeGenerator.toString(Long.MAX_VALUE)));
+
+    // Invalid
+    assertThrows(IllegalArgumentException.class, () -> new SnowflakeGenerator(1024));
+    clock.set(0);
+    SnowflakeGenerator early = new SnowflakeGenerator(0, SnowflakeGenerator.DEFAULT_EPOCH, clock::get);
+    assertThrows(IllegalStateException.class, early::nextLong);
+  }
+}
@@ -1,19 +1,36 @@
 package com.ansill.test.utility;
 
+import com.ansill.utility.LazyMessage;
+import com.ansill.utility.ToStringBudget;
+import com.ansill.utility.UnionSet;
 import com.ansill.utility.Utility;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
 import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.ansill.utility.Utility.generateString;
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,6 +65,37 @@ class UtilityTest{
     assertEquals(length, string.length());
   }
 
+  @Test
+  void testGenerateStringDistribution() throws InterruptedException{
+
+    // Count characters from seeded and per-thread generators
+    String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    int[] counts = new int[128];
+    for(char character : generateString(new Random(42), 620_000).toCharArray()) counts[character]++;
+    for(int i = 0; i < 1000; i++) for(char character : generateString(620).toCharArray()) counts[character]++;
+
+    // Each character should come up about 20000 times
+    for(int character = 0; character < counts.length; character++){
+      if(alphabet.indexOf(character) == -1) assertEquals(0, counts[character]);
+      else assertTrue(Math.abs(counts[character] - 20000) < 1000, "Skewed count for " + (char) character);
+    }
+
+    // Generate from many threads at once
+    List<Thread> threads = new ArrayList<>();
+    Set<String> results = Collections.synchronizedSet(new HashSet<>());
+    for(int i = 0; i < 8; i++){
+      Thread thread = new Thread(() -> {
+        for(int j = 0; j < 1000; j++) results.add(generateString(16));
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for(Thread thread : threads) thread.join();
+    assertEquals(8000, results.size());
+    assertEquals("", generateString(0));
+    assertEquals("", generateString(new SecureRandom(), 0));
+  }
+
   @Test
   void testRandomness(){
 
@@ -221,6 +269,72 @@ class UtilityTest{
     assertThrows(UnsupportedOperationException.class, () -> unmodList.add(generateString(22)));
   }
 
+  @Test
+  void testUnmodifiableNoStacking(){
+
+    // JDK collections that are already unmodifiable
+    List<String> emptyList = Collections.emptyList();
+    assertSame(emptyList, Utility.unmodifiableList(emptyList));
+    Set<String> singleton = Collections.singleton("a");
+    assertSame(singleton, Utility.unmodifiableSet(singleton));
+    Map<String,String> singletonMap = Collections.singletonMap("a", "b");
+    assertSame(singletonMap, Utility.unmodifiableMap(singletonMap));
+    List<String> copies = Collections.nCopies(3, "a");
+    assertSame(copies, Utility.unmodifiableList(copies));
+    Collection<String> unmodCollection = Collections.unmodifiableCollection(new ArrayList<>());
+    assertSame(unmodCollection, Utility.unmodifiableCollection(unmodCollection));
+
+    // Sorted and navigable variants
+    NavigableSet<String> navigableSet = Utility.unmodifiableNavigableSet(new TreeSet<>(Arrays.asList("a", "b")));
+    assertSame(navigableSet, Utility.unmodifiableNavigableSet(navigableSet));
+    assertSame(navigableSet, Utility.unmodifiableSortedSet(navigableSet));
+    assertSame(navigableSet, Utility.unmodifiableSet(navigableSet));
+    assertSame(navigableSet, Utility.unmodifiableCollection(navigableSet));
+    assertThrows(UnsupportedOperationException.class, () -> navigableSet.add("c"));
+    SortedMap<String,String> treeMap = new TreeMap<>(Collections.singletonMap("a", "b"));
+    SortedMap<String,String> sortedMap = Utility.unmodifiableSortedMap(treeMap);
+    assertSame(sortedMap, Utility.unmodifiableSortedMap(sortedMap));
+    assertSame(sortedMap, Utility.unmodifiableMap(sortedMap));
+    assertThrows(UnsupportedOperationException.class, () -> sortedMap.put("c", "d"));
+    NavigableMap<String,String> navigableMap = Utility.unmodifiableNavigableMap(new TreeMap<>());
+    assertSame(navigableMap, Utility.unmodifiableNavigableMap(navigableMap));
+
+    // Library's own
+    Set<String> immutable = Utility.immutableSetOf("a", "b", "c");
+    assertSame(immutable, Utility.unmodifiableCollection(immutable));
+
+    // Modifiable collections get wrapped
+    List<String> list = new ArrayList<>();
+    assertFalse(Utility.isUnmodifiable(list));
+    assertNotSame(list, Utility.unmodifiableCollection(list));
+    assertTrue(Utility.isUnmodifiable(Utility.unmodifiableList(list)));
+  }
+
+  /** Collection that can't be modified, unknown to the library */
+  private static final class FrozenList extends AbstractList<String>{
+
+    @Override
+    public String get(int index){
+      throw new IndexOutOfBoundsException();
+    }
+
+    @Override
+    public int size(){
+      return 0;
+    }
+  }
+
+  @Test
+  void testRegisterUnmodifiableClass(){
+    List<String> frozen = new FrozenList();
+    assertFalse(Utility.isUnmodifiable(frozen));
+    assertNotSame(frozen, Utility.unmodifiableList(frozen));
+    Utility.registerUnmodifiableClass(FrozenList.class);
+    assertTrue(Utility.isUnmodifiable(frozen));
+    assertSame(frozen, Utility.unmodifiableList(frozen));
+    assertThrows(IllegalArgumentException.class, () -> Utility.registerUnmodifiableClass(null));
+  }
+
   @Test
   void testUnion(){
 
@@ -293,6 +407,50 @@ class UtilityTest{
     assertThrows(UnsupportedOperationException.class, () -> unmodSet.add(generateString(22)));
   }
 
+  @Test
+  void testUnionView(){
+
+    // Create sets that overlap
+    Set<String> set = new HashSet<>(Arrays.asList("a", "b", "c"));
+    Set<String> set1 = new HashSet<>(Arrays.asList("c", "d"));
+    Set<String> set2 = new HashSet<>(Arrays.asList("a", "d", "e"));
+
+    // Unite
+    Set<String> testSet = new HashSet<>(set);
+    testSet.addAll(set1);
+    testSet.addAll(set2);
+    UnionSet<String> view = Utility.unionView(set, set1, set2);
+    assertEquals(testSet, view);
+    assertEquals(testSet.size(), view.size());
+    assertTrue(view.contains("e"));
+    assertFalse(view.contains("f"));
+    assertFalse(view.isEmpty());
+
+    // Iteration skips duplicates
+    List<String> items = new ArrayList<>();
+    view.forEach(items::add);
+    assertEquals(testSet.size(), items.size());
+    assertEquals(testSet, new HashSet<>(items));
+
+    // Nested views and empty sets
+    UnionSet<String> nested = Utility.unionView(view, Collections.emptySet(), Collections.singleton("f"));
+    assertEquals(6, nested.size());
+    assertTrue(Utility.unionView(Collections.emptySet(), Collections.emptySet()).isEmpty());
+    assertEquals(0, Utility.unionView(Collections.emptySet(), Collections.emptySet()).size());
+
+    // Materialize
+    Set<String> copy = nested.materialize();
+    assertEquals(nested, copy);
+    copy.add("g");
+    assertFalse(nested.contains("g"));
+
+    // Ensure it's unmodifiable
+    assertThrows(UnsupportedOperationException.class, () -> view.add("f"));
+    assertThrows(UnsupportedOperationException.class, () -> view.remove("a"));
+    assertThrows(UnsupportedOperationException.class, view::clear);
+    assertSame(view, Utility.unmodifiableSet(view));
+  }
+
   @Test
   void testAsSet(){
 
@@ -308,4 +466,384 @@ class UtilityTest{
     // Compare
     assertEquals(new HashSet<>(Arrays.asList(item1, item2, item3, item4)), items);
   }
-}
\ No newline at end of file
+
+  @Test
+  void testFormatTo() throws IOException{
+
+    // Into builder
+    StringBuilder builder = new StringBuilder("prefix ");
+    assertSame(builder, Utility.formatTo(builder, "{} + {} = {}", 1, 2, 3));
+    assertEquals("prefix 1 + 2 = 3", builder.toString());
+
+    // Into other appendable
+    StringWriter writer = new StringWriter();
+    assertSame(writer, Utility.formatTo(writer, "{} + {} = {}", 1, 2));
+    assertEquals("1 + 2 = {}", writer.toString());
+
+    // Same rules as format
+    String expected = Utility.f("a {} b {}", null, "x");
+    assertEquals(expected, Utility.formatTo(new StringBuilder(), "a {} b {}", null, "x").toString());
+    assertEquals(expected, Utility.formatTo(new StringWriter(), "a {} b {}", null, "x").toString());
+    assertEquals("null", Utility.formatTo(new StringWriter(), null, "x").toString());
+  }
+
+  @Test
+  void testFormatBuilderPooling(){
+
+    // Object that formats inside its toString
+    Object nested = new Object(){
+      @Override
+      public String toString(){
+        return Utility.f("inner({})", "value");
+      }
+    };
+
+    try{
+      Utility.setFormatBuilderPooling(true);
+
+      // Repeat so the builder gets reused
+      for(int i = 0; i < 10; i++){
+        assertEquals("outer(" + i + ", inner(value))", Utility.f("outer({}, {})", i, nested));
+      }
+
+      // Large message shouldn't break following messages
+      String large = generateString(100_000);
+      assertEquals("[" + large + "]", Utility.f("[{}]", large));
+      assertEquals("[small]", Utility.f("[{}]", "small"));
+
+    }finally{
+      Utility.setFormatBuilderPooling(false);
+    }
+  }
+
+  @Test
+  void testFormatOverloads(){
+
+    // Fixed arity
+    assertEquals("a", Utility.f("{}", "a"));
+    assertEquals("a b", Utility.f("{} {}", "a", "b"));
+    assertEquals("a b c", Utility.f("{} {} {}", "a", "b", "c"));
+    assertEquals("a b c d", Utility.f("{} {} {} {}", "a", "b", "c", "d"));
+    assertEquals("a b c d e", Utility.f("{} {} {} {} {}", "a", "b", "c", "d", "e"));
+    assertEquals("a b {} {}", Utility.f("{} {} {} {}", "a", "b"));
+    assertEquals("a", Utility.f("{}", "a", "b", "c", "d"));
+
+    // Null first object is skipped same way as varargs
+    assertEquals(Utility.f("{} {}", null, new Object[]{"b"}), Utility.f("{} {}", null, "b"));
+    assertEquals(Utility.f("{}", null, new Object[0]), Utility.f("{}", (Object) null));
+    assertEquals("b null", Utility.f("{} {}", null, "b", null, "d"));
+
+    // Primitives
+    assertEquals("int 1", Utility.f("int {}", 1));
+    assertEquals("long " + Long.MIN_VALUE, Utility.f("long {}", Long.MIN_VALUE));
+    assertEquals("double 1.5", Utility.f("double {}", 1.5));
+    assertEquals("float 0.1", Utility.f("float {}", 0.1f));
+    assertEquals("char c", Utility.f("char {}", 'c'));
+    assertEquals("boolean true", Utility.f("boolean {}", true));
+    assertEquals("none", Utility.f("none", 1));
+    assertEquals("x=a, y=2", Utility.f("x={}, y={}", "a", 2));
+    assertEquals("x=a, y=2", Utility.f("x={}, y={}", "a", 2L));
+    assertEquals("x=a, y=c", Utility.f("x={}, y={}", "a", 'c'));
+    assertEquals("x=a", Utility.f("x={}", "a", 2));
+    assertEquals("x=2, y={}", Utility.f("x={}, y={}", null, 2));
+
+    // Mixed calls still resolve
+    assertEquals("1 2", Utility.f("{} {}", 1, 2));
+    assertEquals("1 a", Utility.f("{} {}", 1, "a"));
+    assertEquals("1 2 3", Utility.f("{} {} {}", 1, 2, 3));
+  }
+
+  @Test
+  void testLazy(){
+
+    // Count calls to toString
+    AtomicInteger calls = new AtomicInteger(0);
+    Object counted = new Object(){
+      @Override
+      public String toString(){
+        calls.incrementAndGet();
+        return "counted";
+      }
+    };
+
+    // Create lazy message
+    LazyMessage message = Utility.lazy("value is {} and {}", counted, 1);
+
+    // Ensure nothing is formatted yet
+    assertFalse(message.isFormatted());
+    assertEquals(0, calls.get());
+
+    // Read it a few times
+    assertEquals("value is counted and 1", message.toString());
+    assertEquals("value is counted and 1", message.get());
+    assertEquals("value is counted and 1".length(), message.length());
+    assertEquals('v', message.charAt(0));
+    assertEquals("counted", message.subSequence(9, 16).toString());
+
+    // Ensure it's formatted only once
+    assertTrue(message.isFormatted());
+    assertEquals(1, calls.get());
+
+    // Same rules as format
+    assertEquals(Utility.f("{} {}", null, "b"), Utility.lazy("{} {}", null, "b").toString());
+    assertEquals("null", Utility.lazy(null, "b").toString());
+  }
+
+  @Test
+  void testSimpleToString() throws InterruptedException{
+
+    // Create sample
+    Dog dog = new Dog("fido", null, 1);
+
+    // Check it
+    String expected = "Dog(name=\"fido\", color=null, age=1)";
+    assertEquals(expected, Utility.simpleToString(dog));
+    assertEquals(expected, Utility.simpleToString(dog));
+    assertEquals("fido", Utility.simpleToString("fido"));
+    assertEquals("Empty()", Utility.simpleToString(new Empty()));
+
+    // Call it from many threads at once
+    List<Thread> threads = new ArrayList<>();
+    List<String> results = Collections.synchronizedList(new ArrayList<>());
+    for(int i = 0; i < 8; i++){
+      Thread thread = new Thread(() -> {
+        for(int j = 0; j < 1000; j++) results.add(Utility.simpleToString(new Dog("rex", "brown", j)));
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for(Thread thread : threads) thread.join();
+    assertEquals(8000, results.size());
+    assertTrue(results.stream().allMatch(item -> item.startsWith("Dog(name=\"rex\", color=\"brown\", age=")));
+  }
+
+  @Test
+  void testSensibleToString(){
+
+    // Leaves
+    assertEquals("null", Utility.sensibleToString(null));
+    assertEquals("\"fido\"", Utility.sensibleToString("fido"));
+    assertEquals("\"a\\\"b\\\\c\\nd\\u0001\"", Utility.sensibleToString("a\"b\\c\nd\u0001"));
+    assertEquals("\"builder\"", Utility.sensibleToString(new StringBuilder("builder")));
+    assertEquals("5", Utility.sensibleToString(5));
+    assertEquals("SECONDS", Utility.sensibleToString(java.util.concurrent.TimeUnit.SECONDS));
+    assertEquals("red", Utility.sensibleToString(Color.RED));
+
+    // Arrays
+    assertEquals("[1, -2]", Utility.sensibleToString(new byte[]{1, -2}));
+    assertEquals("[true, false]", Utility.sensibleToString(new boolean[]{true, false}));
+    assertEquals("[a, b]", Utility.sensibleToString(new char[]{'a', 'b'}));
+    assertEquals("[1.5]", Utility.sensibleToString(new double[]{1.5}));
+    assertEquals("[\"a\", null, [1]]", Utility.sensibleToString(new Object[]{"a", null, new int[]{1}}));
+    Object[] self = new Object[1];
+    self[0] = self;
+    assertEquals("[[...]]", Utility.sensibleToString(self));
+
+    // Collections, maps and optionals
+    assertEquals("[\"a\", \"b\"]", Utility.sensibleToString(Arrays.asList("a", "b")));
+    Map<String,List<Integer>> map = new java.util.LinkedHashMap<>();
+    map.put("x", Arrays.asList(1, 2));
+    map.put("y", Collections.emptyList());
+    assertEquals("{\"x\"=[1, 2], \"y\"=[]}", Utility.sensibleToString(map));
+    assertEquals("Optional[\"a\"]", Utility.sensibleToString(java.util.Optional.of("a")));
+    assertEquals("Optional.empty", Utility.sensibleToString(java.util.Optional.empty()));
+    List<Object> selfList = new ArrayList<>();
+    selfList.add(selfList);
+    assertEquals("[(this Collection)]", Utility.sensibleToString(selfList));
+
+    // Own toString() of collections is respected
+    assertEquals("[\"a\"]", Utility.sensibleToString(new ArrayList<String>(Collections.singletonList("a")){}));
+    assertEquals("custom", Utility.sensibleToString(new ArrayList<String>(){
+      @Override
+      public String toString(){
+        return "custom";
+      }
+    }));
+
+    // Cap
+    assertEquals("\"abc...", Utility.sensibleToString("abcdefgh", 4));
+    assertEquals("...", Utility.sensibleToString("abc", 0));
+    assertEquals("x=...", Utility.sensibleToStringTo(new StringBuilder("x="), "abc", 0).toString());
+    assertEquals("[1, 2...", Utility.sensibleToString(new int[]{1, 2, 3, 4, 5}, 5));
+    assertEquals("[1, 2]", Utility.sensibleToString(new int[]{1, 2}, 6));
+    assertEquals("x=\"a\"", Utility.sensibleToStringTo(new StringBuilder("x="), "a").toString());
+
+    // Nested too deep
+    List<Object> nested = new ArrayList<>();
+    List<Object> current = nested;
+    for(int i = 0; i < 100; i++){
+      List<Object> next = new ArrayList<>();
+      current.add(next);
+      current = next;
+    }
+    assertTrue(Utility.sensibleToString(nested).contains("[...]"));
+  }
+
+  @Test
+  void testSimpleToStringTo() throws IOException{
+
+    // Same as simpleToString with default budget
+    Dog dog = new Dog("fido", null, 1);
+    assertEquals(
+      Utility.simpleToString(dog),
+      Utility.simpleToStringTo(new StringBuilder(), dog, ToStringBudget.DEFAULT).toString()
+    );
+    assertEquals("fido", Utility.simpleToStringTo(new StringWriter(), "fido", ToStringBudget.DEFAULT).toString());
+
+    // Cycles
+    Node first = new Node("a");
+    Node second = new Node("b");
+    first.next = second;
+    second.next = first;
+    assertEquals(
+      "Node(name=\"a\", next=Node(name=\"b\", next=<cycle>, children=[]), children=[])",
+      Utility.simpleToStringTo(new StringBuilder(), first, ToStringBudget.UNLIMITED).toString()
+    );
+    first.children.add(first);
+    first.children.add(second);
+    assertEquals(
+      "Node(name=\"a\", next=Node(name=\"b\", next=<cycle>, children=[]), children=[<cycle>, Node(name=\"b\", " +
+      "next=<cycle>, children=[])])",
+      Utility.simpleToStringTo(new StringBuilder(), first, ToStringBudget.UNLIMITED).toString()
+    );
+
+    // Depth
+    assertEquals(
+      "Node(name=\"a\", next=Node(...), children=[...])",
+      Utility.simpleToStringTo(new StringBuilder(), first, new ToStringBudget(1, 1000, 1000)).toString()
+    );
+
+    // Elements
+    Node list = new Node("list");
+    for(int i = 0; i < 10; i++) list.children.add(i);
+    assertEquals(
+      "Node(name=\"list\", next=null, children=[0, 1, 2, ...])",
+      Utility.simpleToStringTo(new StringBuilder(), list, new ToStringBudget(8, 1000, 3)).toString()
+    );
+
+    // Characters
+    assertEquals(
+      "Node(name=\"l...",
+      Utility.simpleToStringTo(new StringBuilder(), list, new ToStringBudget(8, 12, 3)).toString()
+    );
+
+    // Only JDK classes and character sequences are leaves, other numbers are walked
+    Node leaves = new Node("leaves");
+    leaves.children.add(new BigDecimal("1.5"));
+    leaves.children.add(LocalDate.of(2020, 1, 2));
+    leaves.children.add(new Amount(leaves));
+    assertEquals(
+      "Node(name=\"leaves\", next=null, children=[1.5, 2020-01-02, Amount(owner=<cycle>)])",
+      Utility.simpleToStringTo(new StringBuilder(), leaves, ToStringBudget.UNLIMITED).toString()
+    );
+    UUID uuid = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+    Node jdk = new Node("jdk");
+    jdk.children.add(uuid);
+    jdk.children.add(new StringBuilder("sb"));
+    jdk.children.add(Optional.of("a"));
+    jdk.children.add(Optional.empty());
+    jdk.children.add(Optional.of(jdk));
+    assertEquals(
+      "Node(name=\"jdk\", next=null, children=[123e4567-e89b-12d3-a456-426614174000, \"sb\", Optional[\"a\"], " +
+      "Optional.empty, Optional[<cycle>]])",
+      Utility.simpleToStringTo(new StringBuilder(), jdk, ToStringBudget.UNLIMITED).toString()
+    );
+
+    // Zero limits
+    assertEquals(
+      "Node(...)",
+      Utility.simpleToStringTo(new StringBuilder(), list, new ToStringBudget(0, 1000, 1000)).toString()
+    );
+    assertEquals(
+      "Node(name=\"list\", next=null, children=[...])",
+      Utility.simpleToStringTo(new StringBuilder(), list, new ToStringBudget(8, 1000, 0)).toString()
+    );
+    assertEquals("...", Utility.simpleToStringTo(new StringBuilder(), list, new ToStringBudget(8, 0, 3)).toString());
+
+    // Invalid
+    assertThrows(IllegalArgumentException.class, () -> new ToStringBudget(-1, 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> new ToStringBudget(1, -1, 1));
+    assertThrows(IllegalArgumentException.class, () -> new ToStringBudget(1, 1, -1));
+  }
+
+  private enum Color{
+    RED;
+
+    @Override
+    public String toString(){
+      return "red";
+    }
+  }
+
+  @SuppressWarnings({"FieldCanBeLocal", "unused"})
+  private static final class Amount extends Number{
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Object owner;
+
+    Amount(Object owner){
+      this.owner = owner;
+    }
+
+    @Override
+    public int intValue(){
+      return 0;
+    }
+
+    @Override
+    public long longValue(){
+      return 0;
+    }
+
+    @Override
+    public float floatValue(){
+      return 0;
+    }
+
+    @Override
+    public double doubleValue(){
+      return 0;
+    }
+
+    @Override
+    public String toString(){
+      return owner.toString();
+    }
+  }
+
+  @SuppressWarnings({"FieldCanBeLocal", "unused"})
+  private static final class Dog{
+
+    private static final String KIND = "dog";
+
+    private final String name;
+
+    private final String color;
+
+    private final int age;
+
+    Dog(String name, String color, int age){
+      this.name = name;
+      this.color = color;
+      this.age = age;
+    }
+  }
+
+  private static final class Empty{
+  }
+
+  @SuppressWarnings({"FieldCanBeLocal", "unused"})
+  private static final class Node{
+
+    private final String name;
+
+    private Node next;
+
+    private final List<Object> children = new ArrayList<>();
+
+    Node(String name){
+      this.name = name;
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.ansill.test.utility.collection.offheap;
+
+import com.ansill.utility.Utility;
+import com.ansill.utility.collection.offheap.OffHeapHashMap;
+import com.ansill.utility.collection.offheap.OffHeapLayout;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapHashMapTest{
+
+  @Test
+  void testFixed(){
+
+    // Random operations mirrored on HashMap, keys from a small range so there are many removals
+    OffHeapLayout layout = OffHeapLayout.fixed(8, 4);
+    OffHeapHashMap map = OffHeapHashMap.allocate(layout, 3000);
+    Map<ByteBuffer,ByteBuffer> expected = new HashMap<>();
+    Random random = new Random(1);
+    for(int i = 0; i < 50_000; i++){
+      ByteBuffer key = ByteBuffer.allocate(8).putLong(0, random.nextInt(3000));
+      ByteBuffer value = ByteBuffer.allocate(4).putInt(0, random.nextInt());
+      if(random.nextInt(3) == 0) assertEquals(expected.remove(key), map.remove(key));
+      else assertEquals(expected.put(key, value), map.put(key, value));
+      assertEquals(expected.size(), map.size());
+    }
+    for(long key = 0; key < 3000; key++){
+      ByteBuffer buffer = ByteBuffer.allocate(8).putLong(0, key);
+      assertEquals(expected.get(buffer), map.get(buffer));
+      assertEquals(expected.containsKey(buffer), map.containsKey(buffer));
+    }
+    assertEquals(expected, map);
+    assertEquals(map, expected);
+    assertEquals(expected.hashCode(), map.hashCode());
+
+    // Unmodifiable wrapper works
+    assertEquals(expected, Utility.unmodifiableMap(map));
+
+    // Wrong sizes
+    assertThrows(IllegalArgumentException.class, () -> map.putBytes(new byte[7], new byte[4]));
+    assertThrows(IllegalArgumentException.class, () -> map.putBytes(new byte[8], new byte[5]));
+    assertThrows(IllegalArgumentException.class, () -> OffHeapLayout.fixed(0, 1));
+
+    // Clear
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.entrySet().iterator().hasNext());
+  }
+
+  @Test
+  void testFull(){
+    OffHeapHashMap map = OffHeapHashMap.allocate(OffHeapLayout.fixed(4, 0), 10);
+    for(int i = 0; i < map.getMaxEntries(); i++){
+      assertTrue(map.putBytes(ByteBuffer.allocate(4).putInt(0, i).array(), new byte[0]));
+    }
+    assertThrows(IllegalStateException.class, () -> map.putBytes(new byte[]{1, 1, 1, 1}, new byte[0]));
+    assertFalse(map.putBytes(new byte[4], new byte[0]));
+    assertTrue(map.containsBytes(new byte[4]));
+  }
+
+  @Test
+  void testPersist() throws IOException{
+    Path file = Files.createTempFile("offheap", ".map");
+    try{
+
+      // Create and fill
+      OffHeapLayout layout = OffHeapLayout.lengthPrefixed(32, 64);
+      try(OffHeapHashMap map = OffHeapHashMap.create(file, layout, 1000)){
+        for(int i = 0; i < 1000; i++) assertTrue(map.putBytes(bytes("key" + i), bytes("value" + i)));
+        assertTrue(map.putBytes(bytes(""), bytes("empty")));
+        assertTrue(map.removeBytes(bytes("key5")));
+        assertFalse(map.removeBytes(bytes("key5")));
+        assertFalse(map.putBytes(bytes("key6"), bytes("")));
+        assertThrows(IllegalArgumentException.class, () -> map.putBytes(new byte[33], new byte[0]));
+      }
+
+      // Reopen
+      try(OffHeapHashMap map = OffHeapHashMap.open(file)){
+        assertEquals(layout, map.getLayout());
+        assertEquals(1000, map.longSize());
+        assertArrayEquals(bytes("value7"), map.getBytes(bytes("key7")));
+        assertArrayEquals(bytes("empty"), map.getBytes(bytes("")));
+        assertArrayEquals(new byte[0], map.getBytes(bytes("key6")));
+        assertNull(map.getBytes(bytes("key5")));
+        assertEquals(1000, map.entrySet().stream().count());
+        map.close();
+        assertThrows(IllegalStateException.class, () -> map.getBytes(bytes("key7")));
+      }
+
+      // Not a map file
+      Files.write(file, new byte[100]);
+      assertThrows(IOException.class, () -> OffHeapHashMap.open(file));
+    }finally{
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static byte[] bytes(String string){
+    return string.getBytes(StandardCharsets.UTF_8);
+  }
+}
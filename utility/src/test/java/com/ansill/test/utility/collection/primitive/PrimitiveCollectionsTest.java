@@ -0,0 +1,204 @@
+package com.ansill.test.utility.collection.primitive;
+
+import com.ansill.utility.collection.primitive.IntCursor;
+import com.ansill.utility.collection.primitive.IntHashSet;
+import com.ansill.utility.collection.primitive.IntIntCursor;
+import com.ansill.utility.collection.primitive.IntIntHashMap;
+import com.ansill.utility.collection.primitive.LongCursor;
+import com.ansill.utility.collection.primitive.LongHashSet;
+import com.ansill.utility.collection.primitive.LongObjectCursor;
+import com.ansill.utility.collection.primitive.LongObjectHashMap;
+import com.ansill.utility.collection.primitive.PrimitiveCollections;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveCollectionsTest{
+
+  @Test
+  void testIntHashSet(){
+
+    // Random operations mirrored on HashSet, small range so there are many collisions and removals
+    Random random = new Random(1);
+    IntHashSet set = new IntHashSet();
+    Set<Integer> expected = new HashSet<>();
+    for(int i = 0; i < 100_000; i++){
+      int value = random.nextInt(2000) - 1000;
+      if(random.nextInt(3) == 0) assertEquals(expected.remove(value), set.remove(value));
+      else assertEquals(expected.add(value), set.add(value));
+      assertEquals(expected.size(), set.size());
+    }
+    for(int value = -1100; value < 1100; value++) assertEquals(expected.contains(value), set.contains(value));
+
+    // Iterate
+    Set<Integer> iterated = new HashSet<>();
+    for(IntCursor cursor = set.cursor(); cursor.advance(); ) assertTrue(iterated.add(cursor.value()));
+    assertEquals(expected, iterated);
+    iterated.clear();
+    set.forEach(iterated::add);
+    assertEquals(expected, iterated);
+    assertEquals(expected.size(), set.toArray().length);
+    assertEquals(expected.hashCode(), set.hashCode());
+
+    // Clear
+    set.clear();
+    assertTrue(set.isEmpty());
+    assertFalse(set.cursor().advance());
+    assertFalse(set.contains(0));
+    assertThrows(IllegalArgumentException.class, () -> new IntHashSet(4, 1f));
+    assertThrows(IllegalArgumentException.class, () -> new IntHashSet(-1));
+    assertTrue(new IntHashSet(0).isEmpty());
+  }
+
+  @Test
+  void testLongHashSet(){
+
+    // Random operations mirrored on HashSet
+    Random random = new Random(2);
+    LongHashSet set = new LongHashSet(0);
+    Set<Long> expected = new HashSet<>();
+    for(int i = 0; i < 100_000; i++){
+      long value = (random.nextInt(2000) - 1000) * 0x1_0000_0001L;
+      if(random.nextInt(3) == 0) assertEquals(expected.remove(value), set.remove(value));
+      else assertEquals(expected.add(value), set.add(value));
+      assertEquals(expected.size(), set.size());
+    }
+
+    // Iterate
+    Set<Long> iterated = new HashSet<>();
+    for(LongCursor cursor = set.cursor(); cursor.advance(); ) assertTrue(iterated.add(cursor.value()));
+    assertEquals(expected, iterated);
+    assertEquals(expected.hashCode(), set.hashCode());
+    assertTrue(expected.stream().allMatch(set::contains));
+  }
+
+  @Test
+  void testIntIntHashMap(){
+
+    // Random operations mirrored on HashMap
+    Random random = new Random(3);
+    IntIntHashMap map = new IntIntHashMap(0, 0.5f, -1);
+    Map<Integer,Integer> expected = new HashMap<>();
+    for(int i = 0; i < 100_000; i++){
+      int key = random.nextInt(2000) - 1000;
+      int value = random.nextInt();
+      switch(random.nextInt(4)){
+        case 0:
+          assertEquals(expected.getOrDefault(key, -1).intValue(), map.remove(key));
+          expected.remove(key);
+          break;
+        case 1:
+          assertEquals(expected.merge(key, value, Integer::sum).intValue(), map.addTo(key, value));
+          break;
+        default:
+          Integer previous = expected.put(key, value);
+          assertEquals(previous == null ? -1 : previous, map.put(key, value));
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    for(int key = -1100; key < 1100; key++){
+      assertEquals(expected.containsKey(key), map.containsKey(key));
+      assertEquals(expected.getOrDefault(key, -1).intValue(), map.get(key));
+    }
+
+    // Iterate
+    Map<Integer,Integer> iterated = new HashMap<>();
+    for(IntIntCursor cursor = map.cursor(); cursor.advance(); ) iterated.put(cursor.key(), cursor.value());
+    assertEquals(expected, iterated);
+    iterated.clear();
+    map.forEach(iterated::put);
+    assertEquals(expected, iterated);
+    assertEquals(expected.hashCode(), map.hashCode());
+    assertEquals(-1, new IntIntHashMap(4, 0.75f, -1).get(5));
+    assertEquals(0, new IntIntHashMap().get(5));
+  }
+
+  @Test
+  void testLongObjectHashMap(){
+
+    // Random operations mirrored on HashMap
+    Random random = new Random(4);
+    LongObjectHashMap<String> map = new LongObjectHashMap<>();
+    Map<Long,String> expected = new HashMap<>();
+    for(int i = 0; i < 100_000; i++){
+      long key = random.nextInt(2000) - 1000L;
+      String value = random.nextInt(10) == 0 ? null : Integer.toString(random.nextInt());
+      switch(random.nextInt(4)){
+        case 0:
+          assertEquals(expected.remove(key), map.remove(key));
+          break;
+        case 1:
+          assertEquals(expected.computeIfAbsent(key, k -> "" + k), map.computeIfAbsent(key, k -> "" + k));
+          break;
+        default:
+          assertEquals(expected.put(key, value), map.put(key, value));
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    for(long key = -1100; key < 1100; key++){
+      assertEquals(expected.containsKey(key), map.containsKey(key));
+      assertEquals(expected.get(key), map.get(key));
+    }
+
+    // Iterate
+    Map<Long,String> iterated = new HashMap<>();
+    for(LongObjectCursor<String> cursor = map.cursor(); cursor.advance(); ) iterated.put(cursor.key(), cursor.value());
+    assertEquals(expected, iterated);
+    iterated.clear();
+    map.forEach(iterated::put);
+    assertEquals(expected, iterated);
+    assertEquals(expected.hashCode(), map.hashCode());
+
+    // Clear
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(0));
+  }
+
+  @Test
+  void testFactories(){
+
+    // As set
+    IntHashSet set = PrimitiveCollections.asIntSet(1, 2, 2, 0);
+    assertEquals(3, set.size());
+    assertEquals(PrimitiveCollections.asIntSet(0, 1, 2), set);
+    int[] values = set.toArray();
+    Arrays.sort(values);
+    assertArrayEquals(new int[]{0, 1, 2}, values);
+    assertEquals("[0, 1, 2]".length(), set.toString().length());
+    assertEquals(PrimitiveCollections.asLongSet(5L, 6L), PrimitiveCollections.asLongSet(6L, 5L, 5L));
+    assertTrue(PrimitiveCollections.asIntSet().isEmpty());
+    assertTrue(PrimitiveCollections.asLongSet().isEmpty());
+
+    // Nothing to add
+    IntHashSet nothing = new IntHashSet();
+    nothing.addAll(new int[0]);
+    nothing.ensureCapacity(0);
+    assertTrue(nothing.isEmpty());
+
+    // Union re-uses the only non-empty set
+    IntHashSet empty = new IntHashSet();
+    assertSame(set, PrimitiveCollections.union(empty, set));
+    assertSame(set, PrimitiveCollections.union(set, empty, new IntHashSet()));
+
+    // Union copies otherwise
+    IntHashSet other = PrimitiveCollections.asIntSet(2, 3);
+    IntHashSet united = PrimitiveCollections.union(set, empty, other);
+    assertNotSame(set, united);
+    assertEquals(PrimitiveCollections.asIntSet(0, 1, 2, 3), united);
+    assertEquals(3, set.size());
+    LongHashSet unitedLong = PrimitiveCollections.union(
+      PrimitiveCollections.asLongSet(1L),
+      PrimitiveCollections.asLongSet(2L),
+      PrimitiveCollections.asLongSet(1L, 3L)
+    );
+    assertEquals(PrimitiveCollections.asLongSet(1L, 2L, 3L), unitedLong);
+  }
+}